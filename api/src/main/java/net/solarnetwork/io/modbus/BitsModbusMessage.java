@@ -30,7 +30,7 @@ import java.util.BitSet;
  * range.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface BitsModbusMessage extends AddressedModbusMessage {
 
@@ -87,4 +87,90 @@ public interface BitsModbusMessage extends AddressedModbusMessage {
 		return BitSet.valueOf(bits.toByteArray());
 	}
 
+	/**
+	 * Copy the bits data into an existing {@code BitSet}.
+	 *
+	 * <p>
+	 * Each of the {@link #getCount()} bits is set or cleared in {@code dest},
+	 * starting at {@code offset}. This allows a caller to reuse the same set
+	 * for many messages.
+	 * </p>
+	 *
+	 * @param dest
+	 *        the set to copy the bits into
+	 * @param offset
+	 *        the index within {@code dest} to copy the first bit into
+	 * @return the number of bits copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code offset} is negative
+	 * @since 1.1
+	 */
+	default int toBitSet(BitSet dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		BigInteger bits = getBits();
+		if ( bits == null ) {
+			return 0;
+		}
+		final int count = getCount();
+		for ( int i = 0; i < count; i++ ) {
+			dest.set(offset + i, bits.testBit(i));
+		}
+		return count;
+	}
+
+	/**
+	 * Get a {@code boolean} array for the bits data.
+	 *
+	 * @return the new array, with a length of {@link #getCount()}, or
+	 *         {@literal null} if {@link #getBits()} returns {@literal null}
+	 * @since 1.1
+	 */
+	default boolean[] toBooleanArray() {
+		if ( getBits() == null ) {
+			return null;
+		}
+		boolean[] result = new boolean[getCount()];
+		toBooleanArray(result, 0);
+		return result;
+	}
+
+	/**
+	 * Copy the bits data into an existing {@code boolean} array.
+	 *
+	 * @param dest
+	 *        the array to copy the bits into
+	 * @param offset
+	 *        the index within {@code dest} to copy the first bit into
+	 * @return the number of bits copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code dest} does not have room for {@link #getCount()} values
+	 *         starting at {@code offset}
+	 * @since 1.1
+	 */
+	default int toBooleanArray(boolean[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		BigInteger bits = getBits();
+		if ( bits == null ) {
+			return 0;
+		}
+		final int count = getCount();
+		if ( offset < 0 || offset + count > dest.length ) {
+			throw new IndexOutOfBoundsException(
+					String.format("Cannot copy %d bits at offset %d into array of length %d.", count,
+							offset, dest.length));
+		}
+		for ( int i = 0; i < count; i++ ) {
+			dest[offset + i] = bits.testBit(i);
+		}
+		return count;
+	}
+
 }
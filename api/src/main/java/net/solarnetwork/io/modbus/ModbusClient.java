@@ -22,13 +22,19 @@
 
 package net.solarnetwork.io.modbus;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * API for a Modbus client application.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface ModbusClient {
 
@@ -120,6 +126,264 @@ public interface ModbusClient {
 	 */
 	CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request);
 
+	/**
+	 * Send a request and receive a response, asynchronously, with a specific
+	 * response timeout.
+	 * 
+	 * <p>
+	 * If no response is received within the given timeout, the returned future
+	 * will be completed exceptionally with a {@link ModbusTimeoutException}.
+	 * This default implementation ignores the timeout and calls
+	 * {@link #sendAsync(ModbusMessage)}.
+	 * </p>
+	 * 
+	 * @param request
+	 *        the request to send
+	 * @param timeout
+	 *        the maximum amount of time to wait for the response, or
+	 *        {@literal 0} for no timeout
+	 * @param unit
+	 *        the timeout unit
+	 * @return the response future
+	 * @since 1.1
+	 */
+	default CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request, long timeout,
+			TimeUnit unit) {
+		return sendAsync(request);
+	}
+
+	/**
+	 * Send a batch of requests and receive their responses, asynchronously.
+	 * 
+	 * <p>
+	 * Implementations may write the requests to the network together, which
+	 * can be more efficient than calling {@link #sendAsync(ModbusMessage)} for
+	 * each request. This default implementation simply calls
+	 * {@link #sendAsync(ModbusMessage)} for each request.
+	 * </p>
+	 * 
+	 * @param requests
+	 *        the requests to send
+	 * @return the response futures, in the same order as {@code requests}
+	 * @throws IllegalArgumentException
+	 *         if {@code requests} is {@literal null}
+	 * @since 1.1
+	 */
+	default List<CompletableFuture<ModbusMessage>> sendAllAsync(
+			Collection<ModbusMessage> requests) {
+		if ( requests == null ) {
+			throw new IllegalArgumentException("The requests argument must not be null.");
+		}
+		List<CompletableFuture<ModbusMessage>> result = new ArrayList<>(requests.size());
+		for ( ModbusMessage request : requests ) {
+			result.add(sendAsync(request));
+		}
+		return result;
+	}
+
+	/**
+	 * Release any resources held by a response returned by this client.
+	 *
+	 * <p>
+	 * Some implementations can return responses that hold pooled or
+	 * reference-counted resources, for example when
+	 * {@link ModbusClientConfig#isRetainResponseBuffers()} is enabled. Every
+	 * response handed to a caller must then be released by that caller once no
+	 * longer needed, and this method does that for any response of this
+	 * client. Releasing a response that holds no such resources, or a
+	 * {@literal null} response, does nothing. This default implementation does
+	 * nothing.
+	 * </p>
+	 *
+	 * @param response
+	 *        the response to release
+	 * @since 1.1
+	 */
+	default void releaseResponse(ModbusMessage response) {
+		// nothing to release
+	}
+
+	/**
+	 * Send a read holding or input registers request and decode the response
+	 * data into an existing array, asynchronously.
+	 *
+	 * <p>
+	 * This allows a caller polling the same registers many times to reuse one
+	 * array, rather than have a new array allocated for each response. If the
+	 * response is a Modbus error, or does not contain register data, the
+	 * returned future is completed exceptionally with a
+	 * {@link ModbusException}.
+	 * </p>
+	 *
+	 * @param request
+	 *        the request to send
+	 * @param dest
+	 *        the array to decode the register data into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @return a future that completes with the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @see RegistersModbusMessage#dataDecode(short[], int)
+	 * @since 1.1
+	 */
+	default CompletableFuture<Integer> readRegistersAsync(ModbusMessage request, short[] dest,
+			int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		return sendAsync(request).thenApply(res -> {
+			try {
+				return responseMessage(request, res, RegistersModbusMessage.class)
+						.dataDecode(dest, offset);
+			} finally {
+				releaseResponse(res);
+			}
+		});
+	}
+
+	/**
+	 * Send a read holding or input registers request and decode the response
+	 * data as unsigned values into an existing array, asynchronously.
+	 *
+	 * <p>
+	 * If the response is a Modbus error, or does not contain register data,
+	 * the returned future is completed exceptionally with a
+	 * {@link ModbusException}.
+	 * </p>
+	 *
+	 * @param request
+	 *        the request to send
+	 * @param dest
+	 *        the array to decode the register data into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @return a future that completes with the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @see RegistersModbusMessage#dataDecodeUnsigned(int[], int)
+	 * @since 1.1
+	 */
+	default CompletableFuture<Integer> readRegistersUnsignedAsync(ModbusMessage request,
+			int[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		return sendAsync(request).thenApply(res -> {
+			try {
+				return responseMessage(request, res, RegistersModbusMessage.class)
+						.dataDecodeUnsigned(dest, offset);
+			} finally {
+				releaseResponse(res);
+			}
+		});
+	}
+
+	/**
+	 * Send a read holding or input registers request and copy the raw response
+	 * data into an existing buffer, asynchronously.
+	 *
+	 * <p>
+	 * The data is written at the current position of {@code dest}. If the
+	 * response is a Modbus error, or does not contain register data, the
+	 * returned future is completed exceptionally with a
+	 * {@link ModbusException}.
+	 * </p>
+	 *
+	 * @param request
+	 *        the request to send
+	 * @param dest
+	 *        the buffer to copy the register data into
+	 * @return a future that completes with the number of registers copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @see RegistersModbusMessage#dataCopy(ByteBuffer)
+	 * @since 1.1
+	 */
+	default CompletableFuture<Integer> readRegistersAsync(ModbusMessage request,
+			ByteBuffer dest) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		return sendAsync(request).thenApply(res -> {
+			try {
+				return responseMessage(request, res, RegistersModbusMessage.class).dataCopy(dest);
+			} finally {
+				releaseResponse(res);
+			}
+		});
+	}
+
+	/**
+	 * Send a read coils or discrete inputs request and copy the response bits
+	 * into an existing {@code BitSet}, asynchronously.
+	 *
+	 * <p>
+	 * If the response is a Modbus error, or does not contain bits data, the
+	 * returned future is completed exceptionally with a
+	 * {@link ModbusException}.
+	 * </p>
+	 *
+	 * @param request
+	 *        the request to send
+	 * @param dest
+	 *        the set to copy the bits into
+	 * @param offset
+	 *        the index within {@code dest} to copy the first bit into
+	 * @return a future that completes with the number of bits copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @see BitsModbusMessage#toBitSet(BitSet, int)
+	 * @since 1.1
+	 */
+	default CompletableFuture<Integer> readBitsAsync(ModbusMessage request, BitSet dest,
+			int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		return sendAsync(request).thenApply(res -> {
+			try {
+				return responseMessage(request, res, BitsModbusMessage.class).toBitSet(dest, offset);
+			} finally {
+				releaseResponse(res);
+			}
+		});
+	}
+
+	/**
+	 * Get a response as a specific message type.
+	 *
+	 * @param <T>
+	 *        the message type
+	 * @param request
+	 *        the request
+	 * @param response
+	 *        the response
+	 * @param type
+	 *        the message type
+	 * @return the response as {@code type}, never {@literal null}
+	 * @throws ModbusException
+	 *         if {@code response} is {@literal null}, an error, or not
+	 *         {@code type}
+	 * @since 1.1
+	 */
+	static <T extends ModbusMessage> T responseMessage(ModbusMessage request,
+			ModbusMessage response, Class<T> type) {
+		if ( response == null ) {
+			throw new ModbusException(String.format("No response to %s.", request));
+		}
+		if ( response.isException() ) {
+			throw new ModbusException(String.format("Request %s returned error %s.", request,
+					response.getError()));
+		}
+		T result = response.unwrap(type);
+		if ( result == null ) {
+			throw new ModbusException(String.format("Unexpected response %s to %s.", response,
+					request));
+		}
+		return result;
+	}
+
 	/**
 	 * Configure a connection observer.
 	 * 
@@ -26,7 +26,7 @@ package net.solarnetwork.io.modbus;
  * API for Modbus client configuration.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public interface ModbusClientConfig {
 
@@ -85,4 +85,161 @@ public interface ModbusClientConfig {
 	default long getSendMinimumDelayMs() {
 		return 0L;
 	}
+
+	/**
+	 * Get the maximum number of requests that can be outstanding (sent but
+	 * without a response) at once.
+	 * 
+	 * <p>
+	 * Requests submitted while this many requests are outstanding will be
+	 * queued until a response is received for an outstanding request.
+	 * </p>
+	 *
+	 * @return the maximum number of outstanding requests, or anything less than
+	 *         {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	default int getMaxInFlightRequests() {
+		return 0;
+	}
+
+	/**
+	 * Get the maximum number of requests that can be queued waiting to be sent.
+	 * 
+	 * <p>
+	 * Requests submitted while this many requests are already queued will be
+	 * rejected.
+	 * </p>
+	 *
+	 * @return the maximum number of queued requests, or anything less than
+	 *         {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	default int getMaxQueuedRequests() {
+		return 0;
+	}
+
+	/**
+	 * Get the maximum number of requests to a specific unit ID that can be
+	 * outstanding (sent but without a response) at once.
+	 * 
+	 * <p>
+	 * When any unit has a limit, requests are queued per unit ID and sent in
+	 * round-robin order across units, so that a slow unit cannot hold up
+	 * requests to other units sharing the same connection. A limit of
+	 * {@literal 1} is typical for units behind a serial gateway.
+	 * </p>
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @return the maximum number of outstanding requests to the unit, or
+	 *         anything less than {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	default int getUnitMaxInFlightRequests(int unitId) {
+		return 0;
+	}
+
+	/**
+	 * Get the adaptive in-flight limit mode.
+	 * 
+	 * <p>
+	 * When enabled, the number of requests allowed to be outstanding at once
+	 * is adjusted automatically based on observed response latency and
+	 * timeouts, up to {@link #getMaxInFlightRequests()} if that is configured.
+	 * </p>
+	 *
+	 * @return {@literal true} to adapt the in-flight request limit to observed
+	 *         latency
+	 * @since 1.2
+	 */
+	default boolean isAdaptiveInFlightLimit() {
+		return false;
+	}
+
+	/**
+	 * Get the read deduplication mode.
+	 * 
+	 * <p>
+	 * When enabled, a read request identical to one already in flight (the
+	 * same unit ID, function, address, and count) is not sent, and instead
+	 * completes with the response to the request already in flight.
+	 * </p>
+	 *
+	 * @return {@literal true} to deduplicate identical in-flight read requests
+	 * @since 1.2
+	 */
+	default boolean isDeduplicateReads() {
+		return false;
+	}
+
+	/**
+	 * Get the retain response buffers mode.
+	 * 
+	 * <p>
+	 * When enabled, and supported by the client, register read responses hold
+	 * a reference to the network buffer they were received in rather than a
+	 * copy of the register data. Such responses are reference counted, and
+	 * <b>must</b> be released by the caller once no longer needed, for example
+	 * via {@link ModbusClient#releaseResponse(ModbusMessage)}. Every caller
+	 * gets its own reference, including callers sharing one response via
+	 * {@link #isDeduplicateReads()}, so each must release its response
+	 * once.
+	 * </p>
+	 *
+	 * @return {@literal true} to retain response data in network buffers
+	 * @since 1.2
+	 */
+	default boolean isRetainResponseBuffers() {
+		return false;
+	}
+
+	/**
+	 * Get the pooled messages mode.
+	 * 
+	 * <p>
+	 * When enabled, and supported by the client, the internal objects used to
+	 * track and frame each request, such as the in-flight request state and
+	 * protocol wrapper messages, are recycled through an object pool rather
+	 * than allocated for every request. This is transparent to callers: the
+	 * messages passed to and returned from the client are never pooled.
+	 * </p>
+	 *
+	 * @return {@literal true} to recycle internal message objects
+	 * @since 1.2
+	 */
+	default boolean isPooledMessages() {
+		return false;
+	}
+
+	/**
+	 * Get the maximum rate of sending messages, in messages per second.
+	 * 
+	 * <p>
+	 * Messages submitted faster than this rate will be queued and sent once
+	 * the rate allows.
+	 * </p>
+	 *
+	 * @return the maximum number of messages to send per second, or anything
+	 *         less than {@literal 1} for no limit
+	 * @see #getSendRateBurst()
+	 * @since 1.2
+	 */
+	default int getSendRateLimit() {
+		return 0;
+	}
+
+	/**
+	 * Get the number of messages that can be sent at once, without waiting, when
+	 * a send rate limit is configured.
+	 *
+	 * @return the maximum burst size; anything less than {@literal 1} is
+	 *         treated as {@literal 1}
+	 * @see #getSendRateLimit()
+	 * @since 1.2
+	 */
+	default int getSendRateBurst() {
+		return 1;
+	}
+
 }
@@ -22,6 +22,7 @@
 
 package net.solarnetwork.io.modbus;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -30,7 +31,7 @@ import java.nio.charset.StandardCharsets;
  * address range.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public interface RegistersModbusMessage extends AddressedModbusMessage {
 
@@ -62,6 +63,100 @@ public interface RegistersModbusMessage extends AddressedModbusMessage {
 	 */
 	int[] dataDecodeUnsigned();
 
+	/**
+	 * Copy the raw register data into a buffer.
+	 *
+	 * <p>
+	 * The data is written at the current position of {@code dest}, which is
+	 * advanced past the copied data. This default implementation copies the
+	 * result of {@link #dataCopy()}.
+	 * </p>
+	 *
+	 * @param dest
+	 *        the buffer to copy the data into
+	 * @return the number of registers copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws java.nio.BufferOverflowException
+	 *         if {@code dest} does not have enough space remaining
+	 * @since 1.2
+	 */
+	default int dataCopy(ByteBuffer dest) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		byte[] data = dataCopy();
+		if ( data == null ) {
+			return 0;
+		}
+		dest.put(data);
+		return data.length / 2;
+	}
+
+	/**
+	 * Decode the register data as signed 16-bit values into an existing array.
+	 *
+	 * <p>
+	 * This allows a caller to reuse the same array for many messages. This
+	 * default implementation copies the result of {@link #dataDecode()}.
+	 * </p>
+	 *
+	 * @param dest
+	 *        the array to decode the data into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @return the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code dest} does not have enough space from {@code offset}
+	 * @since 1.2
+	 */
+	default int dataDecode(short[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		short[] data = dataDecode();
+		if ( data == null ) {
+			return 0;
+		}
+		System.arraycopy(data, 0, dest, offset, data.length);
+		return data.length;
+	}
+
+	/**
+	 * Decode the register data as unsigned 16-bit values into an existing
+	 * array.
+	 *
+	 * <p>
+	 * This allows a caller to reuse the same array for many messages. This
+	 * default implementation copies the result of
+	 * {@link #dataDecodeUnsigned()}.
+	 * </p>
+	 *
+	 * @param dest
+	 *        the array to decode the data into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @return the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code dest} does not have enough space from {@code offset}
+	 * @since 1.2
+	 */
+	default int dataDecodeUnsigned(int[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		int[] data = dataDecodeUnsigned();
+		if ( data == null ) {
+			return 0;
+		}
+		System.arraycopy(data, 0, dest, offset, data.length);
+		return data.length;
+	}
+
 	/**
 	 * Get the register data as a string.
 	 *
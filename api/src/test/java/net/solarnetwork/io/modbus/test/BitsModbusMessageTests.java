@@ -27,7 +27,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.BitSet;
 import org.junit.jupiter.api.Test;
 import net.solarnetwork.io.modbus.BitsModbusMessage;
@@ -39,7 +41,7 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * Test cases for the {@link BitsModbusMessage} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class BitsModbusMessageTests {
 
@@ -69,6 +71,10 @@ public class BitsModbusMessageTests {
 	}
 
 	private BitsModbusMessage msg(BigInteger bits) {
+		return msg(bits, 0);
+	}
+
+	private BitsModbusMessage msg(BigInteger bits, int count) {
 		return new BitsModbusMessage() {
 
 			@Override
@@ -98,7 +104,7 @@ public class BitsModbusMessageTests {
 
 			@Override
 			public int getCount() {
-				return 0;
+				return count;
 			}
 
 			@Override
@@ -171,4 +177,87 @@ public class BitsModbusMessageTests {
 		assertThat("BitSet not generated if bits are null", set, is(nullValue()));
 	}
 
+	@Test
+	public void toBitSet_dest() {
+		// GIVEN
+		BitsModbusMessage msg = msg(new BigInteger("1101", 2), 5);
+		BitSet dest = new BitSet();
+		dest.set(0, 8);
+
+		// WHEN
+		int result = msg.toBitSet(dest, 2);
+
+		// THEN
+		assertThat("Bit count returned", result, is(equalTo(5)));
+		BitSet expected = new BitSet();
+		expected.set(0, 2);
+		expected.set(2);
+		expected.set(4);
+		expected.set(5);
+		expected.set(7);
+		assertThat("Bits copied at offset, with unset bits cleared", dest, is(equalTo(expected)));
+	}
+
+	@Test
+	public void toBitSet_dest_noData() {
+		// GIVEN
+		BitsModbusMessage msg = msg(null, 5);
+		BitSet dest = new BitSet();
+
+		// WHEN
+		int result = msg.toBitSet(dest, 0);
+
+		// THEN
+		assertThat("No bits copied", result, is(equalTo(0)));
+		assertThat("Set unchanged", dest.isEmpty(), is(equalTo(true)));
+	}
+
+	@Test
+	public void toBitSet_dest_null() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			msg(BigInteger.ONE, 1).toBitSet(null, 0);
+		}, "Null dest not allowed");
+	}
+
+	@Test
+	public void toBooleanArray() {
+		// GIVEN
+		BitsModbusMessage msg = msg(new BigInteger("1101", 2), 5);
+
+		// WHEN
+		boolean[] result = msg.toBooleanArray();
+
+		// THEN
+		assertThat("Array generated for count", Arrays.equals(result,
+				new boolean[] { true, false, true, true, false }), is(equalTo(true)));
+	}
+
+	@Test
+	public void toBooleanArray_null() {
+		assertThat("Array not generated if bits are null", msg(null, 5).toBooleanArray(),
+				is(nullValue()));
+	}
+
+	@Test
+	public void toBooleanArray_dest() {
+		// GIVEN
+		BitsModbusMessage msg = msg(new BigInteger("101", 2), 3);
+		boolean[] dest = new boolean[] { true, true, true, true, true };
+
+		// WHEN
+		int result = msg.toBooleanArray(dest, 1);
+
+		// THEN
+		assertThat("Bit count returned", result, is(equalTo(3)));
+		assertThat("Bits copied at offset", Arrays.equals(dest,
+				new boolean[] { true, true, false, true, true }), is(equalTo(true)));
+	}
+
+	@Test
+	public void toBooleanArray_dest_tooSmall() {
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			msg(BigInteger.ONE, 3).toBooleanArray(new boolean[3], 1);
+		}, "Destination without enough space not allowed");
+	}
+
 }
@@ -32,7 +32,7 @@ import net.solarnetwork.io.modbus.ModbusClientConfig;
  * Test cases for the {@link ModbusClientConfig} interface.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class ModbusClientConfigTests {
 
@@ -83,4 +83,112 @@ public class ModbusClientConfigTests {
 		assertThat("Result from default method is 0.", result, is(equalTo(0L)));
 	}
 
+	@Test
+	public void maxInFlightRequests() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		int result = config.getMaxInFlightRequests();
+
+		// THEN
+		assertThat("Result from default method is 0.", result, is(equalTo(0)));
+	}
+
+	@Test
+	public void maxQueuedRequests() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		int result = config.getMaxQueuedRequests();
+
+		// THEN
+		assertThat("Result from default method is 0.", result, is(equalTo(0)));
+	}
+
+	@Test
+	public void sendRateLimit() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		int result = config.getSendRateLimit();
+
+		// THEN
+		assertThat("Result from default method is 0.", result, is(equalTo(0)));
+	}
+
+	@Test
+	public void sendRateBurst() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		int result = config.getSendRateBurst();
+
+		// THEN
+		assertThat("Result from default method is 1.", result, is(equalTo(1)));
+	}
+
+	@Test
+	public void unitMaxInFlightRequests() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		int result = config.getUnitMaxInFlightRequests(1);
+
+		// THEN
+		assertThat("Result from default method is 0.", result, is(equalTo(0)));
+	}
+
+	@Test
+	public void adaptiveInFlightLimit() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		boolean result = config.isAdaptiveInFlightLimit();
+
+		// THEN
+		assertThat("Result from default method is false.", result, is(equalTo(false)));
+	}
+
+	@Test
+	public void deduplicateReads() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		boolean result = config.isDeduplicateReads();
+
+		// THEN
+		assertThat("Result from default method is false.", result, is(equalTo(false)));
+	}
+
+	@Test
+	public void retainResponseBuffers() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		boolean result = config.isRetainResponseBuffers();
+
+		// THEN
+		assertThat("Result from default method is false.", result, is(equalTo(false)));
+	}
+
+	@Test
+	public void pooledMessages() {
+		// GIVEN
+		ModbusClientConfig config = new TestModbusClientConfig();
+
+		// WHEN
+		boolean result = config.isPooledMessages();
+
+		// THEN
+		assertThat("Result from default method is false.", result, is(equalTo(false)));
+	}
+
 }
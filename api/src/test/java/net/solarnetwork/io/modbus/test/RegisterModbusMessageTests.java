@@ -26,7 +26,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 import net.solarnetwork.io.modbus.ModbusByteUtils;
 import net.solarnetwork.io.modbus.ModbusError;
@@ -38,7 +41,7 @@ import net.solarnetwork.io.modbus.RegistersModbusMessage;
  * Test cases for the {@link RegistersModbusMessage} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RegisterModbusMessageTests {
 
@@ -210,4 +213,76 @@ public class RegisterModbusMessageTests {
 		assertThat("UTF-16LE string extracted", r, is(equalTo(src)));
 	}
 
+	@Test
+	public void dataDecode_dest() {
+		// GIVEN
+		RegistersModbusMessage msg = msg(new byte[] { 0x01, 0x02, (byte) 0xFF, (byte) 0xFE });
+		short[] dest = new short[4];
+
+		// WHEN
+		int result = msg.dataDecode(dest, 1);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Registers decoded at offset", Arrays.equals(dest,
+				new short[] { 0, 0x0102, (short) 0xFFFE, 0 }), is(equalTo(true)));
+	}
+
+	@Test
+	public void dataDecode_dest_tooSmall() {
+		// GIVEN
+		RegistersModbusMessage msg = msg(new byte[] { 0x01, 0x02, 0x03, 0x04 });
+
+		// THEN
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			msg.dataDecode(new short[2], 1);
+		}, "Destination without enough space not allowed");
+	}
+
+	@Test
+	public void dataDecodeUnsigned_dest() {
+		// GIVEN
+		RegistersModbusMessage msg = msg(new byte[] { 0x01, 0x02, (byte) 0xFF, (byte) 0xFE });
+		int[] dest = new int[2];
+
+		// WHEN
+		int result = msg.dataDecodeUnsigned(dest, 0);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Registers decoded", Arrays.equals(dest, new int[] { 0x0102, 0xFFFE }),
+				is(equalTo(true)));
+	}
+
+	@Test
+	public void dataCopy_buffer() {
+		// GIVEN
+		RegistersModbusMessage msg = msg(new byte[] { 0x01, 0x02, 0x03, 0x04 });
+		ByteBuffer dest = ByteBuffer.allocate(6);
+		dest.put((byte) 0x09);
+
+		// WHEN
+		int result = msg.dataCopy(dest);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Buffer position advanced", dest.position(), is(equalTo(5)));
+		assertThat("Data copied after existing content", Arrays.equals(dest.array(),
+				new byte[] { 0x09, 0x01, 0x02, 0x03, 0x04, 0x00 }), is(equalTo(true)));
+	}
+
+	@Test
+	public void dataCopy_buffer_noData() {
+		// GIVEN
+		RegistersModbusMessage msg = msg(null);
+		ByteBuffer dest = ByteBuffer.allocate(2);
+
+		// WHEN
+		int result = msg.dataCopy(dest);
+
+		// THEN
+		assertThat("No registers copied", result, is(equalTo(0)));
+		assertThat("Buffer position unchanged", dest.position(), is(equalTo(0)));
+	}
+
 }
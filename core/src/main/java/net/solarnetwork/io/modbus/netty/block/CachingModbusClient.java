@@ -0,0 +1,667 @@
+/* ==================================================================
+ * CachingModbusClient.java - 18/10/2026 12:06:41 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.ReadWriteRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * A {@link ModbusClient} that caches read responses from another client for a
+ * fixed time.
+ *
+ * <p>
+ * Successful responses to read coils, discrete inputs, holding registers and
+ * input registers requests are cached per unit ID and block type. A read of a
+ * range that is wholly covered by a cached, unexpired response is completed
+ * from the cache without sending a request; the response holds just the
+ * requested range. Error responses and failed requests are not cached.
+ * Responses are handed to the caller as they are, and one holding its data in
+ * a reference-counted buffer is copied before it is cached, so callers release
+ * their responses as they would with the delegate client.
+ * </p>
+ *
+ * <p>
+ * Write coil(s), write holding register(s), mask write holding register and
+ * read/write holding registers requests sent through this client invalidate
+ * any cached responses overlapping the written addresses, both when the write
+ * is sent and when it completes. A read that was in flight when a write to the
+ * same unit ID and block type was sent is not cached. Writes made to the
+ * device by other means are not seen, so the time to live should be no longer
+ * than the time stale data can be tolerated.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class CachingModbusClient implements ModbusClient {
+
+	private final ModbusClient delegate;
+	private final long ttlNanos;
+	private final ConcurrentMap<CacheKey, CacheBlock> cache = new ConcurrentHashMap<>(8, 0.9f, 2);
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 *        the client to send requests with
+	 * @param ttl
+	 *        the time to keep read responses for
+	 * @param unit
+	 *        the {@code ttl} time unit
+	 * @throws IllegalArgumentException
+	 *         if {@code delegate} or {@code unit} is {@literal null}, or
+	 *         {@code ttl} is less than {@literal 1}
+	 */
+	public CachingModbusClient(ModbusClient delegate, long ttl, TimeUnit unit) {
+		super();
+		if ( delegate == null ) {
+			throw new IllegalArgumentException("The delegate argument must not be null.");
+		}
+		this.delegate = delegate;
+		if ( unit == null ) {
+			throw new IllegalArgumentException("The unit argument must not be null.");
+		}
+		if ( ttl < 1 ) {
+			throw new IllegalArgumentException("The ttl argument must be greater than 0.");
+		}
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	@Override
+	public ModbusClientConfig getClientConfig() {
+		return delegate.getClientConfig();
+	}
+
+	@Override
+	public CompletableFuture<?> start() {
+		return delegate.start();
+	}
+
+	@Override
+	public boolean isStarted() {
+		return delegate.isStarted();
+	}
+
+	@Override
+	public CompletableFuture<?> stop() {
+		invalidateAll();
+		return delegate.stop();
+	}
+
+	@Override
+	public boolean isConnected() {
+		return delegate.isConnected();
+	}
+
+	@Override
+	public void setConnectionObserver(ModbusClientConnectionObserver connectionObserver) {
+		delegate.setConnectionObserver(connectionObserver);
+	}
+
+	@Override
+	public ModbusMessage send(ModbusMessage request) {
+		final ModbusBlockRange read = readRange(request);
+		if ( read != null ) {
+			final CacheBlock block = block(request.getUnitId(), read.getBlockType());
+			final ModbusMessage cached = block.get(request.getUnitId(), read);
+			if ( cached != null ) {
+				hitCount.incrementAndGet();
+				return cached;
+			}
+			missCount.incrementAndGet();
+			final long generation = block.generation();
+			final ModbusMessage res = delegate.send(request);
+			block.put(read, res, generation);
+			return res;
+		}
+		final ModbusBlockRange write = writeRange(request);
+		if ( write != null ) {
+			invalidate(request.getUnitId(), write);
+			try {
+				return delegate.send(request);
+			} finally {
+				invalidate(request.getUnitId(), write);
+			}
+		}
+		return delegate.send(request);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+		return sendAsync(request, delegate::sendAsync);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request, long timeout,
+			TimeUnit unit) {
+		return sendAsync(request, r -> delegate.sendAsync(r, timeout, unit));
+	}
+
+	private CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request,
+			Function<ModbusMessage, CompletableFuture<ModbusMessage>> sender) {
+		final ModbusBlockRange read = readRange(request);
+		if ( read != null ) {
+			final CacheBlock block = block(request.getUnitId(), read.getBlockType());
+			final ModbusMessage cached = block.get(request.getUnitId(), read);
+			if ( cached != null ) {
+				hitCount.incrementAndGet();
+				return CompletableFuture.completedFuture(cached);
+			}
+			missCount.incrementAndGet();
+			final long generation = block.generation();
+			return cacheOnComplete(sender.apply(request), block, read, generation);
+		}
+		final ModbusBlockRange write = writeRange(request);
+		if ( write != null ) {
+			invalidate(request.getUnitId(), write);
+			final CompletableFuture<ModbusMessage> f = sender.apply(request);
+			f.whenComplete((r, t) -> invalidate(request.getUnitId(), write));
+			return f;
+		}
+		return sender.apply(request);
+	}
+
+	/**
+	 * Cache a response before it is handed to the caller.
+	 *
+	 * <p>
+	 * The response is cached before the returned future completes, because the
+	 * caller may release the response as soon as it has it. Cancelling the
+	 * returned future cancels the request.
+	 * </p>
+	 *
+	 * @param f
+	 *        the request future
+	 * @param block
+	 *        the block to cache the response in
+	 * @param read
+	 *        the range read by the request
+	 * @param generation
+	 *        the block generation when the request was sent
+	 * @return the future to hand to the caller
+	 */
+	private CompletableFuture<ModbusMessage> cacheOnComplete(CompletableFuture<ModbusMessage> f,
+			CacheBlock block, ModbusBlockRange read, long generation) {
+		final CompletableFuture<ModbusMessage> result = f.thenApply(res -> {
+			block.put(read, res, generation);
+			return res;
+		});
+		result.whenComplete((r, t) -> {
+			if ( result.isCancelled() ) {
+				f.cancel(false);
+				// a response that arrived anyway is not handed to anyone
+				f.thenAccept(delegate::releaseResponse);
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public void releaseResponse(ModbusMessage response) {
+		delegate.releaseResponse(response);
+	}
+
+	@Override
+	public List<CompletableFuture<ModbusMessage>> sendAllAsync(Collection<ModbusMessage> requests) {
+		if ( requests == null ) {
+			throw new IllegalArgumentException("The requests argument must not be null.");
+		}
+		final List<CompletableFuture<ModbusMessage>> result = new ArrayList<>(requests.size());
+		final List<ModbusMessage> toSend = new ArrayList<>(requests.size());
+		final List<Integer> toSendIndexes = new ArrayList<>(requests.size());
+		final long[] generations = new long[requests.size()];
+		for ( ModbusMessage request : requests ) {
+			final ModbusBlockRange read = readRange(request);
+			if ( read != null ) {
+				final CacheBlock block = block(request.getUnitId(), read.getBlockType());
+				final ModbusMessage cached = block.get(request.getUnitId(), read);
+				if ( cached != null ) {
+					hitCount.incrementAndGet();
+					result.add(CompletableFuture.completedFuture(cached));
+					continue;
+				}
+				missCount.incrementAndGet();
+				generations[result.size()] = block.generation();
+			} else {
+				final ModbusBlockRange write = writeRange(request);
+				if ( write != null ) {
+					invalidate(request.getUnitId(), write);
+				}
+			}
+			toSendIndexes.add(result.size());
+			toSend.add(request);
+			result.add(null);
+		}
+		if ( toSend.isEmpty() ) {
+			return result;
+		}
+		final List<CompletableFuture<ModbusMessage>> sent = delegate.sendAllAsync(toSend);
+		for ( int i = 0, len = toSend.size(); i < len; i++ ) {
+			final ModbusMessage request = toSend.get(i);
+			final int idx = toSendIndexes.get(i);
+			final CompletableFuture<ModbusMessage> f = sent.get(i);
+			final ModbusBlockRange read = readRange(request);
+			if ( read != null ) {
+				final CacheBlock block = block(request.getUnitId(), read.getBlockType());
+				result.set(idx, cacheOnComplete(f, block, read, generations[idx]));
+				continue;
+			}
+			final ModbusBlockRange write = writeRange(request);
+			if ( write != null ) {
+				f.whenComplete((r, t) -> invalidate(request.getUnitId(), write));
+			}
+			result.set(idx, f);
+		}
+		return result;
+	}
+
+	/**
+	 * Discard all cached responses.
+	 */
+	public void invalidateAll() {
+		for ( CacheBlock block : cache.values() ) {
+			block.invalidate(null);
+		}
+	}
+
+	/**
+	 * Discard cached responses overlapping a range.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param range
+	 *        the range to discard
+	 * @throws IllegalArgumentException
+	 *         if {@code range} is {@literal null}
+	 */
+	public void invalidate(int unitId, ModbusBlockRange range) {
+		if ( range == null ) {
+			throw new IllegalArgumentException("The range argument must not be null.");
+		}
+		final CacheBlock block = cache.get(new CacheKey(unitId, range.getBlockType()));
+		if ( block != null ) {
+			block.invalidate(range);
+		}
+	}
+
+	private CacheBlock block(int unitId, ModbusBlockType type) {
+		return cache.computeIfAbsent(new CacheKey(unitId, type), k -> new CacheBlock());
+	}
+
+	/**
+	 * Get the range read by a cacheable request.
+	 *
+	 * @param request
+	 *        the request
+	 * @return the range, or {@literal null} if {@code request} is not a
+	 *         cacheable read
+	 */
+	private static ModbusBlockRange readRange(ModbusMessage request) {
+		if ( request == null ) {
+			return null;
+		}
+		final ModbusFunctionCode fn = request.getFunction().functionCode();
+		if ( fn == null ) {
+			return null;
+		}
+		switch (fn) {
+			case ReadCoils:
+			case ReadDiscreteInputs:
+			case ReadHoldingRegisters:
+			case ReadInputRegisters:
+				break;
+
+			default:
+				return null;
+		}
+		final AddressedModbusMessage a = request.unwrap(AddressedModbusMessage.class);
+		if ( a == null ) {
+			return null;
+		}
+		return range(fn.blockType(), a.getAddress(), a.getCount());
+	}
+
+	/**
+	 * Get the range modified by a write request.
+	 *
+	 * @param request
+	 *        the request
+	 * @return the range, or {@literal null} if {@code request} is not a write
+	 */
+	private static ModbusBlockRange writeRange(ModbusMessage request) {
+		if ( request == null ) {
+			return null;
+		}
+		final ModbusFunctionCode fn = request.getFunction().functionCode();
+		if ( fn == null ) {
+			return null;
+		}
+		final AddressedModbusMessage a = request.unwrap(AddressedModbusMessage.class);
+		if ( a == null ) {
+			return null;
+		}
+		switch (fn) {
+			case WriteCoil:
+			case WriteHoldingRegister:
+			case MaskWriteHoldingRegister:
+				return range(fn.blockType(), a.getAddress(), 1);
+
+			case WriteCoils:
+			case WriteHoldingRegisters:
+				return range(fn.blockType(), a.getAddress(), a.getCount());
+
+			case ReadWriteHoldingRegisters: {
+				ReadWriteRegistersModbusMessage rw = request
+						.unwrap(ReadWriteRegistersModbusMessage.class);
+				if ( rw == null ) {
+					return null;
+				}
+				short[] data = rw.writeDataDecode();
+				return range(fn.blockType(), rw.getWriteAddress(),
+						(data != null ? data.length : 0));
+			}
+
+			default:
+				return null;
+		}
+	}
+
+	private static ModbusBlockRange range(ModbusBlockType type, int address, int count) {
+		try {
+			return new ModbusBlockRange(type, address, Math.max(1, count));
+		} catch ( IllegalArgumentException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Create a response for part of a cached response.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param cached
+	 *        the cached range
+	 * @param msg
+	 *        the cached response
+	 * @param range
+	 *        the range to extract, which must be contained within
+	 *        {@code cached}
+	 * @return the response, or {@literal null} if the cached response does not
+	 *         contain the data for {@code range}
+	 */
+	private static ModbusMessage slice(int unitId, ModbusBlockRange cached, ModbusMessage msg,
+			ModbusBlockRange range) {
+		if ( cached.equals(range) ) {
+			return msg;
+		}
+		final int from = range.getAddress() - cached.getAddress();
+		final int count = range.getCount();
+		if ( range.getBlockType().isBitType() ) {
+			net.solarnetwork.io.modbus.BitsModbusMessage bitsMsg = msg
+					.unwrap(net.solarnetwork.io.modbus.BitsModbusMessage.class);
+			if ( bitsMsg == null ) {
+				return null;
+			}
+			final BitSet bits = new BitSet(count);
+			for ( int i = 0; i < count; i++ ) {
+				if ( bitsMsg.isBitEnabled(from + i) ) {
+					bits.set(i);
+				}
+			}
+			return BitsModbusMessage.readBitsResponse(range.getBlockType(), unitId,
+					range.getAddress(), count, bits, 0);
+		}
+		net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+				.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+		short[] values = (reg != null ? reg.dataDecode() : null);
+		if ( values == null || values.length < from + count ) {
+			return null;
+		}
+		short[] data = new short[count];
+		System.arraycopy(values, from, data, 0, count);
+		if ( range.getBlockType() == ModbusBlockType.Holding ) {
+			return RegistersModbusMessage.readHoldingsResponse(unitId, range.getAddress(), data);
+		}
+		return RegistersModbusMessage.readInputsResponse(unitId, range.getAddress(), data);
+	}
+
+	/**
+	 * Get a response that can be cached independently of the caller it was
+	 * sent to.
+	 *
+	 * <p>
+	 * A response holding its register data in a reference-counted buffer is
+	 * owned by the caller, who releases it, so the data is copied.
+	 * </p>
+	 *
+	 * @param range
+	 *        the range read
+	 * @param res
+	 *        the response
+	 * @return the response to cache, or {@literal null} if the response does
+	 *         not contain the data for {@code range}
+	 */
+	private static ModbusMessage detach(ModbusBlockRange range, ModbusMessage res) {
+		final ByteBufRegistersModbusMessage buf = res.unwrap(ByteBufRegistersModbusMessage.class);
+		if ( buf == null ) {
+			return res;
+		}
+		final short[] data = buf.dataDecode();
+		if ( data == null ) {
+			return null;
+		}
+		if ( range.getBlockType() == ModbusBlockType.Holding ) {
+			return RegistersModbusMessage.readHoldingsResponse(res.getUnitId(), range.getAddress(),
+					data);
+		}
+		return RegistersModbusMessage.readInputsResponse(res.getUnitId(), range.getAddress(), data);
+	}
+
+	/**
+	 * Get the client requests are sent with.
+	 *
+	 * @return the delegate client
+	 */
+	public ModbusClient getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Get the time read responses are kept for.
+	 *
+	 * @param unit
+	 *        the desired time unit
+	 * @return the time to live
+	 */
+	public long getTtl(TimeUnit unit) {
+		return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the number of reads completed from the cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Get the number of cacheable reads sent to the delegate client.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Cache key for a unit ID and block type.
+	 */
+	private static final class CacheKey {
+
+		private final int unitId;
+		private final ModbusBlockType blockType;
+
+		private CacheKey(int unitId, ModbusBlockType blockType) {
+			super();
+			this.unitId = unitId;
+			this.blockType = blockType;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * unitId + blockType.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof CacheKey) ) {
+				return false;
+			}
+			CacheKey other = (CacheKey) obj;
+			return unitId == other.unitId && blockType == other.blockType;
+		}
+
+	}
+
+	/**
+	 * A cached response.
+	 */
+	private static final class CacheEntry {
+
+		private final ModbusBlockRange range;
+		private final ModbusMessage message;
+		private final long expires;
+
+		private CacheEntry(ModbusBlockRange range, ModbusMessage message, long expires) {
+			super();
+			this.range = range;
+			this.message = message;
+			this.expires = expires;
+		}
+
+	}
+
+	/**
+	 * The cached responses for one unit ID and block type.
+	 *
+	 * <p>
+	 * The generation is incremented on every invalidation, so responses to
+	 * reads sent before an invalidation can be discarded.
+	 * </p>
+	 */
+	private final class CacheBlock {
+
+		private final List<CacheEntry> entries = new ArrayList<>(4);
+		private long generation;
+
+		private synchronized long generation() {
+			return generation;
+		}
+
+		private synchronized ModbusMessage get(int unitId, ModbusBlockRange range) {
+			final long now = System.nanoTime();
+			for ( Iterator<CacheEntry> itr = entries.iterator(); itr.hasNext(); ) {
+				CacheEntry e = itr.next();
+				if ( now - e.expires >= 0 ) {
+					itr.remove();
+				} else if ( e.range.contains(range) ) {
+					ModbusMessage result = slice(unitId, e.range, e.message, range);
+					if ( result != null ) {
+						return result;
+					}
+				}
+			}
+			return null;
+		}
+
+		private void put(ModbusBlockRange range, ModbusMessage res, long expectedGeneration) {
+			if ( res == null || res.isException() ) {
+				return;
+			}
+			final ModbusMessage msg = detach(range, res);
+			if ( msg == null ) {
+				return;
+			}
+			synchronized ( this ) {
+				if ( generation != expectedGeneration ) {
+					return;
+				}
+				final long now = System.nanoTime();
+				for ( Iterator<CacheEntry> itr = entries.iterator(); itr.hasNext(); ) {
+					CacheEntry e = itr.next();
+					if ( now - e.expires >= 0 || range.contains(e.range) ) {
+						itr.remove();
+					}
+				}
+				entries.add(new CacheEntry(range, msg, now + ttlNanos));
+			}
+		}
+
+		private synchronized void invalidate(ModbusBlockRange range) {
+			generation++;
+			if ( range == null ) {
+				entries.clear();
+				return;
+			}
+			for ( Iterator<CacheEntry> itr = entries.iterator(); itr.hasNext(); ) {
+				if ( itr.next().range.overlaps(range) ) {
+					itr.remove();
+				}
+			}
+		}
+
+	}
+
+}
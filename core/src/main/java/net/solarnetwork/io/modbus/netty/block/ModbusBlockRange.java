@@ -0,0 +1,198 @@
+/* ==================================================================
+ * ModbusBlockRange.java - 17/10/2026 8:41:05 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import java.util.Objects;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+
+/**
+ * An immutable range of Modbus register addresses of a given block type.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusBlockRange implements Comparable<ModbusBlockRange> {
+
+	/** The maximum number of addresses in a Modbus address space. */
+	public static final int ADDRESS_SPACE_SIZE = 0x10000;
+
+	private final ModbusBlockType blockType;
+	private final int address;
+	private final int count;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param blockType
+	 *        the block type; only Coil, Discrete, Holding, and Input types are
+	 *        supported
+	 * @param address
+	 *        the starting address
+	 * @param count
+	 *        the number of addresses, starting at {@code address}
+	 * @throws IllegalArgumentException
+	 *         if {@code blockType} is {@literal null} or not supported, or
+	 *         {@code address} and {@code count} are outside the Modbus address
+	 *         space
+	 */
+	public ModbusBlockRange(ModbusBlockType blockType, int address, int count) {
+		super();
+		if ( blockType == null ) {
+			throw new IllegalArgumentException("The blockType argument must not be null.");
+		} else if ( blockType == ModbusBlockType.Diagnostic ) {
+			throw new IllegalArgumentException(
+					"Only Coil/Discrete/Holding/Input types are supported; got " + blockType);
+		}
+		if ( address < 0 || count < 1 || address + count > ADDRESS_SPACE_SIZE ) {
+			throw new IllegalArgumentException(String.format(
+					"The address %d and count %d are outside the Modbus address space.", address,
+					count));
+		}
+		this.blockType = blockType;
+		this.address = address;
+		this.count = count;
+	}
+
+	/**
+	 * Create a new range.
+	 *
+	 * @param blockType
+	 *        the block type
+	 * @param address
+	 *        the starting address
+	 * @param count
+	 *        the number of addresses
+	 * @return the new range
+	 * @throws IllegalArgumentException
+	 *         if any argument is not valid
+	 */
+	public static ModbusBlockRange range(ModbusBlockType blockType, int address, int count) {
+		return new ModbusBlockRange(blockType, address, count);
+	}
+
+	/**
+	 * Test if this range overlaps another range.
+	 *
+	 * @param other
+	 *        the range to test
+	 * @return {@literal true} if both ranges have the same block type and
+	 *         share at least one address
+	 */
+	public boolean overlaps(ModbusBlockRange other) {
+		return (other != null && other.blockType == blockType && other.address < getEndAddress()
+				&& address < other.getEndAddress());
+	}
+
+	/**
+	 * Test if this range completely contains another range.
+	 *
+	 * @param other
+	 *        the range to test
+	 * @return {@literal true} if both ranges have the same block type and
+	 *         every address of {@code other} is within this range
+	 */
+	public boolean contains(ModbusBlockRange other) {
+		return (other != null && other.blockType == blockType && other.address >= address
+				&& other.getEndAddress() <= getEndAddress());
+	}
+
+	@Override
+	public int compareTo(ModbusBlockRange o) {
+		int result = blockType.compareTo(o.blockType);
+		if ( result == 0 ) {
+			result = Integer.compare(address, o.address);
+			if ( result == 0 ) {
+				result = Integer.compare(count, o.count);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(blockType, address, count);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( !(obj instanceof ModbusBlockRange) ) {
+			return false;
+		}
+		ModbusBlockRange other = (ModbusBlockRange) obj;
+		return blockType == other.blockType && address == other.address && count == other.count;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ModbusBlockRange{");
+		builder.append(blockType);
+		builder.append(",address=");
+		builder.append(address);
+		builder.append(",count=");
+		builder.append(count);
+		builder.append("}");
+		return builder.toString();
+	}
+
+	/**
+	 * Get the block type.
+	 *
+	 * @return the block type, never {@literal null}
+	 */
+	public ModbusBlockType getBlockType() {
+		return blockType;
+	}
+
+	/**
+	 * Get the starting address.
+	 *
+	 * @return the address
+	 */
+	public int getAddress() {
+		return address;
+	}
+
+	/**
+	 * Get the number of addresses.
+	 *
+	 * @return the count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the address immediately after the last address of this range.
+	 *
+	 * @return the end address (exclusive)
+	 */
+	public int getEndAddress() {
+		return address + count;
+	}
+
+}
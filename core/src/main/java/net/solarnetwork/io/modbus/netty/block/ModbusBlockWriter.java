@@ -0,0 +1,351 @@
+/* ==================================================================
+ * ModbusBlockWriter.java - 17/10/2026 9:46:13 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import static java.lang.String.format;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * Write register or coil values of any length, by splitting them into as many
+ * write requests as needed.
+ *
+ * <p>
+ * By default all chunks are submitted together via
+ * {@link ModbusClient#sendAllAsync(java.util.Collection)}, so they are
+ * pipelined as far as the client's in-flight limits allow and may be applied
+ * by the device in any order. When {@link #isOrdered()} is enabled, each chunk
+ * is only sent after the previous chunk has been acknowledged, and no further
+ * chunks are sent after a chunk fails.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe once configured.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusBlockWriter {
+
+	private int maxRegistersCount = RegistersModbusMessage.MAX_WRITE_REGISTERS_COUNT;
+	private int maxBitsCount = BitsModbusMessage.MAX_WRITE_BITS_COUNT;
+	private boolean ordered;
+
+	/**
+	 * Constructor.
+	 */
+	public ModbusBlockWriter() {
+		super();
+	}
+
+	/**
+	 * Write holding register values.
+	 *
+	 * @param client
+	 *        the client to write with
+	 * @param unitId
+	 *        the unit ID to write to
+	 * @param address
+	 *        the address of the first register to write
+	 * @param values
+	 *        the register values to write
+	 * @return a future that completes once all chunks have been acknowledged
+	 *         or have failed
+	 * @throws IllegalArgumentException
+	 *         if {@code client} is {@literal null}, {@code values} is
+	 *         {@literal null} or empty, or the addresses are outside the
+	 *         Modbus address space
+	 */
+	public CompletableFuture<ModbusWriteResult> writeHoldings(ModbusClient client, int unitId,
+			int address, short[] values) {
+		if ( values == null ) {
+			throw new IllegalArgumentException("The values argument must not be null.");
+		}
+		final ModbusBlockRange range = new ModbusBlockRange(ModbusBlockType.Holding, address,
+				values.length);
+		final List<ModbusBlockRange> chunks = chunks(range, maxRegistersCount);
+		final List<ModbusMessage> requests = new ArrayList<>(chunks.size());
+		for ( ModbusBlockRange c : chunks ) {
+			short[] chunk = new short[c.getCount()];
+			System.arraycopy(values, c.getAddress() - address, chunk, 0, chunk.length);
+			requests.add(RegistersModbusMessage.writeHoldingsRequest(unitId, c.getAddress(), chunk));
+		}
+		return write(client, chunks, requests);
+	}
+
+	/**
+	 * Write coil values.
+	 *
+	 * @param client
+	 *        the client to write with
+	 * @param unitId
+	 *        the unit ID to write to
+	 * @param address
+	 *        the address of the first coil to write
+	 * @param count
+	 *        the number of coils to write
+	 * @param bits
+	 *        the coil values, where bit {@code 0} is the value of the coil at
+	 *        {@code address}
+	 * @return a future that completes once all chunks have been acknowledged
+	 *         or have failed
+	 * @throws IllegalArgumentException
+	 *         if {@code client} or {@code bits} is {@literal null}, or the
+	 *         addresses are outside the Modbus address space
+	 */
+	public CompletableFuture<ModbusWriteResult> writeCoils(ModbusClient client, int unitId,
+			int address, int count, BigInteger bits) {
+		if ( bits == null ) {
+			throw new IllegalArgumentException("The bits argument must not be null.");
+		}
+		final ModbusBlockRange range = new ModbusBlockRange(ModbusBlockType.Coil, address, count);
+		final BitSet values = new BitSet(count);
+		for ( int i = 0; i < count; i++ ) {
+			if ( bits.testBit(i) ) {
+				values.set(i);
+			}
+		}
+		final List<ModbusBlockRange> chunks = chunks(range, maxBitsCount);
+		final List<ModbusMessage> requests = new ArrayList<>(chunks.size());
+		for ( ModbusBlockRange c : chunks ) {
+			requests.add(BitsModbusMessage.bitsMessage(unitId, ModbusFunctionCode.WriteCoils,
+					c.getAddress(), c.getCount(), values, c.getAddress() - address));
+		}
+		return write(client, chunks, requests);
+	}
+
+	/**
+	 * Write coil values.
+	 *
+	 * @param client
+	 *        the client to write with
+	 * @param unitId
+	 *        the unit ID to write to
+	 * @param address
+	 *        the address of the first coil to write
+	 * @param values
+	 *        the coil values to write
+	 * @return a future that completes once all chunks have been acknowledged
+	 *         or have failed
+	 * @throws IllegalArgumentException
+	 *         if {@code client} is {@literal null}, {@code values} is
+	 *         {@literal null} or empty, or the addresses are outside the
+	 *         Modbus address space
+	 */
+	public CompletableFuture<ModbusWriteResult> writeCoils(ModbusClient client, int unitId,
+			int address, boolean[] values) {
+		if ( values == null ) {
+			throw new IllegalArgumentException("The values argument must not be null.");
+		}
+		final ModbusBlockRange range = new ModbusBlockRange(ModbusBlockType.Coil, address,
+				values.length);
+		final List<ModbusBlockRange> chunks = chunks(range, maxBitsCount);
+		final List<ModbusMessage> requests = new ArrayList<>(chunks.size());
+		for ( ModbusBlockRange c : chunks ) {
+			requests.add(BitsModbusMessage.bitsMessage(unitId, ModbusFunctionCode.WriteCoils,
+					c.getAddress(), values, c.getAddress() - address, c.getCount()));
+		}
+		return write(client, chunks, requests);
+	}
+
+	private static List<ModbusBlockRange> chunks(ModbusBlockRange range, int max) {
+		final List<ModbusBlockRange> result = new ArrayList<>(range.getCount() / max + 1);
+		for ( int a = range.getAddress(), end = range.getEndAddress(); a < end; a += max ) {
+			result.add(new ModbusBlockRange(range.getBlockType(), a, Math.min(max, end - a)));
+		}
+		return result;
+	}
+
+	private CompletableFuture<ModbusWriteResult> write(ModbusClient client,
+			List<ModbusBlockRange> chunks, List<ModbusMessage> requests) {
+		if ( client == null ) {
+			throw new IllegalArgumentException("The client argument must not be null.");
+		}
+		if ( ordered ) {
+			CompletableFuture<ModbusWriteResult> result = new CompletableFuture<>();
+			writeNext(client, chunks, requests, 0, result);
+			return result;
+		}
+		final List<CompletableFuture<ModbusMessage>> futures = client.sendAllAsync(requests);
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.handle((r, t) -> {
+					final Map<ModbusBlockRange, Throwable> failures = new LinkedHashMap<>(4);
+					for ( int i = 0, len = chunks.size(); i < len; i++ ) {
+						ModbusMessage res = null;
+						Throwable e = null;
+						try {
+							res = futures.get(i).getNow(null);
+						} catch ( CompletionException | CancellationException ex ) {
+							e = ex;
+						}
+						final Throwable err = failure(chunks.get(i), res, e);
+						if ( err != null ) {
+							failures.put(chunks.get(i), err);
+						}
+					}
+					return new ModbusWriteResult(chunks, failures);
+				});
+	}
+
+	private static void writeNext(ModbusClient client, List<ModbusBlockRange> chunks,
+			List<ModbusMessage> requests, int idx, CompletableFuture<ModbusWriteResult> result) {
+		if ( idx >= requests.size() ) {
+			result.complete(new ModbusWriteResult(chunks, new LinkedHashMap<>(0)));
+			return;
+		}
+		final CompletableFuture<ModbusMessage> f;
+		try {
+			f = client.sendAsync(requests.get(idx));
+		} catch ( RuntimeException e ) {
+			// later chunks are sent from a callback, where a thrown exception would be lost
+			fail(chunks, idx, e, result);
+			return;
+		}
+		f.whenComplete((res, t) -> {
+			final Throwable err = failure(chunks.get(idx), res, t);
+			if ( err == null ) {
+				writeNext(client, chunks, requests, idx + 1, result);
+				return;
+			}
+			fail(chunks, idx, err, result);
+		});
+	}
+
+	private static void fail(List<ModbusBlockRange> chunks, int idx, Throwable err,
+			CompletableFuture<ModbusWriteResult> result) {
+		final Map<ModbusBlockRange, Throwable> failures = new LinkedHashMap<>(4);
+		failures.put(chunks.get(idx), err);
+		for ( int i = idx + 1, len = chunks.size(); i < len; i++ ) {
+			failures.put(chunks.get(i), new ModbusException(
+					format("%s not written because an earlier chunk failed.", chunks.get(i))));
+		}
+		result.complete(new ModbusWriteResult(chunks, failures));
+	}
+
+	private static Throwable failure(ModbusBlockRange chunk, ModbusMessage res, Throwable t) {
+		if ( t != null ) {
+			return (t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+		} else if ( res == null ) {
+			return new ModbusException(format("No response to write of %s.", chunk));
+		} else if ( res.isException() ) {
+			return new ModbusException(
+					format("Write of %s returned error %s.", chunk, res.getError()));
+		}
+		return null;
+	}
+
+	/**
+	 * Get the maximum number of registers to write in one request.
+	 *
+	 * @return the maximum count; defaults to
+	 *         {@link RegistersModbusMessage#MAX_WRITE_REGISTERS_COUNT}
+	 */
+	public int getMaxRegistersCount() {
+		return maxRegistersCount;
+	}
+
+	/**
+	 * Set the maximum number of registers to write in one request.
+	 *
+	 * @param maxRegistersCount
+	 *        the maximum count
+	 * @throws IllegalArgumentException
+	 *         if {@code maxRegistersCount} is less than {@literal 1} or more
+	 *         than {@link RegistersModbusMessage#MAX_WRITE_REGISTERS_COUNT}
+	 */
+	public void setMaxRegistersCount(int maxRegistersCount) {
+		if ( maxRegistersCount < 1
+				|| maxRegistersCount > RegistersModbusMessage.MAX_WRITE_REGISTERS_COUNT ) {
+			throw new IllegalArgumentException(
+					String.format("The maxRegistersCount argument must be between 1 and %d.",
+							RegistersModbusMessage.MAX_WRITE_REGISTERS_COUNT));
+		}
+		this.maxRegistersCount = maxRegistersCount;
+	}
+
+	/**
+	 * Get the maximum number of coils to write in one request.
+	 *
+	 * @return the maximum count; defaults to
+	 *         {@link BitsModbusMessage#MAX_WRITE_BITS_COUNT}
+	 */
+	public int getMaxBitsCount() {
+		return maxBitsCount;
+	}
+
+	/**
+	 * Set the maximum number of coils to write in one request.
+	 *
+	 * @param maxBitsCount
+	 *        the maximum count
+	 * @throws IllegalArgumentException
+	 *         if {@code maxBitsCount} is less than {@literal 1} or more than
+	 *         {@link BitsModbusMessage#MAX_WRITE_BITS_COUNT}
+	 */
+	public void setMaxBitsCount(int maxBitsCount) {
+		if ( maxBitsCount < 1 || maxBitsCount > BitsModbusMessage.MAX_WRITE_BITS_COUNT ) {
+			throw new IllegalArgumentException(
+					String.format("The maxBitsCount argument must be between 1 and %d.",
+							BitsModbusMessage.MAX_WRITE_BITS_COUNT));
+		}
+		this.maxBitsCount = maxBitsCount;
+	}
+
+	/**
+	 * Get the ordered mode.
+	 *
+	 * @return {@literal true} if chunks are written one at a time in address
+	 *         order; defaults to {@literal false}
+	 */
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * Set the ordered mode.
+	 *
+	 * @param ordered
+	 *        {@literal true} to write chunks one at a time in address order,
+	 *        stopping at the first failure
+	 */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+}
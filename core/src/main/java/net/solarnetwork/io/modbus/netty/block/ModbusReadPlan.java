@@ -0,0 +1,272 @@
+/* ==================================================================
+ * ModbusReadPlan.java - 17/10/2026 9:04:18 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import static java.lang.String.format;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusByteUtils;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * A set of read requests planned by a {@link ModbusReadPlanner}.
+ *
+ * <p>
+ * A plan can be executed any number of times via
+ * {@link #execute(ModbusClient)}, which sends all the requests together and
+ * then splits the responses back into one message per requested range.
+ * Each execution sends its own request messages, so executions can overlap.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusReadPlan {
+
+	private final int unitId;
+	private final List<ModbusBlockRange> ranges;
+	private final List<ModbusBlockRange> blocks;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param ranges
+	 *        the requested ranges
+	 * @param blocks
+	 *        the blocks to read, which must cover all {@code ranges}
+	 */
+	ModbusReadPlan(int unitId, List<ModbusBlockRange> ranges, List<ModbusBlockRange> blocks) {
+		super();
+		this.unitId = unitId;
+		this.ranges = Collections.unmodifiableList(ranges);
+		this.blocks = Collections.unmodifiableList(blocks);
+	}
+
+	private static ModbusMessage readRequest(int unitId, ModbusBlockRange b) {
+		if ( b.getBlockType().isBitType() ) {
+			return BitsModbusMessage.readBitsRequest(b.getBlockType(), unitId, b.getAddress(),
+					b.getCount());
+		}
+		return RegistersModbusMessage.readRegistersRequest(b.getBlockType(), unitId,
+				b.getAddress(), b.getCount());
+	}
+
+	/**
+	 * Send the planned requests and collect the results per range.
+	 *
+	 * <p>
+	 * All requests are submitted together via
+	 * {@link ModbusClient#sendAllAsync(java.util.Collection)}, so they are
+	 * pipelined as far as the client allows. The returned future completes
+	 * once all responses have been received or have failed; ranges covered by
+	 * a failed request are reported via {@link ModbusReadResult#getFailure}.
+	 * The result holds copies of the response data, and every response is
+	 * released via {@link ModbusClient#releaseResponse(ModbusMessage)} once
+	 * the data has been copied.
+	 * </p>
+	 *
+	 * @param client
+	 *        the client to send the requests with
+	 * @return the result future
+	 * @throws IllegalArgumentException
+	 *         if {@code client} is {@literal null}
+	 */
+	public CompletableFuture<ModbusReadResult> execute(ModbusClient client) {
+		if ( client == null ) {
+			throw new IllegalArgumentException("The client argument must not be null.");
+		}
+		// new requests every time, as clients track pending requests by identity
+		final List<CompletableFuture<ModbusMessage>> futures = client.sendAllAsync(getRequests());
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.handle((r, t) -> result(client, futures));
+	}
+
+	private ModbusReadResult result(ModbusClient client,
+			List<CompletableFuture<ModbusMessage>> futures) {
+		final ModbusMessage[] responses = new ModbusMessage[blocks.size()];
+		final short[][] registers = new short[blocks.size()][];
+		final Throwable[] errors = new Throwable[blocks.size()];
+		for ( int i = 0; i < responses.length; i++ ) {
+			final ModbusBlockRange b = blocks.get(i);
+			try {
+				ModbusMessage res = futures.get(i).getNow(null);
+				responses[i] = res;
+				if ( res == null ) {
+					errors[i] = new ModbusException(format("No response to %s.", b));
+				} else if ( res.isException() ) {
+					errors[i] = new ModbusException(
+							format("Read of %s returned error %s.", b, res.getError()));
+				} else if ( !b.getBlockType().isBitType() ) {
+					// decode once here, as many ranges can be sliced from the same block
+					registers[i] = registers(b, res);
+					if ( registers[i] == null ) {
+						errors[i] = new ModbusException(format("Incomplete response to %s.", b));
+					}
+				}
+			} catch ( CompletionException e ) {
+				errors[i] = (e.getCause() != null ? e.getCause() : e);
+			} catch ( CancellationException e ) {
+				errors[i] = e;
+			}
+		}
+		final Map<ModbusBlockRange, ModbusMessage> messages = new LinkedHashMap<>(ranges.size());
+		final Map<ModbusBlockRange, Throwable> failures = new LinkedHashMap<>(4);
+		try {
+			for ( ModbusBlockRange range : ranges ) {
+				try {
+					messages.put(range, stitch(range, responses, registers, errors));
+				} catch ( Throwable t ) {
+					failures.put(range, t);
+				}
+			}
+		} finally {
+			// the results hold copies of the response data
+			for ( ModbusMessage res : responses ) {
+				client.releaseResponse(res);
+			}
+		}
+		return new ModbusReadResult(messages, failures);
+	}
+
+	private static short[] registers(ModbusBlockRange b, ModbusMessage res) {
+		net.solarnetwork.io.modbus.RegistersModbusMessage reg = res
+				.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+		if ( reg == null ) {
+			return null;
+		}
+		final short[] values = new short[b.getCount()];
+		try {
+			if ( reg.dataDecode(values, 0) < values.length ) {
+				return null;
+			}
+		} catch ( IndexOutOfBoundsException e ) {
+			// more registers than requested; the leading ones are still usable
+			return reg.dataDecode();
+		}
+		return values;
+	}
+
+	private ModbusMessage stitch(ModbusBlockRange range, ModbusMessage[] responses,
+			short[][] registers, Throwable[] errors) throws Throwable {
+		final ModbusBlockType type = range.getBlockType();
+		final short[] data = (type.isBitType() ? null : new short[range.getCount()]);
+		final BitSet bits = (type.isBitType() ? new BitSet(range.getCount()) : null);
+		for ( int i = 0, len = blocks.size(); i < len; i++ ) {
+			final ModbusBlockRange b = blocks.get(i);
+			if ( !b.overlaps(range) ) {
+				continue;
+			}
+			if ( errors[i] != null ) {
+				throw errors[i];
+			}
+			final int from = Math.max(range.getAddress(), b.getAddress());
+			final int to = Math.min(range.getEndAddress(), b.getEndAddress());
+			if ( data != null ) {
+				System.arraycopy(registers[i], from - b.getAddress(), data,
+						from - range.getAddress(), to - from);
+			} else {
+				net.solarnetwork.io.modbus.BitsModbusMessage msg = responses[i]
+						.unwrap(net.solarnetwork.io.modbus.BitsModbusMessage.class);
+				// a decoded response has no count if the request was not known
+				if ( msg == null || (msg.getCount() > 0 && msg.getCount() < b.getCount()) ) {
+					throw new ModbusException(format("Incomplete response to %s.", b));
+				}
+				for ( int a = from; a < to; a++ ) {
+					if ( msg.isBitEnabled(a - b.getAddress()) ) {
+						bits.set(a - range.getAddress());
+					}
+				}
+			}
+		}
+		if ( bits != null ) {
+			return BitsModbusMessage.readBitsResponse(type, unitId, range.getAddress(),
+					range.getCount(), bits, 0);
+		}
+		// a range can be larger than a single response, so no factory method
+		return new RegistersModbusMessage(unitId,
+				type == ModbusBlockType.Holding ? ModbusFunctionCode.ReadHoldingRegisters
+						: ModbusFunctionCode.ReadInputRegisters,
+				null, range.getAddress(), range.getCount(), ModbusByteUtils.encode(data));
+	}
+
+	/**
+	 * Get the unit ID.
+	 *
+	 * @return the unit ID
+	 */
+	public int getUnitId() {
+		return unitId;
+	}
+
+	/**
+	 * Get the requested ranges.
+	 *
+	 * @return the ranges, in the order requested
+	 */
+	public List<ModbusBlockRange> getRanges() {
+		return ranges;
+	}
+
+	/**
+	 * Get the blocks that will be read.
+	 *
+	 * @return the blocks, one per request
+	 */
+	public List<ModbusBlockRange> getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * Get the read requests.
+	 *
+	 * <p>
+	 * New request messages are created on each call.
+	 * </p>
+	 *
+	 * @return the requests, in the same order as {@link #getBlocks()}
+	 */
+	public List<ModbusMessage> getRequests() {
+		final List<ModbusMessage> reqs = new ArrayList<>(blocks.size());
+		for ( ModbusBlockRange b : blocks ) {
+			reqs.add(readRequest(unitId, b));
+		}
+		return reqs;
+	}
+
+}
@@ -0,0 +1,256 @@
+/* ==================================================================
+ * ModbusReadPlanner.java - 17/10/2026 8:52:37 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * Plan the fewest read requests needed to read a set of address ranges.
+ *
+ * <p>
+ * Ranges of the same block type are sorted by address and merged into
+ * blocks. A block grows to include the next range when the gap between them
+ * is no more than {@link #getMaxGap()} (or {@link #getMaxBitsGap()} for coils
+ * and discrete inputs) and the block would not exceed the maximum count for
+ * one request. Ranges larger than the maximum count are split across several
+ * blocks. The addresses in any gap that is read through must be readable on
+ * the device, so the gap settings default to {@literal 0}, which merges only
+ * overlapping and adjacent ranges.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe once configured.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusReadPlanner {
+
+	/** The {@code maxGap} property default value. */
+	public static final int DEFAULT_MAX_GAP = 0;
+
+	/** The {@code maxBitsGap} property default value. */
+	public static final int DEFAULT_MAX_BITS_GAP = 0;
+
+	private int maxGap = DEFAULT_MAX_GAP;
+	private int maxBitsGap = DEFAULT_MAX_BITS_GAP;
+	private int maxRegistersCount = RegistersModbusMessage.MAX_READ_REGISTERS_COUNT;
+	private int maxBitsCount = BitsModbusMessage.MAX_READ_BITS_COUNT;
+
+	/**
+	 * Constructor.
+	 */
+	public ModbusReadPlanner() {
+		super();
+	}
+
+	/**
+	 * Plan the read requests for a set of ranges.
+	 *
+	 * @param unitId
+	 *        the unit ID to read from
+	 * @param ranges
+	 *        the ranges to read; duplicates are ignored
+	 * @return the plan
+	 * @throws IllegalArgumentException
+	 *         if {@code ranges} is {@literal null} or contains
+	 *         {@literal null}
+	 */
+	public ModbusReadPlan plan(int unitId, Collection<ModbusBlockRange> ranges) {
+		if ( ranges == null ) {
+			throw new IllegalArgumentException("The ranges argument must not be null.");
+		}
+		final List<ModbusBlockRange> distinct = new ArrayList<>(new LinkedHashSet<>(ranges));
+		if ( distinct.contains(null) ) {
+			throw new IllegalArgumentException("The ranges argument must not contain null.");
+		}
+		final List<ModbusBlockRange> sorted = new ArrayList<>(distinct);
+		Collections.sort(sorted);
+
+		final List<ModbusBlockRange> blocks = new ArrayList<>();
+		ModbusBlockType type = null;
+		int blockStart = -1;
+		int blockEnd = -1;
+		for ( ModbusBlockRange r : sorted ) {
+			if ( r.getBlockType() != type ) {
+				if ( blockStart >= 0 ) {
+					blocks.add(new ModbusBlockRange(type, blockStart, blockEnd - blockStart));
+				}
+				type = r.getBlockType();
+				blockStart = -1;
+				blockEnd = -1;
+			}
+			final int max = maxCount(type);
+			final int gap = (type.isBitType() ? maxBitsGap : maxGap);
+			int s = Math.max(r.getAddress(), blockEnd);
+			final int e = r.getEndAddress();
+			while ( s < e ) {
+				if ( blockStart >= 0 && s - blockEnd <= gap && s - blockStart < max ) {
+					// extend the current block as far as allowed
+					blockEnd = Math.min(e, blockStart + max);
+				} else {
+					if ( blockStart >= 0 ) {
+						blocks.add(new ModbusBlockRange(type, blockStart, blockEnd - blockStart));
+					}
+					blockStart = s;
+					blockEnd = Math.min(e, s + max);
+				}
+				s = blockEnd;
+			}
+		}
+		if ( blockStart >= 0 ) {
+			blocks.add(new ModbusBlockRange(type, blockStart, blockEnd - blockStart));
+		}
+		return new ModbusReadPlan(unitId, distinct, blocks);
+	}
+
+	private int maxCount(ModbusBlockType type) {
+		return (type.isBitType() ? maxBitsCount : maxRegistersCount);
+	}
+
+	/**
+	 * Get the maximum number of unrequested registers to read between two
+	 * ranges to merge them into one request.
+	 *
+	 * @return the maximum gap; defaults to {@link #DEFAULT_MAX_GAP}
+	 */
+	public int getMaxGap() {
+		return maxGap;
+	}
+
+	/**
+	 * Set the maximum number of unrequested registers to read between two
+	 * ranges to merge them into one request.
+	 *
+	 * <p>
+	 * This applies to holding and input registers.
+	 * </p>
+	 *
+	 * @param maxGap
+	 *        the maximum gap; anything less than {@literal 0} is treated as
+	 *        {@literal 0}
+	 */
+	public void setMaxGap(int maxGap) {
+		this.maxGap = Math.max(0, maxGap);
+	}
+
+	/**
+	 * Get the maximum number of unrequested bits to read between two ranges to
+	 * merge them into one request.
+	 *
+	 * @return the maximum gap; defaults to {@link #DEFAULT_MAX_BITS_GAP}
+	 */
+	public int getMaxBitsGap() {
+		return maxBitsGap;
+	}
+
+	/**
+	 * Set the maximum number of unrequested bits to read between two ranges to
+	 * merge them into one request.
+	 *
+	 * <p>
+	 * This applies to coils and discrete inputs.
+	 * </p>
+	 *
+	 * @param maxBitsGap
+	 *        the maximum gap; anything less than {@literal 0} is treated as
+	 *        {@literal 0}
+	 */
+	public void setMaxBitsGap(int maxBitsGap) {
+		this.maxBitsGap = Math.max(0, maxBitsGap);
+	}
+
+	/**
+	 * Get the maximum number of registers to read in one request.
+	 *
+	 * @return the maximum count; defaults to
+	 *         {@link RegistersModbusMessage#MAX_READ_REGISTERS_COUNT}
+	 */
+	public int getMaxRegistersCount() {
+		return maxRegistersCount;
+	}
+
+	/**
+	 * Set the maximum number of registers to read in one request.
+	 *
+	 * <p>
+	 * Some devices support fewer registers per request than the protocol
+	 * allows.
+	 * </p>
+	 *
+	 * @param maxRegistersCount
+	 *        the maximum count
+	 * @throws IllegalArgumentException
+	 *         if {@code maxRegistersCount} is less than {@literal 1} or more
+	 *         than {@link RegistersModbusMessage#MAX_READ_REGISTERS_COUNT}
+	 */
+	public void setMaxRegistersCount(int maxRegistersCount) {
+		if ( maxRegistersCount < 1
+				|| maxRegistersCount > RegistersModbusMessage.MAX_READ_REGISTERS_COUNT ) {
+			throw new IllegalArgumentException(
+					String.format("The maxRegistersCount argument must be between 1 and %d.",
+							RegistersModbusMessage.MAX_READ_REGISTERS_COUNT));
+		}
+		this.maxRegistersCount = maxRegistersCount;
+	}
+
+	/**
+	 * Get the maximum number of coils or discrete inputs to read in one
+	 * request.
+	 *
+	 * @return the maximum count; defaults to
+	 *         {@link BitsModbusMessage#MAX_READ_BITS_COUNT}
+	 */
+	public int getMaxBitsCount() {
+		return maxBitsCount;
+	}
+
+	/**
+	 * Set the maximum number of coils or discrete inputs to read in one
+	 * request.
+	 *
+	 * @param maxBitsCount
+	 *        the maximum count
+	 * @throws IllegalArgumentException
+	 *         if {@code maxBitsCount} is less than {@literal 1} or more than
+	 *         {@link BitsModbusMessage#MAX_READ_BITS_COUNT}
+	 */
+	public void setMaxBitsCount(int maxBitsCount) {
+		if ( maxBitsCount < 1 || maxBitsCount > BitsModbusMessage.MAX_READ_BITS_COUNT ) {
+			throw new IllegalArgumentException(
+					String.format("The maxBitsCount argument must be between 1 and %d.",
+							BitsModbusMessage.MAX_READ_BITS_COUNT));
+		}
+		this.maxBitsCount = maxBitsCount;
+	}
+
+}
@@ -0,0 +1,116 @@
+/* ==================================================================
+ * ModbusReadResult.java - 17/10/2026 9:11:52 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import java.util.Collections;
+import java.util.Map;
+import net.solarnetwork.io.modbus.ModbusMessage;
+
+/**
+ * The result of executing a {@link ModbusReadPlan}.
+ *
+ * <p>
+ * Each requested range maps to either a response message holding just that
+ * range's data, or the failure that prevented it from being read.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusReadResult {
+
+	private final Map<ModbusBlockRange, ModbusMessage> messages;
+	private final Map<ModbusBlockRange, Throwable> failures;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param messages
+	 *        the successfully read messages
+	 * @param failures
+	 *        the failures
+	 */
+	ModbusReadResult(Map<ModbusBlockRange, ModbusMessage> messages,
+			Map<ModbusBlockRange, Throwable> failures) {
+		super();
+		this.messages = Collections.unmodifiableMap(messages);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Test if all ranges were read successfully.
+	 *
+	 * @return {@literal true} if there are no failures
+	 */
+	public boolean isSuccess() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * Get the message for a range.
+	 *
+	 * <p>
+	 * The message will be a {@code RegistersModbusMessage} for holding and
+	 * input registers, or a {@code BitsModbusMessage} for coils and discrete
+	 * inputs, with the address and count of {@code range}.
+	 * </p>
+	 *
+	 * @param range
+	 *        the range
+	 * @return the message, or {@literal null} if the range was not read
+	 */
+	public ModbusMessage getMessage(ModbusBlockRange range) {
+		return messages.get(range);
+	}
+
+	/**
+	 * Get the failure for a range.
+	 *
+	 * @param range
+	 *        the range
+	 * @return the failure, or {@literal null} if the range did not fail
+	 */
+	public Throwable getFailure(ModbusBlockRange range) {
+		return failures.get(range);
+	}
+
+	/**
+	 * Get all successfully read messages.
+	 *
+	 * @return the messages, keyed by range in the order requested
+	 */
+	public Map<ModbusBlockRange, ModbusMessage> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Get all failures.
+	 *
+	 * @return the failures, keyed by range
+	 */
+	public Map<ModbusBlockRange, Throwable> getFailures() {
+		return failures;
+	}
+
+}
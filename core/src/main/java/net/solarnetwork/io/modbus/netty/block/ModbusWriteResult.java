@@ -0,0 +1,93 @@
+/* ==================================================================
+ * ModbusWriteResult.java - 17/10/2026 9:52:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a {@link ModbusBlockWriter} write.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusWriteResult {
+
+	private final List<ModbusBlockRange> chunks;
+	private final Map<ModbusBlockRange, Throwable> failures;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param chunks
+	 *        the chunks written
+	 * @param failures
+	 *        the failures
+	 */
+	ModbusWriteResult(List<ModbusBlockRange> chunks, Map<ModbusBlockRange, Throwable> failures) {
+		super();
+		this.chunks = Collections.unmodifiableList(chunks);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Test if all chunks were written successfully.
+	 *
+	 * @return {@literal true} if there are no failures
+	 */
+	public boolean isSuccess() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * Get the chunks.
+	 *
+	 * @return the chunks, one per write request, in address order
+	 */
+	public List<ModbusBlockRange> getChunks() {
+		return chunks;
+	}
+
+	/**
+	 * Get the failure for a chunk.
+	 *
+	 * @param chunk
+	 *        the chunk
+	 * @return the failure, or {@literal null} if the chunk was written
+	 */
+	public Throwable getFailure(ModbusBlockRange chunk) {
+		return failures.get(chunk);
+	}
+
+	/**
+	 * Get all failures.
+	 *
+	 * @return the failures, keyed by chunk in address order
+	 */
+	public Map<ModbusBlockRange, Throwable> getFailures() {
+		return failures;
+	}
+
+}
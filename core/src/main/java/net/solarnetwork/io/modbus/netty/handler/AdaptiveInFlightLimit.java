@@ -0,0 +1,163 @@
+/* ==================================================================
+ * AdaptiveInFlightLimit.java - 17/10/2026 7:48:32 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler;
+
+/**
+ * Adaptive limit on the number of in-flight requests, based on observed
+ * round-trip times.
+ *
+ * <p>
+ * This is a gradient limiter: a long-term average round-trip time is tracked
+ * as the baseline latency of the device, and each new sample is compared to
+ * it. While sample latency stays near the baseline the limit grows by roughly
+ * the square root of the limit per sample; when latency rises above the
+ * baseline the limit shrinks in proportion, and the square root growth
+ * allowance shrinks with it, down to nothing at the steepest gradient, so
+ * sustained latency growth can drive the limit all the way down to the
+ * minimum. Timeouts reduce the limit multiplicatively. The limit does not
+ * grow while fewer than half of the allowed requests are in flight, as latency
+ * samples taken then say nothing about the higher limit.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class AdaptiveInFlightLimit {
+
+	/** The default initial limit. */
+	public static final int DEFAULT_INITIAL_LIMIT = 4;
+
+	/** The default maximum limit, used when no maximum is configured. */
+	public static final int DEFAULT_MAX_LIMIT = 256;
+
+	/** The ratio of sample to baseline latency tolerated before backing off. */
+	private static final double RTT_TOLERANCE = 1.5;
+
+	/** The number of samples in the baseline latency moving average. */
+	private static final int BASELINE_WINDOW = 100;
+
+	/** The smallest gradient applied to the limit for a single sample. */
+	private static final double MIN_GRADIENT = 0.5;
+
+	/** The smoothing factor applied to limit changes. */
+	private static final double SMOOTHING = 0.2;
+
+	/** The ratio the limit is reduced by on timeout. */
+	private static final double TIMEOUT_BACKOFF = 0.9;
+
+	private final int minLimit;
+	private final int maxLimit;
+
+	private double limit;
+	private double baselineRttNanos;
+	private volatile int currentLimit;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param initialLimit
+	 *        the initial limit
+	 * @param minLimit
+	 *        the minimum limit; anything less than {@literal 1} is treated as
+	 *        {@literal 1}
+	 * @param maxLimit
+	 *        the maximum limit; anything less than {@code minLimit} is treated
+	 *        as {@code minLimit}
+	 */
+	public AdaptiveInFlightLimit(int initialLimit, int minLimit, int maxLimit) {
+		super();
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+		this.currentLimit = (int) this.limit;
+	}
+
+	/**
+	 * Get the current limit.
+	 *
+	 * @return the current limit
+	 */
+	public int getLimit() {
+		return currentLimit;
+	}
+
+	/**
+	 * Get the baseline round-trip time.
+	 *
+	 * @return the baseline round-trip time, in nanoseconds, or {@literal 0}
+	 *         if no samples have been taken
+	 */
+	public synchronized long getBaselineRttNanos() {
+		return (long) baselineRttNanos;
+	}
+
+	/**
+	 * Record a successful request round-trip time.
+	 *
+	 * @param rttNanos
+	 *        the round-trip time, in nanoseconds
+	 * @param inFlight
+	 *        the number of requests in flight when the request completed,
+	 *        including the request itself
+	 */
+	public synchronized void onSample(long rttNanos, int inFlight) {
+		final double rtt = Math.max(1L, rttNanos);
+		if ( baselineRttNanos == 0 ) {
+			baselineRttNanos = rtt;
+		} else {
+			baselineRttNanos += (rtt - baselineRttNanos) / BASELINE_WINDOW;
+			if ( baselineRttNanos > rtt * 2 ) {
+				// latency has dropped a lot; let the baseline recover faster
+				baselineRttNanos *= 0.95;
+			}
+		}
+		final double gradient = Math.max(MIN_GRADIENT,
+				Math.min(1.0, RTT_TOLERANCE * baselineRttNanos / rtt));
+		if ( gradient >= 1.0 && inFlight < limit / 2 ) {
+			// not using the current limit, so cannot tell if a higher one is OK
+			return;
+		}
+		// a full sqrt allowance would hold the limit at 4 however high latency climbs
+		final double allowance = Math.sqrt(limit) * (gradient - MIN_GRADIENT)
+				/ (1.0 - MIN_GRADIENT);
+		final double newLimit = limit * gradient + allowance;
+		update(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+	}
+
+	/**
+	 * Record a request timeout.
+	 */
+	public synchronized void onTimeout() {
+		update(limit * TIMEOUT_BACKOFF);
+	}
+
+	private void update(double newLimit) {
+		limit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+		currentLimit = (int) limit;
+	}
+
+}
@@ -0,0 +1,341 @@
+/* ==================================================================
+ * ModbusRuntime.java - 17/10/2026 2:40:13 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Reference-counted shared resources for Modbus clients and servers.
+ * 
+ * <p>
+ * A runtime owns an I/O event loop group, a blocking event loop group (for
+ * serial channels), a timer, a scheduler and a buffer allocator, so that many
+ * clients and servers can share a fixed set of threads. Each resource is
+ * created lazily the first time it is requested.
+ * </p>
+ * 
+ * <p>
+ * Users of a runtime must call {@link #retain()} before using any of its
+ * resources, and {@link #release()} when they no longer need them. When the
+ * last user releases the runtime, all of its resources are shut down. A
+ * released runtime can be retained again, in which case new resources will be
+ * created as needed.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusRuntime {
+
+	/** The default {@code shutdownTimeoutSecs} property value. */
+	public static final long DEFAULT_SHUTDOWN_TIMEOUT_SECS = 10L;
+
+	private static final Logger log = LoggerFactory.getLogger(ModbusRuntime.class);
+
+	private final int ioThreads;
+	private final ByteBufAllocator allocator;
+	private final AtomicInteger refCount = new AtomicInteger();
+
+	private EventLoopGroup eventLoopGroup;
+	private EventLoopGroup blockingEventLoopGroup;
+	private Timer timer;
+	private ScheduledExecutorService scheduler;
+	private long shutdownTimeoutSecs = DEFAULT_SHUTDOWN_TIMEOUT_SECS;
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * The Netty default number of I/O threads and the default buffer allocator
+	 * will be used.
+	 * </p>
+	 */
+	public ModbusRuntime() {
+		this(0, ByteBufAllocator.DEFAULT);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param ioThreads
+	 *        the number of I/O event loop threads, or {@literal 0} for the Netty
+	 *        default
+	 * @param allocator
+	 *        the buffer allocator
+	 * @throws IllegalArgumentException
+	 *         if {@code allocator} is {@literal null} or {@code ioThreads} is
+	 *         less than {@literal 0}
+	 */
+	public ModbusRuntime(int ioThreads, ByteBufAllocator allocator) {
+		super();
+		if ( ioThreads < 0 ) {
+			throw new IllegalArgumentException("The ioThreads argument must not be negative.");
+		}
+		this.ioThreads = ioThreads;
+		if ( allocator == null ) {
+			throw new IllegalArgumentException("The allocator argument must not be null.");
+		}
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Increment the reference count of this runtime.
+	 * 
+	 * @return this instance
+	 */
+	public ModbusRuntime retain() {
+		refCount.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Decrement the reference count of this runtime, shutting down all
+	 * resources if the count reaches {@literal 0}.
+	 * 
+	 * <p>
+	 * The shutdown does not block, so this can be called from one of the
+	 * runtime's own threads, such as from a timer task.
+	 * </p>
+	 * 
+	 * @return a future that completes when the release is complete, which
+	 *         includes shutting down all resources if this was the last
+	 *         reference
+	 * @throws IllegalStateException
+	 *         if the runtime has not been retained
+	 */
+	public CompletableFuture<?> release() {
+		int count;
+		do {
+			count = refCount.get();
+			if ( count < 1 ) {
+				throw new IllegalStateException("The ModbusRuntime has not been retained.");
+			}
+		} while ( !refCount.compareAndSet(count, count - 1) );
+		if ( count > 1 ) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return shutdown();
+	}
+
+	private CompletableFuture<?> shutdown() {
+		final EventLoopGroup group;
+		final EventLoopGroup blockingGroup;
+		final Timer t;
+		final ScheduledExecutorService s;
+		synchronized ( this ) {
+			if ( refCount.get() > 0 ) {
+				// retained again since release
+				return CompletableFuture.completedFuture(null);
+			}
+			group = eventLoopGroup;
+			blockingGroup = blockingEventLoopGroup;
+			t = timer;
+			s = scheduler;
+			eventLoopGroup = null;
+			blockingEventLoopGroup = null;
+			timer = null;
+			scheduler = null;
+		}
+		// the last release can happen on the timer or scheduler thread, which can not wait for
+		// themselves, so stop those from another thread
+		final CompletableFuture<?> stopped = stopTimer(t).handle((r, e) -> {
+			if ( e != null ) {
+				log.warn("Error stopping ModbusRuntime timer: {}", e.toString());
+			}
+			return null;
+		}).thenRunAsync(() -> {
+			if ( s == null ) {
+				return;
+			}
+			s.shutdown();
+			try {
+				if ( !s.awaitTermination(shutdownTimeoutSecs, TimeUnit.SECONDS) ) {
+					log.warn("Timeout waiting for ModbusRuntime scheduler to complete");
+				}
+			} catch ( InterruptedException e ) {
+				// ignore
+			}
+		});
+		return CompletableFuture.allOf(shutdown(group), shutdown(blockingGroup), stopped);
+	}
+
+	/**
+	 * Stop a timer.
+	 *
+	 * <p>
+	 * A timer can not be stopped by one of its own tasks, so in that case the
+	 * timer is stopped from another thread.
+	 * </p>
+	 *
+	 * @param timer
+	 *        the timer to stop, or {@literal null}
+	 * @return a future that completes once the timer has stopped
+	 */
+	static CompletableFuture<Void> stopTimer(Timer timer) {
+		if ( timer == null ) {
+			return CompletableFuture.completedFuture(null);
+		}
+		try {
+			timer.stop();
+			return CompletableFuture.completedFuture(null);
+		} catch ( IllegalStateException e ) {
+			// called from the timer thread
+			return CompletableFuture.runAsync(timer::stop);
+		} catch ( RuntimeException e ) {
+			CompletableFuture<Void> result = new CompletableFuture<>();
+			result.completeExceptionally(e);
+			return result;
+		}
+	}
+
+	private CompletableFuture<?> shutdown(EventLoopGroup group) {
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		if ( group == null ) {
+			result.complete(null);
+			return result;
+		}
+		group.shutdownGracefully(0, shutdownTimeoutSecs, TimeUnit.SECONDS)
+				.addListener(f -> {
+					if ( f.isSuccess() ) {
+						result.complete(null);
+					} else {
+						result.completeExceptionally(f.cause());
+					}
+				});
+		return result;
+	}
+
+	/**
+	 * Get the current reference count.
+	 * 
+	 * @return the reference count
+	 */
+	public int refCnt() {
+		return refCount.get();
+	}
+
+	/**
+	 * Get the I/O event loop group.
+	 * 
+	 * @return the group, never {@literal null}
+	 */
+	public synchronized EventLoopGroup eventLoopGroup() {
+		if ( eventLoopGroup == null ) {
+			eventLoopGroup = new MultiThreadIoEventLoopGroup(ioThreads,
+					new DefaultThreadFactory("modbus-io", true), NioIoHandler.newFactory());
+		}
+		return eventLoopGroup;
+	}
+
+	/**
+	 * Get the blocking event loop group, suitable for serial port channels.
+	 * 
+	 * @return the group, never {@literal null}
+	 */
+	@SuppressWarnings("deprecation")
+	public synchronized EventLoopGroup blockingEventLoopGroup() {
+		if ( blockingEventLoopGroup == null ) {
+			blockingEventLoopGroup = new io.netty.channel.oio.OioEventLoopGroup(0,
+					new DefaultThreadFactory("modbus-oio", true));
+		}
+		return blockingEventLoopGroup;
+	}
+
+	/**
+	 * Get the timer.
+	 * 
+	 * @return the timer, never {@literal null}
+	 */
+	public synchronized Timer timer() {
+		if ( timer == null ) {
+			timer = new HashedWheelTimer(new DefaultThreadFactory("modbus-timer", true),
+					NettyModbusClient.DEFAULT_TIMER_TICK_MS, TimeUnit.MILLISECONDS);
+		}
+		return timer;
+	}
+
+	/**
+	 * Get the scheduler.
+	 * 
+	 * @return the scheduler, never {@literal null}
+	 */
+	public synchronized ScheduledExecutorService scheduler() {
+		if ( scheduler == null ) {
+			scheduler = Executors
+					.newSingleThreadScheduledExecutor(new DefaultThreadFactory("modbus-sched", true));
+		}
+		return scheduler;
+	}
+
+	/**
+	 * Get the buffer allocator.
+	 * 
+	 * @return the allocator, never {@literal null}
+	 */
+	public ByteBufAllocator allocator() {
+		return allocator;
+	}
+
+	/**
+	 * Get the I/O event loop thread count.
+	 * 
+	 * @return the thread count, or {@literal 0} for the Netty default
+	 */
+	public int getIoThreads() {
+		return ioThreads;
+	}
+
+	/**
+	 * Get the maximum amount of time to wait for resources to shut down.
+	 * 
+	 * @return the timeout, in seconds; defaults to
+	 *         {@link #DEFAULT_SHUTDOWN_TIMEOUT_SECS}
+	 */
+	public long getShutdownTimeoutSecs() {
+		return shutdownTimeoutSecs;
+	}
+
+	/**
+	 * Set the maximum amount of time to wait for resources to shut down.
+	 * 
+	 * @param shutdownTimeoutSecs
+	 *        the timeout to set, in seconds
+	 */
+	public void setShutdownTimeoutSecs(long shutdownTimeoutSecs) {
+		this.shutdownTimeoutSecs = shutdownTimeoutSecs;
+	}
+
+}
@@ -24,18 +24,26 @@ package net.solarnetwork.io.modbus.netty.handler;
 
 import static java.lang.String.format;
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,25 +54,118 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
 import net.solarnetwork.io.modbus.ModbusClient;
 import net.solarnetwork.io.modbus.ModbusClientConfig;
 import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
 import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
 import net.solarnetwork.io.modbus.ModbusMessage;
 import net.solarnetwork.io.modbus.ModbusMessageReply;
 import net.solarnetwork.io.modbus.ModbusTimeoutException;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ModbusMessageUtils;
 
 /**
  * Netty implementation of {@link ModbusClient}.
+ * 
+ * <p>
+ * When the client configuration defines a
+ * {@link ModbusClientConfig#getMaxInFlightRequests()} limit, or the channel is
+ * not writable because its write buffer high water mark has been exceeded,
+ * requests are added to a FIFO queue and sent from the channel's event loop
+ * as responses arrive and the channel becomes writable again. If the queue
+ * grows to {@link ModbusClientConfig#getMaxQueuedRequests()} then new requests
+ * are rejected with a {@link RejectedExecutionException}.
+ * </p>
+ * 
+ * <p>
+ * Requests submitted from threads other than the channel's event loop are also
+ * added to the queue, which is drained by a single event loop task that writes
+ * all waiting requests and then flushes once. Many threads sending on the same
+ * connection thus share event loop tasks and socket writes. A batch of
+ * requests can be submitted together via {@link #sendAllAsync(Collection)}.
+ * Requests queued this way count toward the
+ * {@link ModbusClientConfig#getMaxQueuedRequests()} limit as well.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#isAdaptiveInFlightLimit()} is enabled, the
+ * in-flight limit is instead managed by an {@link AdaptiveInFlightLimit} that
+ * measures the round-trip time of each request, raising the limit while
+ * latency stays flat and lowering it when latency rises or requests time out.
+ * The current limit is available via {@link #getInFlightLimit()}.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#getUnitMaxInFlightRequests(int)} defines a
+ * limit for any unit ID, queued requests are held in a separate queue per unit
+ * ID, and the next request to send is picked from those queues in round-robin
+ * order, skipping units that have reached their limit. This way a slow unit
+ * behind a gateway cannot starve other units sharing the connection.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#getSendMinimumDelayMs()} or
+ * {@link ModbusClientConfig#getSendRateLimit()} are configured, requests are
+ * queued and released from the channel's event loop by a {@link SendPacer},
+ * so no thread is blocked waiting for the pacing delay.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#isDeduplicateReads()} is enabled, a read
+ * request identical to one already in flight is not sent; instead it completes
+ * with the outcome of the request already in flight. This saves a transaction
+ * when independent components poll the same data at the same time. Each caller
+ * still has its own timeout, and a caller that times out or cancels does not
+ * affect the others; only a response or a transport failure completes them
+ * all. The number of requests saved is available via
+ * {@link #getDeduplicatedCount()}.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#isRetainResponseBuffers()} is enabled and
+ * supported by the channel's decoder, register read responses are
+ * {@link ByteBufRegistersModbusMessage} instances that must be released by
+ * the caller, for example via {@link #releaseResponse(ModbusMessage)}. Each
+ * caller of a deduplicated read gets its own reference. Responses that arrive
+ * when no request is waiting for them, such as after a timeout, are released
+ * by the client.
+ * </p>
+ * 
+ * <p>
+ * When {@link ModbusClientConfig#isPooledMessages()} is enabled, the
+ * {@link PendingMessage} tracking each request is obtained from a pool, and
+ * recycled once the request has been sent and has completed, and has been
+ * removed from the pending message map. Nothing handed to callers is pooled.
+ * </p>
+ * 
+ * <p>
+ * Every request is given a deadline on a {@link Timer}, after which its
+ * response future is completed with a {@link ModbusTimeoutException}. A
+ * timer can be shared across many clients via {@link #setTimer(Timer)} or a
+ * {@link ModbusRuntime}; otherwise an internal timer is created when the
+ * client starts. Requests still waiting for a response when the connection
+ * closes or the client stops are completed with an {@link IOException}.
+ * </p>
  *
  * @param <C>
  *        the configuration type
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public abstract class NettyModbusClient<C extends ModbusClientConfig> implements ModbusClient {
 
@@ -74,6 +175,9 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 	/** The {@code replyTimeout} property default value. */
 	public static final long DEFAULT_REPLY_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
 
+	/** The timer tick duration used by internally created timers. */
+	public static final long DEFAULT_TIMER_TICK_MS = 10L;
+
 	/** The handler name used for wire logging. */
 	public static final String WIRE_LOGGING_HANDLER_NAME = "wireLogger";
 
@@ -115,19 +219,49 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 	/** The scheduler. */
 	private ScheduledExecutorService scheduler;
 
+	/** The shared runtime, or {@literal null} if not using one. */
+	private final ModbusRuntime runtime;
+	private boolean runtimeRetained;
+	private boolean runtimeTimer;
+
 	private ModbusClientConnectionObserver connectionObserver;
 	private boolean wireLogging;
 	private long pendingMessageTtl = DEFAULT_PENDING_MESSAGE_TTL;
 	private long replyTimeout = DEFAULT_REPLY_TIMEOUT;
+	private volatile Timer timer;
+	private boolean privateTimer;
 
-	private ScheduledFuture<?> cleanupTask;
 	private CompletableFuture<?> connFuture;
 	private CompletableFuture<?> stopFuture;
 	private volatile Channel channel;
 	private volatile boolean stopped;
 
 	private final ConcurrentMap<ModbusMessage, PendingMessage> pending;
-	private final AtomicLong lastSendDate = new AtomicLong();
+
+	/** Requests waiting to be sent. */
+	private final Queue<PendingMessage> queued = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queuedCount = new AtomicInteger();
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+	/** Flag to prevent re-entrant queue draining; event loop access only. */
+	private boolean draining;
+
+	/** The send pacer, or {@literal null} if no pacing is configured. */
+	private volatile SendPacer pacer;
+
+	/** Flag if a paced drain is scheduled; event loop access only. */
+	private boolean pacedDrainScheduled;
+
+	/** The per-unit queues, or {@literal null} if no unit limits configured. */
+	private volatile UnitQueues unitQueues;
+
+	/** The adaptive in-flight limit, or {@literal null} if not adaptive. */
+	private volatile AdaptiveInFlightLimit inFlightLimit;
+
+	/** Read requests in flight, when deduplicating reads. */
+	private final ConcurrentMap<ReadKey, SharedRead> inFlightReads;
+	private final AtomicLong deduplicatedCount = new AtomicLong();
 
 	/**
 	 * Constructor.
@@ -157,13 +291,44 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 	 */
 	public NettyModbusClient(C clientConfig, ScheduledExecutorService scheduler,
 			ConcurrentMap<ModbusMessage, PendingMessage> pending) {
+		this(clientConfig, null, scheduler, pending);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * If a runtime is provided, the scheduler and timer will be obtained from
+	 * it, and it will be retained when the client starts and released when the
+	 * client stops.
+	 * </p>
+	 * 
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param runtime
+	 *        the shared runtime, or {@literal null} to not use one
+	 * @param scheduler
+	 *        the scheduler, or {@literal null} to create an internal one; not
+	 *        used if {@code runtime} is provided
+	 * @param pending
+	 *        a map for request messages pending responses
+	 * @throws IllegalArgumentException
+	 *         if {@code clientConfig} or {@code pending} is {@literal null}
+	 * @since 1.2
+	 */
+	protected NettyModbusClient(C clientConfig, ModbusRuntime runtime,
+			ScheduledExecutorService scheduler, ConcurrentMap<ModbusMessage, PendingMessage> pending) {
 		super();
 		if ( clientConfig == null ) {
 			throw new IllegalArgumentException("The clientConfig argument must not be null.");
 		}
 		this.clientConfig = clientConfig;
+		this.runtime = runtime;
+		this.inFlightReads = new ConcurrentHashMap<>(8, 0.9f, 2);
 
-		if ( scheduler == null ) {
+		if ( runtime != null ) {
+			this.privateScheduler = false;
+		} else if ( scheduler == null ) {
 			scheduler = Executors.newSingleThreadScheduledExecutor();
 			this.privateScheduler = true;
 		} else {
@@ -184,20 +349,25 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 		}
 		this.stopped = false;
 		this.stopFuture = null;
+		if ( runtime != null && !runtimeRetained ) {
+			runtime.retain();
+			runtimeRetained = true;
+			scheduler = runtime.scheduler();
+			if ( timer == null ) {
+				timer = runtime.timer();
+				runtimeTimer = true;
+			}
+		}
 		if ( privateScheduler && scheduler.isShutdown() ) {
 			scheduler = Executors.newSingleThreadScheduledExecutor();
 		}
+		if ( timer == null ) {
+			timer = new HashedWheelTimer(new DefaultThreadFactory("modbus-timer", true),
+					DEFAULT_TIMER_TICK_MS, TimeUnit.MILLISECONDS);
+			privateTimer = true;
+		}
 		CompletableFuture<?> result = handleConnect(false);
 		connFuture = result;
-		if ( cleanupTask == null ) {
-			long period = getPendingMessageTtl() * 2;
-			if ( period > 0 ) {
-				result.thenRun(() -> {
-					cleanupTask = scheduler.scheduleWithFixedDelay(new PendingMessageExpiredCleaner(),
-							period, period, TimeUnit.MILLISECONDS);
-				});
-			}
-		}
 		return result;
 	}
 
@@ -238,12 +408,31 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 			}
 			this.channel = null;
 		}
-		if ( cleanupTask != null ) {
-			cleanupTask.cancel(true);
-			cleanupTask = null;
+		// the timer is about to be stopped, so nothing else will complete these
+		failPending(connectionClosedException());
+		// stop() can be called from a timeout callback, on the timer thread itself
+		CompletableFuture<?> stopped = CompletableFuture.completedFuture(null);
+		if ( privateTimer && timer != null ) {
+			stopped = ModbusRuntime.stopTimer(timer);
+			timer = null;
+			privateTimer = false;
 		}
-		stopFuture.complete(null);
-		return stopFuture;
+		if ( runtimeTimer ) {
+			timer = null;
+			runtimeTimer = false;
+		}
+		if ( runtimeRetained ) {
+			runtimeRetained = false;
+			stopped = CompletableFuture.allOf(stopped, runtime.release());
+		}
+		final CompletableFuture<?> result = stopFuture;
+		stopped.whenComplete((r, t) -> {
+			if ( t != null ) {
+				log.warn("Error stopping {}: {}", clientConfig.getDescription(), t.toString());
+			}
+			result.complete(null);
+		});
+		return result;
 	}
 
 	private synchronized CompletableFuture<?> handleConnect(boolean reconnecting) {
@@ -297,6 +486,29 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 	 *        the channel to initialize
 	 */
 	protected void initChannel(Channel channel) {
+		if ( clientConfig instanceof NettyModbusClientConfig ) {
+			final NettyModbusClientConfig nettyConfig = (NettyModbusClientConfig) clientConfig;
+			final int high = nettyConfig.getWriteBufferHighWaterMark();
+			if ( high > 0 ) {
+				final int low = nettyConfig.getWriteBufferLowWaterMark();
+				channel.config().setWriteBufferWaterMark(
+						new WriteBufferWaterMark(low > 0 && low <= high ? low : high / 2, high));
+			}
+		}
+		final long sendMinimumDelayMs = clientConfig.getSendMinimumDelayMs();
+		final int sendRateLimit = clientConfig.getSendRateLimit();
+		pacer = (SendPacer.isPacingRequired(sendMinimumDelayMs, sendRateLimit)
+				? new SendPacer(sendMinimumDelayMs, sendRateLimit, clientConfig.getSendRateBurst())
+				: null);
+		pacedDrainScheduled = false;
+		unitQueues = (UnitQueues.isRequired(clientConfig) ? new UnitQueues(clientConfig) : null);
+		if ( clientConfig.isAdaptiveInFlightLimit() ) {
+			final int max = clientConfig.getMaxInFlightRequests();
+			inFlightLimit = new AdaptiveInFlightLimit(AdaptiveInFlightLimit.DEFAULT_INITIAL_LIMIT, 1,
+					max > 0 ? max : AdaptiveInFlightLimit.DEFAULT_MAX_LIMIT);
+		} else {
+			inFlightLimit = null;
+		}
 		ChannelPipeline pipeline = channel.pipeline();
 		if ( wireLogging ) {
 			pipeline.addFirst(WIRE_LOGGING_HANDLER_NAME, new LoggingHandler(
@@ -305,37 +517,16 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 		pipeline.addLast(CLIENT_HANDLER_NAME, newModbusChannelHandler());
 	}
 
-	private ChannelFuture sendAndFlushPacket(Channel channel, ModbusMessage message) {
+	private ChannelFuture sendPacket(Channel channel, ModbusMessage message, boolean flush) {
 		if ( channel.isActive() ) {
-			enforceSendDelay();
-			return channel.writeAndFlush(message);
+			return (flush ? channel.writeAndFlush(message) : channel.write(message));
 		}
-		return channel.newFailedFuture(new IOException(
-				String.format("Connection to %s is closed.", clientConfig.getDescription())));
+		return channel.newFailedFuture(connectionClosedException());
 	}
 
-	private void enforceSendDelay() {
-		final long sendMinimumDelayMs = clientConfig.getSendMinimumDelayMs();
-		if ( sendMinimumDelayMs < 1 ) {
-			return;
-		}
-		long now = 0;
-		long expire = 0;
-		long last = 0;
-		do {
-			now = System.currentTimeMillis();
-			last = lastSendDate.get();
-			expire = last + sendMinimumDelayMs;
-			if ( now < expire ) {
-				try {
-					Thread.sleep(expire - now);
-				} catch ( InterruptedException e ) {
-					// stop waiting
-					break;
-				}
-			}
-		} while ( now < expire );
-		lastSendDate.compareAndSet(last, System.currentTimeMillis());
+	private IOException connectionClosedException() {
+		return new IOException(
+				String.format("Connection to %s is closed.", clientConfig.getDescription()));
 	}
 
 	/**
@@ -379,26 +570,464 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 
 	@Override
 	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+		return sendAsync(request, pendingMessageTtl, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * This releases the buffer held by a response when
+	 * {@link ModbusClientConfig#isRetainResponseBuffers()} is enabled.
+	 * </p>
+	 */
+	@Override
+	public void releaseResponse(ModbusMessage response) {
+		ModbusMessageUtils.release(response);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request, long timeout,
+			TimeUnit unit) {
 		final Channel channel = this.channel;
 		if ( channel == null ) {
-			CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
-			fail.completeExceptionally(new IOException("Client not connected."));
-			return fail;
+			return notConnectedFuture();
+		}
+		final ReadKey key = readKey(request);
+		SharedRead shared = null;
+		CompletableFuture<ModbusMessage> future = null;
+		if ( key != null ) {
+			shared = new SharedRead(key);
+			final CompletableFuture<ModbusMessage> attached = attachRead(shared, request, timeout,
+					unit);
+			if ( attached != null ) {
+				return attached;
+			}
+			future = shared.originator(request, timeout, unit);
+		}
+		// a shared read has no deadline of its own, only those of its callers
+		final PendingMessage p = newPendingMessage(request, (shared != null ? 0 : timeout), unit);
+		if ( shared != null ) {
+			shared.send(p.future);
+		} else {
+			future = p.future; // p may be recycled once sent
+		}
+		if ( enqueue(channel, p, false) ) {
+			scheduleDrain(channel);
+		}
+		return future;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * <p>
+	 * The requests are queued together and written from the channel's event
+	 * loop with a single flush, subject to the same limits as
+	 * {@link #sendAsync(ModbusMessage)}.
+	 * </p>
+	 */
+	@Override
+	public List<CompletableFuture<ModbusMessage>> sendAllAsync(Collection<ModbusMessage> requests) {
+		if ( requests == null ) {
+			throw new IllegalArgumentException("The requests argument must not be null.");
+		}
+		final List<CompletableFuture<ModbusMessage>> result = new ArrayList<>(requests.size());
+		final Channel channel = this.channel;
+		boolean drain = false;
+		for ( ModbusMessage request : requests ) {
+			if ( channel == null ) {
+				result.add(notConnectedFuture());
+				continue;
+			}
+			final ReadKey key = readKey(request);
+			SharedRead shared = null;
+			CompletableFuture<ModbusMessage> future = null;
+			if ( key != null ) {
+				shared = new SharedRead(key);
+				final CompletableFuture<ModbusMessage> attached = attachRead(shared, request,
+						pendingMessageTtl, TimeUnit.MILLISECONDS);
+				if ( attached != null ) {
+					result.add(attached);
+					continue;
+				}
+				future = shared.originator(request, pendingMessageTtl, TimeUnit.MILLISECONDS);
+			}
+			final PendingMessage p = newPendingMessage(request, (shared != null ? 0 : pendingMessageTtl),
+					TimeUnit.MILLISECONDS);
+			if ( shared != null ) {
+				shared.send(p.future);
+			} else {
+				future = p.future; // p may be recycled once sent
+			}
+			if ( enqueue(channel, p, true) ) {
+				drain = true;
+			}
+			result.add(future);
+		}
+		if ( drain ) {
+			scheduleDrain(channel);
+		}
+		return result;
+	}
+
+	/**
+	 * Get a deduplication key for a request.
+	 * 
+	 * @param request
+	 *        the request
+	 * @return the key, or {@literal null} if reads are not deduplicated or
+	 *         the request is not a read that can be deduplicated
+	 */
+	private ReadKey readKey(ModbusMessage request) {
+		if ( !clientConfig.isDeduplicateReads() || request == null
+				|| request.getFunction() == null ) {
+			return null;
+		}
+		final ModbusFunctionCode fn = request.getFunction().functionCode();
+		if ( fn != ModbusFunctionCode.ReadCoils && fn != ModbusFunctionCode.ReadDiscreteInputs
+				&& fn != ModbusFunctionCode.ReadHoldingRegisters
+				&& fn != ModbusFunctionCode.ReadInputRegisters ) {
+			return null;
+		}
+		final AddressedModbusMessage a = request.unwrap(AddressedModbusMessage.class);
+		if ( a == null ) {
+			return null;
 		}
+		return new ReadKey(request.getUnitId(), fn, a.getAddress(), a.getCount());
+	}
+
+	/**
+	 * Attach a read to an identical read already in flight, or else register a
+	 * new shared read.
+	 * 
+	 * @param shared
+	 *        the new shared read to register if no identical read is in flight
+	 * @param request
+	 *        the request
+	 * @param timeout
+	 *        the caller's timeout
+	 * @param unit
+	 *        the timeout unit
+	 * @return the attached caller future, or {@literal null} if {@code shared}
+	 *         was registered and must be sent
+	 */
+	private CompletableFuture<ModbusMessage> attachRead(SharedRead shared, ModbusMessage request,
+			long timeout, TimeUnit unit) {
+		while ( true ) {
+			final SharedRead existing = inFlightReads.putIfAbsent(shared.key, shared);
+			if ( existing == null ) {
+				return null;
+			}
+			final CompletableFuture<ModbusMessage> result = existing.join(request, timeout, unit);
+			if ( result != null ) {
+				deduplicatedCount.incrementAndGet();
+				return result;
+			}
+			// finished since it was looked up, so try again
+			inFlightReads.remove(shared.key, existing);
+		}
+	}
+
+	private static CompletableFuture<ModbusMessage> notConnectedFuture() {
+		CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
+		fail.completeExceptionally(new IOException("Client not connected."));
+		return fail;
+	}
+
+	private PendingMessage newPendingMessage(ModbusMessage request, long timeout, TimeUnit unit) {
 		CompletableFuture<ModbusMessage> resp = new CompletableFuture<>();
-		pending.put(request, new PendingMessage(request, resp));
-		ChannelFuture f = sendAndFlushPacket(channel, request);
+		PendingMessage p = (clientConfig.isPooledMessages()
+				? PendingMessage.newInstance(request, resp)
+				: new PendingMessage(request, resp));
+		pending.put(request, p);
+		resp.whenComplete((r, t) -> pendingMessageCompleted(p, t));
+		scheduleTimeout(p, timeout, unit);
+		return p;
+	}
+
+	/**
+	 * Send a request immediately or add it to the send queue.
+	 * 
+	 * <p>
+	 * Without any limits configured, a request submitted from the channel's
+	 * event loop with nothing already queued is written and flushed directly.
+	 * Requests submitted from other threads are queued so that requests from
+	 * many threads are written by a single event loop task with a single
+	 * flush, rather than one task and one flush each.
+	 * </p>
+	 * 
+	 * @param channel
+	 *        the channel
+	 * @param p
+	 *        the request
+	 * @param batch
+	 *        {@literal true} if more requests are to be submitted with this one
+	 * @return {@literal true} if the request was queued and a drain is
+	 *         required
+	 */
+	private boolean enqueue(Channel channel, PendingMessage p, boolean batch) {
+		if ( !batch && clientConfig.getMaxInFlightRequests() < 1 && pacer == null
+				&& unitQueues == null && inFlightLimit == null && channel.isWritable()
+				&& queuedCount.get() < 1 && channel.eventLoop().inEventLoop() ) {
+			sendPendingMessage(channel, p, true);
+			return false;
+		}
+		final int maxQueued = clientConfig.getMaxQueuedRequests();
+		int count;
+		do {
+			count = queuedCount.get();
+			if ( maxQueued > 0 && count >= maxQueued ) {
+				pending.remove(p.request, p);
+				p.future.completeExceptionally(new RejectedExecutionException(
+						format("The request queue for %s is full (%d requests); request rejected: %s",
+								clientConfig.getDescription(), maxQueued, p.request)));
+				return false;
+			}
+		} while ( !queuedCount.compareAndSet(count, count + 1) );
+		queued.add(p);
+		return true;
+	}
+
+	private void scheduleTimeout(PendingMessage p, long timeout, TimeUnit unit) {
+		p.timeout = newTimeout(p.request, p.future, timeout, unit);
+	}
+
+	private Timeout newTimeout(ModbusMessage request, CompletableFuture<ModbusMessage> future,
+			long timeout, TimeUnit unit) {
+		final Timer t = this.timer;
+		if ( timeout < 1 || t == null ) {
+			return null;
+		}
+		try {
+			return t.newTimeout(new PendingMessageTimeout(request, future, unit.toMillis(timeout)),
+					timeout, unit);
+		} catch ( IllegalStateException | RejectedExecutionException e ) {
+			log.warn("Unable to schedule {} response timeout for request {}: {}",
+					clientConfig.getDescription(), request, e.getMessage());
+		}
+		return null;
+	}
+
+	private void sendPendingMessage(Channel channel, PendingMessage p, boolean flush) {
+		// read everything needed first, as once sent p can complete and be recycled at any time
+		final ModbusMessage request = p.request;
+		final CompletableFuture<ModbusMessage> response = p.future;
+		final UnitQueue unit = p.unit;
+		p.sent = System.nanoTime();
+		if ( !p.state.compareAndSet(PendingMessage.STATE_NEW, PendingMessage.STATE_SENT) ) {
+			// already completed, e.g. cancelled
+			return;
+		}
+		inFlightCount.incrementAndGet();
+		if ( unit != null ) {
+			unit.inFlight.incrementAndGet();
+		}
+		ChannelFuture f = sendPacket(channel, request, flush);
 		f.addListener(new ChannelFutureListener() {
 
 			@Override
 			public void operationComplete(ChannelFuture future) throws Exception {
 				if ( !future.isSuccess() ) {
-					pending.remove(request);
-					resp.completeExceptionally(future.cause());
+					// completion removes the pending message
+					response.completeExceptionally(future.cause());
 				}
 			}
 		});
-		return resp;
+	}
+
+	private void pendingMessageCompleted(PendingMessage p, Throwable t) {
+		final boolean removed = pending.remove(p.request, p);
+		final Timeout timeout = p.timeout;
+		if ( timeout != null ) {
+			timeout.cancel();
+		}
+		if ( p.state.getAndSet(PendingMessage.STATE_DONE) != PendingMessage.STATE_SENT ) {
+			// never recycled, as it might still be in the send queue
+			return;
+		}
+		final int inFlight = inFlightCount.getAndDecrement();
+		if ( p.unit != null ) {
+			p.unit.inFlight.decrementAndGet();
+		}
+		final AdaptiveInFlightLimit limit = this.inFlightLimit;
+		if ( limit != null ) {
+			if ( t == null ) {
+				limit.onSample(System.nanoTime() - p.sent, inFlight);
+			} else if ( t instanceof ModbusTimeoutException ) {
+				limit.onTimeout();
+			}
+		}
+		// hand back the ownership of completion, and of the pending map entry if removed here
+		if ( removed ) {
+			p.release();
+		}
+		p.release();
+		final Channel channel = this.channel;
+		if ( channel != null && queuedCount.get() > 0 ) {
+			scheduleDrain(channel);
+		}
+	}
+
+	private void scheduleDrain(Channel channel) {
+		final EventLoop eventLoop = channel.eventLoop();
+		if ( eventLoop.inEventLoop() ) {
+			drainQueue(channel);
+		} else if ( drainScheduled.compareAndSet(false, true) ) {
+			try {
+				eventLoop.execute(() -> {
+					drainScheduled.set(false);
+					drainQueue(channel);
+				});
+			} catch ( RejectedExecutionException e ) {
+				drainScheduled.set(false);
+				failSubmitted(connectionClosedException());
+			}
+		}
+	}
+
+	/**
+	 * Send queued requests, as allowed by the in-flight limit and channel
+	 * writability.
+	 * 
+	 * <p>
+	 * All requests sent are flushed together at the end.
+	 * </p>
+	 * 
+	 * <p>
+	 * This method must be called from the channel's event loop.
+	 * </p>
+	 * 
+	 * @param channel
+	 *        the channel to send the requests on
+	 */
+	private void drainQueue(Channel channel) {
+		if ( draining ) {
+			return;
+		}
+		draining = true;
+		try {
+			if ( !channel.isActive() ) {
+				failQueued(connectionClosedException());
+				return;
+			}
+			final int maxInFlight = getInFlightLimit();
+			final SendPacer pacer = this.pacer;
+			final UnitQueues units = this.unitQueues;
+			boolean sent = false;
+			while ( channel.isWritable() && (maxInFlight < 1 || inFlightCount.get() < maxInFlight) ) {
+				PendingMessage p = (units != null ? units.peek(queued) : queued.peek());
+				if ( p == null ) {
+					break;
+				}
+				if ( !p.future.isDone() && pacer != null ) {
+					final long wait = pacer.reserve(System.nanoTime());
+					if ( wait > 0 ) {
+						schedulePacedDrain(channel, wait);
+						break;
+					}
+				}
+				if ( units != null ) {
+					units.poll();
+				} else {
+					queued.poll();
+				}
+				queuedCount.decrementAndGet();
+				if ( p.future.isDone() ) {
+					continue;
+				}
+				sendPendingMessage(channel, p, false);
+				sent = true;
+			}
+			if ( sent ) {
+				channel.flush();
+			}
+		} finally {
+			draining = false;
+		}
+	}
+
+	/**
+	 * Schedule a queue drain once the send pacer allows.
+	 * 
+	 * <p>
+	 * This method must be called from the channel's event loop.
+	 * </p>
+	 * 
+	 * @param channel
+	 *        the channel to send the requests on
+	 * @param delayNanos
+	 *        the delay before draining, in nanoseconds
+	 */
+	private void schedulePacedDrain(Channel channel, long delayNanos) {
+		if ( pacedDrainScheduled ) {
+			return;
+		}
+		pacedDrainScheduled = true;
+		try {
+			channel.eventLoop().schedule(() -> {
+				pacedDrainScheduled = false;
+				drainQueue(channel);
+			}, delayNanos, TimeUnit.NANOSECONDS);
+		} catch ( RejectedExecutionException e ) {
+			pacedDrainScheduled = false;
+			// still on the event loop here, so the unit queues can be drained too
+			failQueued(connectionClosedException());
+		}
+	}
+
+	/**
+	 * Fail all queued requests.
+	 * 
+	 * <p>
+	 * This method must be called from the channel's event loop.
+	 * </p>
+	 * 
+	 * @param t
+	 *        the failure
+	 */
+	private void failQueued(Throwable t) {
+		final UnitQueues units = this.unitQueues;
+		PendingMessage p;
+		while ( (p = (units != null ? units.pollAny(queued) : queued.poll())) != null ) {
+			failQueued(p, t);
+		}
+	}
+
+	/**
+	 * Fail the requests in the submission queue only.
+	 * 
+	 * <p>
+	 * This method can be called from any thread. Requests already moved to
+	 * their unit queues are left for the event loop to fail when the channel
+	 * closes.
+	 * </p>
+	 * 
+	 * @param t
+	 *        the failure
+	 */
+	private void failSubmitted(Throwable t) {
+		PendingMessage p;
+		while ( (p = queued.poll()) != null ) {
+			failQueued(p, t);
+		}
+	}
+
+	private void failQueued(PendingMessage p, Throwable t) {
+		queuedCount.decrementAndGet();
+		pending.remove(p.request, p);
+		p.future.completeExceptionally(t);
+	}
+
+	private void failPending(Throwable t) {
+		for ( Map.Entry<ModbusMessage, PendingMessage> e : pending.entrySet() ) {
+			final PendingMessage p = e.getValue();
+			if ( pending.remove(e.getKey(), p) ) {
+				p.future.completeExceptionally(t);
+				// removing p from the pending map took that ownership of it, so hand it back
+				p.release();
+			}
+		}
 	}
 
 	/**
@@ -415,8 +1044,33 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 		return new ModbusChannelHandler();
 	}
 
+	/**
+	 * Test if a request is still waiting for a response.
+	 *
+	 * <p>
+	 * A request stops waiting once it receives a response or its own timeout
+	 * expires, or it fails for another reason. Transport implementations can
+	 * use this to reclaim per-request state, such as a transaction ID, from a
+	 * request that will never be completed by a response.
+	 * </p>
+	 *
+	 * @param request
+	 *        the request to test
+	 * @return {@literal true} if {@code request} was sent by this client and
+	 *         is still waiting for a response
+	 * @since 1.2
+	 */
+	protected boolean isPending(ModbusMessage request) {
+		return (request != null && pending.containsKey(request));
+	}
+
 	private final class ModbusChannelHandler extends SimpleChannelInboundHandler<ModbusMessage> {
 
+		private ModbusChannelHandler() {
+			// a response holding a retained buffer is handed to its caller, not released here
+			super(false);
+		}
+
 		@Override
 		protected void channelRead0(ChannelHandlerContext ctx, ModbusMessage msg) throws Exception {
 			ModbusMessage req = null;
@@ -427,11 +1081,16 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 				// fall back to the last sent request
 				req = ctx.channel().attr(LAST_ENCODED_MESSAGE).getAndSet(null);
 			}
-			if ( req != null ) {
-				PendingMessage p = pending.remove(req);
-				if ( p != null ) {
-					p.future.complete(msg);
-				}
+			PendingMessage p = (req != null ? pending.remove(req) : null);
+			boolean completed = false;
+			if ( p != null ) {
+				completed = p.future.complete(msg);
+				// removing p from the pending map took that ownership of it, so hand it back
+				p.release();
+			}
+			if ( !completed ) {
+				// no one to hand the response to, so release any retained buffer
+				ModbusMessageUtils.release(msg);
 			}
 		}
 
@@ -448,9 +1107,20 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 			}
 		}
 
+		@Override
+		public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+			super.channelWritabilityChanged(ctx);
+			if ( ctx.channel().isWritable() && queuedCount.get() > 0 ) {
+				drainQueue(ctx.channel());
+			}
+		}
+
 		@Override
 		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
 			super.channelInactive(ctx);
+			final IOException closed = connectionClosedException();
+			failQueued(closed);
+			failPending(closed);
 			final ModbusClientConnectionObserver obs = getConnectionObserver();
 			if ( obs != null ) {
 				try {
@@ -466,12 +1136,36 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 
 	/**
 	 * A request message pending a response message.
+	 * 
+	 * <p>
+	 * A pooled instance has two owners: the pending message map entry, and the
+	 * completion of its future once sent. It is recycled when both have
+	 * released it.
+	 * </p>
 	 */
 	public static final class PendingMessage {
 
-		private final ModbusMessage request;
-		private final CompletableFuture<ModbusMessage> future;
-		private final long created; // so can expire
+		private static final int STATE_NEW = 0;
+		private static final int STATE_SENT = 1;
+		private static final int STATE_DONE = 2;
+
+		private static final Recycler<PendingMessage> RECYCLER = new Recycler<PendingMessage>() {
+
+			@Override
+			protected PendingMessage newObject(Handle<PendingMessage> handle) {
+				return new PendingMessage(handle);
+			}
+		};
+
+		private final Handle<PendingMessage> handle;
+		private final AtomicInteger owners;
+		private ModbusMessage request;
+		private CompletableFuture<ModbusMessage> future;
+		private long created; // for getCreated() and toString(); deadlines are on the timer
+		private final AtomicInteger state = new AtomicInteger(STATE_NEW);
+		private volatile Timeout timeout;
+		private UnitQueue unit;
+		private long sent;
 
 		/**
 		 * Constructor.
@@ -494,6 +1188,37 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 			}
 			this.future = future;
 			this.created = System.currentTimeMillis();
+			this.handle = null;
+			this.owners = null;
+		}
+
+		private PendingMessage(Handle<PendingMessage> handle) {
+			super();
+			this.handle = handle;
+			this.owners = new AtomicInteger();
+		}
+
+		private static PendingMessage newInstance(ModbusMessage request,
+				CompletableFuture<ModbusMessage> future) {
+			PendingMessage p = RECYCLER.get();
+			p.request = request;
+			p.future = future;
+			p.created = System.currentTimeMillis();
+			p.state.set(STATE_NEW);
+			p.owners.set(2);
+			return p;
+		}
+
+		private void release() {
+			if ( owners == null || owners.decrementAndGet() != 0 ) {
+				return;
+			}
+			request = null;
+			future = null;
+			timeout = null;
+			unit = null;
+			sent = 0;
+			handle.recycle(this);
 		}
 
 		@Override
@@ -536,36 +1261,369 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 
 	}
 
-	private final class PendingMessageExpiredCleaner implements Runnable {
+	/**
+	 * A read request on the wire shared by all callers reading the same data.
+	 * 
+	 * <p>
+	 * Each caller has its own future with its own timeout. A response or a
+	 * transport failure of the shared request completes every caller, but a
+	 * caller that times out or is cancelled completes only itself. Once every
+	 * caller has finished that way the shared request is abandoned too, so it
+	 * effectively has the deadline of its most patient caller. A response
+	 * holding a retained buffer is retained once for each caller it is handed
+	 * to.
+	 * </p>
+	 */
+	private final class SharedRead {
+
+		private final ReadKey key;
+		private final CompletableFuture<ModbusMessage> originator = new CompletableFuture<>();
+		private final List<CompletableFuture<ModbusMessage>> callers = new ArrayList<>(2);
+		private CompletableFuture<ModbusMessage> wire;
+		private Throwable abandoned;
+		private boolean done;
+
+		private SharedRead(ReadKey key) {
+			super();
+			this.key = key;
+			// the originator is a caller from the start, so attached callers cannot finish it
+			callers.add(originator);
+		}
+
+		/**
+		 * Start tracking the originating caller, once this read has been
+		 * registered.
+		 * 
+		 * @param request
+		 *        the originating request
+		 * @param timeout
+		 *        the originating caller's timeout
+		 * @param unit
+		 *        the timeout unit
+		 * @return the originating caller's future
+		 */
+		private CompletableFuture<ModbusMessage> originator(ModbusMessage request, long timeout,
+				TimeUnit unit) {
+			track(originator, request, timeout, unit);
+			return originator;
+		}
+
+		/**
+		 * Add a caller.
+		 * 
+		 * @param request
+		 *        the caller's request
+		 * @param timeout
+		 *        the caller's timeout
+		 * @param unit
+		 *        the timeout unit
+		 * @return the caller's future, or {@literal null} if this read has
+		 *         already finished
+		 */
+		private CompletableFuture<ModbusMessage> join(ModbusMessage request, long timeout,
+				TimeUnit unit) {
+			final CompletableFuture<ModbusMessage> f = new CompletableFuture<>();
+			synchronized ( this ) {
+				if ( done ) {
+					return null;
+				}
+				callers.add(f);
+			}
+			track(f, request, timeout, unit);
+			return f;
+		}
+
+		private void track(CompletableFuture<ModbusMessage> f, ModbusMessage request, long timeout,
+				TimeUnit unit) {
+			final Timeout t = newTimeout(request, f, timeout, unit);
+			f.whenComplete((r, e) -> {
+				if ( t != null ) {
+					t.cancel();
+				}
+				callerCompleted(f, e);
+			});
+		}
+
+		/**
+		 * Set the future of the request sent on behalf of all callers.
+		 * 
+		 * @param wire
+		 *        the request future
+		 */
+		private void send(CompletableFuture<ModbusMessage> wire) {
+			final Throwable t;
+			synchronized ( this ) {
+				this.wire = wire;
+				t = abandoned;
+			}
+			if ( t != null ) {
+				// every caller finished before the request was even queued
+				abandon(wire, t);
+				wire.thenAccept(ModbusMessageUtils::release);
+				return;
+			}
+			wire.whenComplete(this::wireCompleted);
+		}
+
+		private void callerCompleted(CompletableFuture<ModbusMessage> f, Throwable t) {
+			final CompletableFuture<ModbusMessage> w;
+			final Throwable reason;
+			synchronized ( this ) {
+				if ( done || !callers.remove(f) || !callers.isEmpty() ) {
+					return;
+				}
+				done = true;
+				w = wire;
+				reason = (t != null ? t : new CancellationException());
+				abandoned = reason;
+			}
+			inFlightReads.remove(key, this);
+			if ( w != null ) {
+				abandon(w, reason);
+			}
+		}
+
+		private void abandon(CompletableFuture<ModbusMessage> w, Throwable t) {
+			if ( t instanceof ModbusTimeoutException ) {
+				// let the in-flight limit see the timeout
+				w.completeExceptionally(t);
+			} else {
+				w.cancel(false);
+			}
+		}
+
+		private void wireCompleted(ModbusMessage r, Throwable t) {
+			final CompletableFuture<?>[] list;
+			synchronized ( this ) {
+				if ( done ) {
+					// every caller has already finished
+					ModbusMessageUtils.release(r);
+					return;
+				}
+				done = true;
+				list = callers.toArray(new CompletableFuture<?>[callers.size()]);
+				callers.clear();
+			}
+			// stop attaching before completing, so later reads go to the wire
+			inFlightReads.remove(key, this);
+			for ( CompletableFuture<?> f : list ) {
+				@SuppressWarnings("unchecked")
+				CompletableFuture<ModbusMessage> caller = (CompletableFuture<ModbusMessage>) f;
+				if ( t != null ) {
+					caller.completeExceptionally(t);
+				} else if ( !caller.complete(ModbusMessageUtils.retain(r)) ) {
+					// the caller has already finished, so it will not release its reference
+					ModbusMessageUtils.release(r);
+				}
+			}
+			// each caller has its own reference, so hand back the one taken from the wire
+			ModbusMessageUtils.release(r);
+		}
+
+	}
+
+	/**
+	 * A key identifying identical read requests.
+	 */
+	private static final class ReadKey {
+
+		private final int unitId;
+		private final ModbusFunctionCode function;
+		private final int address;
+		private final int count;
+
+		private ReadKey(int unitId, ModbusFunctionCode function, int address, int count) {
+			super();
+			this.unitId = unitId;
+			this.function = function;
+			this.address = address;
+			this.count = count;
+		}
 
 		@Override
-		public void run() {
-			log.debug("Looking for expired pending Modbus messages");
-			int expiredCount = 0;
-			final long now = System.currentTimeMillis();
-			try {
-				for ( Iterator<PendingMessage> itr = pending.values().iterator(); itr.hasNext(); ) {
-					PendingMessage pending = itr.next();
-					if ( pending.created + pendingMessageTtl < now ) {
-						log.warn(
-								"Dropping pending Modbus request that has not received a response within {}ms: {}",
-								pendingMessageTtl, pending);
-						itr.remove();
-						expiredCount++;
-					}
+		public int hashCode() {
+			return ((unitId * 31 + function.hashCode()) * 31 + address) * 31 + count;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof ReadKey) ) {
+				return false;
+			}
+			ReadKey other = (ReadKey) obj;
+			return unitId == other.unitId && function == other.function
+					&& address == other.address && count == other.count;
+		}
+
+	}
+
+	/**
+	 * A queue of requests to a single unit ID.
+	 */
+	private static final class UnitQueue {
+
+		private final ArrayDeque<PendingMessage> messages = new ArrayDeque<>(4);
+		private final int maxInFlight;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private boolean ready;
+
+		private UnitQueue(int maxInFlight) {
+			super();
+			this.maxInFlight = maxInFlight;
+		}
+
+		private boolean isLimited() {
+			return (maxInFlight > 0 && inFlight.get() >= maxInFlight);
+		}
+
+	}
+
+	/**
+	 * Per-unit request queues with round-robin scheduling.
+	 * 
+	 * <p>
+	 * Except where noted, methods must be called from the channel's event
+	 * loop.
+	 * </p>
+	 */
+	private static final class UnitQueues {
+
+		private static final int UNIT_COUNT = 256;
+
+		private final ModbusClientConfig config;
+		private final UnitQueue[] units = new UnitQueue[UNIT_COUNT];
+		private final ArrayDeque<UnitQueue> ready = new ArrayDeque<>(8);
+
+		private UnitQueues(ModbusClientConfig config) {
+			super();
+			this.config = config;
+		}
+
+		private static boolean isRequired(ModbusClientConfig config) {
+			for ( int i = 0; i < UNIT_COUNT; i++ ) {
+				if ( config.getUnitMaxInFlightRequests(i) > 0 ) {
+					return true;
 				}
-			} catch ( Exception e ) {
-				log.warn("Exception cleaning expired pending Modbus requests: {}", e.toString(), e);
-			} finally {
-				if ( expiredCount < 1 ) {
-					log.debug("Finished cleaning expired pending Modbus requests; none expired.");
-				} else {
-					log.info("Finished cleaning expired pending Modbus requests; {} expired.",
-							expiredCount);
+			}
+			return false;
+		}
+
+		/**
+		 * Move messages from the shared submission queue into their unit
+		 * queues.
+		 * 
+		 * @param queued
+		 *        the submission queue
+		 */
+		private void transfer(Queue<PendingMessage> queued) {
+			PendingMessage p;
+			while ( (p = queued.poll()) != null ) {
+				final int unitId = p.request.getUnitId() & 0xFF;
+				UnitQueue q = units[unitId];
+				if ( q == null ) {
+					q = new UnitQueue(config.getUnitMaxInFlightRequests(unitId));
+					units[unitId] = q;
+				}
+				q.messages.addLast(p);
+				if ( !q.ready ) {
+					q.ready = true;
+					ready.addLast(q);
 				}
 			}
 		}
 
+		/**
+		 * Get the next message to send, leaving its unit at the head of the
+		 * ready queue.
+		 * 
+		 * @param queued
+		 *        the submission queue
+		 * @return the next message to send, or {@literal null} if all queued
+		 *         units have reached their limit
+		 */
+		private PendingMessage peek(Queue<PendingMessage> queued) {
+			transfer(queued);
+			for ( int i = 0, len = ready.size(); i < len; i++ ) {
+				UnitQueue q = ready.peekFirst();
+				PendingMessage p = q.messages.peekFirst();
+				if ( p.future.isDone() || !q.isLimited() ) {
+					return p;
+				}
+				ready.addLast(ready.pollFirst());
+			}
+			return null;
+		}
+
+		/**
+		 * Remove the message last returned by {@link #peek(Queue)}, moving its
+		 * unit to the back of the ready queue.
+		 */
+		private void poll() {
+			UnitQueue q = ready.pollFirst();
+			PendingMessage p = q.messages.pollFirst();
+			p.unit = q;
+			if ( q.messages.isEmpty() ) {
+				q.ready = false;
+			} else {
+				ready.addLast(q);
+			}
+		}
+
+		/**
+		 * Remove any queued message, ignoring unit limits.
+		 * 
+		 * @param queued
+		 *        the submission queue
+		 * @return the message, or {@literal null} if none are queued
+		 */
+		private PendingMessage pollAny(Queue<PendingMessage> queued) {
+			PendingMessage p = queued.poll();
+			if ( p != null ) {
+				return p;
+			}
+			UnitQueue q;
+			while ( (q = ready.peekFirst()) != null ) {
+				p = q.messages.pollFirst();
+				if ( p != null ) {
+					return p;
+				}
+				q.ready = false;
+				ready.pollFirst();
+			}
+			return null;
+		}
+
+	}
+
+	private final class PendingMessageTimeout implements TimerTask {
+
+		// not the PendingMessage itself, which may have been recycled by the time this runs
+		private final ModbusMessage request;
+		private final CompletableFuture<ModbusMessage> future;
+		private final long timeoutMs;
+
+		private PendingMessageTimeout(ModbusMessage request,
+				CompletableFuture<ModbusMessage> future, long timeoutMs) {
+			super();
+			this.request = request;
+			this.future = future;
+			this.timeoutMs = timeoutMs;
+		}
+
+		@Override
+		public void run(Timeout timeout) throws Exception {
+			if ( future.isDone() ) {
+				return;
+			}
+			log.debug("Modbus request to {} has not received a response within {}ms: {}",
+					clientConfig.getDescription(), timeoutMs, request);
+			future.completeExceptionally(new ModbusTimeoutException(
+					format("Timeout waiting %dms for response to %s.", timeoutMs, request)));
+		}
+
 	}
 
 	@Override
@@ -573,6 +1631,56 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 		return clientConfig;
 	}
 
+	/**
+	 * Get the number of requests that have been sent but not yet completed.
+	 * 
+	 * @return the in-flight request count
+	 * @since 1.2
+	 */
+	public int getInFlightCount() {
+		return inFlightCount.get();
+	}
+
+	/**
+	 * Get the number of requests queued, waiting to be sent.
+	 * 
+	 * @return the queued request count
+	 * @since 1.2
+	 */
+	public int getQueuedCount() {
+		return queuedCount.get();
+	}
+
+	/**
+	 * Get the current in-flight request limit.
+	 * 
+	 * <p>
+	 * If {@link ModbusClientConfig#isAdaptiveInFlightLimit()} is enabled, this
+	 * returns the current adaptive limit. Otherwise it returns the configured
+	 * {@link ModbusClientConfig#getMaxInFlightRequests()} value.
+	 * </p>
+	 * 
+	 * @return the in-flight limit, or anything less than {@literal 1} for no
+	 *         limit
+	 * @since 1.2
+	 */
+	public int getInFlightLimit() {
+		final AdaptiveInFlightLimit limit = this.inFlightLimit;
+		return (limit != null ? limit.getLimit() : clientConfig.getMaxInFlightRequests());
+	}
+
+	/**
+	 * Get the number of read requests that were not sent because an identical
+	 * request was already in flight.
+	 * 
+	 * @return the deduplicated request count
+	 * @see ModbusClientConfig#isDeduplicateReads()
+	 * @since 1.2
+	 */
+	public long getDeduplicatedCount() {
+		return deduplicatedCount.get();
+	}
+
 	/**
 	 * Get the connection observer.
 	 * 
@@ -629,9 +1737,12 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 	 * Set the pending Modbus message time-to-live expiration time.
 	 * 
 	 * <p>
-	 * This timeout represents the minimum amount of time the client will wait
-	 * for a Modbus message response, before it qualifies for removal from the
-	 * pending message queue.
+	 * This timeout is the default amount of time the client will wait for a
+	 * Modbus message response, after which the response future is completed
+	 * with a {@link ModbusTimeoutException} and the request is removed from
+	 * the pending message queue. It is used by {@link #sendAsync(ModbusMessage)}
+	 * and can be overridden per request with
+	 * {@link #sendAsync(ModbusMessage, long, TimeUnit)}.
 	 * </p>
 	 * 
 	 * @param pendingMessageTtl
@@ -660,4 +1771,49 @@ public abstract class NettyModbusClient<C extends ModbusClientConfig> implements
 		this.replyTimeout = replyTimeout;
 	}
 
+	/**
+	 * Get the timer used for request timeouts.
+	 * 
+	 * @return the timer, or {@literal null} if one has not been configured and
+	 *         the client has not been started
+	 * @since 1.2
+	 */
+	public Timer getTimer() {
+		return timer;
+	}
+
+	/**
+	 * Set the timer to use for request timeouts.
+	 * 
+	 * <p>
+	 * A timer set via this method is not stopped when the client is stopped,
+	 * so a single timer can be shared by many clients. If no timer is
+	 * configured, an internal one will be created when the client is started,
+	 * and stopped when the client is stopped.
+	 * </p>
+	 * 
+	 * @param timer
+	 *        the timer to set, or {@literal null} to use an internal one
+	 * @since 1.2
+	 */
+	public synchronized void setTimer(Timer timer) {
+		if ( privateTimer && this.timer != null && this.timer != timer ) {
+			ModbusRuntime.stopTimer(this.timer);
+		}
+		this.timer = timer;
+		this.privateTimer = false;
+		this.runtimeTimer = false;
+	}
+
+	/**
+	 * Get the shared runtime.
+	 * 
+	 * @return the runtime, or {@literal null} if the client is not using a
+	 *         shared runtime
+	 * @since 1.2
+	 */
+	public ModbusRuntime getRuntime() {
+		return runtime;
+	}
+
 }
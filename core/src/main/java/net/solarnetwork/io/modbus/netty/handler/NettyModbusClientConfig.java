@@ -22,19 +22,33 @@
 
 package net.solarnetwork.io.modbus.netty.handler;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.solarnetwork.io.modbus.ModbusClientConfig;
 
 /**
  * Netty implementation of {@link ModbusClientConfig}.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public abstract class NettyModbusClientConfig implements ModbusClientConfig {
 
 	private boolean autoReconnect = DEFAULT_AUTO_RECONNECT;
 	private long autoReconnectDelaySeconds = DEFAULT_RECONNECT_DELAY_SECS;
 	private long sendMinimumDelayMs;
+	private int maxInFlightRequests;
+	private int maxQueuedRequests;
+	private int writeBufferLowWaterMark;
+	private int writeBufferHighWaterMark;
+	private int sendRateLimit;
+	private int sendRateBurst = 1;
+	private int unitMaxInFlightRequests;
+	private volatile Map<Integer, Integer> unitMaxInFlightRequestsOverrides;
+	private boolean adaptiveInFlightLimit;
+	private boolean deduplicateReads;
+	private boolean retainResponseBuffers;
+	private boolean pooledMessages;
 
 	@Override
 	public String toString() {
@@ -88,4 +102,262 @@ public abstract class NettyModbusClientConfig implements ModbusClientConfig {
 		this.sendMinimumDelayMs = sendMinimumDelayMs;
 	}
 
+	@Override
+	public int getMaxInFlightRequests() {
+		return maxInFlightRequests;
+	}
+
+	/**
+	 * Set the maximum number of requests that can be outstanding at once.
+	 *
+	 * @param maxInFlightRequests
+	 *        the maximum number of outstanding requests, or anything less than
+	 *        {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	public void setMaxInFlightRequests(int maxInFlightRequests) {
+		this.maxInFlightRequests = maxInFlightRequests;
+	}
+
+	@Override
+	public int getMaxQueuedRequests() {
+		return maxQueuedRequests;
+	}
+
+	/**
+	 * Set the maximum number of requests that can be queued waiting to be
+	 * sent.
+	 *
+	 * @param maxQueuedRequests
+	 *        the maximum number of queued requests, or anything less than
+	 *        {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	public void setMaxQueuedRequests(int maxQueuedRequests) {
+		this.maxQueuedRequests = maxQueuedRequests;
+	}
+
+	/**
+	 * Get the channel write buffer low water mark.
+	 *
+	 * @return the low water mark, in bytes, or anything less than {@literal 1}
+	 *         to use half of the high water mark
+	 * @since 1.2
+	 */
+	public int getWriteBufferLowWaterMark() {
+		return writeBufferLowWaterMark;
+	}
+
+	/**
+	 * Set the channel write buffer low water mark.
+	 * 
+	 * <p>
+	 * When the channel has been marked as not writable because the high water
+	 * mark was exceeded, queued requests will be sent again once the number of
+	 * bytes pending in the write buffer falls below this value.
+	 * </p>
+	 *
+	 * @param writeBufferLowWaterMark
+	 *        the low water mark to set, in bytes, or anything less than
+	 *        {@literal 1} to use half of the high water mark
+	 * @since 1.2
+	 */
+	public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+		this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+	}
+
+	/**
+	 * Get the channel write buffer high water mark.
+	 *
+	 * @return the high water mark, in bytes, or anything less than {@literal 1}
+	 *         to use the channel default
+	 * @since 1.2
+	 */
+	public int getWriteBufferHighWaterMark() {
+		return writeBufferHighWaterMark;
+	}
+
+	/**
+	 * Set the channel write buffer high water mark.
+	 * 
+	 * <p>
+	 * Once the number of bytes pending in the channel write buffer exceeds
+	 * this value, new requests will be queued rather than sent.
+	 * </p>
+	 *
+	 * @param writeBufferHighWaterMark
+	 *        the high water mark to set, in bytes, or anything less than
+	 *        {@literal 1} to use the channel default
+	 * @since 1.2
+	 */
+	public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+		this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+	}
+
+	@Override
+	public int getSendRateLimit() {
+		return sendRateLimit;
+	}
+
+	/**
+	 * Set the maximum rate of sending messages, in messages per second.
+	 *
+	 * @param sendRateLimit
+	 *        the maximum number of messages to send per second, or anything
+	 *        less than {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	public void setSendRateLimit(int sendRateLimit) {
+		this.sendRateLimit = sendRateLimit;
+	}
+
+	@Override
+	public int getSendRateBurst() {
+		return sendRateBurst;
+	}
+
+	/**
+	 * Set the number of messages that can be sent at once, without waiting,
+	 * when a send rate limit is configured.
+	 *
+	 * @param sendRateBurst
+	 *        the maximum burst size; anything less than {@literal 1} is
+	 *        treated as {@literal 1}
+	 * @since 1.2
+	 */
+	public void setSendRateBurst(int sendRateBurst) {
+		this.sendRateBurst = sendRateBurst;
+	}
+
+	@Override
+	public int getUnitMaxInFlightRequests(int unitId) {
+		final Map<Integer, Integer> overrides = unitMaxInFlightRequestsOverrides;
+		if ( overrides != null ) {
+			Integer max = overrides.get(unitId);
+			if ( max != null ) {
+				return max;
+			}
+		}
+		return unitMaxInFlightRequests;
+	}
+
+	/**
+	 * Get the default maximum number of requests to any one unit ID that can
+	 * be outstanding at once.
+	 *
+	 * @return the maximum number of outstanding requests per unit, or anything
+	 *         less than {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	public int getUnitMaxInFlightRequests() {
+		return unitMaxInFlightRequests;
+	}
+
+	/**
+	 * Set the default maximum number of requests to any one unit ID that can
+	 * be outstanding at once.
+	 *
+	 * @param unitMaxInFlightRequests
+	 *        the maximum number of outstanding requests per unit, or anything
+	 *        less than {@literal 1} for no limit
+	 * @since 1.2
+	 */
+	public void setUnitMaxInFlightRequests(int unitMaxInFlightRequests) {
+		this.unitMaxInFlightRequests = unitMaxInFlightRequests;
+	}
+
+	/**
+	 * Set the maximum number of requests to a specific unit ID that can be
+	 * outstanding at once, overriding the default per-unit limit.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param maxInFlightRequests
+	 *        the maximum number of outstanding requests to the unit, or
+	 *        {@literal 0} for no limit, or anything less than {@literal 0} to
+	 *        remove the override and use the default per-unit limit
+	 * @see #setUnitMaxInFlightRequests(int)
+	 * @since 1.2
+	 */
+	public synchronized void setUnitMaxInFlightRequests(int unitId, int maxInFlightRequests) {
+		Map<Integer, Integer> overrides = unitMaxInFlightRequestsOverrides;
+		if ( maxInFlightRequests < 0 ) {
+			if ( overrides != null ) {
+				overrides.remove(unitId);
+			}
+			return;
+		}
+		if ( overrides == null ) {
+			overrides = new ConcurrentHashMap<>(8, 0.9f, 2);
+			unitMaxInFlightRequestsOverrides = overrides;
+		}
+		overrides.put(unitId, maxInFlightRequests);
+	}
+
+	@Override
+	public boolean isAdaptiveInFlightLimit() {
+		return adaptiveInFlightLimit;
+	}
+
+	/**
+	 * Set the adaptive in-flight limit mode.
+	 *
+	 * @param adaptiveInFlightLimit
+	 *        {@literal true} to adapt the in-flight request limit to observed
+	 *        latency
+	 * @since 1.2
+	 */
+	public void setAdaptiveInFlightLimit(boolean adaptiveInFlightLimit) {
+		this.adaptiveInFlightLimit = adaptiveInFlightLimit;
+	}
+
+	@Override
+	public boolean isDeduplicateReads() {
+		return deduplicateReads;
+	}
+
+	/**
+	 * Set the read deduplication mode.
+	 *
+	 * @param deduplicateReads
+	 *        {@literal true} to deduplicate identical in-flight read requests
+	 * @since 1.2
+	 */
+	public void setDeduplicateReads(boolean deduplicateReads) {
+		this.deduplicateReads = deduplicateReads;
+	}
+
+	@Override
+	public boolean isRetainResponseBuffers() {
+		return retainResponseBuffers;
+	}
+
+	/**
+	 * Set the retain response buffers mode.
+	 *
+	 * @param retainResponseBuffers
+	 *        {@literal true} to retain register read response data in network
+	 *        buffers, rather than copy it
+	 * @since 1.2
+	 */
+	public void setRetainResponseBuffers(boolean retainResponseBuffers) {
+		this.retainResponseBuffers = retainResponseBuffers;
+	}
+
+	@Override
+	public boolean isPooledMessages() {
+		return pooledMessages;
+	}
+
+	/**
+	 * Set the pooled messages mode.
+	 *
+	 * @param pooledMessages
+	 *        {@literal true} to recycle internal message objects
+	 * @since 1.2
+	 */
+	public void setPooledMessages(boolean pooledMessages) {
+		this.pooledMessages = pooledMessages;
+	}
+
 }
@@ -0,0 +1,129 @@
+/* ==================================================================
+ * SendPacer.java - 17/10/2026 1:14:26 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pace the sending of messages on a connection, by a minimum delay between
+ * messages and/or a token-bucket rate limit.
+ * 
+ * <p>
+ * The rate limit is implemented as a virtual scheduling algorithm, which is
+ * equivalent to a token bucket that holds up to {@code burst} tokens and is
+ * refilled at {@code ratePerSecond} tokens per second.
+ * </p>
+ * 
+ * <p>
+ * This class is <b>not</b> thread safe. It is designed to be used by a single
+ * channel, from that channel's event loop. Times are {@link System#nanoTime()}
+ * values.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SendPacer {
+
+	private final long minimumDelayNanos;
+	private final long intervalNanos;
+	private final long burstToleranceNanos;
+
+	private boolean started;
+	private long lastSend;
+	private long theoreticalArrival;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param minimumDelayMs
+	 *        the minimum delay between messages, in milliseconds, or anything
+	 *        less than {@literal 1} for no delay
+	 * @param ratePerSecond
+	 *        the maximum number of messages per second, or anything less than
+	 *        {@literal 1} for no limit
+	 * @param burst
+	 *        the maximum number of messages that can be sent at once when a
+	 *        rate limit is configured; anything less than {@literal 1} is
+	 *        treated as {@literal 1}
+	 */
+	public SendPacer(long minimumDelayMs, int ratePerSecond, int burst) {
+		super();
+		this.minimumDelayNanos = (minimumDelayMs > 0 ? TimeUnit.MILLISECONDS.toNanos(minimumDelayMs)
+				: 0);
+		this.intervalNanos = (ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0);
+		this.burstToleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+	}
+
+	/**
+	 * Test if any pacing is configured.
+	 * 
+	 * @param minimumDelayMs
+	 *        the minimum delay between messages, in milliseconds
+	 * @param ratePerSecond
+	 *        the maximum number of messages per second
+	 * @return {@literal true} if either argument would cause pacing to occur
+	 */
+	public static boolean isPacingRequired(long minimumDelayMs, int ratePerSecond) {
+		return (minimumDelayMs > 0 || ratePerSecond > 0);
+	}
+
+	/**
+	 * Reserve the right to send a message.
+	 * 
+	 * <p>
+	 * If a message can be sent at the given time, the send is recorded and
+	 * {@literal 0} is returned. Otherwise nothing is recorded and the amount of
+	 * time to wait before trying again is returned.
+	 * </p>
+	 * 
+	 * @param now
+	 *        the current time, in nanoseconds
+	 * @return the time to wait before a message can be sent, in nanoseconds,
+	 *         or {@literal 0} if the message can be sent now
+	 */
+	public long reserve(long now) {
+		if ( !started ) {
+			started = true;
+			lastSend = now;
+			theoreticalArrival = now + intervalNanos;
+			return 0;
+		}
+		long wait = 0;
+		if ( minimumDelayNanos > 0 ) {
+			wait = lastSend + minimumDelayNanos - now;
+		}
+		if ( intervalNanos > 0 ) {
+			wait = Math.max(wait, theoreticalArrival - burstToleranceNanos - now);
+		}
+		if ( wait > 0 ) {
+			return wait;
+		}
+		lastSend = now;
+		if ( intervalNanos > 0 ) {
+			theoreticalArrival = Math.max(theoreticalArrival, now) + intervalNanos;
+		}
+		return 0;
+	}
+
+}
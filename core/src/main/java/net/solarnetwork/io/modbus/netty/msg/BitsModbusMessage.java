@@ -22,11 +22,10 @@
 
 package net.solarnetwork.io.modbus.netty.msg;
 
-import static net.solarnetwork.io.modbus.ModbusByteUtils.encode16;
 import java.math.BigInteger;
+import java.util.BitSet;
 import io.netty.buffer.ByteBuf;
 import net.solarnetwork.io.modbus.ModbusBlockType;
-import net.solarnetwork.io.modbus.ModbusByteUtils;
 import net.solarnetwork.io.modbus.ModbusError;
 import net.solarnetwork.io.modbus.ModbusErrorCode;
 import net.solarnetwork.io.modbus.ModbusFunction;
@@ -37,13 +36,39 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * An addressed Modbus message for bit-related blocks, like coils and discrete
  * input registers.
  *
+ * <p>
+ * The bit values are stored as a packed array of {@code long} words, in Modbus
+ * wire order: bit {@code 0} of the first word holds the value of the first
+ * coil or discrete input in the message. Bit tests, {@link BitSet} exports,
+ * and encoding work directly on the packed words, without allocating. The
+ * {@link #getBits()} {@code BigInteger} value is created on demand, for
+ * compatibility, and the {@code bitsMessage()} factory methods create messages
+ * from a {@link BitSet}, {@code boolean} array, or packed words without one.
+ * </p>
+ *
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 public class BitsModbusMessage extends AddressedModbusMessage
 		implements net.solarnetwork.io.modbus.BitsModbusMessage {
 
-	private final BigInteger bits;
+	/**
+	 * The maximum number of coils or discrete inputs that can be read at once.
+	 * 
+	 * @since 1.1
+	 */
+	public static final int MAX_READ_BITS_COUNT = 0x7D0;
+
+	/**
+	 * The maximum number of coils that can be written at once.
+	 * 
+	 * @since 1.1
+	 */
+	public static final int MAX_WRITE_BITS_COUNT = 0x7B0;
+
+	private final long[] words;
+	private final int byteLength;
+	private volatile BigInteger bits;
 
 	/**
 	 * Constructor.
@@ -110,9 +135,46 @@ public class BitsModbusMessage extends AddressedModbusMessage
 	public BitsModbusMessage(int unitId, ModbusFunction function, ModbusError error, int address,
 			int count, BigInteger bits) {
 		super(unitId, function, error, address, count);
+		if ( bits != null ) {
+			final byte[] data = bits.toByteArray();
+			this.words = new long[wordCount(data.length)];
+			this.byteLength = data.length;
+			for ( int i = 0, len = data.length; i < len; i++ ) {
+				setByte(words, i, data[len - 1 - i]);
+			}
+		} else {
+			this.words = null;
+			this.byteLength = 0;
+		}
 		this.bits = bits;
 	}
 
+	/**
+	 * Constructor.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param error
+	 *        the error, or {@literal null} if no error
+	 * @param address
+	 *        the address
+	 * @param count
+	 *        the value count
+	 * @param words
+	 *        the packed bit values, or {@literal null}; this array is used
+	 *        directly, not copied
+	 * @param byteLength
+	 *        the number of bytes of {@code words} that hold bit values
+	 */
+	private BitsModbusMessage(int unitId, ModbusFunction function, ModbusError error, int address,
+			int count, long[] words, int byteLength) {
+		super(unitId, function, error, address, count);
+		this.words = words;
+		this.byteLength = byteLength;
+	}
+
 	/**
 	 * Create a read coils request message.
 	 * 
@@ -272,6 +334,175 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		}
 	}
 
+	/**
+	 * Create a read coils or discrete inputs response message from a
+	 * {@code BitSet}.
+	 * 
+	 * @param type
+	 *        the block type; only Coil and Discrete types are supported
+	 * @param unitId
+	 *        the unit ID
+	 * @param address
+	 *        the bit register address read from
+	 * @param count
+	 *        the number of bits read
+	 * @param bits
+	 *        the bits, where bit {@code offset} is the value at
+	 *        {@code address}
+	 * @param offset
+	 *        the index within {@code bits} of the first value
+	 * @return the new message
+	 * @throws IllegalArgumentException
+	 *         if {@code type} is not supported or {@code bits} is
+	 *         {@literal null}
+	 * @since 1.2
+	 */
+	public static BitsModbusMessage readBitsResponse(ModbusBlockType type, int unitId, int address,
+			int count, BitSet bits, int offset) {
+		switch (type) {
+			case Coil:
+				return bitsMessage(unitId, ModbusFunctionCode.ReadCoils, address, count, bits,
+						offset);
+
+			case Discrete:
+				return bitsMessage(unitId, ModbusFunctionCode.ReadDiscreteInputs, address, count,
+						bits, offset);
+
+			default:
+				throw new IllegalArgumentException(
+						"Only Coil/Discrete types are supported; got " + type);
+		}
+	}
+
+	/**
+	 * Create a bits message from a {@code BitSet}.
+	 * 
+	 * <p>
+	 * The bit values are copied, so {@code bits} can be reused afterwards.
+	 * </p>
+	 * 
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param address
+	 *        the address
+	 * @param count
+	 *        the value count
+	 * @param bits
+	 *        the bits, where bit {@code offset} is the value at
+	 *        {@code address}; bits beyond {@code count} values are ignored
+	 * @param offset
+	 *        the index within {@code bits} of the first value
+	 * @return the new message
+	 * @throws IllegalArgumentException
+	 *         if {@code function} or {@code bits} is {@literal null}
+	 * @since 1.2
+	 */
+	public static BitsModbusMessage bitsMessage(int unitId, ModbusFunction function, int address,
+			int count, BitSet bits, int offset) {
+		if ( bits == null ) {
+			throw new IllegalArgumentException("The bits argument must not be null.");
+		}
+		final long[] words = new long[wordCount(byteCount(count))];
+		for ( int i = bits.nextSetBit(offset); i >= 0 && i - offset < count; i = bits
+				.nextSetBit(i + 1) ) {
+			words[(i - offset) >>> 6] |= 1L << (i - offset);
+		}
+		return new BitsModbusMessage(unitId, function, null, address, count, words,
+				unsignedByteLength(count));
+	}
+
+	/**
+	 * Create a bits message from a {@code boolean} array.
+	 * 
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param address
+	 *        the address
+	 * @param values
+	 *        the values, where {@code values[offset]} is the value at
+	 *        {@code address}
+	 * @param offset
+	 *        the index within {@code values} of the first value
+	 * @param count
+	 *        the value count
+	 * @return the new message
+	 * @throws IllegalArgumentException
+	 *         if {@code function} or {@code values} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code values} does not have {@code count} values from
+	 *         {@code offset}
+	 * @since 1.2
+	 */
+	public static BitsModbusMessage bitsMessage(int unitId, ModbusFunction function, int address,
+			boolean[] values, int offset, int count) {
+		if ( values == null ) {
+			throw new IllegalArgumentException("The values argument must not be null.");
+		}
+		if ( offset < 0 || count < 0 || offset + count > values.length ) {
+			throw new IndexOutOfBoundsException(
+					String.format("Cannot copy %d bits at offset %d from array of length %d.", count,
+							offset, values.length));
+		}
+		final long[] words = new long[wordCount(byteCount(count))];
+		for ( int i = 0; i < count; i++ ) {
+			if ( values[offset + i] ) {
+				words[i >>> 6] |= 1L << i;
+			}
+		}
+		return new BitsModbusMessage(unitId, function, null, address, count, words,
+				unsignedByteLength(count));
+	}
+
+	/**
+	 * Create a bits message from packed bit values.
+	 * 
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param address
+	 *        the address
+	 * @param count
+	 *        the value count
+	 * @param words
+	 *        the packed bit values, where bit {@code 0} of the first word is
+	 *        the value at {@code address}; the values are copied, and bits
+	 *        beyond {@code count} values are ignored
+	 * @return the new message
+	 * @throws IllegalArgumentException
+	 *         if {@code function} or {@code words} is {@literal null}
+	 * @since 1.2
+	 */
+	public static BitsModbusMessage packedBitsMessage(int unitId, ModbusFunction function,
+			int address, int count, long[] words) {
+		if ( words == null ) {
+			throw new IllegalArgumentException("The words argument must not be null.");
+		}
+		final long[] data = new long[wordCount(byteCount(count))];
+		System.arraycopy(words, 0, data, 0, Math.min(words.length, data.length));
+		if ( (count & 63) != 0 && data.length > 0 ) {
+			data[data.length - 1] &= (1L << count) - 1;
+		}
+		return new BitsModbusMessage(unitId, function, null, address, count, data,
+				unsignedByteLength(count));
+	}
+
+	/**
+	 * Get the byte length of {@code count} bits with room for a zero sign
+	 * byte, so {@link #getBits()} is never negative.
+	 * 
+	 * @param count
+	 *        the bit count
+	 * @return the byte length
+	 */
+	private static int unsignedByteLength(int count) {
+		return byteCount(count) + 1;
+	}
+
 	/**
 	 * Decode a Modbus request message.
 	 * 
@@ -298,7 +529,8 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		}
 		int addr = address;
 		int cnt = count;
-		BigInteger data = null;
+		long[] data = null;
+		int byteLen = 0;
 		if ( function != null ) {
 			switch (function) {
 				case ReadCoils:
@@ -307,29 +539,25 @@ public class BitsModbusMessage extends AddressedModbusMessage
 					cnt = in.readUnsignedShort();
 					break;
 
-				case WriteCoil: {
+				case WriteCoil:
 					addr = in.readUnsignedShort();
 					cnt = 1;
-					int val = in.readUnsignedShort();
-					data = (val == 0xFF00 ? BigInteger.ONE : BigInteger.ZERO);
-				}
+					data = decodeWriteCoilValue(in);
+					byteLen = 1;
 					break;
 
-				case WriteCoils: {
+				case WriteCoils:
 					addr = in.readUnsignedShort();
 					cnt = in.readUnsignedShort();
-					byte[] byteData = new byte[in.readUnsignedByte()];
-					in.readBytes(byteData);
-					ModbusByteUtils.reverse(byteData);
-					data = new BigInteger(byteData);
-				}
+					byteLen = in.readUnsignedByte();
+					data = decodeWords(in, byteLen);
 					break;
 
 				default:
 					return null;
 			}
 		}
-		return new BitsModbusMessage(unitId, fn, error, addr, cnt, data);
+		return new BitsModbusMessage(unitId, fn, error, addr, cnt, data, byteLen);
 	}
 
 	/**
@@ -358,24 +586,21 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		}
 		int addr = address;
 		int cnt = count;
-		BigInteger data = null;
+		long[] data = null;
+		int byteLen = 0;
 		if ( function != null ) {
 			switch (function) {
 				case ReadCoils:
-				case ReadDiscreteInputs: {
-					byte[] byteData = new byte[in.readUnsignedByte()];
-					in.readBytes(byteData);
-					ModbusByteUtils.reverse(byteData);
-					data = new BigInteger(byteData);
-				}
+				case ReadDiscreteInputs:
+					byteLen = in.readUnsignedByte();
+					data = decodeWords(in, byteLen);
 					break;
 
-				case WriteCoil: {
+				case WriteCoil:
 					addr = in.readUnsignedShort();
 					cnt = 1;
-					int val = in.readUnsignedShort();
-					data = (val == 0xFF00 ? BigInteger.ONE : BigInteger.ZERO);
-				}
+					data = decodeWriteCoilValue(in);
+					byteLen = 1;
 					break;
 
 				case WriteCoils:
@@ -387,7 +612,49 @@ public class BitsModbusMessage extends AddressedModbusMessage
 					return null;
 			}
 		}
-		return new BitsModbusMessage(unitId, fn, error, addr, cnt, data);
+		return new BitsModbusMessage(unitId, fn, error, addr, cnt, data, byteLen);
+	}
+
+	private static int wordCount(int byteLength) {
+		return (byteLength + 7) >>> 3;
+	}
+
+	private static void setByte(long[] words, int idx, byte b) {
+		words[idx >>> 3] |= (b & 0xFFL) << ((idx & 7) << 3);
+	}
+
+	private static byte getByte(long[] words, int idx) {
+		final int w = idx >>> 3;
+		return (w < words.length ? (byte) (words[w] >>> ((idx & 7) << 3)) : 0);
+	}
+
+	private static long[] decodeWords(ByteBuf in, int byteLength) {
+		final long[] result = new long[wordCount(byteLength)];
+		int i = 0;
+		for ( int w = 0, end = byteLength >>> 3; w < end; w++, i += 8 ) {
+			result[w] = in.readLongLE();
+		}
+		for ( ; i < byteLength; i++ ) {
+			setByte(result, i, in.readByte());
+		}
+		return result;
+	}
+
+	private static long[] decodeWriteCoilValue(ByteBuf in) {
+		return new long[] { in.readUnsignedShort() == 0xFF00 ? 1L : 0L };
+	}
+
+	private static boolean wordsEqual(long[] a, long[] b) {
+		if ( a == null || b == null ) {
+			return a == b;
+		}
+		final int len = Math.max(a.length, b.length);
+		for ( int i = 0; i < len; i++ ) {
+			if ( (i < a.length ? a[i] : 0L) != (i < b.length ? b[i] : 0L) ) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -399,12 +666,106 @@ public class BitsModbusMessage extends AddressedModbusMessage
 			return false;
 		}
 		BitsModbusMessage other = (BitsModbusMessage) obj;
-		return bits.equals(other.bits);
+		return wordsEqual(words, other.words);
 	}
 
+	/**
+	 * Get the bits.
+	 *
+	 * <p>
+	 * The returned value is created from the packed bit values the first time
+	 * this method is called, for messages not constructed with a
+	 * {@code BigInteger} value.
+	 * </p>
+	 *
+	 * @return the bits, or {@literal null} if no data
+	 */
 	@Override
 	public BigInteger getBits() {
-		return bits;
+		BigInteger result = bits;
+		if ( result == null && words != null ) {
+			if ( byteLength < 1 ) {
+				result = BigInteger.ZERO;
+			} else {
+				final byte[] data = new byte[byteLength];
+				for ( int i = 0; i < byteLength; i++ ) {
+					data[byteLength - 1 - i] = getByte(words, i);
+				}
+				result = new BigInteger(data);
+			}
+			bits = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Test if a specific bit is enabled.
+	 *
+	 * <p>
+	 * This method does not allocate any memory.
+	 * </p>
+	 *
+	 * @param idx
+	 *        the index of the bit to test
+	 * @return {@literal true} if that bit is set
+	 */
+	@Override
+	public boolean isBitEnabled(final int idx) {
+		if ( idx < 0 || words == null ) {
+			return false;
+		}
+		final int w = idx >>> 6;
+		return (w < words.length && (words[w] & (1L << idx)) != 0);
+	}
+
+	@Override
+	public BitSet toBitSet() {
+		return (words != null ? BitSet.valueOf(words) : null);
+	}
+
+	@Override
+	public int toBitSet(BitSet dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		if ( words == null ) {
+			return 0;
+		}
+		final int count = getCount();
+		for ( int i = 0; i < count; i++ ) {
+			dest.set(offset + i, isBitEnabled(i));
+		}
+		return count;
+	}
+
+	@Override
+	public boolean[] toBooleanArray() {
+		if ( words == null ) {
+			return null;
+		}
+		final boolean[] result = new boolean[getCount()];
+		toBooleanArray(result, 0);
+		return result;
+	}
+
+	@Override
+	public int toBooleanArray(boolean[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		if ( words == null ) {
+			return 0;
+		}
+		final int count = getCount();
+		if ( offset < 0 || offset + count > dest.length ) {
+			throw new IndexOutOfBoundsException(
+					String.format("Cannot copy %d bits at offset %d into array of length %d.", count,
+							offset, dest.length));
+		}
+		for ( int i = 0; i < count; i++ ) {
+			dest[offset + i] = isBitEnabled(i);
+		}
+		return count;
 	}
 
 	@Override
@@ -423,9 +784,9 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		builder.append(getAddress());
 		builder.append(", count=");
 		builder.append(getCount());
-		if ( bits != null ) {
+		if ( words != null ) {
 			builder.append(", bits=");
-			builder.append(bits.toString(2));
+			builder.append(getBits().toString(2));
 			builder.append(", ");
 		}
 		builder.append("}");
@@ -444,13 +805,13 @@ public class BitsModbusMessage extends AddressedModbusMessage
 			switch (fn) {
 				case ReadCoils:
 				case ReadDiscreteInputs:
-					return (bits == null ? 5 : 2 + byteCount);
+					return (words == null ? 5 : 2 + byteCount);
 
 				case WriteCoil:
 					return 5;
 
 				case WriteCoils:
-					return (bits != null ? 6 + byteCount : 5);
+					return (words != null ? 6 + byteCount : 5);
 
 				default:
 					// fall through
@@ -465,41 +826,30 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		final ModbusFunctionCode fn = getFunction().functionCode();
 		final int count = getCount();
 		final int byteCount = byteCount(count);
-		byte[] header = null;
 		if ( fn != null ) {
 			switch (fn) {
 				case ReadCoils:
 				case ReadDiscreteInputs:
-					if ( bits == null ) {
-						header = new byte[5];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
+					out.writeByte(fn.getCode());
+					if ( words == null ) {
+						out.writeShort(getAddress());
+						out.writeShort(count);
 					} else {
-						header = new byte[2];
-						header[0] = fn.getCode();
-						header[1] = (byte) byteCount;
+						out.writeByte(byteCount);
 					}
 					break;
 
 				case WriteCoil:
-					header = new byte[3];
-					header[0] = fn.getCode();
-					encode16(header, 1, getAddress());
+					out.writeByte(fn.getCode());
+					out.writeShort(getAddress());
 					break;
 
 				case WriteCoils:
-					if ( bits != null ) {
-						header = new byte[6];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
-						header[5] = (byte) byteCount;
-					} else {
-						header = new byte[5];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
+					out.writeByte(fn.getCode());
+					out.writeShort(getAddress());
+					out.writeShort(count);
+					if ( words != null ) {
+						out.writeByte(byteCount);
 					}
 					break;
 
@@ -509,32 +859,20 @@ public class BitsModbusMessage extends AddressedModbusMessage
 		} else {
 			super.encodeModbusPayload(out);
 		}
-		if ( header != null ) {
-			out.writeBytes(header);
-		}
-		if ( bits != null ) {
-			byte[] data;
+		if ( words != null ) {
 			if ( fn == ModbusFunctionCode.WriteCoil ) {
-				if ( bits.testBit(0) ) {
-					data = new byte[] { (byte) 0xFF, (byte) 0x00 };
-				} else {
-					data = new byte[] { 0x00, 0x00 };
-				}
+				out.writeShort(isBitEnabled(0) ? 0xFF00 : 0x0000);
 			} else {
-				data = bits.toByteArray();
-				if ( data.length < byteCount ) {
-					byte[] tmp = new byte[byteCount];
-					System.arraycopy(data, 0, tmp, tmp.length - data.length, data.length);
-					data = tmp;
-				} else if ( data.length > byteCount ) {
-					// truncate... should this be raised as an exception?
-					byte[] tmp = new byte[byteCount];
-					System.arraycopy(data, data.length - byteCount, tmp, 0, byteCount);
-					data = tmp;
+				// any bits beyond the byte count are truncated
+				final int end = Math.min(byteCount >>> 3, words.length);
+				int i = 0;
+				for ( int w = 0; w < end; w++, i += 8 ) {
+					out.writeLongLE(words[w]);
+				}
+				for ( ; i < byteCount; i++ ) {
+					out.writeByte(getByte(words, i));
 				}
-				ModbusByteUtils.reverse(data);
 			}
-			out.writeBytes(data);
 		}
 	}
 
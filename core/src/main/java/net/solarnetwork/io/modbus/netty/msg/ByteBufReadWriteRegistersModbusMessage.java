@@ -0,0 +1,82 @@
+/* ==================================================================
+ * ByteBufReadWriteRegistersModbusMessage.java - 18/10/2026 1:31:05 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.msg;
+
+import io.netty.buffer.ByteBuf;
+import net.solarnetwork.io.modbus.ModbusFunction;
+import net.solarnetwork.io.modbus.ReadWriteRegistersModbusMessage;
+
+/**
+ * A read/write holding registers response message that holds its register
+ * data in a {@link ByteBuf}.
+ *
+ * <p>
+ * As a response, this message has no write data. See
+ * {@link ByteBufRegistersModbusMessage} for the buffer ownership rules.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ByteBufReadWriteRegistersModbusMessage extends ByteBufRegistersModbusMessage
+		implements ReadWriteRegistersModbusMessage {
+
+	/**
+	 * Constructor.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param address
+	 *        the address
+	 * @param data
+	 *        the register data read, in most-to-least byte order (e.g. big
+	 *        endian), from its reader index to its writer index; ownership of
+	 *        the buffer passes to this message
+	 * @throws IllegalArgumentException
+	 *         if {@code function} or {@code data} is {@literal null}, or if
+	 *         {@code data} does not have an even length (divisible by 2)
+	 */
+	public ByteBufReadWriteRegistersModbusMessage(int unitId, ModbusFunction function, int address,
+			ByteBuf data) {
+		super(unitId, function, address, data);
+	}
+
+	@Override
+	public int getWriteAddress() {
+		return 0;
+	}
+
+	@Override
+	public short[] writeDataDecode() {
+		return null;
+	}
+
+	@Override
+	public int[] writeDataDecodeUnsigned() {
+		return null;
+	}
+
+}
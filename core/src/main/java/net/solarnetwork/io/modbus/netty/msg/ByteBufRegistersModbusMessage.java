@@ -0,0 +1,294 @@
+/* ==================================================================
+ * ByteBufRegistersModbusMessage.java - 18/10/2026 1:12:37 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.msg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.ReferenceCounted;
+import net.solarnetwork.io.modbus.ModbusError;
+import net.solarnetwork.io.modbus.ModbusFunction;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusMessage;
+
+/**
+ * A register read response message that holds its register data in a
+ * {@link ByteBuf}, such as a slice of the buffer the message was received in.
+ *
+ * <p>
+ * This avoids copying the register data out of the network buffer when a
+ * response is decoded: the data accessors read directly from the buffer. The
+ * message is reference counted via the buffer, and <b>must</b> be released
+ * (for example via {@link io.netty.util.ReferenceCountUtil#release(Object)})
+ * once it is no longer needed. The data accessors must not be used after the
+ * message has been released.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ByteBufRegistersModbusMessage extends RegistersModbusMessage
+		implements ReferenceCounted {
+
+	private final ByteBuf data;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param function
+	 *        the function
+	 * @param address
+	 *        the address
+	 * @param data
+	 *        the register data, in most-to-least byte order (e.g. big endian),
+	 *        from its reader index to its writer index; ownership of the
+	 *        buffer passes to this message
+	 * @throws IllegalArgumentException
+	 *         if {@code function} or {@code data} is {@literal null}, or if
+	 *         {@code data} does not have an even length (divisible by 2)
+	 */
+	public ByteBufRegistersModbusMessage(int unitId, ModbusFunction function, int address,
+			ByteBuf data) {
+		super(unitId, function, null, address, dataCount(data), null);
+		this.data = data;
+	}
+
+	private static int dataCount(ByteBuf data) {
+		if ( data == null ) {
+			throw new IllegalArgumentException("The data argument must not be null.");
+		}
+		if ( data.readableBytes() % 2 != 0 ) {
+			throw new IllegalArgumentException("The byte data has an odd length, but it must be even.");
+		}
+		return data.readableBytes() / 2;
+	}
+
+	/**
+	 * Decode a register read response message, retaining a slice of the input
+	 * buffer for the register data.
+	 *
+	 * <p>
+	 * Only read holding registers, read input registers, and read/write
+	 * holding registers responses are supported. The returned message holds a
+	 * retained slice of {@code in}, and must be released once no longer
+	 * needed.
+	 * </p>
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param functionCode
+	 *        the function code value
+	 * @param address
+	 *        the address if known in advance, otherwise {@code 0}
+	 * @param in
+	 *        the input, assumed to be positioned after the function code byte
+	 *        in the payload
+	 * @return the message, or {@literal null} if a message cannot be decoded
+	 * @throws IllegalArgumentException
+	 *         if the register data does not have an even length
+	 */
+	public static ModbusMessage decodeResponsePayload(final int unitId, final byte functionCode,
+			final int address, final ByteBuf in) {
+		ModbusFunction fn = ModbusFunctionCode.valueOf(functionCode);
+		ModbusFunctionCode function = fn.functionCode();
+		ModbusError error = ModbusMessageUtils.decodeError(functionCode, in);
+		if ( error != null ) {
+			return new BaseModbusMessage(unitId, function, error);
+		}
+		if ( function == null ) {
+			return null;
+		}
+		switch (function) {
+			case ReadInputRegisters:
+			case ReadHoldingRegisters:
+			case ReadWriteHoldingRegisters: {
+				final int len = in.readUnsignedByte();
+				if ( len % 2 != 0 ) {
+					throw new IllegalArgumentException(
+							"The byte data has an odd length, but it must be even.");
+				}
+				final ByteBuf data = in.readRetainedSlice(len);
+				if ( function == ModbusFunctionCode.ReadWriteHoldingRegisters ) {
+					return new ByteBufReadWriteRegistersModbusMessage(unitId, fn, address, data);
+				}
+				return new ByteBufRegistersModbusMessage(unitId, fn, address, data);
+			}
+
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Get the register data buffer.
+	 *
+	 * <p>
+	 * The returned buffer is not a copy, and its reader index must not be
+	 * changed.
+	 * </p>
+	 *
+	 * @return the buffer
+	 */
+	public ByteBuf content() {
+		return data;
+	}
+
+	@Override
+	protected byte[] data() {
+		return (data.isReadable() ? ByteBufUtil.getBytes(data) : null);
+	}
+
+	@Override
+	public byte[] dataCopy() {
+		return data();
+	}
+
+	@Override
+	public short[] dataDecode() {
+		final int len = data.readableBytes() / 2;
+		if ( len < 1 ) {
+			return null;
+		}
+		final short[] result = new short[len];
+		dataDecode(result, 0);
+		return result;
+	}
+
+	@Override
+	public int[] dataDecodeUnsigned() {
+		final int len = data.readableBytes() / 2;
+		if ( len < 1 ) {
+			return null;
+		}
+		final int[] result = new int[len];
+		dataDecodeUnsigned(result, 0);
+		return result;
+	}
+
+	@Override
+	public String dataDecodeString(Charset charset) {
+		if ( !data.isReadable() ) {
+			return null;
+		}
+		return data.toString(charset);
+	}
+
+	@Override
+	public int dataCopy(ByteBuffer dest) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		dest.put(data.nioBuffer());
+		return data.readableBytes() / 2;
+	}
+
+	@Override
+	public int dataDecode(short[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		final int len = decodeLength(dest.length, offset);
+		for ( int i = 0, j = data.readerIndex(); i < len; i++, j += 2 ) {
+			dest[offset + i] = data.getShort(j);
+		}
+		return len;
+	}
+
+	@Override
+	public int dataDecodeUnsigned(int[] dest, int offset) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		final int len = decodeLength(dest.length, offset);
+		for ( int i = 0, j = data.readerIndex(); i < len; i++, j += 2 ) {
+			dest[offset + i] = data.getUnsignedShort(j);
+		}
+		return len;
+	}
+
+	private int decodeLength(int destLen, int offset) {
+		final int len = data.readableBytes() / 2;
+		if ( offset < 0 || offset + len > destLen ) {
+			throw new IndexOutOfBoundsException(String.format(
+					"Cannot decode %d registers at offset %d into array of length %d.", len, offset,
+					destLen));
+		}
+		return len;
+	}
+
+	@Override
+	public int payloadLength() {
+		return 2 + data.readableBytes();
+	}
+
+	@Override
+	public void encodeModbusPayload(ByteBuf out) {
+		out.writeByte(getFunction().getCode());
+		out.writeByte(data.readableBytes());
+		out.writeBytes(data, data.readerIndex(), data.readableBytes());
+	}
+
+	@Override
+	public int refCnt() {
+		return data.refCnt();
+	}
+
+	@Override
+	public ByteBufRegistersModbusMessage retain() {
+		data.retain();
+		return this;
+	}
+
+	@Override
+	public ByteBufRegistersModbusMessage retain(int increment) {
+		data.retain(increment);
+		return this;
+	}
+
+	@Override
+	public ByteBufRegistersModbusMessage touch() {
+		data.touch(this);
+		return this;
+	}
+
+	@Override
+	public ByteBufRegistersModbusMessage touch(Object hint) {
+		data.touch(hint);
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return data.release();
+	}
+
+	@Override
+	public boolean release(int decrement) {
+		return data.release(decrement);
+	}
+
+}
@@ -22,7 +22,6 @@
 
 package net.solarnetwork.io.modbus.netty.msg;
 
-import static net.solarnetwork.io.modbus.ModbusByteUtils.encode16;
 import io.netty.buffer.ByteBuf;
 import net.solarnetwork.io.modbus.ModbusByteUtils;
 import net.solarnetwork.io.modbus.ModbusError;
@@ -36,7 +35,7 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * An addressed Modbus message for holding mask write register.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class MaskWriteRegisterModbusMessage extends RegistersModbusMessage
 		implements net.solarnetwork.io.modbus.MaskWriteRegisterModbusMessage {
@@ -283,12 +282,10 @@ public class MaskWriteRegisterModbusMessage extends RegistersModbusMessage
 
 	@Override
 	public void encodeModbusPayload(ByteBuf out) {
-		byte[] data = new byte[7];
-		data[0] = ModbusFunctionCodes.MASK_WRITE_HOLDING_REGISTER;
-		encode16(data, 1, getAddress());
-		encode16(data, 3, getAndMask());
-		encode16(data, 5, getOrMask());
-		out.writeBytes(data);
+		out.writeByte(ModbusFunctionCodes.MASK_WRITE_HOLDING_REGISTER);
+		out.writeShort(getAddress());
+		out.writeShort(getAndMask());
+		out.writeShort(getOrMask());
 	}
 
 }
@@ -23,6 +23,7 @@
 package net.solarnetwork.io.modbus.netty.msg;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
 import net.solarnetwork.io.modbus.ModbusError;
 import net.solarnetwork.io.modbus.ModbusErrorCode;
 import net.solarnetwork.io.modbus.ModbusFunction;
@@ -33,7 +34,7 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * Utilities for encoding/decoding Modbus messages.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public final class ModbusMessageUtils {
 
@@ -62,6 +63,49 @@ public final class ModbusMessageUtils {
 		((ModbusPayloadEncoder) message).encodeModbusPayload(out);
 	}
 
+	/**
+	 * Retain any reference-counted data held by a message.
+	 * 
+	 * <p>
+	 * This supports messages that are, or wrap, a
+	 * {@link ByteBufRegistersModbusMessage}. Other messages are not changed.
+	 * </p>
+	 * 
+	 * @param <T>
+	 *        the message type
+	 * @param message
+	 *        the message to retain, or {@literal null}
+	 * @return {@code message}
+	 * @since 1.1
+	 */
+	public static <T extends ModbusMessage> T retain(final T message) {
+		if ( message != null ) {
+			ReferenceCountUtil.retain(message.unwrap(ByteBufRegistersModbusMessage.class));
+		}
+		return message;
+	}
+
+	/**
+	 * Release any reference-counted data held by a message.
+	 * 
+	 * <p>
+	 * This supports messages that are, or wrap, a
+	 * {@link ByteBufRegistersModbusMessage}. Other messages are not changed.
+	 * </p>
+	 * 
+	 * @param message
+	 *        the message to release, or {@literal null}
+	 * @return {@literal true} if the message held reference-counted data that
+	 *         was deallocated as a result
+	 * @since 1.1
+	 */
+	public static boolean release(final ModbusMessage message) {
+		if ( message == null ) {
+			return false;
+		}
+		return ReferenceCountUtil.release(message.unwrap(ByteBufRegistersModbusMessage.class));
+	}
+
 	/**
 	 * Determine the expected payload length for Modbus request message.
 	 * 
@@ -344,6 +388,37 @@ public final class ModbusMessageUtils {
 	 */
 	public static ModbusMessage decodeResponsePayload(final int unitId, final int address,
 			final int count, final ByteBuf in) {
+		return decodeResponsePayload(unitId, address, count, in, false);
+	}
+
+	/**
+	 * Decode a full Modbus response message with specific attributes,
+	 * optionally retaining the register data in the input buffer.
+	 * 
+	 * <p>
+	 * When {@code retainData} is {@literal true}, read holding registers, read
+	 * input registers, and read/write holding registers responses are decoded
+	 * as {@link ByteBufRegistersModbusMessage} instances that hold a retained
+	 * slice of {@code in} rather than a copy of the register data. Such
+	 * messages must be released once no longer needed.
+	 * </p>
+	 * 
+	 * @param unitId
+	 *        the unit ID
+	 * @param address
+	 *        the address, or {@code 0} for no address
+	 * @param count
+	 *        the count, or {@code 0} for no count
+	 * @param in
+	 *        the input
+	 * @param retainData
+	 *        {@literal true} to retain register data in {@code in} rather than
+	 *        copy it
+	 * @return the message, or {@literal null} if a message cannot be decoded
+	 * @since 1.1
+	 */
+	public static ModbusMessage decodeResponsePayload(final int unitId, final int address,
+			final int count, final ByteBuf in, final boolean retainData) {
 		final byte fn = in.readByte();
 		ModbusFunction func = ModbusFunctionCode.valueOf(fn);
 		ModbusFunctionCode function = func.functionCode();
@@ -360,6 +435,12 @@ public final class ModbusMessageUtils {
 
 			case ReadInputRegisters:
 			case ReadHoldingRegisters:
+				if ( retainData ) {
+					return ByteBufRegistersModbusMessage.decodeResponsePayload(unitId, fn, address,
+							in);
+				}
+				return RegistersModbusMessage.decodeResponsePayload(unitId, fn, address, count, in);
+
 			case WriteHoldingRegister:
 			case WriteHoldingRegisters:
 			case ReadFifoQueue:
@@ -370,6 +451,10 @@ public final class ModbusMessageUtils {
 						in);
 
 			case ReadWriteHoldingRegisters:
+				if ( retainData ) {
+					return ByteBufRegistersModbusMessage.decodeResponsePayload(unitId, fn, address,
+							in);
+				}
 				return ReadWriteRegistersModbusMessage.decodeResponsePayload(unitId, fn, address, count,
 						in);
 
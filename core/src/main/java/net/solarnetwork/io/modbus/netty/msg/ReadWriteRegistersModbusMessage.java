@@ -22,7 +22,7 @@
 
 package net.solarnetwork.io.modbus.netty.msg;
 
-import static net.solarnetwork.io.modbus.ModbusByteUtils.encode16;
+import java.nio.ByteBuffer;
 import io.netty.buffer.ByteBuf;
 import net.solarnetwork.io.modbus.ModbusByteUtils;
 import net.solarnetwork.io.modbus.ModbusError;
@@ -35,7 +35,7 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * An addressed Modbus message for holding read/write registers.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class ReadWriteRegistersModbusMessage extends RegistersModbusMessage
 		implements net.solarnetwork.io.modbus.ReadWriteRegistersModbusMessage {
@@ -326,31 +326,17 @@ public class ReadWriteRegistersModbusMessage extends RegistersModbusMessage
 	@Override
 	public void encodeModbusPayload(ByteBuf out) {
 		final ModbusFunctionCode fn = getFunction().functionCode();
-		final int count = getCount();
-		byte[] header = null;
-		final byte[] data_src = data();
-		byte[] data;
-		if ( isResponse(data_src) ) {
-			// response
-			header = new byte[2];
-			header[0] = fn.getCode();
-			header[1] = (byte) (data_src.length - 2);
-			data = new byte[header[1]];
-			System.arraycopy(data_src, 2, data, 0, header[1]);
-		} else {
+		final byte[] data = data();
+		out.writeByte(fn.getCode());
+		if ( !isResponse(data) ) {
 			// request
-			header = new byte[10];
-			header[0] = fn.getCode();
-			encode16(header, 1, getAddress());
-			encode16(header, 3, count);
-			System.arraycopy(data_src, 0, header, 5, 2);
-			encode16(header, 7, data_src.length / 2 - 1);
-			header[9] = (byte) (data_src.length - 2);
-			data = new byte[header[9]];
-			System.arraycopy(data_src, 2, data, 0, data.length);
+			out.writeShort(getAddress());
+			out.writeShort(getCount());
+			out.writeBytes(data, 0, 2);
+			out.writeShort(data.length / 2 - 1);
 		}
-		out.writeBytes(header);
-		out.writeBytes(data);
+		out.writeByte(data.length - 2);
+		out.writeBytes(data, 2, data.length - 2);
 	}
 
 	@Override
@@ -382,6 +368,24 @@ public class ReadWriteRegistersModbusMessage extends RegistersModbusMessage
 		return ModbusByteUtils.decodeUnsigned(data, 2, data.length);
 	}
 
+	@Override
+	public int dataCopy(ByteBuffer dest) {
+		final byte[] data = data();
+		return copyData(dest, (isResponse(data) ? data : null), 2);
+	}
+
+	@Override
+	public int dataDecode(short[] dest, int offset) {
+		final byte[] data = data();
+		return decodeData(dest, offset, (isResponse(data) ? data : null), 2);
+	}
+
+	@Override
+	public int dataDecodeUnsigned(int[] dest, int offset) {
+		final byte[] data = data();
+		return decodeDataUnsigned(dest, offset, (isResponse(data) ? data : null), 2);
+	}
+
 	@Override
 	public int getWriteAddress() {
 		final byte[] data = data();
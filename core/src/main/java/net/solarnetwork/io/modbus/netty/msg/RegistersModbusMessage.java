@@ -22,7 +22,7 @@
 
 package net.solarnetwork.io.modbus.netty.msg;
 
-import static net.solarnetwork.io.modbus.ModbusByteUtils.encode16;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import io.netty.buffer.ByteBuf;
@@ -39,7 +39,7 @@ import net.solarnetwork.io.modbus.ModbusMessage;
  * address range.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class RegistersModbusMessage extends AddressedModbusMessage
 		implements net.solarnetwork.io.modbus.RegistersModbusMessage {
@@ -520,7 +520,7 @@ public class RegistersModbusMessage extends AddressedModbusMessage
 			return false;
 		}
 		RegistersModbusMessage other = (RegistersModbusMessage) obj;
-		return Arrays.equals(data, other.data);
+		return Arrays.equals(data(), other.data());
 	}
 
 	/**
@@ -548,6 +548,7 @@ public class RegistersModbusMessage extends AddressedModbusMessage
 		builder.append(getAddress());
 		builder.append(", count=");
 		builder.append(getCount());
+		final byte[] data = data();
 		if ( data != null ) {
 			builder.append(", data=");
 			builder.append(ModbusByteUtils.encodeHexString(data, 0, data.length, true));
@@ -576,6 +577,114 @@ public class RegistersModbusMessage extends AddressedModbusMessage
 		return ModbusByteUtils.decodeUnsigned(data);
 	}
 
+	@Override
+	public int dataCopy(ByteBuffer dest) {
+		return copyData(dest, data, 0);
+	}
+
+	@Override
+	public int dataDecode(short[] dest, int offset) {
+		return decodeData(dest, offset, data, 0);
+	}
+
+	@Override
+	public int dataDecodeUnsigned(int[] dest, int offset) {
+		return decodeDataUnsigned(dest, offset, data, 0);
+	}
+
+	/**
+	 * Copy raw register data into a buffer.
+	 *
+	 * @param dest
+	 *        the buffer to copy into
+	 * @param data
+	 *        the raw data, or {@literal null}
+	 * @param start
+	 *        the index within {@code data} of the first register
+	 * @return the number of registers copied
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @since 1.2
+	 */
+	protected static int copyData(ByteBuffer dest, byte[] data, int start) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		if ( data == null ) {
+			return 0;
+		}
+		dest.put(data, start, data.length - start);
+		return (data.length - start) / 2;
+	}
+
+	/**
+	 * Decode raw register data as signed 16-bit values into an array.
+	 *
+	 * @param dest
+	 *        the array to decode into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @param data
+	 *        the raw data, or {@literal null}
+	 * @param start
+	 *        the index within {@code data} of the first register
+	 * @return the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code dest} does not have enough space from {@code offset}
+	 * @since 1.2
+	 */
+	protected static int decodeData(short[] dest, int offset, byte[] data, int start) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		final int len = decodeLength(dest.length, offset, data, start);
+		for ( int i = 0, j = start; i < len; i++, j += 2 ) {
+			dest[offset + i] = (short) (((data[j] & 0xFF) << 8) | (data[j + 1] & 0xFF));
+		}
+		return len;
+	}
+
+	/**
+	 * Decode raw register data as unsigned 16-bit values into an array.
+	 *
+	 * @param dest
+	 *        the array to decode into
+	 * @param offset
+	 *        the index within {@code dest} to decode the first register into
+	 * @param data
+	 *        the raw data, or {@literal null}
+	 * @param start
+	 *        the index within {@code data} of the first register
+	 * @return the number of registers decoded
+	 * @throws IllegalArgumentException
+	 *         if {@code dest} is {@literal null}
+	 * @throws IndexOutOfBoundsException
+	 *         if {@code dest} does not have enough space from {@code offset}
+	 * @since 1.2
+	 */
+	protected static int decodeDataUnsigned(int[] dest, int offset, byte[] data, int start) {
+		if ( dest == null ) {
+			throw new IllegalArgumentException("The dest argument must not be null.");
+		}
+		final int len = decodeLength(dest.length, offset, data, start);
+		for ( int i = 0, j = start; i < len; i++, j += 2 ) {
+			dest[offset + i] = ((data[j] & 0xFF) << 8) | (data[j + 1] & 0xFF);
+		}
+		return len;
+	}
+
+	private static int decodeLength(int destLen, int offset, byte[] data, int start) {
+		final int len = (data != null ? (data.length - start) / 2 : 0);
+		if ( offset < 0 || offset + len > destLen ) {
+			throw new IndexOutOfBoundsException(String.format(
+					"Cannot decode %d registers at offset %d into array of length %d.", len, offset,
+					destLen));
+		}
+		return len;
+	}
+
 	@Override
 	public String dataDecodeString(Charset charset) {
 		if ( data == null ) {
@@ -619,69 +728,51 @@ public class RegistersModbusMessage extends AddressedModbusMessage
 		if ( fn != null ) {
 			final int count = getCount();
 			final int byteCount = byteCount(count);
-			byte[] header = null;
-			byte[] data = this.data;
+			final byte[] data = this.data;
 			switch (fn) {
 				case ReadInputRegisters:
 				case ReadHoldingRegisters:
+					out.writeByte(fn.getCode());
 					if ( data == null ) {
 						// request
-						header = new byte[5];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
+						out.writeShort(getAddress());
+						out.writeShort(count);
 					} else {
 						// response
-						header = new byte[2];
-						header[0] = fn.getCode();
-						header[1] = (byte) byteCount;
+						out.writeByte(byteCount);
 					}
 					break;
 
 				case WriteHoldingRegister:
-					header = new byte[3];
-					header[0] = fn.getCode();
-					encode16(header, 1, getAddress());
+					out.writeByte(fn.getCode());
+					out.writeShort(getAddress());
 					break;
 
 				case WriteHoldingRegisters:
+					out.writeByte(fn.getCode());
+					out.writeShort(getAddress());
+					out.writeShort(count);
 					if ( data != null ) {
 						// request
-						header = new byte[6];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
-						header[5] = (byte) byteCount;
-					} else {
-						// response
-						header = new byte[5];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
-						encode16(header, 3, count);
+						out.writeByte(byteCount);
 					}
 					break;
 
 				case ReadFifoQueue:
+					out.writeByte(fn.getCode());
 					if ( data == null ) {
 						// request
-						header = new byte[3];
-						header[0] = fn.getCode();
-						encode16(header, 1, getAddress());
+						out.writeShort(getAddress());
 					} else {
 						// response
-						header = new byte[5];
-						header[0] = fn.getCode();
-						encode16(header, 1, 2 + byteCount);
-						encode16(header, 3, count);
+						out.writeShort(2 + byteCount);
+						out.writeShort(count);
 					}
 					break;
 
 				default:
 					super.encodeModbusPayload(out);
 			}
-			if ( header != null ) {
-				out.writeBytes(header);
-			}
 			if ( data != null ) {
 				out.writeBytes(data);
 			}
@@ -23,6 +23,8 @@
 package net.solarnetwork.io.modbus.netty.msg;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
 import net.solarnetwork.io.modbus.ModbusError;
 import net.solarnetwork.io.modbus.ModbusFunction;
 import net.solarnetwork.io.modbus.ModbusMessage;
@@ -37,14 +39,30 @@ import net.solarnetwork.io.modbus.ModbusValidationException;
  * {@link ModbusMessageReply}, delegating all {@link ModbusMessage} methods to
  * the reply instance.
  * </p>
+ * 
+ * <p>
+ * Instances can be obtained from a pool via
+ * {@link #newInstance(ModbusMessage, ModbusMessage)}, and returned to the pool
+ * via {@link #recycle()} by whoever takes ownership of them, which for replies
+ * written to a channel is the encoder that writes them.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class SimpleModbusMessageReply implements ModbusMessageReply, ModbusPayloadEncoder {
 
-	private final ModbusMessage request;
-	private final ModbusMessage reply;
+	private static final Recycler<SimpleModbusMessageReply> RECYCLER = new Recycler<SimpleModbusMessageReply>() {
+
+		@Override
+		protected SimpleModbusMessageReply newObject(Handle<SimpleModbusMessageReply> handle) {
+			return new SimpleModbusMessageReply(handle);
+		}
+	};
+
+	private final Handle<SimpleModbusMessageReply> handle;
+	private ModbusMessage request;
+	private ModbusMessage reply;
 
 	/**
 	 * Constructor.
@@ -58,17 +76,72 @@ public class SimpleModbusMessageReply implements ModbusMessageReply, ModbusPaylo
 	 */
 	public SimpleModbusMessageReply(ModbusMessage request, ModbusMessage reply) {
 		super();
+		validateArguments(request, reply);
+		this.handle = null;
+		this.request = request;
+		this.reply = reply;
+	}
+
+	private SimpleModbusMessageReply(Handle<SimpleModbusMessageReply> handle) {
+		super();
+		this.handle = handle;
+	}
+
+	private static void validateArguments(ModbusMessage request, ModbusMessage reply) {
 		if ( request == null ) {
 			throw new IllegalArgumentException("The request argument must not be null.");
 		}
-		this.request = request;
 		if ( reply == null ) {
 			throw new IllegalArgumentException("The reply argument must not be null.");
 		} else if ( !(reply instanceof ModbusPayloadEncoder) ) {
 			throw new IllegalArgumentException(
 					"The reply argument must implement ModbusPayloadEncoder.");
 		}
-		this.reply = reply;
+	}
+
+	/**
+	 * Get a pooled instance.
+	 * 
+	 * <p>
+	 * The returned instance should be passed to {@link #recycle()} once no
+	 * longer needed, after which it must not be used.
+	 * </p>
+	 * 
+	 * @param request
+	 *        the original request message
+	 * @param reply
+	 *        the reply message
+	 * @return the instance
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.1
+	 */
+	public static SimpleModbusMessageReply newInstance(ModbusMessage request, ModbusMessage reply) {
+		validateArguments(request, reply);
+		SimpleModbusMessageReply result = RECYCLER.get();
+		result.request = request;
+		result.reply = reply;
+		return result;
+	}
+
+	/**
+	 * Return this instance to the pool it was obtained from.
+	 * 
+	 * <p>
+	 * This method does nothing if this instance was not obtained via
+	 * {@link #newInstance(ModbusMessage, ModbusMessage)}. The request and reply
+	 * messages are not recycled.
+	 * </p>
+	 * 
+	 * @since 1.1
+	 */
+	public void recycle() {
+		if ( handle == null ) {
+			return;
+		}
+		request = null;
+		reply = null;
+		handle.recycle(this);
 	}
 
 	@Override
@@ -0,0 +1,172 @@
+/* ==================================================================
+ * AdaptivePollInterval.java - 17/10/2026 11:58:14 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive poll interval, based on how often polled data changes.
+ *
+ * <p>
+ * A moving average of the fraction of iterations that saw a change is
+ * tracked. When an iteration sees a change the interval is halved, so
+ * volatile data quickly moves to the minimum interval. When iterations stop
+ * seeing changes and the change ratio falls below a threshold, the interval
+ * grows by half on each iteration until it reaches the maximum interval, so
+ * static data backs off smoothly. A single change after a long quiet period
+ * thus costs a few faster iterations, not a permanent increase in load.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class AdaptivePollInterval {
+
+	/** The smoothing factor applied to the change ratio. */
+	private static final double SMOOTHING = 0.2;
+
+	/** The change ratio below which the interval backs off. */
+	private static final double BACKOFF_RATIO = 0.1;
+
+	/** The factor the interval is multiplied by when backing off. */
+	private static final double BACKOFF = 1.5;
+
+	/** The factor the interval is multiplied by when a change is seen. */
+	private static final double TIGHTEN = 0.5;
+
+	private final long minIntervalNanos;
+	private final long maxIntervalNanos;
+
+	private double changeRatio;
+	private volatile long intervalNanos;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * The interval starts at the minimum interval, so data is polled at the
+	 * fastest rate until it is known to be static.
+	 * </p>
+	 *
+	 * @param minInterval
+	 *        the minimum interval
+	 * @param maxInterval
+	 *        the maximum interval
+	 * @param unit
+	 *        the interval unit
+	 * @throws IllegalArgumentException
+	 *         if {@code unit} is {@literal null}, {@code minInterval} is not
+	 *         positive, or {@code maxInterval} is less than
+	 *         {@code minInterval}
+	 */
+	public AdaptivePollInterval(long minInterval, long maxInterval, TimeUnit unit) {
+		super();
+		if ( unit == null ) {
+			throw new IllegalArgumentException("The unit argument must not be null.");
+		}
+		if ( minInterval < 1 ) {
+			throw new IllegalArgumentException("The minInterval argument must be positive.");
+		}
+		if ( maxInterval < minInterval ) {
+			throw new IllegalArgumentException(
+					"The maxInterval argument must not be less than minInterval.");
+		}
+		this.minIntervalNanos = unit.toNanos(minInterval);
+		this.maxIntervalNanos = unit.toNanos(maxInterval);
+		this.intervalNanos = minIntervalNanos;
+		this.changeRatio = 1.0;
+	}
+
+	/**
+	 * Record the outcome of a poll iteration.
+	 *
+	 * @param changed
+	 *        {@literal true} if the iteration saw changed data
+	 * @return the new interval, in nanoseconds
+	 */
+	public synchronized long update(boolean changed) {
+		changeRatio += ((changed ? 1.0 : 0.0) - changeRatio) * SMOOTHING;
+		double interval = intervalNanos;
+		if ( changed ) {
+			interval *= TIGHTEN;
+		} else if ( changeRatio < BACKOFF_RATIO ) {
+			interval *= BACKOFF;
+		}
+		intervalNanos = Math.min(maxIntervalNanos, Math.max(minIntervalNanos, (long) interval));
+		return intervalNanos;
+	}
+
+	/**
+	 * Get the current interval.
+	 *
+	 * @param unit
+	 *        the time unit to return the interval in
+	 * @return the interval
+	 */
+	public long getInterval(TimeUnit unit) {
+		return unit.convert(intervalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the current interval.
+	 *
+	 * @return the interval, in nanoseconds
+	 */
+	public long getIntervalNanos() {
+		return intervalNanos;
+	}
+
+	/**
+	 * Get the minimum interval.
+	 *
+	 * @return the minimum interval, in nanoseconds
+	 */
+	public long getMinIntervalNanos() {
+		return minIntervalNanos;
+	}
+
+	/**
+	 * Get the maximum interval.
+	 *
+	 * @return the maximum interval, in nanoseconds
+	 */
+	public long getMaxIntervalNanos() {
+		return maxIntervalNanos;
+	}
+
+	/**
+	 * Get the moving average of the fraction of iterations that saw changed
+	 * data.
+	 *
+	 * @return the change ratio, between {@literal 0} and {@literal 1}
+	 */
+	public synchronized double getChangeRatio() {
+		return changeRatio;
+	}
+
+}
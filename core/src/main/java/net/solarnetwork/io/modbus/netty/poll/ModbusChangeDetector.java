@@ -0,0 +1,276 @@
+/* ==================================================================
+ * ModbusChangeDetector.java - 17/10/2026 11:19:52 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import net.solarnetwork.io.modbus.BitsModbusMessage;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+
+/**
+ * Detect changed addresses between successive reads of a range.
+ *
+ * <p>
+ * Each read is decoded into {@code short} arrays (register data) or
+ * {@link BitSet} instances (bit data) that are reused between reads, and
+ * compared against the previous read, so a read without changes allocates
+ * nothing. Registers covered by a {@link ModbusDeadbandPoint} are converted to
+ * a point value only when they differ from the previous read, and are reported
+ * as changed only when that value differs from the last reported value by
+ * more than the point's deadband.
+ * Comparing against the last reported value means a slow drift is reported
+ * once it accumulates past the deadband.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusChangeDetector {
+
+	private static final int[] NO_ADDRESSES = new int[0];
+
+	private final ModbusBlockRange range;
+	private final List<ModbusDeadbandPoint> points = new ArrayList<>(4);
+
+	private boolean primed;
+	private short[] data;
+	private short[] lastData;
+	private boolean[] changed;
+	private BitSet bits;
+	private BitSet lastBits;
+	private BitSet diff;
+	private double[] reported;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param range
+	 *        the range to detect changes in
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public ModbusChangeDetector(ModbusBlockRange range) {
+		super();
+		if ( range == null ) {
+			throw new IllegalArgumentException("The range argument must not be null.");
+		}
+		this.range = range;
+	}
+
+	/**
+	 * Add a deadband point.
+	 *
+	 * @param point
+	 *        the point to add
+	 * @throws IllegalArgumentException
+	 *         if {@code point} is {@literal null}, not within the range, or
+	 *         overlaps a point already added
+	 */
+	public synchronized void addPoint(ModbusDeadbandPoint point) {
+		if ( point == null ) {
+			throw new IllegalArgumentException("The point argument must not be null.");
+		}
+		if ( point.getBlockType() != range.getBlockType()
+				|| point.getAddress() < range.getAddress()
+				|| point.getEndAddress() > range.getEndAddress() ) {
+			throw new IllegalArgumentException(
+					String.format("The point %s is not within %s.", point, range));
+		}
+		for ( ModbusDeadbandPoint p : points ) {
+			if ( p.getAddress() < point.getEndAddress() && point.getAddress() < p.getEndAddress() ) {
+				throw new IllegalArgumentException(
+						String.format("The point %s overlaps point %s.", point, p));
+			}
+		}
+		points.add(point);
+		reported = null;
+		primed = false;
+	}
+
+	/**
+	 * Compare a new read of the range against the previous read.
+	 *
+	 * <p>
+	 * The data is copied out of {@code message}, which is not kept. The caller
+	 * keeps ownership of {@code message}, and must release it afterwards if it
+	 * holds a reference-counted buffer.
+	 * </p>
+	 *
+	 * @param message
+	 *        the new read
+	 * @return the changed addresses, in ascending order; all addresses in the
+	 *         range are returned for the first read
+	 * @throws IllegalArgumentException
+	 *         if {@code message} does not contain the expected data
+	 */
+	public synchronized int[] update(ModbusMessage message) {
+		if ( range.getBlockType().isBitType() ) {
+			BitsModbusMessage msg = (message != null ? message.unwrap(BitsModbusMessage.class)
+					: null);
+			if ( bits == null ) {
+				bits = new BitSet(range.getCount());
+				lastBits = new BitSet(range.getCount());
+				diff = new BitSet(range.getCount());
+			}
+			if ( msg == null || msg.toBitSet(bits, 0) < range.getCount() ) {
+				throw new IllegalArgumentException("Bits data not available in " + message);
+			}
+			return updateBits();
+		}
+		RegistersModbusMessage msg = (message != null
+				? message.unwrap(RegistersModbusMessage.class)
+				: null);
+		if ( data == null ) {
+			data = new short[range.getCount()];
+			lastData = new short[range.getCount()];
+			changed = new boolean[range.getCount()];
+		}
+		if ( msg == null || decode(msg) < range.getCount() ) {
+			throw new IllegalArgumentException("Register data not available in " + message);
+		}
+		return updateRegisters();
+	}
+
+	private int decode(RegistersModbusMessage msg) {
+		try {
+			return msg.dataDecode(data, 0);
+		} catch ( IndexOutOfBoundsException e ) {
+			// more registers than the range; only the leading ones are compared
+			short[] all = msg.dataDecode();
+			if ( all == null ) {
+				return 0;
+			}
+			System.arraycopy(all, 0, data, 0, data.length);
+			return data.length;
+		}
+	}
+
+	private int[] updateBits() {
+		final int len = range.getCount();
+		// ignore any bits past the range
+		bits.clear(len, Math.max(len, bits.length()));
+		diff.clear();
+		if ( primed ) {
+			diff.or(bits);
+			diff.xor(lastBits);
+		} else {
+			diff.set(0, len);
+		}
+		final BitSet tmp = lastBits;
+		lastBits = bits;
+		bits = tmp;
+		primed = true;
+		final int count = diff.cardinality();
+		if ( count == 0 ) {
+			return NO_ADDRESSES;
+		}
+		final int[] result = new int[count];
+		for ( int i = diff.nextSetBit(0), j = 0; i >= 0; i = diff.nextSetBit(i + 1) ) {
+			result[j++] = range.getAddress() + i;
+		}
+		return result;
+	}
+
+	private int[] updateRegisters() {
+		final int len = range.getCount();
+		final boolean first = !primed;
+		final short[] data = this.data;
+		final boolean[] changed = this.changed;
+		int count = 0;
+		for ( int i = 0; i < len; i++ ) {
+			changed[i] = (first || data[i] != lastData[i]);
+			if ( changed[i] ) {
+				count++;
+			}
+		}
+		// keep this read as the previous one, and reuse the previous array for the next
+		this.data = lastData;
+		lastData = data;
+		primed = true;
+		if ( count == 0 ) {
+			return NO_ADDRESSES;
+		}
+		if ( !points.isEmpty() ) {
+			if ( reported == null ) {
+				reported = new double[points.size()];
+			}
+			for ( int p = 0, plen = points.size(); p < plen; p++ ) {
+				final ModbusDeadbandPoint point = points.get(p);
+				final int from = point.getAddress() - range.getAddress();
+				final int to = from + point.getType().getRegisterCount();
+				boolean dirty = false;
+				for ( int i = from; i < to; i++ ) {
+					dirty |= changed[i];
+				}
+				if ( !dirty ) {
+					continue;
+				}
+				final double value = point.getType().decode(data, from);
+				if ( first || point.exceeds(reported[p], value) ) {
+					reported[p] = value;
+				} else {
+					for ( int i = from; i < to; i++ ) {
+						if ( changed[i] ) {
+							changed[i] = false;
+							count--;
+						}
+					}
+				}
+			}
+		}
+		final int[] result = new int[count];
+		for ( int i = 0, j = 0; i < len && j < count; i++ ) {
+			if ( changed[i] ) {
+				result[j++] = range.getAddress() + i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Forget the previous read, so the next update reports all addresses as
+	 * changed.
+	 */
+	public synchronized void reset() {
+		primed = false;
+		reported = null;
+	}
+
+	/**
+	 * Get the range.
+	 *
+	 * @return the range
+	 */
+	public ModbusBlockRange getRange() {
+		return range;
+	}
+
+}
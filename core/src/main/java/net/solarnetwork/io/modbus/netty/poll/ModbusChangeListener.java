@@ -0,0 +1,54 @@
+/* ==================================================================
+ * ModbusChangeListener.java - 17/10/2026 11:13:31 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+
+/**
+ * Listener for changes detected by a {@link ModbusSubscription}.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ModbusChangeListener {
+
+	/**
+	 * Called when data in a range has changed.
+	 *
+	 * <p>
+	 * This method is called from an I/O thread and must not block.
+	 * </p>
+	 *
+	 * @param range
+	 *        the range
+	 * @param message
+	 *        the latest data for the whole range
+	 * @param addresses
+	 *        the changed addresses, in ascending order
+	 */
+	void changed(ModbusBlockRange range, ModbusMessage message, int[] addresses);
+
+}
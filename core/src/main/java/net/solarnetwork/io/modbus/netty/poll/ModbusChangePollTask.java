@@ -0,0 +1,54 @@
+/* ==================================================================
+ * ModbusChangePollTask.java - 17/10/2026 11:59:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A poll task that reports if the data it polled changed, for use with an
+ * adaptive poll interval.
+ *
+ * @author matt
+ * @version 1.0
+ * @see ModbusPollScheduler#scheduleAdaptive(ModbusChangePollTask,
+ *      AdaptivePollInterval, OverrunPolicy)
+ */
+@FunctionalInterface
+public interface ModbusChangePollTask extends ModbusPollTask {
+
+	/**
+	 * Start one poll iteration.
+	 *
+	 * <p>
+	 * This method is called from a timer thread and must not block.
+	 * </p>
+	 *
+	 * @return a future that completes with {@literal true} if the iteration
+	 *         saw changed data, or {@literal null} if the iteration completed
+	 *         already without seeing changed data
+	 */
+	@Override
+	CompletableFuture<Boolean> poll();
+
+}
@@ -0,0 +1,223 @@
+/* ==================================================================
+ * ModbusDeadbandPoint.java - 17/10/2026 11:08:10 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+
+/**
+ * A typed register value with a deadband, below which changes are not
+ * reported.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusDeadbandPoint {
+
+	private final ModbusBlockType blockType;
+	private final int address;
+	private final ModbusPointType type;
+	private final double deadband;
+	private final boolean percent;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param blockType
+	 *        the block type; only Holding and Input types are supported
+	 * @param address
+	 *        the address of the first register of the value
+	 * @param type
+	 *        the value type
+	 * @param deadband
+	 *        the deadband
+	 * @param percent
+	 *        {@literal true} if {@code deadband} is a percentage of the last
+	 *        reported value, {@literal false} if it is an absolute amount
+	 * @throws IllegalArgumentException
+	 *         if {@code blockType} or {@code type} are {@literal null} or not
+	 *         supported, {@code address} is outside the address space, or
+	 *         {@code deadband} is negative
+	 */
+	public ModbusDeadbandPoint(ModbusBlockType blockType, int address, ModbusPointType type,
+			double deadband, boolean percent) {
+		super();
+		if ( blockType == null ) {
+			throw new IllegalArgumentException("The blockType argument must not be null.");
+		} else if ( blockType != ModbusBlockType.Holding && blockType != ModbusBlockType.Input ) {
+			throw new IllegalArgumentException(
+					"Only Holding/Input types are supported; got " + blockType);
+		}
+		if ( type == null ) {
+			throw new IllegalArgumentException("The type argument must not be null.");
+		}
+		if ( address < 0 || address + type.getRegisterCount() > ModbusBlockRange.ADDRESS_SPACE_SIZE ) {
+			throw new IllegalArgumentException(
+					"The address argument must be between 0 and the end of the address space.");
+		}
+		if ( !(deadband >= 0) ) {
+			throw new IllegalArgumentException("The deadband argument must not be negative.");
+		}
+		this.blockType = blockType;
+		this.address = address;
+		this.type = type;
+		this.deadband = deadband;
+		this.percent = percent;
+	}
+
+	/**
+	 * Create a point with an absolute deadband.
+	 *
+	 * @param blockType
+	 *        the block type
+	 * @param address
+	 *        the address of the first register of the value
+	 * @param type
+	 *        the value type
+	 * @param deadband
+	 *        the smallest change to report
+	 * @return the new point
+	 */
+	public static ModbusDeadbandPoint absolute(ModbusBlockType blockType, int address,
+			ModbusPointType type, double deadband) {
+		return new ModbusDeadbandPoint(blockType, address, type, deadband, false);
+	}
+
+	/**
+	 * Create a point with a percentage deadband.
+	 *
+	 * @param blockType
+	 *        the block type
+	 * @param address
+	 *        the address of the first register of the value
+	 * @param type
+	 *        the value type
+	 * @param percent
+	 *        the smallest change to report, as a percentage of the last
+	 *        reported value
+	 * @return the new point
+	 */
+	public static ModbusDeadbandPoint percent(ModbusBlockType blockType, int address,
+			ModbusPointType type, double percent) {
+		return new ModbusDeadbandPoint(blockType, address, type, percent, true);
+	}
+
+	/**
+	 * Test if a change in value is large enough to report.
+	 *
+	 * @param reported
+	 *        the last reported value
+	 * @param value
+	 *        the new value
+	 * @return {@literal true} if the difference between {@code value} and
+	 *         {@code reported} is more than the deadband allows
+	 */
+	public boolean exceeds(double reported, double value) {
+		if ( Double.compare(reported, value) == 0 ) {
+			return false;
+		}
+		final double diff = Math.abs(value - reported);
+		if ( Double.isNaN(diff) ) {
+			return true;
+		}
+		if ( percent ) {
+			return (reported == 0 || diff > Math.abs(reported) * deadband / 100.0);
+		}
+		return diff > deadband;
+	}
+
+	/**
+	 * Get the block type.
+	 *
+	 * @return the block type
+	 */
+	public ModbusBlockType getBlockType() {
+		return blockType;
+	}
+
+	/**
+	 * Get the address of the first register of the value.
+	 *
+	 * @return the address
+	 */
+	public int getAddress() {
+		return address;
+	}
+
+	/**
+	 * Get the address immediately after the last register of the value.
+	 *
+	 * @return the end address (exclusive)
+	 */
+	public int getEndAddress() {
+		return address + type.getRegisterCount();
+	}
+
+	/**
+	 * Get the value type.
+	 *
+	 * @return the type
+	 */
+	public ModbusPointType getType() {
+		return type;
+	}
+
+	/**
+	 * Get the deadband.
+	 *
+	 * @return the deadband
+	 */
+	public double getDeadband() {
+		return deadband;
+	}
+
+	/**
+	 * Get the percentage mode.
+	 *
+	 * @return {@literal true} if the deadband is a percentage of the last
+	 *         reported value
+	 */
+	public boolean isPercent() {
+		return percent;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ModbusDeadbandPoint{");
+		builder.append(blockType);
+		builder.append(",address=");
+		builder.append(address);
+		builder.append(",type=");
+		builder.append(type);
+		builder.append(",deadband=");
+		builder.append(deadband);
+		if ( percent ) {
+			builder.append('%');
+		}
+		builder.append("}");
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,120 @@
+/* ==================================================================
+ * ModbusPointType.java - 17/10/2026 11:02:44 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+/**
+ * Numeric data types stored in one or more consecutive registers.
+ *
+ * <p>
+ * Multi-register types are decoded with the most significant register first.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public enum ModbusPointType {
+
+	/** Signed 16-bit integer. */
+	Int16(1),
+
+	/** Unsigned 16-bit integer. */
+	UInt16(1),
+
+	/** Signed 32-bit integer. */
+	Int32(2),
+
+	/** Unsigned 32-bit integer. */
+	UInt32(2),
+
+	/** IEEE-754 32-bit floating point. */
+	Float32(2),
+
+	/** Signed 64-bit integer. */
+	Int64(4),
+
+	/** IEEE-754 64-bit floating point. */
+	Float64(4),
+
+	;
+
+	private final int registerCount;
+
+	ModbusPointType(int registerCount) {
+		this.registerCount = registerCount;
+	}
+
+	/**
+	 * Get the number of registers used by this type.
+	 *
+	 * @return the register count
+	 */
+	public int getRegisterCount() {
+		return registerCount;
+	}
+
+	/**
+	 * Decode a value.
+	 *
+	 * @param data
+	 *        the register data
+	 * @param offset
+	 *        the offset within {@code data} of the first register of the value
+	 * @return the value
+	 * @throws ArrayIndexOutOfBoundsException
+	 *         if {@code data} does not contain enough registers
+	 */
+	public double decode(short[] data, int offset) {
+		switch (this) {
+			case Int16:
+				return data[offset];
+
+			case UInt16:
+				return data[offset] & 0xFFFF;
+
+			case Int32:
+				return int32(data, offset);
+
+			case UInt32:
+				return int32(data, offset) & 0xFFFFFFFFL;
+
+			case Float32:
+				return Float.intBitsToFloat(int32(data, offset));
+
+			case Int64:
+				return int64(data, offset);
+
+			default:
+				return Double.longBitsToDouble(int64(data, offset));
+		}
+	}
+
+	private static int int32(short[] data, int offset) {
+		return (data[offset] << 16) | (data[offset + 1] & 0xFFFF);
+	}
+
+	private static long int64(short[] data, int offset) {
+		return ((long) int32(data, offset) << 32) | (int32(data, offset + 2) & 0xFFFFFFFFL);
+	}
+
+}
@@ -0,0 +1,400 @@
+/* ==================================================================
+ * ModbusPoll.java - 17/10/2026 10:14:29 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+
+/**
+ * A recurring poll scheduled by a {@link ModbusPollScheduler}.
+ *
+ * <p>
+ * Iterations are scheduled at a fixed rate from the poll's start phase, so
+ * slow iterations do not cause the schedule to drift. Iterations that fall
+ * due while the previous iteration is still in flight are handled according
+ * to the poll's {@link OverrunPolicy}.
+ * </p>
+ *
+ * <p>
+ * A poll created with an {@link AdaptivePollInterval} updates its interval
+ * after each successful iteration, from whether the iteration saw changed
+ * data. A shorter interval takes effect immediately, by bringing the next
+ * iteration forward; a longer interval takes effect after the next iteration.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class ModbusPoll implements TimerTask {
+
+	private final ModbusPollScheduler scheduler;
+	private final ModbusPollTask task;
+	private final OverrunPolicy overrunPolicy;
+	private final AdaptivePollInterval adaptiveInterval;
+	private final AtomicLong runCount = new AtomicLong();
+	private final AtomicLong skipCount = new AtomicLong();
+	private final AtomicLong lateCount = new AtomicLong();
+
+	private volatile long intervalNanos;
+	private volatile boolean cancelled;
+	private volatile Timeout timeout;
+	private volatile long maxLatenessNanos;
+
+	/** The scheduled time of the next iteration; guarded by this. */
+	private long nextRun;
+
+	/** The scheduled time of the last iteration; guarded by this. */
+	private long lastRun;
+
+	/** An iteration is in flight; modified while synchronized on this. */
+	private volatile boolean inFlight;
+
+	/** A coalesced iteration is waiting to run; guarded by this. */
+	private boolean overrun;
+
+	/** The scheduled time of the coalesced iteration; guarded by this. */
+	private long overrunScheduled;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param scheduler
+	 *        the scheduler
+	 * @param task
+	 *        the task
+	 * @param intervalNanos
+	 *        the interval, in nanoseconds
+	 * @param overrunPolicy
+	 *        the overrun policy
+	 */
+	ModbusPoll(ModbusPollScheduler scheduler, ModbusPollTask task, long intervalNanos,
+			OverrunPolicy overrunPolicy) {
+		this(scheduler, task, intervalNanos, overrunPolicy, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param scheduler
+	 *        the scheduler
+	 * @param task
+	 *        the task
+	 * @param intervalNanos
+	 *        the initial interval, in nanoseconds
+	 * @param overrunPolicy
+	 *        the overrun policy
+	 * @param adaptiveInterval
+	 *        the adaptive interval, or {@literal null} for a fixed interval
+	 */
+	ModbusPoll(ModbusPollScheduler scheduler, ModbusPollTask task, long intervalNanos,
+			OverrunPolicy overrunPolicy, AdaptivePollInterval adaptiveInterval) {
+		super();
+		this.scheduler = scheduler;
+		this.task = task;
+		this.intervalNanos = intervalNanos;
+		this.overrunPolicy = overrunPolicy;
+		this.adaptiveInterval = adaptiveInterval;
+	}
+
+	/**
+	 * Schedule the first iteration.
+	 *
+	 * @param delayNanos
+	 *        the delay before the first iteration, in nanoseconds
+	 */
+	synchronized void start(long delayNanos) {
+		nextRun = System.nanoTime() + delayNanos;
+		lastRun = nextRun - intervalNanos;
+		schedule(delayNanos);
+	}
+
+	private void schedule(long delayNanos) {
+		if ( cancelled ) {
+			return;
+		}
+		try {
+			timeout = scheduler.getTimer().newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+		} catch ( IllegalStateException | RejectedExecutionException e ) {
+			// timer stopped
+			cancelled = true;
+		}
+	}
+
+	@Override
+	public void run(Timeout t) throws Exception {
+		if ( cancelled ) {
+			return;
+		}
+		final long now = System.nanoTime();
+		final long scheduled;
+		final boolean start;
+		boolean skipped = false;
+		synchronized ( this ) {
+			scheduled = nextRun;
+			final long interval = intervalNanos;
+			long next = scheduled + interval;
+			if ( next - now <= 0 ) {
+				// fallen behind by more than an interval: jump ahead to the next slot
+				next += ((now - next) / interval + 1) * interval;
+			}
+			lastRun = scheduled;
+			nextRun = next;
+			schedule(next - now);
+
+			start = !inFlight;
+			if ( start ) {
+				inFlight = true;
+			} else if ( overrunPolicy == OverrunPolicy.Coalesce && !overrun ) {
+				overrun = true;
+				overrunScheduled = scheduled;
+			} else {
+				skipped = true;
+			}
+		}
+		if ( start ) {
+			execute(scheduled, now);
+		} else if ( skipped ) {
+			skipCount.incrementAndGet();
+			scheduler.pollSkipped(this);
+		}
+	}
+
+	private void execute(long scheduled, long now) {
+		final long lateness = now - scheduled;
+		if ( lateness > maxLatenessNanos ) {
+			maxLatenessNanos = lateness;
+		}
+		if ( lateness > scheduler.getLateThresholdNanos() ) {
+			lateCount.incrementAndGet();
+			scheduler.pollLate(this, lateness);
+		}
+		runCount.incrementAndGet();
+		CompletableFuture<?> f;
+		try {
+			f = task.poll();
+		} catch ( Throwable e ) {
+			f = new CompletableFuture<>();
+			f.completeExceptionally(e);
+		}
+		if ( f == null ) {
+			completed(null, null);
+		} else {
+			f.whenComplete(this::completed);
+		}
+	}
+
+	private void completed(Object result, Throwable e) {
+		if ( e != null ) {
+			scheduler.pollFailed(this, e);
+		} else if ( adaptiveInterval != null ) {
+			updateInterval(adaptiveInterval.update(Boolean.TRUE.equals(result)));
+		}
+		final long coalesced;
+		synchronized ( this ) {
+			if ( !overrun || cancelled ) {
+				overrun = false;
+				inFlight = false;
+				return;
+			}
+			overrun = false;
+			coalesced = overrunScheduled;
+		}
+		// run the coalesced iteration, keeping the in-flight flag set
+		execute(coalesced, System.nanoTime());
+	}
+
+	private synchronized void updateInterval(long newIntervalNanos) {
+		final long oldIntervalNanos = intervalNanos;
+		if ( newIntervalNanos == oldIntervalNanos ) {
+			return;
+		}
+		intervalNanos = newIntervalNanos;
+		if ( newIntervalNanos > oldIntervalNanos || cancelled ) {
+			return;
+		}
+		final long now = System.nanoTime();
+		final long next = Math.max(now, lastRun + newIntervalNanos);
+		final Timeout t = this.timeout;
+		if ( next - nextRun >= 0 || (t != null && !t.cancel()) ) {
+			// not earlier, or the timer is already running the next iteration
+			return;
+		}
+		nextRun = next;
+		schedule(next - now);
+	}
+
+	/**
+	 * Change the interval.
+	 *
+	 * <p>
+	 * A shorter interval takes effect immediately, by bringing the next
+	 * iteration forward; a longer interval takes effect after the next
+	 * iteration. For a poll with an adaptive interval, the interval will be
+	 * changed again after the next iteration completes.
+	 * </p>
+	 *
+	 * @param interval
+	 *        the interval between iterations
+	 * @param unit
+	 *        the interval unit
+	 * @throws IllegalArgumentException
+	 *         if {@code unit} is {@literal null} or {@code interval} is not
+	 *         positive
+	 */
+	public void setInterval(long interval, TimeUnit unit) {
+		if ( unit == null ) {
+			throw new IllegalArgumentException("The unit argument must not be null.");
+		}
+		if ( interval < 1 ) {
+			throw new IllegalArgumentException("The interval argument must be positive.");
+		}
+		updateInterval(unit.toNanos(interval));
+	}
+
+	/**
+	 * Cancel the poll.
+	 *
+	 * <p>
+	 * An iteration already in flight is allowed to complete, but no further
+	 * iterations will start.
+	 * </p>
+	 */
+	public void cancel() {
+		if ( cancelled ) {
+			return;
+		}
+		cancelled = true;
+		final Timeout t = this.timeout;
+		if ( t != null ) {
+			t.cancel();
+		}
+		scheduler.removed(this);
+	}
+
+	/**
+	 * Test if the poll has been cancelled.
+	 *
+	 * @return {@literal true} if cancelled
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Test if an iteration is in flight.
+	 *
+	 * @return {@literal true} if an iteration has started and not yet
+	 *         completed
+	 */
+	public boolean isInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Get the task.
+	 *
+	 * @return the task
+	 */
+	public ModbusPollTask getTask() {
+		return task;
+	}
+
+	/**
+	 * Get the overrun policy.
+	 *
+	 * @return the policy
+	 */
+	public OverrunPolicy getOverrunPolicy() {
+		return overrunPolicy;
+	}
+
+	/**
+	 * Get the interval.
+	 *
+	 * @param unit
+	 *        the time unit to return the interval in
+	 * @return the interval
+	 */
+	public long getInterval(TimeUnit unit) {
+		return unit.convert(intervalNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Get the adaptive interval.
+	 *
+	 * @return the adaptive interval, or {@literal null} if the poll has a
+	 *         fixed interval
+	 */
+	public AdaptivePollInterval getAdaptiveInterval() {
+		return adaptiveInterval;
+	}
+
+	/**
+	 * Get the number of iterations started.
+	 *
+	 * @return the run count
+	 */
+	public long getRunCount() {
+		return runCount.get();
+	}
+
+	/**
+	 * Get the number of iterations skipped because the previous iteration was
+	 * still in flight.
+	 *
+	 * <p>
+	 * Iterations combined by {@link OverrunPolicy#Coalesce} into a later run
+	 * are counted as skipped, except for the iteration that runs.
+	 * </p>
+	 *
+	 * @return the skip count
+	 */
+	public long getSkipCount() {
+		return skipCount.get();
+	}
+
+	/**
+	 * Get the number of iterations that started late.
+	 *
+	 * @return the late count
+	 * @see ModbusPollScheduler#getLateThresholdMs()
+	 */
+	public long getLateCount() {
+		return lateCount.get();
+	}
+
+	/**
+	 * Get the maximum lateness of any iteration.
+	 *
+	 * @return the maximum lateness, in nanoseconds
+	 */
+	public long getMaxLatenessNanos() {
+		return maxLatenessNanos;
+	}
+
+}
@@ -0,0 +1,74 @@
+/* ==================================================================
+ * ModbusPollListener.java - 17/10/2026 10:11:03 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+/**
+ * Listener for poll scheduling events.
+ *
+ * <p>
+ * Methods are called from timer or I/O threads and must not block.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public interface ModbusPollListener {
+
+	/**
+	 * Called when a poll iteration starts later than its scheduled time by
+	 * more than the scheduler's late threshold.
+	 *
+	 * @param poll
+	 *        the poll
+	 * @param latenessNanos
+	 *        how late the iteration started, in nanoseconds
+	 */
+	default void pollLate(ModbusPoll poll, long latenessNanos) {
+		// nothing
+	}
+
+	/**
+	 * Called when a poll iteration is skipped because the previous iteration
+	 * is still in flight.
+	 *
+	 * @param poll
+	 *        the poll
+	 */
+	default void pollSkipped(ModbusPoll poll) {
+		// nothing
+	}
+
+	/**
+	 * Called when a poll iteration fails.
+	 *
+	 * @param poll
+	 *        the poll
+	 * @param cause
+	 *        the failure
+	 */
+	default void pollFailed(ModbusPoll poll, Throwable cause) {
+		// nothing
+	}
+
+}
@@ -0,0 +1,413 @@
+/* ==================================================================
+ * ModbusPollScheduler.java - 17/10/2026 10:26:55 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Schedule recurring Modbus polls on a timer wheel.
+ *
+ * <p>
+ * Polls are held on a Netty {@link HashedWheelTimer}, so scheduling and
+ * cancelling a poll take constant time and hundreds of thousands of polls can
+ * share a single timer thread. Each poll task must therefore start its work
+ * asynchronously, for example via
+ * {@link net.solarnetwork.io.modbus.ModbusClient#sendAsync(net.solarnetwork.io.modbus.ModbusMessage)},
+ * and not block.
+ * </p>
+ *
+ * <p>
+ * When {@link #isPhaseSpreading()} is enabled, the first iteration of each
+ * poll is delayed by a different fraction of its interval, taken from a
+ * golden ratio sequence, so polls with the same interval are spread evenly
+ * over the interval instead of all starting at once.
+ * </p>
+ *
+ * <p>
+ * Polls scheduled via
+ * {@link #scheduleAdaptive(ModbusChangePollTask, AdaptivePollInterval, OverrunPolicy)}
+ * start at their minimum interval and back off while their data does not
+ * change, so polling time goes to the data that moves. The interval chosen
+ * for each poll is available from {@link #getPolls()}.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusPollScheduler {
+
+	/** The {@code lateThresholdMs} property default value. */
+	public static final long DEFAULT_LATE_THRESHOLD_MS = 100L;
+
+	/** The timer tick duration used by an internally created timer. */
+	public static final long DEFAULT_TIMER_TICK_MS = 10L;
+
+	/** The fractional part of the golden ratio. */
+	private static final double GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+	private static final Logger log = LoggerFactory.getLogger(ModbusPollScheduler.class);
+
+	private final Timer timer;
+	private final boolean privateTimer;
+	private final Set<ModbusPoll> polls = ConcurrentHashMap.newKeySet();
+	private final AtomicLong phaseCounter = new AtomicLong();
+
+	private boolean phaseSpreading = true;
+	private long lateThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LATE_THRESHOLD_MS);
+	private ModbusPollListener listener;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * A private timer will be created, and stopped by {@link #shutdown()}.
+	 * </p>
+	 */
+	public ModbusPollScheduler() {
+		this(new HashedWheelTimer(new DefaultThreadFactory("modbus-poll", true),
+				DEFAULT_TIMER_TICK_MS, TimeUnit.MILLISECONDS), true);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timer
+	 *        the timer to use, for example
+	 *        {@link net.solarnetwork.io.modbus.netty.handler.ModbusRuntime#timer()};
+	 *        it will not be stopped by {@link #shutdown()}
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public ModbusPollScheduler(Timer timer) {
+		this(timer, false);
+	}
+
+	private ModbusPollScheduler(Timer timer, boolean privateTimer) {
+		super();
+		if ( timer == null ) {
+			throw new IllegalArgumentException("The timer argument must not be null.");
+		}
+		this.timer = timer;
+		this.privateTimer = privateTimer;
+	}
+
+	/**
+	 * Schedule a poll, skipping iterations that overrun.
+	 *
+	 * @param task
+	 *        the task to run on each iteration
+	 * @param interval
+	 *        the interval between iterations
+	 * @param unit
+	 *        the interval unit
+	 * @return the poll
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null} or {@code interval} is not
+	 *         positive
+	 */
+	public ModbusPoll schedule(ModbusPollTask task, long interval, TimeUnit unit) {
+		return schedule(task, interval, unit, OverrunPolicy.Skip);
+	}
+
+	/**
+	 * Schedule a poll.
+	 *
+	 * @param task
+	 *        the task to run on each iteration
+	 * @param interval
+	 *        the interval between iterations
+	 * @param unit
+	 *        the interval unit
+	 * @param overrunPolicy
+	 *        the policy for iterations that fall due while the previous
+	 *        iteration is still in flight
+	 * @return the poll
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null} or {@code interval} is not
+	 *         positive
+	 */
+	public ModbusPoll schedule(ModbusPollTask task, long interval, TimeUnit unit,
+			OverrunPolicy overrunPolicy) {
+		if ( task == null ) {
+			throw new IllegalArgumentException("The task argument must not be null.");
+		}
+		if ( unit == null ) {
+			throw new IllegalArgumentException("The unit argument must not be null.");
+		}
+		if ( overrunPolicy == null ) {
+			throw new IllegalArgumentException("The overrunPolicy argument must not be null.");
+		}
+		if ( interval < 1 ) {
+			throw new IllegalArgumentException("The interval argument must be positive.");
+		}
+		final long intervalNanos = unit.toNanos(interval);
+		return start(new ModbusPoll(this, task, intervalNanos, overrunPolicy));
+	}
+
+	/**
+	 * Schedule a poll with an adaptive interval, skipping iterations that
+	 * overrun.
+	 *
+	 * @param task
+	 *        the task to run on each iteration
+	 * @param minInterval
+	 *        the minimum interval between iterations
+	 * @param maxInterval
+	 *        the maximum interval between iterations
+	 * @param unit
+	 *        the interval unit
+	 * @return the poll
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}, {@code minInterval} is not
+	 *         positive, or {@code maxInterval} is less than
+	 *         {@code minInterval}
+	 */
+	public ModbusPoll scheduleAdaptive(ModbusChangePollTask task, long minInterval,
+			long maxInterval, TimeUnit unit) {
+		return scheduleAdaptive(task, new AdaptivePollInterval(minInterval, maxInterval, unit),
+				OverrunPolicy.Skip);
+	}
+
+	/**
+	 * Schedule a poll with an adaptive interval.
+	 *
+	 * <p>
+	 * The interval is updated after each successful iteration, from whether
+	 * the iteration saw changed data.
+	 * </p>
+	 *
+	 * @param task
+	 *        the task to run on each iteration
+	 * @param interval
+	 *        the adaptive interval, which must not be shared with other polls
+	 * @param overrunPolicy
+	 *        the policy for iterations that fall due while the previous
+	 *        iteration is still in flight
+	 * @return the poll
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public ModbusPoll scheduleAdaptive(ModbusChangePollTask task, AdaptivePollInterval interval,
+			OverrunPolicy overrunPolicy) {
+		if ( task == null ) {
+			throw new IllegalArgumentException("The task argument must not be null.");
+		}
+		if ( interval == null ) {
+			throw new IllegalArgumentException("The interval argument must not be null.");
+		}
+		if ( overrunPolicy == null ) {
+			throw new IllegalArgumentException("The overrunPolicy argument must not be null.");
+		}
+		return start(new ModbusPoll(this, task, interval.getIntervalNanos(), overrunPolicy,
+				interval));
+	}
+
+	private ModbusPoll start(ModbusPoll poll) {
+		polls.add(poll);
+		poll.start(phaseSpreading ? phaseDelay(poll.getInterval(TimeUnit.NANOSECONDS)) : 0L);
+		return poll;
+	}
+
+	private long phaseDelay(long intervalNanos) {
+		final double phase = (phaseCounter.getAndIncrement() * GOLDEN_RATIO_FRACTION) % 1.0;
+		return (long) (phase * intervalNanos);
+	}
+
+	/**
+	 * Cancel all polls, and stop the timer if it was created by this
+	 * scheduler.
+	 */
+	public void shutdown() {
+		for ( ModbusPoll poll : polls ) {
+			poll.cancel();
+		}
+		if ( privateTimer ) {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Called by a poll when it is cancelled.
+	 *
+	 * @param poll
+	 *        the poll
+	 */
+	void removed(ModbusPoll poll) {
+		polls.remove(poll);
+	}
+
+	void pollLate(ModbusPoll poll, long latenessNanos) {
+		log.debug("Poll {} started {}ms late", poll.getTask(),
+				TimeUnit.NANOSECONDS.toMillis(latenessNanos));
+		final ModbusPollListener l = this.listener;
+		if ( l != null ) {
+			try {
+				l.pollLate(poll, latenessNanos);
+			} catch ( Exception e ) {
+				log.warn("Poll listener [{}] threw exception: ", l, e);
+			}
+		}
+	}
+
+	void pollSkipped(ModbusPoll poll) {
+		log.trace("Poll {} iteration skipped because previous iteration in flight",
+				poll.getTask());
+		final ModbusPollListener l = this.listener;
+		if ( l != null ) {
+			try {
+				l.pollSkipped(poll);
+			} catch ( Exception e ) {
+				log.warn("Poll listener [{}] threw exception: ", l, e);
+			}
+		}
+	}
+
+	void pollFailed(ModbusPoll poll, Throwable cause) {
+		log.debug("Poll {} failed: {}", poll.getTask(), cause.toString());
+		final ModbusPollListener l = this.listener;
+		if ( l != null ) {
+			try {
+				l.pollFailed(poll, cause);
+			} catch ( Exception e ) {
+				log.warn("Poll listener [{}] threw exception: ", l, e);
+			}
+		}
+	}
+
+	/**
+	 * Get the scheduled polls.
+	 *
+	 * <p>
+	 * This can be used to see the interval chosen for each poll, for example
+	 * to report where polling capacity is spent.
+	 * </p>
+	 *
+	 * @return the polls that have not been cancelled
+	 */
+	public List<ModbusPoll> getPolls() {
+		return Collections.unmodifiableList(new ArrayList<>(polls));
+	}
+
+	/**
+	 * Get the timer.
+	 *
+	 * @return the timer
+	 */
+	public Timer getTimer() {
+		return timer;
+	}
+
+	/**
+	 * Get the number of active polls.
+	 *
+	 * @return the number of polls scheduled and not cancelled
+	 */
+	public int getPollCount() {
+		return polls.size();
+	}
+
+	/**
+	 * Get the phase spreading mode.
+	 *
+	 * @return {@literal true} if the first iteration of each poll is delayed
+	 *         by a fraction of its interval; defaults to {@literal true}
+	 */
+	public boolean isPhaseSpreading() {
+		return phaseSpreading;
+	}
+
+	/**
+	 * Set the phase spreading mode.
+	 *
+	 * @param phaseSpreading
+	 *        {@literal true} to delay the first iteration of each poll by a
+	 *        fraction of its interval, or {@literal false} to start each poll
+	 *        immediately
+	 */
+	public void setPhaseSpreading(boolean phaseSpreading) {
+		this.phaseSpreading = phaseSpreading;
+	}
+
+	/**
+	 * Get the late threshold.
+	 *
+	 * @return the amount of time after its scheduled time an iteration can
+	 *         start before being reported as late, in milliseconds
+	 */
+	public long getLateThresholdMs() {
+		return TimeUnit.NANOSECONDS.toMillis(lateThresholdNanos);
+	}
+
+	/**
+	 * Get the late threshold, in nanoseconds.
+	 *
+	 * @return the late threshold
+	 */
+	long getLateThresholdNanos() {
+		return lateThresholdNanos;
+	}
+
+	/**
+	 * Set the late threshold.
+	 *
+	 * @param lateThresholdMs
+	 *        the amount of time after its scheduled time an iteration can
+	 *        start before being reported as late, in milliseconds; defaults
+	 *        to {@link #DEFAULT_LATE_THRESHOLD_MS}
+	 */
+	public void setLateThresholdMs(long lateThresholdMs) {
+		this.lateThresholdNanos = TimeUnit.MILLISECONDS.toNanos(lateThresholdMs);
+	}
+
+	/**
+	 * Get the listener.
+	 *
+	 * @return the listener, or {@literal null}
+	 */
+	public ModbusPollListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Set a listener for late, skipped, and failed iterations.
+	 *
+	 * @param listener
+	 *        the listener to set, or {@literal null} to clear
+	 */
+	public void setListener(ModbusPollListener listener) {
+		this.listener = listener;
+	}
+
+}
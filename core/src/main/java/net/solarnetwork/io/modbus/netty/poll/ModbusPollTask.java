@@ -0,0 +1,51 @@
+/* ==================================================================
+ * ModbusPollTask.java - 17/10/2026 10:09:47 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A task run on each iteration of a poll.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ModbusPollTask {
+
+	/**
+	 * Start one poll iteration.
+	 *
+	 * <p>
+	 * This method is called from a timer thread and must not block; it should
+	 * start any Modbus requests asynchronously and return a future that
+	 * completes when the iteration is done.
+	 * </p>
+	 *
+	 * @return a future that completes when the iteration is done, or
+	 *         {@literal null} if the iteration completed already
+	 */
+	CompletableFuture<?> poll();
+
+}
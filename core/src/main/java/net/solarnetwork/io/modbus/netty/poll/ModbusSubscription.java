@@ -0,0 +1,289 @@
+/* ==================================================================
+ * ModbusSubscription.java - 17/10/2026 11:34:07 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadPlan;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadResult;
+
+/**
+ * A poll task that reads a set of ranges and notifies listeners only of the
+ * addresses that changed.
+ *
+ * <p>
+ * Each iteration executes a {@link ModbusReadPlan} and compares every range
+ * against the previous read using a {@link ModbusChangeDetector}. Listeners
+ * are called once per range that has changed addresses, after the first
+ * successful read of that range. Ranges that fail to read are not compared,
+ * and the iteration future completes exceptionally with the first failure so
+ * the scheduler can report it. Otherwise the iteration completes with
+ * {@literal true} if any range changed, so a subscription can be scheduled with
+ * an adaptive interval via
+ * {@link #startAdaptive(ModbusPollScheduler, long, long, TimeUnit)}.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusSubscription implements ModbusChangePollTask {
+
+	private static final Logger log = LoggerFactory.getLogger(ModbusSubscription.class);
+
+	private final ModbusClient client;
+	private final ModbusReadPlan plan;
+	private final Map<ModbusBlockRange, ModbusChangeDetector> detectors;
+	private final List<ModbusChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param client
+	 *        the client to read with
+	 * @param plan
+	 *        the plan of ranges to read
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public ModbusSubscription(ModbusClient client, ModbusReadPlan plan) {
+		super();
+		if ( client == null ) {
+			throw new IllegalArgumentException("The client argument must not be null.");
+		}
+		this.client = client;
+		if ( plan == null ) {
+			throw new IllegalArgumentException("The plan argument must not be null.");
+		}
+		this.plan = plan;
+		this.detectors = new LinkedHashMap<>(plan.getRanges().size());
+		for ( ModbusBlockRange range : plan.getRanges() ) {
+			detectors.put(range, new ModbusChangeDetector(range));
+		}
+	}
+
+	/**
+	 * Add a change listener.
+	 *
+	 * @param listener
+	 *        the listener to add
+	 * @throws IllegalArgumentException
+	 *         if {@code listener} is {@literal null}
+	 */
+	public void addListener(ModbusChangeListener listener) {
+		if ( listener == null ) {
+			throw new IllegalArgumentException("The listener argument must not be null.");
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Remove a change listener.
+	 *
+	 * @param listener
+	 *        the listener to remove
+	 * @return {@literal true} if the listener was removed
+	 */
+	public boolean removeListener(ModbusChangeListener listener) {
+		return listeners.remove(listener);
+	}
+
+	/**
+	 * Add a deadband point.
+	 *
+	 * <p>
+	 * Changes to the registers of the point are only reported when the decoded
+	 * value moves past the point's deadband.
+	 * </p>
+	 *
+	 * @param point
+	 *        the point to add
+	 * @throws IllegalArgumentException
+	 *         if {@code point} is {@literal null}, is not contained in any
+	 *         range of the plan, or overlaps a point already added
+	 */
+	public void addPoint(ModbusDeadbandPoint point) {
+		if ( point == null ) {
+			throw new IllegalArgumentException("The point argument must not be null.");
+		}
+		final ModbusBlockRange pointRange = ModbusBlockRange.range(point.getBlockType(),
+				point.getAddress(), point.getType().getRegisterCount());
+		for ( ModbusChangeDetector detector : detectors.values() ) {
+			if ( detector.getRange().contains(pointRange) ) {
+				detector.addPoint(point);
+				return;
+			}
+		}
+		throw new IllegalArgumentException(
+				String.format("The point %s is not within any subscribed range.", point));
+	}
+
+	/**
+	 * Forget all previous reads, so the next iteration reports all addresses
+	 * as changed.
+	 */
+	public void reset() {
+		for ( ModbusChangeDetector detector : detectors.values() ) {
+			detector.reset();
+		}
+	}
+
+	/**
+	 * Schedule this subscription to be polled.
+	 *
+	 * @param scheduler
+	 *        the scheduler
+	 * @param interval
+	 *        the poll interval
+	 * @param unit
+	 *        the interval unit
+	 * @return the scheduled poll
+	 * @throws IllegalArgumentException
+	 *         if {@code scheduler} or {@code unit} is {@literal null} or
+	 *         {@code interval} is not positive
+	 */
+	public ModbusPoll start(ModbusPollScheduler scheduler, long interval, TimeUnit unit) {
+		if ( scheduler == null ) {
+			throw new IllegalArgumentException("The scheduler argument must not be null.");
+		}
+		return scheduler.schedule(this, interval, unit);
+	}
+
+	/**
+	 * Schedule this subscription to be polled with an adaptive interval.
+	 *
+	 * <p>
+	 * The interval starts at {@code minInterval} and backs off towards
+	 * {@code maxInterval} while the subscribed data does not change.
+	 * </p>
+	 *
+	 * @param scheduler
+	 *        the scheduler
+	 * @param minInterval
+	 *        the minimum poll interval
+	 * @param maxInterval
+	 *        the maximum poll interval
+	 * @param unit
+	 *        the interval unit
+	 * @return the scheduled poll
+	 * @throws IllegalArgumentException
+	 *         if {@code scheduler} or {@code unit} is {@literal null},
+	 *         {@code minInterval} is not positive, or {@code maxInterval} is
+	 *         less than {@code minInterval}
+	 */
+	public ModbusPoll startAdaptive(ModbusPollScheduler scheduler, long minInterval,
+			long maxInterval, TimeUnit unit) {
+		if ( scheduler == null ) {
+			throw new IllegalArgumentException("The scheduler argument must not be null.");
+		}
+		return scheduler.scheduleAdaptive(this, minInterval, maxInterval, unit);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> poll() {
+		return plan.execute(client).thenCompose(this::handleResult);
+	}
+
+	private CompletableFuture<Boolean> handleResult(ModbusReadResult result) {
+		Throwable failure = null;
+		boolean changes = false;
+		for ( ModbusChangeDetector detector : detectors.values() ) {
+			final ModbusBlockRange range = detector.getRange();
+			final ModbusMessage msg = result.getMessage(range);
+			if ( msg == null ) {
+				if ( failure == null ) {
+					failure = result.getFailure(range);
+				}
+				continue;
+			}
+			final int[] changed;
+			try {
+				changed = detector.update(msg);
+			} catch ( IllegalArgumentException e ) {
+				if ( failure == null ) {
+					failure = e;
+				}
+				continue;
+			}
+			if ( changed.length > 0 ) {
+				changes = true;
+				notifyListeners(range, msg, changed);
+			}
+		}
+		if ( failure != null ) {
+			CompletableFuture<Boolean> fail = new CompletableFuture<>();
+			fail.completeExceptionally(failure);
+			return fail;
+		}
+		return CompletableFuture.completedFuture(changes);
+	}
+
+	private void notifyListeners(ModbusBlockRange range, ModbusMessage msg, int[] addresses) {
+		for ( ModbusChangeListener l : listeners ) {
+			try {
+				l.changed(range, msg, addresses);
+			} catch ( Exception e ) {
+				log.warn("Change listener [{}] threw exception: ", l, e);
+			}
+		}
+	}
+
+	/**
+	 * Get the plan.
+	 *
+	 * @return the plan
+	 */
+	public ModbusReadPlan getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Get the client.
+	 *
+	 * @return the client
+	 */
+	public ModbusClient getClient() {
+		return client;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ModbusSubscription{unitId=");
+		builder.append(plan.getUnitId());
+		builder.append(", ranges=");
+		builder.append(plan.getRanges());
+		builder.append("}");
+		return builder.toString();
+	}
+
+}
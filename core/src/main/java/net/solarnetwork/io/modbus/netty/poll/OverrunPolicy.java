@@ -0,0 +1,46 @@
+/* ==================================================================
+ * OverrunPolicy.java - 17/10/2026 10:08:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll;
+
+/**
+ * What to do when a poll is due while its previous iteration is still in
+ * flight.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public enum OverrunPolicy {
+
+	/** Skip the iteration. */
+	Skip,
+
+	/**
+	 * Run the iteration as soon as the previous iteration completes, combining
+	 * any further overrunning iterations into that one run.
+	 */
+	Coalesce,
+
+	;
+
+}
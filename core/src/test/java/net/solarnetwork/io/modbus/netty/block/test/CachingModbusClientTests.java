@@ -0,0 +1,307 @@
+/* ==================================================================
+ * CachingModbusClientTests.java - 18/10/2026 12:31:07 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ResourceLeakDetector;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.CachingModbusClient;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.test.support.SimulatedModbusClient;
+
+/**
+ * Test cases for the {@link CachingModbusClient} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class CachingModbusClientTests {
+
+	private static final int UNIT_ID = 1;
+
+	private SimulatedModbusClient delegate;
+	private CachingModbusClient client;
+
+	@BeforeEach
+	public void setup() {
+		delegate = new SimulatedModbusClient();
+		client = new CachingModbusClient(delegate, 1, TimeUnit.MINUTES);
+	}
+
+	private static Short[] registers(ModbusMessage msg) {
+		short[] data = msg.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class)
+				.dataDecode();
+		Short[] result = new Short[data.length];
+		for ( int i = 0; i < data.length; i++ ) {
+			result[i] = data[i];
+		}
+		return result;
+	}
+
+	@Test
+	public void construct_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new CachingModbusClient(null, 1, TimeUnit.SECONDS);
+		}, "Null delegate not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new CachingModbusClient(delegate, 1, null);
+		}, "Null unit not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new CachingModbusClient(delegate, 0, TimeUnit.SECONDS);
+		}, "Zero TTL not allowed");
+	}
+
+	@Test
+	public void read_exactHit() throws Exception {
+		// GIVEN
+		ModbusMessage first = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4))
+				.get(1, TimeUnit.SECONDS);
+
+		// WHEN
+		ModbusMessage second = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4))
+				.get(1, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("One request sent", delegate.getRequests(), hasSize(1));
+		assertThat("Cached response returned", second, is(sameInstance(first)));
+		assertThat("Hit counted", client.getHitCount(), is(equalTo(1L)));
+		assertThat("Miss counted", client.getMissCount(), is(equalTo(1L)));
+	}
+
+	@Test
+	public void read_subRangeHit() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 10, 10));
+
+		// WHEN
+		ModbusMessage res = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 12, 3))
+				.get(1, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Sub-range served from cache", delegate.getRequests(), hasSize(1));
+		assertThat("Response address is sub-range address",
+				res.unwrap(AddressedModbusMessage.class).getAddress(), is(equalTo(12)));
+		assertThat("Sub-range data returned", registers(res),
+				arrayContaining((short) 12, (short) 13, (short) 14));
+	}
+
+	@Test
+	public void read_subRangeHit_coils() throws Exception {
+		// GIVEN
+		client.send(BitsModbusMessage.readCoilsRequest(UNIT_ID, 0, 16));
+
+		// WHEN
+		ModbusMessage res = client.send(BitsModbusMessage.readCoilsRequest(UNIT_ID, 3, 4));
+
+		// THEN
+		assertThat("Sub-range served from cache", delegate.getRequests(), hasSize(1));
+		assertThat("Sub-range bits returned",
+				res.unwrap(net.solarnetwork.io.modbus.BitsModbusMessage.class).getBits(),
+				is(equalTo(SimulatedModbusClient.oddBits(3, 4))));
+	}
+
+	@Test
+	public void read_partialOverlapMiss() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+
+		// WHEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 5, 10));
+		client.send(RegistersModbusMessage.readInputsRequest(UNIT_ID, 0, 10));
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID + 1, 0, 10));
+
+		// THEN
+		assertThat("Reads not covered by cache sent", delegate.getRequests(), hasSize(4));
+	}
+
+	@Test
+	public void read_expired() throws Exception {
+		// GIVEN
+		client = new CachingModbusClient(delegate, 50, TimeUnit.MILLISECONDS);
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4));
+
+		// WHEN
+		Thread.sleep(100);
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4));
+
+		// THEN
+		assertThat("Expired response not used", delegate.getRequests(), hasSize(2));
+	}
+
+	@Test
+	public void read_errorNotCached() throws Exception {
+		// GIVEN
+		delegate.setFailPredicate(r -> true);
+		ModbusMessage res = client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4));
+		delegate.setFailPredicate(null);
+
+		// WHEN
+		ModbusMessage res2 = client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4));
+
+		// THEN
+		assertThat("First response is error", res.isException(), is(equalTo(true)));
+		assertThat("Error response not cached", delegate.getRequests(), hasSize(2));
+		assertThat("Second response is data", registers(res2),
+				arrayContaining((short) 0, (short) 1, (short) 2, (short) 3));
+	}
+
+	@Test
+	public void write_invalidates() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+
+		// WHEN
+		client.sendAsync(
+				RegistersModbusMessage.writeHoldingsRequest(UNIT_ID, 5, new short[] { 99 }))
+				.get(1, TimeUnit.SECONDS);
+		ModbusMessage res = client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 4, 2));
+
+		// THEN
+		assertThat("Read after write sent", delegate.getRequests(), hasSize(3));
+		assertThat("Written value read", registers(res), arrayContaining((short) 4, (short) 99));
+	}
+
+	@Test
+	public void write_otherRangeNotInvalidated() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+		client.send(BitsModbusMessage.readCoilsRequest(UNIT_ID, 0, 10));
+
+		// WHEN
+		client.send(RegistersModbusMessage.writeHoldingsRequest(UNIT_ID, 20, new short[] { 99 }));
+		client.send(BitsModbusMessage.writeCoilsRequest(UNIT_ID, 20, 1, BigInteger.ONE));
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+		client.send(BitsModbusMessage.readCoilsRequest(UNIT_ID, 0, 10));
+
+		// THEN
+		assertThat("Cached reads not overlapping writes still used", delegate.getRequests(),
+				hasSize(4));
+	}
+
+	@Test
+	public void sendAllAsync_mixed() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> futures = client.sendAllAsync(Arrays.asList(
+				RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 2, 2),
+				RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 20, 2),
+				RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 4, 2)));
+
+		// THEN
+		assertThat("Response per request", futures, hasSize(3));
+		assertThat("Only miss sent", delegate.getRequests(), hasSize(2));
+		assertThat("First from cache", registers(futures.get(0).get(1, TimeUnit.SECONDS)),
+				arrayContaining((short) 2, (short) 3));
+		assertThat("Second from device", registers(futures.get(1).get(1, TimeUnit.SECONDS)),
+				arrayContaining((short) 20, (short) 21));
+		assertThat("Third from cache", registers(futures.get(2).get(1, TimeUnit.SECONDS)),
+				arrayContaining((short) 4, (short) 5));
+
+		// WHEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 20, 2));
+
+		// THEN
+		assertThat("Miss response cached", delegate.getRequests(), hasSize(2));
+	}
+
+	@Test
+	public void invalidateAll() throws Exception {
+		// GIVEN
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+
+		// WHEN
+		client.invalidateAll();
+		client.send(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 10));
+
+		// THEN
+		assertThat("Read after invalidate sent", delegate.getRequests(), hasSize(2));
+	}
+
+	@Test
+	public void read_retainedBuffersReleased() throws Exception {
+		// GIVEN
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+		try {
+			delegate.setRetainResponseBuffers(true);
+
+			// WHEN
+			ModbusMessage first = client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4))
+					.get(1, TimeUnit.SECONDS);
+			client.releaseResponse(first);
+			ModbusMessage second = client
+					.send(RegistersModbusMessage.readInputsRequest(UNIT_ID, 0, 4));
+			client.releaseResponse(second);
+			short[] dest = new short[2];
+			int count = client
+					.readRegistersAsync(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 1, 2),
+							dest, 0)
+					.get(1, TimeUnit.SECONDS);
+			List<CompletableFuture<ModbusMessage>> all = client.sendAllAsync(
+					Arrays.asList(RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 0, 4),
+							RegistersModbusMessage.readHoldingsRequest(UNIT_ID, 10, 2)));
+			for ( CompletableFuture<ModbusMessage> f : all ) {
+				client.releaseResponse(f.get(1, TimeUnit.SECONDS));
+			}
+
+			// THEN
+			assertThat("Only misses sent", delegate.getRequests(), hasSize(3));
+			assertThat("Buffer per miss", delegate.getResponseBuffers(), hasSize(3));
+			for ( ByteBuf buf : delegate.getResponseBuffers() ) {
+				assertThat("Response buffer released", buf.refCnt(), is(equalTo(0)));
+			}
+			assertThat("Registers read from cache after response released", count,
+					is(equalTo(2)));
+			assertThat("Cached data copied", dest[0], is(equalTo((short) 1)));
+			assertThat("Cached data copied", dest[1], is(equalTo((short) 2)));
+			assertThat("Cached data copied", registers(all.get(0).get()),
+					arrayContaining((short) 0, (short) 1, (short) 2, (short) 3));
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+		}
+	}
+
+}
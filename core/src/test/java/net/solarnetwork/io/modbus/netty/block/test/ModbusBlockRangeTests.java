@@ -0,0 +1,123 @@
+/* ==================================================================
+ * ModbusBlockRangeTests.java - 17/10/2026 9:24:02 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block.test;
+
+import static net.solarnetwork.io.modbus.netty.block.ModbusBlockRange.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+
+/**
+ * Test cases for the {@link ModbusBlockRange} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusBlockRangeTests {
+
+	@Test
+	public void construct_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			range(null, 0, 1);
+		}, "Null block type not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			range(ModbusBlockType.Diagnostic, 0, 1);
+		}, "Diagnostic type not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			range(ModbusBlockType.Holding, -1, 1);
+		}, "Negative address not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			range(ModbusBlockType.Holding, 0, 0);
+		}, "Empty range not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			range(ModbusBlockType.Holding, 0xFFFF, 2);
+		}, "Range past end of address space not allowed");
+	}
+
+	@Test
+	public void construct() {
+		// WHEN
+		ModbusBlockRange r = range(ModbusBlockType.Input, 10, 5);
+
+		// THEN
+		assertThat("Block type", r.getBlockType(), is(equalTo(ModbusBlockType.Input)));
+		assertThat("Address", r.getAddress(), is(equalTo(10)));
+		assertThat("Count", r.getCount(), is(equalTo(5)));
+		assertThat("End address", r.getEndAddress(), is(equalTo(15)));
+	}
+
+	@Test
+	public void overlaps() {
+		// GIVEN
+		ModbusBlockRange r = range(ModbusBlockType.Holding, 10, 5);
+
+		// THEN
+		assertThat("Overlapping start", r.overlaps(range(ModbusBlockType.Holding, 8, 3)),
+				is(equalTo(true)));
+		assertThat("Overlapping end", r.overlaps(range(ModbusBlockType.Holding, 14, 3)),
+				is(equalTo(true)));
+		assertThat("Adjacent does not overlap", r.overlaps(range(ModbusBlockType.Holding, 15, 1)),
+				is(equalTo(false)));
+		assertThat("Different type does not overlap",
+				r.overlaps(range(ModbusBlockType.Input, 10, 5)), is(equalTo(false)));
+		assertThat("Null does not overlap", r.overlaps(null), is(equalTo(false)));
+	}
+
+	@Test
+	public void contains() {
+		// GIVEN
+		ModbusBlockRange r = range(ModbusBlockType.Coil, 10, 5);
+
+		// THEN
+		assertThat("Contains self", r.contains(r), is(equalTo(true)));
+		assertThat("Contains sub-range", r.contains(range(ModbusBlockType.Coil, 11, 2)),
+				is(equalTo(true)));
+		assertThat("Does not contain overlapping range",
+				r.contains(range(ModbusBlockType.Coil, 12, 5)), is(equalTo(false)));
+		assertThat("Does not contain different type",
+				r.contains(range(ModbusBlockType.Discrete, 11, 2)), is(equalTo(false)));
+	}
+
+	@Test
+	public void equalsAndCompare() {
+		// GIVEN
+		ModbusBlockRange r1 = range(ModbusBlockType.Holding, 10, 5);
+		ModbusBlockRange r2 = range(ModbusBlockType.Holding, 10, 5);
+		ModbusBlockRange r3 = range(ModbusBlockType.Holding, 11, 1);
+
+		// THEN
+		assertThat("Equal ranges", r1, is(equalTo(r2)));
+		assertThat("Equal hash codes", r1.hashCode(), is(equalTo(r2.hashCode())));
+		assertThat("Equal compare", r1.compareTo(r2), is(equalTo(0)));
+		assertThat("Lower address sorts first", r1.compareTo(r3), is(lessThan(0)));
+		assertThat("Higher address sorts last", r3.compareTo(r1), is(greaterThan(0)));
+	}
+
+}
@@ -0,0 +1,260 @@
+/* ==================================================================
+ * ModbusBlockWriterTests.java - 17/10/2026 9:58:21 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block.test;
+
+import static net.solarnetwork.io.modbus.netty.block.ModbusBlockRange.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockWriter;
+import net.solarnetwork.io.modbus.netty.block.ModbusWriteResult;
+import net.solarnetwork.io.modbus.netty.test.support.SimulatedModbusClient;
+
+/**
+ * Test cases for the {@link ModbusBlockWriter} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusBlockWriterTests {
+
+	private SimulatedModbusClient client;
+	private ModbusBlockWriter writer;
+
+	@BeforeEach
+	public void setup() {
+		client = new SimulatedModbusClient();
+		writer = new ModbusBlockWriter();
+	}
+
+	private static short[] values(int count) {
+		short[] result = new short[count];
+		for ( int i = 0; i < count; i++ ) {
+			result[i] = (short) (0x1000 + i);
+		}
+		return result;
+	}
+
+	private List<Integer> requestAddresses() {
+		List<Integer> result = new ArrayList<>();
+		for ( ModbusMessage req : client.getRequests() ) {
+			result.add(req.unwrap(AddressedModbusMessage.class).getAddress());
+		}
+		return result;
+	}
+
+	@Test
+	public void write_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.writeHoldings(null, 1, 0, values(1));
+		}, "Null client not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.writeHoldings(client, 1, 0, null);
+		}, "Null values not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.writeHoldings(client, 1, 0, new short[0]);
+		}, "Empty values not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.writeCoils(client, 1, 0, 1, null);
+		}, "Null bits not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.writeCoils(client, 1, 0, (boolean[]) null);
+		}, "Null values not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			writer.setMaxRegistersCount(122);
+		}, "Register count limited by protocol");
+	}
+
+	@Test
+	public void writeHoldings_chunked() throws Exception {
+		// GIVEN
+		short[] values = values(300);
+
+		// WHEN
+		ModbusWriteResult result = writer.writeHoldings(client, 1, 100, values).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertThat("Values split at write limit", result.getChunks(),
+				contains(range(ModbusBlockType.Holding, 100, 121),
+						range(ModbusBlockType.Holding, 221, 121),
+						range(ModbusBlockType.Holding, 342, 58)));
+		assertThat("One request per chunk", requestAddresses(), contains(100, 221, 342));
+		for ( int i = 0; i < values.length; i++ ) {
+			assertThat("Register written " + i, client.getHoldings()[100 + i],
+					is(equalTo(values[i])));
+		}
+	}
+
+	@Test
+	public void writeCoils_chunked() throws Exception {
+		// GIVEN
+		writer.setMaxBitsCount(8);
+		BigInteger bits = new BigInteger("1010110011110000111", 2);
+
+		// WHEN
+		ModbusWriteResult result = writer.writeCoils(client, 1, 5, 19, bits).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertThat("Bits split at limit", result.getChunks(),
+				contains(range(ModbusBlockType.Coil, 5, 8), range(ModbusBlockType.Coil, 13, 8),
+						range(ModbusBlockType.Coil, 21, 3)));
+		for ( int i = 0; i < 19; i++ ) {
+			assertThat("Coil written " + i, client.getCoils()[5 + i], is(equalTo(bits.testBit(i))));
+		}
+	}
+
+	@Test
+	public void writeCoils_booleans_chunked() throws Exception {
+		// GIVEN
+		writer.setMaxBitsCount(8);
+		boolean[] values = new boolean[19];
+		for ( int i = 0; i < values.length; i++ ) {
+			values[i] = (i % 3 == 0);
+		}
+
+		// WHEN
+		ModbusWriteResult result = writer.writeCoils(client, 1, 5, values).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertThat("Bits split at limit", result.getChunks(),
+				contains(range(ModbusBlockType.Coil, 5, 8), range(ModbusBlockType.Coil, 13, 8),
+						range(ModbusBlockType.Coil, 21, 3)));
+		for ( int i = 0; i < values.length; i++ ) {
+			assertThat("Coil written " + i, client.getCoils()[5 + i], is(equalTo(values[i])));
+		}
+	}
+
+	@Test
+	public void writeHoldings_failure() throws Exception {
+		// GIVEN
+		client.setFailPredicate(req -> req.unwrap(AddressedModbusMessage.class).getAddress() == 121);
+
+		// WHEN
+		ModbusWriteResult result = writer.writeHoldings(client, 1, 0, values(300)).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("All chunks sent when not ordered", requestAddresses(), contains(0, 121, 242));
+		assertThat("Failure reported", result.isSuccess(), is(equalTo(false)));
+		assertThat("Only failed chunk reported", result.getFailures().keySet(),
+				contains(range(ModbusBlockType.Holding, 121, 121)));
+		assertThat("Failure is Modbus exception",
+				result.getFailure(range(ModbusBlockType.Holding, 121, 121)),
+				is(instanceOf(ModbusException.class)));
+		assertThat("Chunk after failure written", client.getHoldings()[242],
+				is(equalTo(values(300)[242])));
+	}
+
+	@Test
+	public void writeHoldings_ordered_failure() throws Exception {
+		// GIVEN
+		writer.setOrdered(true);
+		client.setFailPredicate(req -> req.unwrap(AddressedModbusMessage.class).getAddress() == 121);
+
+		// WHEN
+		ModbusWriteResult result = writer.writeHoldings(client, 1, 0, values(300)).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Chunks sent in order up to failure", requestAddresses(), contains(0, 121));
+		assertThat("Failed and unsent chunks reported", result.getFailures().keySet(),
+				contains(range(ModbusBlockType.Holding, 121, 121),
+						range(ModbusBlockType.Holding, 242, 58)));
+		assertThat("Unsent chunk has failure",
+				result.getFailure(range(ModbusBlockType.Holding, 242, 58)), is(notNullValue()));
+		assertThat("Chunk after failure not written", client.getHoldings()[242],
+				is(equalTo((short) 242)));
+	}
+
+	@Test
+	public void writeHoldings_ordered_sendThrows() throws Exception {
+		// GIVEN
+		writer.setOrdered(true);
+		final IllegalArgumentException ex = new IllegalArgumentException("Test");
+		client = new SimulatedModbusClient() {
+
+			@Override
+			public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+				if ( request.unwrap(AddressedModbusMessage.class).getAddress() == 121 ) {
+					throw ex;
+				}
+				return super.sendAsync(request);
+			}
+
+		};
+
+		// WHEN
+		ModbusWriteResult result = writer.writeHoldings(client, 1, 0, values(300)).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Chunks sent in order up to failure", requestAddresses(), contains(0));
+		assertThat("Failed and unsent chunks reported", result.getFailures().keySet(),
+				contains(range(ModbusBlockType.Holding, 121, 121),
+						range(ModbusBlockType.Holding, 242, 58)));
+		assertThat("Send exception reported for failed chunk",
+				result.getFailure(range(ModbusBlockType.Holding, 121, 121)), is(sameInstance(ex)));
+		assertThat("Unsent chunk has failure",
+				result.getFailure(range(ModbusBlockType.Holding, 242, 58)), is(notNullValue()));
+	}
+
+	@Test
+	public void writeHoldings_ordered() throws Exception {
+		// GIVEN
+		writer.setOrdered(true);
+
+		// WHEN
+		ModbusWriteResult result = writer.writeHoldings(client, 1, 0, values(250)).get(5,
+				TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertThat("Chunks sent in order", requestAddresses(), contains(0, 121, 242));
+		assertThat("Chunks reported", result.getChunks(), hasSize(3));
+	}
+
+}
@@ -0,0 +1,367 @@
+/* ==================================================================
+ * ModbusReadPlannerTests.java - 17/10/2026 9:31:26 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.block.test;
+
+import static java.util.Arrays.asList;
+import static net.solarnetwork.io.modbus.netty.block.ModbusBlockRange.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ResourceLeakDetector;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
+import net.solarnetwork.io.modbus.BitsModbusMessage;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadPlan;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadPlanner;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadResult;
+import net.solarnetwork.io.modbus.netty.test.support.SimulatedModbusClient;
+
+/**
+ * Test cases for the {@link ModbusReadPlanner} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusReadPlannerTests {
+
+	private ModbusReadPlanner planner;
+
+	@BeforeEach
+	public void setup() {
+		planner = new ModbusReadPlanner();
+	}
+
+	private static ModbusBlockRange holding(int address, int count) {
+		return range(ModbusBlockType.Holding, address, count);
+	}
+
+	@Test
+	public void plan_null() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			planner.plan(1, null);
+		}, "Null ranges not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			planner.plan(1, asList(holding(0, 1), null));
+		}, "Null range not allowed");
+	}
+
+	@Test
+	public void setMaxCount_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			planner.setMaxRegistersCount(0);
+		}, "Register count must be positive");
+		assertThrows(IllegalArgumentException.class, () -> {
+			planner.setMaxRegistersCount(126);
+		}, "Register count limited by protocol");
+		assertThrows(IllegalArgumentException.class, () -> {
+			planner.setMaxBitsCount(2001);
+		}, "Bits count limited by protocol");
+	}
+
+	@Test
+	public void plan_adjacentMerged() {
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1,
+				asList(holding(2, 1), holding(0, 2), holding(10, 1), holding(2, 1)));
+
+		// THEN
+		assertThat("Duplicate range ignored", plan.getRanges(),
+				contains(holding(2, 1), holding(0, 2), holding(10, 1)));
+		assertThat("Adjacent ranges merged, gap not read", plan.getBlocks(),
+				contains(holding(0, 3), holding(10, 1)));
+		assertThat("One request per block", plan.getRequests(), hasSize(2));
+	}
+
+	@Test
+	public void plan_overlappingMerged() {
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1, asList(holding(0, 10), holding(5, 10), holding(6, 2)));
+
+		// THEN
+		assertThat("Overlapping ranges merged", plan.getBlocks(), contains(holding(0, 15)));
+	}
+
+	@Test
+	public void plan_gapMerged() {
+		// GIVEN
+		planner.setMaxGap(10);
+
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1, asList(holding(0, 2), holding(12, 1), holding(24, 1)));
+
+		// THEN
+		assertThat("Gaps up to max read through", plan.getBlocks(),
+				contains(holding(0, 13), holding(24, 1)));
+	}
+
+	@Test
+	public void plan_splitOversized() {
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1, asList(holding(0, 300)));
+
+		// THEN
+		assertThat("Range split at register limit", plan.getBlocks(),
+				contains(holding(0, 125), holding(125, 125), holding(250, 50)));
+	}
+
+	@Test
+	public void plan_maxCountAcrossGap() {
+		// GIVEN
+		planner.setMaxGap(20);
+
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1, asList(holding(0, 100), holding(110, 20)));
+
+		// THEN
+		assertThat("Block filled to limit then continued", plan.getBlocks(),
+				contains(holding(0, 125), holding(125, 5)));
+	}
+
+	@Test
+	public void plan_typesSeparate() {
+		// WHEN
+		ModbusReadPlan plan = planner.plan(1,
+				asList(holding(0, 2), range(ModbusBlockType.Input, 2, 2),
+						range(ModbusBlockType.Coil, 0, 2500), range(ModbusBlockType.Discrete, 4, 4)));
+
+		// THEN
+		assertThat("Blocks per type, coils split at bits limit", plan.getBlocks(),
+				contains(range(ModbusBlockType.Coil, 0, 2000), range(ModbusBlockType.Coil, 2000, 500),
+						range(ModbusBlockType.Discrete, 4, 4), holding(0, 2),
+						range(ModbusBlockType.Input, 2, 2)));
+		AddressedModbusMessage req = plan.getRequests().get(0).unwrap(AddressedModbusMessage.class);
+		assertThat("Coil request", req.getFunction().blockType(), is(equalTo(ModbusBlockType.Coil)));
+		assertThat("Coil request count", req.getCount(), is(equalTo(2000)));
+	}
+
+	@Test
+	public void execute() throws Exception {
+		// GIVEN
+		SimulatedModbusClient client = new SimulatedModbusClient();
+		planner.setMaxGap(5);
+		planner.setMaxBitsGap(16);
+		ModbusBlockRange r1 = holding(5, 3);
+		ModbusBlockRange r2 = holding(10, 200);
+		ModbusBlockRange r3 = range(ModbusBlockType.Coil, 3, 5);
+		ModbusBlockRange r4 = range(ModbusBlockType.Coil, 12, 2);
+		ModbusReadPlan plan = planner.plan(1, asList(r1, r2, r3, r4));
+
+		// WHEN
+		ModbusReadResult result = plan.execute(client).get(5, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("All requests sent", client.getRequests(), hasSize(plan.getRequests().size()));
+		assertThat("Fewer requests than ranges", plan.getRequests(), hasSize(3));
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertRegisters(result, r1);
+		assertRegisters(result, r2);
+		assertBits(result, r3);
+		assertBits(result, r4);
+	}
+
+	@Test
+	public void execute_overlapping() throws Exception {
+		// GIVEN
+		// hold responses, tracking pending requests by identity like a real client
+		final Map<ModbusMessage, Runnable> pending = new IdentityHashMap<>();
+		SimulatedModbusClient client = new SimulatedModbusClient() {
+
+			@Override
+			public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+				CompletableFuture<ModbusMessage> f = new CompletableFuture<>();
+				synchronized ( pending ) {
+					pending.put(request, () -> f.complete(respond(request)));
+				}
+				return f;
+			}
+
+		};
+		ModbusBlockRange r1 = holding(5, 3);
+		ModbusBlockRange r2 = range(ModbusBlockType.Coil, 3, 5);
+		ModbusReadPlan plan = planner.plan(1, asList(r1, r2));
+
+		// WHEN
+		CompletableFuture<ModbusReadResult> f1 = plan.execute(client);
+		CompletableFuture<ModbusReadResult> f2 = plan.execute(client);
+		synchronized ( pending ) {
+			pending.values().forEach(Runnable::run);
+		}
+
+		// THEN
+		assertThat("Each execution sent its own requests", pending.keySet(), hasSize(4));
+		for ( CompletableFuture<ModbusReadResult> f : asList(f1, f2) ) {
+			ModbusReadResult result = f.get(5, TimeUnit.SECONDS);
+			assertThat("Success", result.isSuccess(), is(equalTo(true)));
+			assertRegisters(result, r1);
+			assertBits(result, r2);
+		}
+	}
+
+	private static void assertRegisters(ModbusReadResult result, ModbusBlockRange r) {
+		RegistersModbusMessage msg = result.getMessage(r).unwrap(RegistersModbusMessage.class);
+		assertThat("Registers message for range " + r, msg, is(notNullValue()));
+		assertThat("Message address", msg.getAddress(), is(equalTo(r.getAddress())));
+		assertThat("Message count", msg.getCount(), is(equalTo(r.getCount())));
+		short[] expected = new short[r.getCount()];
+		for ( int i = 0; i < expected.length; i++ ) {
+			expected[i] = (short) (r.getAddress() + i);
+		}
+		assertThat("Register data for range " + r, Arrays.equals(msg.dataDecode(), expected),
+				is(equalTo(true)));
+	}
+
+	private static void assertBits(ModbusReadResult result, ModbusBlockRange r) {
+		BitsModbusMessage msg = result.getMessage(r).unwrap(BitsModbusMessage.class);
+		assertThat("Bits message for range " + r, msg, is(notNullValue()));
+		assertThat("Message address", msg.getAddress(), is(equalTo(r.getAddress())));
+		assertThat("Bit data for range " + r, msg.getBits(),
+				is(equalTo(SimulatedModbusClient.oddBits(r.getAddress(), r.getCount()))));
+	}
+
+	@Test
+	public void execute_partialFailure() throws Exception {
+		// GIVEN
+		SimulatedModbusClient client = new SimulatedModbusClient();
+		client.setFailPredicate(req -> req.unwrap(AddressedModbusMessage.class).getAddress() == 225);
+		ModbusBlockRange r1 = holding(0, 10);
+		ModbusBlockRange r2 = holding(100, 150);
+		ModbusBlockRange r3 = holding(1000, 1);
+		ModbusReadPlan plan = planner.plan(1, asList(r1, r2, r3));
+
+		// WHEN
+		ModbusReadResult result = plan.execute(client).get(5, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Not all ranges read", result.isSuccess(), is(equalTo(false)));
+		assertRegisters(result, r1);
+		assertRegisters(result, r3);
+		assertThat("Range spanning failed request not available", result.getMessage(r2),
+				is(nullValue()));
+		assertThat("Failure for range spanning failed request", result.getFailure(r2),
+				is(instanceOf(ModbusException.class)));
+		assertThat("One failure", result.getFailures().keySet(), contains(r2));
+	}
+
+	@Test
+	public void execute_decodeEachBlockOnce() throws Exception {
+		// GIVEN
+		final AtomicInteger decodes = new AtomicInteger();
+		SimulatedModbusClient client = new SimulatedModbusClient() {
+
+			@Override
+			protected ModbusMessage respond(ModbusMessage request) {
+				RegistersModbusMessage res = super.respond(request)
+						.unwrap(RegistersModbusMessage.class);
+				return new net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage(
+						res.getUnitId(), res.getFunction(), null, res.getAddress(), res.getCount(),
+						res.dataCopy()) {
+
+					@Override
+					public short[] dataDecode() {
+						decodes.incrementAndGet();
+						return super.dataDecode();
+					}
+
+					@Override
+					public int dataDecode(short[] dest, int offset) {
+						decodes.incrementAndGet();
+						return super.dataDecode(dest, offset);
+					}
+
+				};
+			}
+
+		};
+		planner.setMaxGap(5);
+		ModbusBlockRange r1 = holding(0, 2);
+		ModbusBlockRange r2 = holding(3, 4);
+		ModbusBlockRange r3 = holding(10, 2);
+		ModbusReadPlan plan = planner.plan(1, asList(r1, r2, r3));
+
+		// WHEN
+		ModbusReadResult result = plan.execute(client).get(5, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("One request for all ranges", plan.getRequests(), hasSize(1));
+		assertThat("Success", result.isSuccess(), is(equalTo(true)));
+		assertThat("Block decoded once for all ranges", decodes.get(), is(equalTo(1)));
+		assertRegisters(result, r1);
+		assertRegisters(result, r2);
+		assertRegisters(result, r3);
+	}
+
+	@Test
+	public void execute_retainedBuffersReleased() throws Exception {
+		// GIVEN
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+		try {
+			SimulatedModbusClient client = new SimulatedModbusClient();
+			client.setRetainResponseBuffers(true);
+			client.setFailPredicate(
+					req -> req.unwrap(AddressedModbusMessage.class).getAddress() == 1000);
+			planner.setMaxGap(5);
+			ModbusBlockRange r1 = holding(0, 2);
+			ModbusBlockRange r2 = holding(3, 4);
+			ModbusBlockRange r3 = holding(100, 2);
+			ModbusBlockRange r4 = holding(1000, 1);
+			ModbusReadPlan plan = planner.plan(1, asList(r1, r2, r3, r4));
+
+			// WHEN
+			ModbusReadResult result = plan.execute(client).get(5, TimeUnit.SECONDS);
+
+			// THEN
+			assertThat("Buffer per register response", client.getResponseBuffers(), hasSize(2));
+			for ( ByteBuf buf : client.getResponseBuffers() ) {
+				assertThat("Response buffer released", buf.refCnt(), is(equalTo(0)));
+			}
+			assertRegisters(result, r1);
+			assertRegisters(result, r2);
+			assertRegisters(result, r3);
+			assertThat("Failed range reported", result.getFailures().keySet(), contains(r4));
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+		}
+	}
+
+}
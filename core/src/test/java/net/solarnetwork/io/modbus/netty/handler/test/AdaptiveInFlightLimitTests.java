@@ -0,0 +1,142 @@
+/* ==================================================================
+ * AdaptiveInFlightLimitTests.java - 17/10/2026 8:15:03 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.netty.handler.AdaptiveInFlightLimit;
+
+/**
+ * Test cases for the {@link AdaptiveInFlightLimit} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class AdaptiveInFlightLimitTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void construct_bounds() {
+		assertThat("Initial limit clamped to max", new AdaptiveInFlightLimit(10, 1, 5).getLimit(),
+				is(equalTo(5)));
+		assertThat("Initial limit clamped to min", new AdaptiveInFlightLimit(0, 2, 5).getLimit(),
+				is(equalTo(2)));
+		assertThat("Min at least 1", new AdaptiveInFlightLimit(0, 0, 0).getLimit(), is(equalTo(1)));
+	}
+
+	@Test
+	public void flatLatency_grows() {
+		// GIVEN
+		AdaptiveInFlightLimit limit = new AdaptiveInFlightLimit(4, 1, 64);
+
+		// WHEN
+		for ( int i = 0; i < 200; i++ ) {
+			limit.onSample(10 * MS, limit.getLimit());
+		}
+
+		// THEN
+		assertThat("Limit grows to max with flat latency", limit.getLimit(), is(equalTo(64)));
+	}
+
+	@Test
+	public void flatLatency_appLimited() {
+		// GIVEN
+		AdaptiveInFlightLimit limit = new AdaptiveInFlightLimit(8, 1, 64);
+
+		// WHEN
+		for ( int i = 0; i < 200; i++ ) {
+			limit.onSample(10 * MS, 1);
+		}
+
+		// THEN
+		assertThat("Limit does not grow when not used", limit.getLimit(), is(equalTo(8)));
+	}
+
+	@Test
+	public void risingLatency_shrinks() {
+		// GIVEN
+		AdaptiveInFlightLimit limit = new AdaptiveInFlightLimit(32, 1, 64);
+		for ( int i = 0; i < 50; i++ ) {
+			limit.onSample(10 * MS, 32);
+		}
+		final int before = limit.getLimit();
+
+		// WHEN
+		for ( int i = 0; i < 10; i++ ) {
+			limit.onSample(100 * MS, limit.getLimit());
+		}
+
+		// THEN
+		assertThat("Limit shrinks when latency rises", limit.getLimit(), is(lessThan(before)));
+		assertThat("Baseline latency tracks samples", limit.getBaselineRttNanos(),
+				is(greaterThan(10 * MS)));
+	}
+
+	@Test
+	public void growingLatency_convergesToMin() {
+		// GIVEN
+		AdaptiveInFlightLimit limit = new AdaptiveInFlightLimit(32, 1, 64);
+		for ( int i = 0; i < 50; i++ ) {
+			limit.onSample(10 * MS, 32);
+		}
+
+		// WHEN
+		double rtt = 10 * MS;
+		for ( int i = 0; i < 200; i++ ) {
+			rtt *= 1.05;
+			limit.onSample((long) rtt, limit.getLimit());
+		}
+
+		// THEN
+		assertThat("Limit driven below the sqrt floor by sustained latency growth",
+				limit.getLimit(), is(lessThanOrEqualTo(2)));
+	}
+
+	@Test
+	public void timeout_backoff() {
+		// GIVEN
+		AdaptiveInFlightLimit limit = new AdaptiveInFlightLimit(10, 2, 64);
+
+		// WHEN
+		limit.onTimeout();
+
+		// THEN
+		assertThat("Limit reduced on timeout", limit.getLimit(), is(equalTo(9)));
+
+		// WHEN
+		for ( int i = 0; i < 100; i++ ) {
+			limit.onTimeout();
+		}
+
+		// THEN
+		assertThat("Limit not reduced below min", limit.getLimit(), is(equalTo(2)));
+	}
+
+}
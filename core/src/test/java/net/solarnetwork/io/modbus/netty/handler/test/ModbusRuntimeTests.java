@@ -0,0 +1,196 @@
+/* ==================================================================
+ * ModbusRuntimeTests.java - 17/10/2026 3:41:22 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.Timer;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
+
+/**
+ * Test cases for the {@link ModbusRuntime} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusRuntimeTests {
+
+	@Test
+	public void construct_negativeThreads() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusRuntime(-1, ByteBufAllocator.DEFAULT);
+		}, "Negative thread count not allowed");
+	}
+
+	@Test
+	public void construct_nullAllocator() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusRuntime(1, null);
+		}, "Null allocator not allowed");
+	}
+
+	@Test
+	public void construct() {
+		// GIVEN
+		ByteBufAllocator alloc = new UnpooledByteBufAllocator(false);
+
+		// WHEN
+		ModbusRuntime rt = new ModbusRuntime(2, alloc);
+
+		// THEN
+		assertThat("Thread count saved", rt.getIoThreads(), is(equalTo(2)));
+		assertThat("Allocator saved", rt.allocator(), is(sameInstance(alloc)));
+		assertThat("Not retained", rt.refCnt(), is(equalTo(0)));
+	}
+
+	@Test
+	public void resources_shared() {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime(1, ByteBufAllocator.DEFAULT).retain();
+
+		try {
+			// WHEN
+			EventLoopGroup group = rt.eventLoopGroup();
+			Timer timer = rt.timer();
+			ScheduledExecutorService scheduler = rt.scheduler();
+
+			// THEN
+			assertThat("Same group returned", rt.eventLoopGroup(), is(sameInstance(group)));
+			assertThat("Same timer returned", rt.timer(), is(sameInstance(timer)));
+			assertThat("Same scheduler returned", rt.scheduler(), is(sameInstance(scheduler)));
+		} finally {
+			rt.release();
+		}
+	}
+
+	@Test
+	public void release_notRetained() {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime();
+
+		// THEN
+		assertThrows(IllegalStateException.class, () -> {
+			rt.release();
+		}, "Release without retain not allowed");
+	}
+
+	@Test
+	public void release_lastReferenceShutsDown() throws Exception {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime(1, ByteBufAllocator.DEFAULT);
+		rt.retain();
+		rt.retain();
+		EventLoopGroup group = rt.eventLoopGroup();
+		ScheduledExecutorService scheduler = rt.scheduler();
+
+		// WHEN
+		rt.release().get(5, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Reference count decremented", rt.refCnt(), is(equalTo(1)));
+		assertThat("Group still running", group.isShuttingDown(), is(equalTo(false)));
+		assertThat("Scheduler still running", scheduler.isShutdown(), is(equalTo(false)));
+
+		// WHEN
+		rt.release().get(5, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Reference count zero", rt.refCnt(), is(equalTo(0)));
+		assertThat("Group terminated", group.isTerminated(), is(equalTo(true)));
+		assertThat("Scheduler shut down", scheduler.isShutdown(), is(equalTo(true)));
+	}
+
+	@Test
+	public void release_onTimerThread() throws Exception {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime(1, ByteBufAllocator.DEFAULT);
+		rt.retain();
+		ScheduledExecutorService scheduler = rt.scheduler();
+		CompletableFuture<CompletableFuture<?>> released = new CompletableFuture<>();
+
+		// WHEN
+		rt.timer().newTimeout(t -> {
+			try {
+				released.complete(rt.release());
+			} catch ( Throwable e ) {
+				released.completeExceptionally(e);
+			}
+		}, 10, TimeUnit.MILLISECONDS);
+
+		// THEN
+		released.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+		assertThat("Reference count zero", rt.refCnt(), is(equalTo(0)));
+		assertThat("Scheduler shut down", scheduler.isShutdown(), is(equalTo(true)));
+	}
+
+	@Test
+	public void release_onSchedulerThread() throws Exception {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime(1, ByteBufAllocator.DEFAULT);
+		rt.retain();
+		ScheduledExecutorService scheduler = rt.scheduler();
+
+		// WHEN
+		final long start = System.nanoTime();
+		CompletableFuture<?> released = scheduler.submit(() -> rt.release()).get(2,
+				TimeUnit.SECONDS);
+		final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// THEN
+		released.get(5, TimeUnit.SECONDS);
+		assertThat("Release did not wait for its own thread", elapsed, is(lessThan(2000L)));
+		assertThat("Scheduler terminated", scheduler.isTerminated(), is(equalTo(true)));
+	}
+
+	@Test
+	public void retain_afterShutdown() throws Exception {
+		// GIVEN
+		ModbusRuntime rt = new ModbusRuntime(1, ByteBufAllocator.DEFAULT);
+		EventLoopGroup group = rt.retain().eventLoopGroup();
+		rt.release().get(5, TimeUnit.SECONDS);
+
+		// WHEN
+		EventLoopGroup group2 = rt.retain().eventLoopGroup();
+
+		try {
+			// THEN
+			assertThat("New group created", group2, is(not(sameInstance(group))));
+			assertThat("New group running", group2.isShuttingDown(), is(equalTo(false)));
+		} finally {
+			rt.release().get(5, TimeUnit.SECONDS);
+		}
+	}
+
+}
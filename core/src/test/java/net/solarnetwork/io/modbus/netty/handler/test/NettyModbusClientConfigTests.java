@@ -34,7 +34,7 @@ import net.solarnetwork.io.modbus.netty.handler.NettyModbusClientConfig;
  * Test cases for the {@link NettyModbusClientConfig} class.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class NettyModbusClientConfigTests {
 
@@ -69,6 +69,25 @@ public class NettyModbusClientConfigTests {
 		assertThat("Default autoReconnectDelay from API", config.getAutoReconnectDelaySeconds(),
 				is(equalTo(ModbusClientConfig.DEFAULT_RECONNECT_DELAY_SECS)));
 		assertThat("Default sendMinimumDelayMs is 0", config.getSendMinimumDelayMs(), is(equalTo(0L)));
+		assertThat("Default maxInFlightRequests is 0", config.getMaxInFlightRequests(), is(equalTo(0)));
+		assertThat("Default maxQueuedRequests is 0", config.getMaxQueuedRequests(), is(equalTo(0)));
+		assertThat("Default writeBufferLowWaterMark is 0", config.getWriteBufferLowWaterMark(),
+				is(equalTo(0)));
+		assertThat("Default writeBufferHighWaterMark is 0", config.getWriteBufferHighWaterMark(),
+				is(equalTo(0)));
+		assertThat("Default sendRateLimit is 0", config.getSendRateLimit(), is(equalTo(0)));
+		assertThat("Default sendRateBurst is 1", config.getSendRateBurst(), is(equalTo(1)));
+		assertThat("Default unitMaxInFlightRequests is 0", config.getUnitMaxInFlightRequests(),
+				is(equalTo(0)));
+		assertThat("Default unit limit is 0", config.getUnitMaxInFlightRequests(1), is(equalTo(0)));
+		assertThat("Default adaptiveInFlightLimit is false", config.isAdaptiveInFlightLimit(),
+				is(equalTo(false)));
+		assertThat("Default deduplicateReads is false", config.isDeduplicateReads(),
+				is(equalTo(false)));
+		assertThat("Default retainResponseBuffers is false", config.isRetainResponseBuffers(),
+				is(equalTo(false)));
+		assertThat("Default pooledMessages is false", config.isPooledMessages(),
+				is(equalTo(false)));
 	}
 
 	@Test
@@ -83,12 +102,70 @@ public class NettyModbusClientConfigTests {
 		config.setAutoReconnect(autoReconnect);
 		config.setAutoReconnectDelaySeconds(autoReconnectDelaySeconds);
 		config.setSendMinimumDelayMs(sendMinimumDelayMs);
+		final int maxInFlightRequests = 8;
+		final int maxQueuedRequests = 100;
+		final int writeBufferLowWaterMark = 1024;
+		final int writeBufferHighWaterMark = 4096;
+		config.setMaxInFlightRequests(maxInFlightRequests);
+		config.setMaxQueuedRequests(maxQueuedRequests);
+		config.setWriteBufferLowWaterMark(writeBufferLowWaterMark);
+		config.setWriteBufferHighWaterMark(writeBufferHighWaterMark);
+		final int sendRateLimit = 20;
+		final int sendRateBurst = 5;
+		config.setSendRateLimit(sendRateLimit);
+		config.setSendRateBurst(sendRateBurst);
+		config.setAdaptiveInFlightLimit(true);
+		config.setDeduplicateReads(true);
+		config.setRetainResponseBuffers(true);
+		config.setPooledMessages(true);
 
 		assertThat("autoReconnect saved", config.isAutoReconnect(), is(equalTo(autoReconnect)));
 		assertThat("autoReconnectDelay saved", config.getAutoReconnectDelaySeconds(),
 				is(equalTo(autoReconnectDelaySeconds)));
 		assertThat("sendMinimumDelayMs saved", config.getSendMinimumDelayMs(),
 				is(equalTo(sendMinimumDelayMs)));
+		assertThat("maxInFlightRequests saved", config.getMaxInFlightRequests(),
+				is(equalTo(maxInFlightRequests)));
+		assertThat("maxQueuedRequests saved", config.getMaxQueuedRequests(),
+				is(equalTo(maxQueuedRequests)));
+		assertThat("writeBufferLowWaterMark saved", config.getWriteBufferLowWaterMark(),
+				is(equalTo(writeBufferLowWaterMark)));
+		assertThat("writeBufferHighWaterMark saved", config.getWriteBufferHighWaterMark(),
+				is(equalTo(writeBufferHighWaterMark)));
+		assertThat("sendRateLimit saved", config.getSendRateLimit(), is(equalTo(sendRateLimit)));
+		assertThat("sendRateBurst saved", config.getSendRateBurst(), is(equalTo(sendRateBurst)));
+		assertThat("adaptiveInFlightLimit saved", config.isAdaptiveInFlightLimit(),
+				is(equalTo(true)));
+		assertThat("deduplicateReads saved", config.isDeduplicateReads(), is(equalTo(true)));
+		assertThat("retainResponseBuffers saved", config.isRetainResponseBuffers(),
+				is(equalTo(true)));
+		assertThat("pooledMessages saved", config.isPooledMessages(), is(equalTo(true)));
+	}
+
+	@Test
+	public void unitMaxInFlightRequests_overrides() {
+		// GIVEN
+		NettyModbusClientConfig config = new TestConfig();
+
+		// WHEN
+		config.setUnitMaxInFlightRequests(1);
+		config.setUnitMaxInFlightRequests(2, 4);
+		config.setUnitMaxInFlightRequests(3, 0);
+
+		// THEN
+		assertThat("Default per-unit limit saved", config.getUnitMaxInFlightRequests(),
+				is(equalTo(1)));
+		assertThat("Default applied to unit without override", config.getUnitMaxInFlightRequests(1),
+				is(equalTo(1)));
+		assertThat("Override applied", config.getUnitMaxInFlightRequests(2), is(equalTo(4)));
+		assertThat("Unlimited override applied", config.getUnitMaxInFlightRequests(3),
+				is(equalTo(0)));
+
+		// WHEN
+		config.setUnitMaxInFlightRequests(2, -1);
+
+		// THEN
+		assertThat("Override removed", config.getUnitMaxInFlightRequests(2), is(equalTo(1)));
 	}
 
 }
@@ -36,6 +36,7 @@ import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
@@ -43,6 +44,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -53,30 +55,42 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ResourceLeakDetector;
 import net.solarnetwork.io.modbus.ModbusClient;
 import net.solarnetwork.io.modbus.ModbusClientConfig;
 import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
 import net.solarnetwork.io.modbus.ModbusErrorCode;
 import net.solarnetwork.io.modbus.ModbusErrorCodes;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
 import net.solarnetwork.io.modbus.ModbusFunctionCodes;
 import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.ModbusTimeoutException;
+import net.solarnetwork.io.modbus.netty.handler.AdaptiveInFlightLimit;
 import net.solarnetwork.io.modbus.netty.handler.ModbusMessageDecoder;
 import net.solarnetwork.io.modbus.netty.handler.ModbusMessageEncoder;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient.PendingMessage;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClientConfig;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
 import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.test.support.ManualTimer;
 
 /**
  * Test cases for the {@link NettyModbusClient} class.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class NettyModbusClientTests {
 
@@ -438,56 +452,38 @@ public class NettyModbusClientTests {
 	}
 
 	@Test
-	public void send_recv_withDelay() throws InterruptedException, ExecutionException {
+	public void send_recv_withDelay() throws Exception {
 		// GIVEN
 		final long sendDelay = 900L;
-		final long manualDelay = 1200L;
 		((NettyModbusClientConfig) client.getClientConfig()).setSendMinimumDelayMs(sendDelay);
 
 		final int unitId = 1;
 		final int addr = 2;
 		final int count = 3;
-		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(unitId, addr, count);
 
 		// WHEN
-		client.start();
-		List<Long> executionTimes = new ArrayList<>(3);
+		client.start().get(5, TimeUnit.SECONDS);
 		List<Future<ModbusMessage>> futures = new ArrayList<>(3);
-
+		final long start = System.currentTimeMillis();
 		for ( int i = 0; i < 3; i++ ) {
-			if ( i == 2 ) {
-				// pause longer than throttle, to verify message sends right away
-				Thread.sleep(manualDelay);
-			}
-			final long start = System.currentTimeMillis();
-			Future<ModbusMessage> f = client.sendAsync(req);
-			executionTimes.add(System.currentTimeMillis() - start);
-
-			// provide response
-			// @formatter:off
-			final byte[] responseData = new byte[] {
-					ModbusFunctionCodes.READ_HOLDING_REGISTERS,
-					(byte)0x06,
-					(byte)0x02,
-					(byte)0x2B,
-					(byte)0x00,
-					(byte)0x00,
-					(byte)0x00,
-					(byte)0x64,
-			};
-			// @formatter:on
-			ByteBuf response = Unpooled.copiedBuffer(responseData);
-			channel.writeOneInbound(response).sync();
-			futures.add(f);
+			// pending requests are tracked by instance, so each send needs its own request
+			futures.add(client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(unitId, addr, count)));
 		}
+		final long execTime = System.currentTimeMillis() - start;
 
 		// THEN
-		assertThat("3 futures returned", futures, hasSize(3));
-		for ( int i = 0; i < 3; i++ ) {
-			Future<ModbusMessage> f = futures.get(i);
-			assertThat("Future returned", f, is(notNullValue()));
-			assertThat("Request should no longer be pending", pending.keySet(), hasSize(0));
+		assertThat("Sending does not block caller for pacing delay (within 200ms)", execTime,
+				is(lessThan(200L)));
+		assertThat("Paced requests queued", client.getQueuedCount(), is(equalTo(2)));
 
+		for ( int i = 0; i < 3; i++ ) {
+			if ( i > 0 ) {
+				assertThat("Paced request not sent before delay", channel.readOutbound(),
+						is(nullValue()));
+				Thread.sleep(sendDelay + 100L);
+				channel.runPendingTasks();
+			}
 			ByteBuf requestData = channel.readOutbound();
 			assertThat("Request bytes produced", requestData, is(notNullValue()));
 
@@ -502,24 +498,46 @@ public class NettyModbusClientTests {
 					})));
 			// @formatter:on
 
+			channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+			Future<ModbusMessage> f = futures.get(i);
 			assertThat("Response has been received and processed", f.isDone(), is(equalTo(true)));
 			ModbusMessage resp = f.get();
 			assertThat("Response is not an error", resp.getError(), is(nullValue()));
 			net.solarnetwork.io.modbus.RegistersModbusMessage respReg = resp
 					.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
 			assertThat("Response is Registers", respReg, is(notNullValue()));
+		}
+		assertThat("Request should no longer be pending", pending.keySet(), hasSize(0));
+	}
 
-			long execTime = executionTimes.get(i);
-			if ( i == 0 || i == 2 ) {
-				// last execution time should be negligable
-				assertThat(
-						"First execution time, or after manual delay, should be close to 0 (within 200ms)",
-						execTime, is(lessThan(200L)));
-			} else if ( i == 1 ) {
-				assertThat("Execution time immeidately after send must be roughly delay (within 200ms)",
-						sendDelay - execTime, is(lessThan(200L)));
-			}
+	@Test
+	public void send_rateLimit() throws Exception {
+		// GIVEN
+		NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+		config.setSendRateLimit(2);
+		config.setSendRateBurst(2);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		for ( int i = 0; i < 3; i++ ) {
+			client.sendAsync(req);
 		}
+
+		// THEN
+		assertThat("First burst request sent", channel.readOutbound(), is(notNullValue()));
+		assertThat("Second burst request sent", channel.readOutbound(), is(notNullValue()));
+		assertThat("Third request held by rate limit", channel.readOutbound(), is(nullValue()));
+		assertThat("Third request queued", client.getQueuedCount(), is(equalTo(1)));
+
+		// WHEN
+		Thread.sleep(600L);
+		channel.runPendingTasks();
+
+		// THEN
+		assertThat("Third request sent after rate interval", channel.readOutbound(),
+				is(notNullValue()));
+		assertThat("Queue drained", client.getQueuedCount(), is(equalTo(0)));
 	}
 
 	private static final class TestObservingNettyModbusClient
@@ -619,7 +637,7 @@ public class NettyModbusClientTests {
 		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(unitId, addr, count);
 
 		// WHEN
-		client.sendAsync(req);
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req);
 
 		PendingMessage msg = pending.values().iterator().next();
 		assertThat("Pending message available", msg, is(notNullValue()));
@@ -628,6 +646,12 @@ public class NettyModbusClientTests {
 		Thread.sleep(1600L);
 
 		assertThat("Pending message has been cleaned", pending.isEmpty(), is(true));
+		assertThat("Response future completed", f.isDone(), is(true));
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(1, TimeUnit.SECONDS);
+		});
+		assertThat("Response future failed from timeout", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
 		client.stop().get(5, TimeUnit.SECONDS);
 	}
 
@@ -654,25 +678,837 @@ public class NettyModbusClientTests {
 		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(unitId, addr, count);
 
 		// WHEN
-		client.sendAsync(req);
+		CompletableFuture<ModbusMessage> f1 = client.sendAsync(req);
 
 		assertThat("Pending message available", pending.keySet(), hasSize(1));
 
 		// THEN
-		Thread.sleep(900L);
+		Thread.sleep(400L);
 
 		RegistersModbusMessage req2 = RegistersModbusMessage.readHoldingsRequest(unitId, addr, count);
-		client.sendAsync(req2);
+		CompletableFuture<ModbusMessage> f2 = client.sendAsync(req2);
 
 		assertThat("Pending messages available", pending.keySet(), hasSize(2));
 
-		Thread.sleep(900L);
+		Thread.sleep(500L);
 		assertThat("One pending messages pruned", pending.keySet(), hasSize(1));
+		assertThat("First response timed out", f1.isCompletedExceptionally(), is(true));
+		assertThat("Second response pending", f2.isDone(), is(false));
 
-		Thread.sleep(1400L);
+		Thread.sleep(500L);
+		assertThat("Second response timed out", f2.isCompletedExceptionally(), is(true));
 
 		assertThat("Pending messages have been cleaned", pending.isEmpty(), is(true));
 		client.stop().get(5, TimeUnit.SECONDS);
 	}
 
+	@Test
+	public void sendAsync_timeoutOverride() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req, 200, TimeUnit.MILLISECONDS);
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(2, TimeUnit.SECONDS);
+		});
+		assertThat("Response future failed from per-request timeout", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+	}
+
+	@Test
+	public void sendAsync_responseCancelsTimeout() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req, 200, TimeUnit.MILLISECONDS);
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+		Thread.sleep(400L);
+
+		// THEN
+		ModbusMessage res = f.get(1, TimeUnit.SECONDS);
+		assertThat("Response received before timeout", res, is(notNullValue()));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+	}
+
+	@Test
+	public void stop_inFlight() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req);
+		assertThat("Request sent", channel.readOutbound(), is(notNullValue()));
+
+		// WHEN
+		client.stop().get(5, TimeUnit.SECONDS);
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(1, TimeUnit.SECONDS);
+		}, "In-flight request failed by stop");
+		assertThat("Failed as connection closed", e.getCause(), is(instanceOf(IOException.class)));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+		assertThat("Nothing in flight", client.getInFlightCount(), is(equalTo(0)));
+	}
+
+	@Test
+	public void channelClosed_inFlight() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req);
+		assertThat("Request sent", channel.readOutbound(), is(notNullValue()));
+
+		// WHEN
+		channel.close().sync();
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(1, TimeUnit.SECONDS);
+		}, "In-flight request failed by connection close");
+		assertThat("Failed as connection closed", e.getCause(), is(instanceOf(IOException.class)));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+	}
+
+	@Test
+	public void sharedTimer() throws Exception {
+		// GIVEN
+		HashedWheelTimer timer = new HashedWheelTimer();
+		try {
+			client.setTimer(timer);
+			client.start().get(5, TimeUnit.SECONDS);
+			RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+			// WHEN
+			CompletableFuture<ModbusMessage> f = client.sendAsync(req, 200,
+					TimeUnit.MILLISECONDS);
+			ExecutionException e = assertThrows(ExecutionException.class, () -> {
+				f.get(2, TimeUnit.SECONDS);
+			});
+			client.stop().get(5, TimeUnit.SECONDS);
+
+			// THEN
+			assertThat("Shared timer used for timeout", e.getCause(),
+					is(instanceOf(ModbusTimeoutException.class)));
+			assertThat("Shared timer retained after stop", client.getTimer(),
+					is(sameInstance(timer)));
+			assertThat("Shared timer not stopped by client", timer.stop(), hasSize(0));
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void stop_fromTimeoutCallback() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		CompletableFuture<CompletableFuture<?>> stopped = new CompletableFuture<>();
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req, 100, TimeUnit.MILLISECONDS);
+		f.whenComplete((r, t) -> {
+			// on timeout, stop the client from the timer thread
+			try {
+				stopped.complete(client.stop());
+			} catch ( Throwable e ) {
+				stopped.completeExceptionally(e);
+			}
+		});
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(2, TimeUnit.SECONDS);
+		});
+		assertThat("Request timed out", e.getCause(), is(instanceOf(ModbusTimeoutException.class)));
+		stopped.get(2, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+		assertThat("Client stopped", client.isStarted(), is(equalTo(false)));
+		assertThat("Internal timer released", client.getTimer(), is(nullValue()));
+	}
+
+	private static ByteBuf readHoldingsResponseBuf() {
+		// @formatter:off
+		return Unpooled.copiedBuffer(new byte[] {
+				ModbusFunctionCodes.READ_HOLDING_REGISTERS,
+				(byte)0x06,
+				(byte)0x02,
+				(byte)0x2B,
+				(byte)0x00,
+				(byte)0x00,
+				(byte)0x00,
+				(byte)0x64,
+		});
+		// @formatter:on
+	}
+
+	@Test
+	public void send_maxInFlight() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setMaxInFlightRequests(1);
+		RegistersModbusMessage req1 = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		RegistersModbusMessage req2 = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		Future<ModbusMessage> f1 = client.sendAsync(req1);
+		Future<ModbusMessage> f2 = client.sendAsync(req2);
+
+		// THEN
+		assertThat("Both requests pending", pending.keySet(), hasSize(2));
+		assertThat("First request in flight", client.getInFlightCount(), is(equalTo(1)));
+		assertThat("Second request queued", client.getQueuedCount(), is(equalTo(1)));
+
+		ByteBuf requestData = channel.readOutbound();
+		assertThat("First request bytes produced", requestData, is(notNullValue()));
+		assertThat("Second request not written while first in flight", channel.readOutbound(),
+				is(nullValue()));
+
+		// WHEN
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("First response received", f1.isDone(), is(equalTo(true)));
+		assertThat("Second request not complete", f2.isDone(), is(equalTo(false)));
+		assertThat("Second request in flight", client.getInFlightCount(), is(equalTo(1)));
+		assertThat("Queue drained", client.getQueuedCount(), is(equalTo(0)));
+		requestData = channel.readOutbound();
+		assertThat("Second request bytes produced after first response", requestData,
+				is(notNullValue()));
+
+		// WHEN
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("Second response received", f2.isDone(), is(equalTo(true)));
+		assertThat("Second response is for second request", f2.get().getError(), is(nullValue()));
+		assertThat("Nothing in flight", client.getInFlightCount(), is(equalTo(0)));
+		assertThat("Nothing pending", pending.keySet(), hasSize(0));
+	}
+
+	@Test
+	public void send_maxQueued_rejected() throws Exception {
+		// GIVEN
+		NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+		config.setMaxInFlightRequests(1);
+		config.setMaxQueuedRequests(1);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		Future<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		Future<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		Future<ModbusMessage> f3 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// THEN
+		assertThat("First request in flight", f1.isDone(), is(equalTo(false)));
+		assertThat("Second request queued", f2.isDone(), is(equalTo(false)));
+		assertThat("Third request completed", f3.isDone(), is(equalTo(true)));
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f3.get();
+		}, "Third request rejected because queue full");
+		assertThat("Rejected exception", e.getCause(),
+				is(instanceOf(RejectedExecutionException.class)));
+		assertThat("Rejected request not pending", pending.keySet(), hasSize(2));
+	}
+
+	@Test
+	public void send_queuedCancelled() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setMaxInFlightRequests(1);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		Future<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		Future<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		f2.cancel(true);
+		channel.readOutbound();
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("First response received", f1.isDone(), is(equalTo(true)));
+		assertThat("Cancelled request not written", channel.readOutbound(), is(nullValue()));
+		assertThat("Nothing in flight", client.getInFlightCount(), is(equalTo(0)));
+		assertThat("Queue drained", client.getQueuedCount(), is(equalTo(0)));
+	}
+
+	@Test
+	public void send_unitMaxInFlight() throws Exception {
+		// GIVEN
+		NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+		config.setUnitMaxInFlightRequests(1);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 1, 1));
+		CompletableFuture<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 1));
+		CompletableFuture<ModbusMessage> f3 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(2, 3, 1));
+
+		// THEN
+		assertThat("One request per unit in flight", client.getInFlightCount(), is(equalTo(2)));
+		assertThat("Second request to unit 1 queued", client.getQueuedCount(), is(equalTo(1)));
+		assertThat("Unit 1 request written", channel.readOutbound(), is(notNullValue()));
+		assertThat("Unit 2 request written past blocked unit 1", channel.readOutbound(),
+				is(notNullValue()));
+		assertThat("Second unit 1 request not written", channel.readOutbound(), is(nullValue()));
+
+		// WHEN
+		f1.complete(RegistersModbusMessage.readHoldingsResponse(1, 1, new short[] { 1 }));
+
+		// THEN
+		assertThat("Second unit 1 request sent after first completes", channel.readOutbound(),
+				is(notNullValue()));
+		assertThat("Queue drained", client.getQueuedCount(), is(equalTo(0)));
+		assertThat("Unit 1 and 2 requests in flight", client.getInFlightCount(), is(equalTo(2)));
+		assertThat("Second request not complete", f2.isDone(), is(equalTo(false)));
+		assertThat("Third request not complete", f3.isDone(), is(equalTo(false)));
+	}
+
+	@Test
+	public void send_unitMaxInFlight_override() throws Exception {
+		// GIVEN
+		NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+		config.setUnitMaxInFlightRequests(1);
+		config.setUnitMaxInFlightRequests(2, 0);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		for ( int i = 0; i < 3; i++ ) {
+			client.sendAsync(RegistersModbusMessage.readHoldingsRequest(2, i, 1));
+		}
+		client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 0, 1));
+		client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 1, 1));
+
+		// THEN
+		assertThat("Unlimited unit 2 requests and one unit 1 request in flight",
+				client.getInFlightCount(), is(equalTo(4)));
+		assertThat("Second unit 1 request queued", client.getQueuedCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void send_adaptiveInFlightLimit() throws Exception {
+		// GIVEN
+		NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+		config.setAdaptiveInFlightLimit(true);
+		config.setMaxInFlightRequests(10);
+
+		// WHEN
+		client.start().get(5, TimeUnit.SECONDS);
+		List<CompletableFuture<ModbusMessage>> futures = new ArrayList<>();
+		for ( int i = 0; i < 5; i++ ) {
+			futures.add(client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, i, 1)));
+		}
+
+		// THEN
+		assertThat("Initial adaptive limit", client.getInFlightLimit(),
+				is(equalTo(AdaptiveInFlightLimit.DEFAULT_INITIAL_LIMIT)));
+		assertThat("Requests limited by adaptive limit", client.getInFlightCount(),
+				is(equalTo(AdaptiveInFlightLimit.DEFAULT_INITIAL_LIMIT)));
+		assertThat("Remaining request queued", client.getQueuedCount(), is(equalTo(1)));
+
+		// WHEN
+		futures.get(0).completeExceptionally(new ModbusTimeoutException("Test timeout"));
+
+		// THEN
+		assertThat("Limit reduced after timeout", client.getInFlightLimit(),
+				is(equalTo(AdaptiveInFlightLimit.DEFAULT_INITIAL_LIMIT - 1)));
+		assertThat("Queued request held by reduced limit", client.getQueuedCount(),
+				is(equalTo(1)));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		client.start().get(5, TimeUnit.SECONDS);
+
+		// WHEN
+		Future<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		Future<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// THEN
+		assertThat("One request pending", pending.keySet(), hasSize(1));
+		assertThat("Identical read deduplicated", client.getDeduplicatedCount(),
+				is(equalTo(1L)));
+		assertThat("Request bytes produced", channel.readOutbound(), is(notNullValue()));
+		assertThat("Identical read not written", channel.readOutbound(), is(nullValue()));
+
+		// WHEN
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("First response received", f1.isDone(), is(equalTo(true)));
+		assertThat("Attached request completed with same response", f2.get(),
+				is(sameInstance(f1.get())));
+
+		// WHEN
+		Future<ModbusMessage> f3 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// THEN
+		assertThat("Read after completion sent", channel.readOutbound(), is(notNullValue()));
+		assertThat("Read after completion not deduplicated", client.getDeduplicatedCount(),
+				is(equalTo(1L)));
+		assertThat("Read after completion pending", f3.isDone(), is(equalTo(false)));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_differentReads() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		client.start().get(5, TimeUnit.SECONDS);
+
+		// WHEN
+		client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		client.sendAsync(RegistersModbusMessage.readHoldingsRequest(2, 2, 3));
+		client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 4));
+		client.sendAsync(RegistersModbusMessage.readInputsRequest(1, 2, 3));
+		client.sendAsync(RegistersModbusMessage.writeHoldingsRequest(1, 2, new short[] { 1 }));
+		client.sendAsync(RegistersModbusMessage.writeHoldingsRequest(1, 2, new short[] { 1 }));
+
+		// THEN
+		assertThat("All requests pending", pending.keySet(), hasSize(6));
+		assertThat("Nothing deduplicated", client.getDeduplicatedCount(), is(equalTo(0L)));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_originatorTimeout() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		ManualTimer timer = new ManualTimer();
+		client.setTimer(timer);
+		client.start().get(5, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), 1, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), 10, TimeUnit.SECONDS);
+		assertThat("Request bytes produced", channel.readOutbound(), is(notNullValue()));
+		assertThat("One timeout per caller", timer.getTimeouts(), hasSize(2));
+
+		// WHEN
+		timer.getTimeouts().get(0).fire();
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f1.get();
+		});
+		assertThat("Originator timed out", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
+		assertThat("Attached caller not failed by originator timeout", f2.isDone(),
+				is(equalTo(false)));
+		assertThat("Shared request still pending", pending.keySet(), hasSize(1));
+
+		// WHEN
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("Attached caller receives response", f2.get(1, TimeUnit.SECONDS),
+				is(notNullValue()));
+		assertThat("Nothing pending", pending.keySet(), hasSize(0));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_originatorCancel() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		client.start().get(5, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		CompletableFuture<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// WHEN
+		f1.cancel(false);
+
+		// THEN
+		assertThat("Attached caller not failed by originator cancel", f2.isDone(),
+				is(equalTo(false)));
+		assertThat("Shared request still pending", pending.keySet(), hasSize(1));
+
+		// WHEN
+		f2.cancel(false);
+
+		// THEN
+		assertThat("Shared request abandoned once every caller cancelled", pending.keySet(),
+				hasSize(0));
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f3 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// THEN
+		assertThat("Read after abandoned read not deduplicated", client.getDeduplicatedCount(),
+				is(equalTo(1L)));
+		assertThat("Read after abandoned read pending", pending.keySet(), hasSize(1));
+		assertThat("Read after abandoned read not done", f3.isDone(), is(equalTo(false)));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_attachedTimeout() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		ManualTimer timer = new ManualTimer();
+		client.setTimer(timer);
+		client.start().get(5, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), 10, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), 1, TimeUnit.SECONDS);
+
+		// WHEN
+		timer.getTimeouts().get(1).fire();
+
+		// THEN
+		assertThat("Attached caller timeout scheduled with its own delay",
+				timer.getTimeouts().get(1).getDelayNanos(), is(equalTo(TimeUnit.SECONDS.toNanos(1))));
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f2.get();
+		});
+		assertThat("Attached caller timed out", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
+		assertThat("Originator not failed by attached timeout", f1.isDone(), is(equalTo(false)));
+
+		// WHEN
+		timer.getTimeouts().get(0).fire();
+
+		// THEN
+		e = assertThrows(ExecutionException.class, () -> {
+			f1.get();
+		});
+		assertThat("Originator timed out", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
+		assertThat("Shared request abandoned once every caller timed out", pending.keySet(),
+				hasSize(0));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_transportFailure() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setDeduplicateReads(true);
+		client.start().get(5, TimeUnit.SECONDS);
+		CompletableFuture<ModbusMessage> f1 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		CompletableFuture<ModbusMessage> f2 = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+
+		// WHEN
+		channel.close().sync();
+
+		// THEN
+		for ( CompletableFuture<ModbusMessage> f : Arrays.asList(f1, f2) ) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> {
+				f.get(1, TimeUnit.SECONDS);
+			});
+			assertThat("Every caller failed by connection close", e.getCause(),
+					is(instanceOf(IOException.class)));
+		}
+	}
+
+	private static ByteBufRegistersModbusMessage retainedHoldingsResponse(ByteBuf data) {
+		return new ByteBufRegistersModbusMessage(1, ModbusFunctionCode.ReadHoldingRegisters, 2,
+				data.writeShort(0x022B).writeShort(0x0000).writeShort(0x0064));
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_retainedBuffers() throws Exception {
+		// GIVEN
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+		try {
+			NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+			config.setDeduplicateReads(true);
+			config.setRetainResponseBuffers(true);
+			client.start().get(5, TimeUnit.SECONDS);
+			CompletableFuture<ModbusMessage> f1 = client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+			CompletableFuture<ModbusMessage> f2 = client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+			ReferenceCountUtil.release(channel.readOutbound());
+			ByteBuf data = ByteBufAllocator.DEFAULT.buffer(6);
+
+			// WHEN
+			channel.writeOneInbound(retainedHoldingsResponse(data)).sync();
+
+			// THEN
+			assertThat("Each caller holds its own reference", data.refCnt(), is(equalTo(2)));
+
+			// WHEN
+			client.releaseResponse(f1.get(1, TimeUnit.SECONDS));
+
+			// THEN
+			assertThat("Attached caller data still readable after originator release",
+					Arrays.equals(f2.get(1, TimeUnit.SECONDS)
+							.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class)
+							.dataDecode(), new short[] { 0x022B, 0x0000, 0x0064 }),
+					is(equalTo(true)));
+
+			// WHEN
+			client.releaseResponse(f2.get(1, TimeUnit.SECONDS));
+
+			// THEN
+			assertThat("Buffer released by last caller", data.refCnt(), is(equalTo(0)));
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+		}
+	}
+
+	@Test
+	public void sendAsync_deduplicateReads_retainedBuffers_callerTimedOut() throws Exception {
+		// GIVEN
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+		try {
+			NettyModbusClientConfig config = (NettyModbusClientConfig) client.getClientConfig();
+			config.setDeduplicateReads(true);
+			config.setRetainResponseBuffers(true);
+			ManualTimer timer = new ManualTimer();
+			client.setTimer(timer);
+			client.start().get(5, TimeUnit.SECONDS);
+			CompletableFuture<ModbusMessage> f1 = client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+			CompletableFuture<ModbusMessage> f2 = client
+					.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+			ReferenceCountUtil.release(channel.readOutbound());
+			timer.getTimeouts().get(1).fire();
+			ByteBuf data = ByteBufAllocator.DEFAULT.buffer(6);
+
+			// WHEN
+			channel.writeOneInbound(retainedHoldingsResponse(data)).sync();
+
+			// THEN
+			assertThat("Timed out caller failed", f2.isCompletedExceptionally(),
+					is(equalTo(true)));
+			assertThat("Only the waiting caller holds a reference", data.refCnt(),
+					is(equalTo(1)));
+
+			// WHEN
+			client.releaseResponse(f1.get(1, TimeUnit.SECONDS));
+
+			// THEN
+			assertThat("Buffer released", data.refCnt(), is(equalTo(0)));
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+		}
+	}
+
+	@Test
+	public void readRegistersAsync_retainedBuffers() throws Exception {
+		// GIVEN
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+		try {
+			((NettyModbusClientConfig) client.getClientConfig()).setRetainResponseBuffers(true);
+			client.start().get(5, TimeUnit.SECONDS);
+			short[] dest = new short[3];
+			CompletableFuture<Integer> f = client.readRegistersAsync(
+					RegistersModbusMessage.readHoldingsRequest(1, 2, 3), dest, 0);
+			ReferenceCountUtil.release(channel.readOutbound());
+			ByteBuf data = ByteBufAllocator.DEFAULT.buffer(6);
+
+			// WHEN
+			channel.writeOneInbound(retainedHoldingsResponse(data)).sync();
+
+			// THEN
+			assertThat("Decoded register count returned", f.get(5, TimeUnit.SECONDS),
+					is(equalTo(3)));
+			assertThat("Registers decoded",
+					Arrays.equals(dest, new short[] { 0x022B, 0x0000, 0x0064 }), is(equalTo(true)));
+			assertThat("Buffer released once decoded", data.refCnt(), is(equalTo(0)));
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+		}
+	}
+
+	@Test
+	public void readRegistersAsync_intoArray() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		short[] dest = new short[5];
+
+		// WHEN
+		CompletableFuture<Integer> f = client
+				.readRegistersAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), dest, 1);
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("Decoded register count returned", f.get(5, TimeUnit.SECONDS), is(equalTo(3)));
+		assertThat("Registers decoded into array at offset", Arrays.equals(dest,
+				new short[] { 0, 0x022B, 0x0000, 0x0064, 0 }), is(equalTo(true)));
+	}
+
+	@Test
+	public void readRegistersAsync_error() throws Exception {
+		// GIVEN
+		client.start().get(5, TimeUnit.SECONDS);
+		short[] dest = new short[3];
+
+		// WHEN
+		CompletableFuture<Integer> f = client
+				.readRegistersAsync(RegistersModbusMessage.readHoldingsRequest(1, 2, 3), dest, 0);
+		// @formatter:off
+		channel.writeOneInbound(Unpooled.copiedBuffer(new byte[] {
+				ModbusFunctionCodes.READ_HOLDING_REGISTERS + ModbusFunctionCodes.ERROR_OFFSET,
+				ModbusErrorCodes.ILLEGAL_DATA_ADDRESS,
+		})).sync();
+		// @formatter:on
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(5, TimeUnit.SECONDS);
+		}, "Error response fails future");
+		assertThat("Cause is ModbusException", e.getCause(), is(instanceOf(ModbusException.class)));
+	}
+
+	@Test
+	public void sendAllAsync_nullRequests() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			client.sendAllAsync(null);
+		}, "Null requests not allowed");
+	}
+
+	@Test
+	public void sendAllAsync_notConnected() throws Exception {
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> result = client
+				.sendAllAsync(Arrays.asList(RegistersModbusMessage.readHoldingsRequest(1, 0, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 1, 1)));
+
+		// THEN
+		assertThat("Future returned for each request", result, hasSize(2));
+		for ( CompletableFuture<ModbusMessage> f : result ) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> {
+				f.get();
+			}, "Send without connection fails");
+			assertThat("Cause is IOException", e.getCause(), is(instanceOf(IOException.class)));
+		}
+	}
+
+	@Test
+	public void sendAllAsync_singleFlush() throws Exception {
+		// GIVEN
+		final AtomicInteger flushCount = new AtomicInteger();
+		client.start().get(5, TimeUnit.SECONDS);
+		channel.pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+
+			@Override
+			public void flush(ChannelHandlerContext ctx) throws Exception {
+				flushCount.incrementAndGet();
+				super.flush(ctx);
+			}
+		});
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> result = client
+				.sendAllAsync(Arrays.asList(RegistersModbusMessage.readHoldingsRequest(1, 0, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 1, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 2, 1)));
+
+		// THEN
+		assertThat("Future returned for each request", result, hasSize(3));
+		assertThat("All requests in flight", client.getInFlightCount(), is(equalTo(3)));
+		assertThat("Queue drained", client.getQueuedCount(), is(equalTo(0)));
+		assertThat("Requests flushed once", flushCount.get(), is(equalTo(1)));
+		for ( int i = 0; i < 3; i++ ) {
+			assertThat("Request bytes produced", channel.readOutbound(), is(notNullValue()));
+		}
+		assertThat("No more requests written", channel.readOutbound(), is(nullValue()));
+	}
+
+	@Test
+	public void sendAllAsync_queueFull() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setMaxQueuedRequests(2);
+		client.start().get(5, TimeUnit.SECONDS);
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> result = client
+				.sendAllAsync(Arrays.asList(RegistersModbusMessage.readHoldingsRequest(1, 0, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 1, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 2, 1),
+						RegistersModbusMessage.readHoldingsRequest(1, 3, 1)));
+
+		// THEN
+		assertThat("Future returned for each request", result, hasSize(4));
+		for ( int i = 0; i < 2; i++ ) {
+			assertThat("Queued request sent", result.get(i).isDone(), is(equalTo(false)));
+			assertThat("Request bytes produced", channel.readOutbound(), is(notNullValue()));
+		}
+		for ( int i = 2; i < 4; i++ ) {
+			final CompletableFuture<ModbusMessage> f = result.get(i);
+			ExecutionException e = assertThrows(ExecutionException.class, () -> {
+				f.get();
+			}, "Requests beyond queue limit rejected");
+			assertThat("Rejected exception", e.getCause(),
+					is(instanceOf(RejectedExecutionException.class)));
+		}
+		assertThat("No more requests written", channel.readOutbound(), is(nullValue()));
+		assertThat("Rejected requests not pending", pending.keySet(), hasSize(2));
+	}
+
+	@Test
+	public void send_recv_pooled() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setPooledMessages(true);
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f = client.sendAsync(req);
+		PendingMessage p = pending.get(req);
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("Pending message tracked while in flight", p, is(notNullValue()));
+		ModbusMessage res = f.get(1, TimeUnit.SECONDS);
+		assertThat("Response received", res, is(notNullValue()));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+		assertThat("In-flight count released", client.getInFlightCount(), is(equalTo(0)));
+		assertThat("Pending message recycled", p.getRequest(), is(nullValue()));
+	}
+
+	@Test
+	public void sendAsync_timeout_pooled() throws Exception {
+		// GIVEN
+		((NettyModbusClientConfig) client.getClientConfig()).setPooledMessages(true);
+		client.start().get(5, TimeUnit.SECONDS);
+		RegistersModbusMessage req1 = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		RegistersModbusMessage req2 = RegistersModbusMessage.readHoldingsRequest(1, 4, 3);
+
+		// WHEN
+		CompletableFuture<ModbusMessage> f1 = client.sendAsync(req1, 200, TimeUnit.MILLISECONDS);
+		PendingMessage p1 = pending.get(req1);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f1.get(2, TimeUnit.SECONDS);
+		});
+		// the timer thread recycles the pending message after completing the future
+		for ( int i = 0; i < 100 && p1.getRequest() != null; i++ ) {
+			Thread.sleep(10);
+		}
+		final boolean recycled = (p1.getRequest() == null);
+		CompletableFuture<ModbusMessage> f2 = client.sendAsync(req2);
+		channel.writeOneInbound(readHoldingsResponseBuf()).sync();
+
+		// THEN
+		assertThat("First request timed out", e.getCause(),
+				is(instanceOf(ModbusTimeoutException.class)));
+		assertThat("Timed out pending message recycled", recycled, is(equalTo(true)));
+		assertThat("Response delivered to second request", f2.get(1, TimeUnit.SECONDS),
+				is(notNullValue()));
+		assertThat("Pending message removed", pending.isEmpty(), is(true));
+	}
+
 }
@@ -0,0 +1,135 @@
+/* ==================================================================
+ * SendPacerTests.java - 17/10/2026 1:52:09 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.netty.handler.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.netty.handler.SendPacer;
+
+/**
+ * Test cases for the {@link SendPacer} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SendPacerTests {
+
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void pacingRequired() {
+		assertThat("No pacing", SendPacer.isPacingRequired(0, 0), is(equalTo(false)));
+		assertThat("Delay pacing", SendPacer.isPacingRequired(1, 0), is(equalTo(true)));
+		assertThat("Rate pacing", SendPacer.isPacingRequired(0, 1), is(equalTo(true)));
+	}
+
+	@Test
+	public void noPacing() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(0, 0, 0);
+
+		// THEN
+		for ( int i = 0; i < 10; i++ ) {
+			assertThat("Send allowed", pacer.reserve(1000L), is(equalTo(0L)));
+		}
+	}
+
+	@Test
+	public void minimumDelay() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(100, 0, 0);
+		final long start = 1000 * MS;
+
+		// THEN
+		assertThat("First send allowed", pacer.reserve(start), is(equalTo(0L)));
+		assertThat("Second send must wait full delay", pacer.reserve(start), is(equalTo(100 * MS)));
+		assertThat("Second send must wait remaining delay", pacer.reserve(start + 40 * MS),
+				is(equalTo(60 * MS)));
+		assertThat("Second send allowed after delay", pacer.reserve(start + 100 * MS),
+				is(equalTo(0L)));
+		assertThat("Third send delay from second send", pacer.reserve(start + 150 * MS),
+				is(equalTo(50 * MS)));
+	}
+
+	@Test
+	public void rateLimit() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(0, 10, 1);
+		final long start = 1000 * MS;
+
+		// THEN
+		assertThat("First send allowed", pacer.reserve(start), is(equalTo(0L)));
+		assertThat("Second send must wait interval", pacer.reserve(start), is(equalTo(100 * MS)));
+		assertThat("Second send allowed after interval", pacer.reserve(start + 100 * MS),
+				is(equalTo(0L)));
+	}
+
+	@Test
+	public void rateLimit_burst() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(0, 10, 3);
+		final long start = 1000 * MS;
+
+		// THEN
+		for ( int i = 0; i < 3; i++ ) {
+			assertThat("Burst send allowed", pacer.reserve(start), is(equalTo(0L)));
+		}
+		assertThat("Send after burst must wait interval", pacer.reserve(start),
+				is(equalTo(100 * MS)));
+	}
+
+	@Test
+	public void rateLimit_burstRefill() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(0, 10, 3);
+		final long start = 1000 * MS;
+		for ( int i = 0; i < 3; i++ ) {
+			pacer.reserve(start);
+		}
+
+		// WHEN
+		final long later = start + 1000 * MS;
+
+		// THEN
+		for ( int i = 0; i < 3; i++ ) {
+			assertThat("Refilled burst send allowed", pacer.reserve(later), is(equalTo(0L)));
+		}
+		assertThat("Burst not larger than configured", pacer.reserve(later), is(equalTo(100 * MS)));
+	}
+
+	@Test
+	public void delayAndRate() {
+		// GIVEN
+		SendPacer pacer = new SendPacer(250, 10, 5);
+		final long start = 1000 * MS;
+
+		// THEN
+		assertThat("First send allowed", pacer.reserve(start), is(equalTo(0L)));
+		assertThat("Minimum delay wins over rate burst", pacer.reserve(start),
+				is(equalTo(250 * MS)));
+	}
+
+}
@@ -33,6 +33,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.BitSet;
 import org.junit.jupiter.api.Test;
 import io.netty.buffer.ByteBuf;
@@ -52,7 +53,7 @@ import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
  * Test cases for the {@link BitsModbusMessage} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class BitsModbusMessageTests {
 
@@ -847,4 +848,244 @@ public class BitsModbusMessageTests {
 		// THEN
 		assertThat("Payload length is fn + data", msg.payloadLength(), is(equalTo(2)));
 	}
+
+	private static ByteBuf readCoilsResponseBuf(int byteCount) {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(ModbusFunctionCodes.READ_COILS);
+		buf.writeByte(byteCount);
+		for ( int i = 0; i < byteCount; i++ ) {
+			buf.writeByte(i * 37 + 1);
+		}
+		return buf;
+	}
+
+	@Test
+	public void decode_response_manyBits() {
+		// GIVEN
+		final int byteCount = 19;
+		final int count = byteCount * 8 - 3;
+		ByteBuf buf = readCoilsResponseBuf(byteCount);
+		byte[] wire = ByteBufUtil.getBytes(buf, 2, byteCount);
+		buf.skipBytes(1);
+
+		// WHEN
+		ModbusMessage msg = BitsModbusMessage.decodeResponsePayload(1,
+				ModbusFunctionCodes.READ_COILS, 2, count, buf);
+
+		// THEN
+		assertThat("Message decoded", msg, is(instanceOf(BitsModbusMessage.class)));
+		BitsModbusMessage bits = (BitsModbusMessage) msg;
+		BitSet expected = BitSet.valueOf(wire);
+		for ( int i = 0; i < byteCount * 8; i++ ) {
+			assertThat("Bit " + i + " decoded", bits.isBitEnabled(i), is(equalTo(expected.get(i))));
+		}
+		assertThat("Bit beyond data not enabled", bits.isBitEnabled(byteCount * 8 + 100),
+				is(equalTo(false)));
+		assertThat("BitSet exported", bits.toBitSet(), is(equalTo(expected)));
+
+		boolean[] bools = bits.toBooleanArray();
+		assertThat("Boolean array length is count", bools.length, is(equalTo(count)));
+		for ( int i = 0; i < count; i++ ) {
+			assertThat("Boolean " + i + " exported", bools[i], is(equalTo(expected.get(i))));
+		}
+
+		byte[] reversed = Arrays.copyOf(wire, wire.length);
+		for ( int i = 0; i < byteCount / 2; i++ ) {
+			byte b = reversed[i];
+			reversed[i] = reversed[byteCount - 1 - i];
+			reversed[byteCount - 1 - i] = b;
+		}
+		assertThat("BigInteger view available", bits.getBits(),
+				is(equalTo(new BigInteger(reversed))));
+	}
+
+	@Test
+	public void decode_response_manyBits_encode() {
+		// GIVEN
+		final int byteCount = 250;
+		ByteBuf buf = readCoilsResponseBuf(byteCount);
+		byte[] wire = ByteBufUtil.getBytes(buf);
+		buf.skipBytes(1);
+		BitsModbusMessage msg = (BitsModbusMessage) BitsModbusMessage.decodeResponsePayload(1,
+				ModbusFunctionCodes.READ_COILS, 2, byteCount * 8, buf);
+
+		// WHEN
+		ByteBuf out = Unpooled.buffer();
+		msg.encodeModbusPayload(out);
+
+		// THEN
+		assertThat("Message re-encoded", byteObjectArray(ByteBufUtil.getBytes(out)),
+				arrayContaining(byteObjectArray(wire)));
+		assertThat("Message length", msg.payloadLength(), is(equalTo(wire.length)));
+	}
+
+	@Test
+	public void isSameAs_decoded() {
+		// GIVEN
+		// @formatter:off
+		ByteBuf buf = Unpooled.wrappedBuffer(new byte[] {
+				(byte)0x02,
+				(byte)0xCD,
+				(byte)0x01,
+		});
+		// @formatter:on
+		ModbusMessage decoded = BitsModbusMessage.decodeResponsePayload(1,
+				ModbusFunctionCodes.READ_COILS, 2, 10, buf);
+		BitsModbusMessage msg = BitsModbusMessage.readCoilsResponse(1, 2, 10,
+				new BigInteger("01CD", 16));
+
+		// THEN
+		assertThat("Decoded message same as constructed", decoded.isSameAs(msg), is(equalTo(true)));
+		assertThat("Constructed message same as decoded", msg.isSameAs(decoded), is(equalTo(true)));
+	}
+
+	@Test
+	public void toBooleanArray_dest() {
+		// GIVEN
+		BitsModbusMessage msg = BitsModbusMessage.readCoilsResponse(1, 0, 4,
+				new BigInteger("1001", 2));
+		boolean[] dest = new boolean[6];
+
+		// WHEN
+		int result = msg.toBooleanArray(dest, 2);
+
+		// THEN
+		assertThat("Bit count returned", result, is(equalTo(4)));
+		assertThat("Bits copied at offset",
+				Arrays.equals(dest, new boolean[] { false, false, true, false, false, true }),
+				is(equalTo(true)));
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			msg.toBooleanArray(dest, 3);
+		}, "Destination without enough space not allowed");
+	}
+
+	@Test
+	public void toBitSet_dest() {
+		// GIVEN
+		BitsModbusMessage msg = BitsModbusMessage.readCoilsResponse(1, 0, 70,
+				BigInteger.ONE.shiftLeft(65).setBit(1));
+		BitSet dest = new BitSet();
+		dest.set(0, 80);
+
+		// WHEN
+		int result = msg.toBitSet(dest, 5);
+
+		// THEN
+		assertThat("Bit count returned", result, is(equalTo(70)));
+		BitSet expected = new BitSet();
+		expected.set(0, 5);
+		expected.set(6);
+		expected.set(70);
+		expected.set(75, 80);
+		assertThat("Bits copied at offset, with unset bits cleared", dest, is(equalTo(expected)));
+	}
+
+	@Test
+	public void bitsMessage_bitSet() {
+		// GIVEN
+		BitSet bits = new BitSet();
+		bits.set(3);
+		bits.set(5);
+		bits.set(11);
+		bits.set(80);
+
+		// WHEN
+		BitsModbusMessage msg = BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.ReadCoils, 2,
+				8, bits, 3);
+
+		// THEN
+		assertThat("Bit at offset is first value", msg.isBitEnabled(0), is(equalTo(true)));
+		assertThat("Bit within count copied", msg.isBitEnabled(2), is(equalTo(true)));
+		assertThat("Bit beyond count ignored", msg.isBitEnabled(7), is(equalTo(false)));
+		assertThat("Same as BigInteger message", msg.isSameAs(
+				BitsModbusMessage.readCoilsResponse(1, 2, 8, BigInteger.valueOf(5))),
+				is(equalTo(true)));
+		assertThrows(IllegalArgumentException.class, () -> {
+			BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.ReadCoils, 2, 8, null, 0);
+		}, "Null bits not allowed");
+	}
+
+	@Test
+	public void bitsMessage_bitSet_highBit() {
+		// GIVEN
+		BitSet bits = new BitSet();
+		bits.set(7);
+
+		// WHEN
+		BitsModbusMessage msg = BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.ReadCoils, 2,
+				8, bits, 0);
+		ByteBuf out = Unpooled.buffer();
+		msg.encodeModbusPayload(out);
+
+		// THEN
+		assertThat("BigInteger view not negative", msg.getBits(),
+				is(equalTo(BigInteger.valueOf(0x80))));
+		assertThat("Encoded bytes", byteObjectArray(ByteBufUtil.getBytes(out)),
+				arrayContaining(new Byte[] { ModbusFunctionCodes.READ_COILS, (byte) 0x01,
+						(byte) 0x80 }));
+	}
+
+	@Test
+	public void bitsMessage_booleans() {
+		// GIVEN
+		boolean[] values = new boolean[] { true, false, true, true, false, false, false, false,
+				false, true };
+
+		// WHEN
+		BitsModbusMessage msg = BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.WriteCoils, 2,
+				values, 2, 8);
+
+		// THEN
+		assertThat("Count", msg.getCount(), is(equalTo(8)));
+		assertThat("Values from offset", msg.toBooleanArray(), is(equalTo(Arrays.copyOfRange(
+				values, 2, 10))));
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.WriteCoils, 2, values, 3, 8);
+		}, "Values beyond array not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			BitsModbusMessage.bitsMessage(1, ModbusFunctionCode.WriteCoils, 2, null, 0, 8);
+		}, "Null values not allowed");
+	}
+
+	@Test
+	public void packedBitsMessage() {
+		// GIVEN
+		long[] words = new long[] { -1L, -1L, -1L };
+
+		// WHEN
+		BitsModbusMessage msg = BitsModbusMessage.packedBitsMessage(1,
+				ModbusFunctionCode.ReadDiscreteInputs, 2, 70, words);
+		words[0] = 0L;
+
+		// THEN
+		assertThat("Words copied", msg.isBitEnabled(0), is(equalTo(true)));
+		assertThat("Last bit within count", msg.isBitEnabled(69), is(equalTo(true)));
+		assertThat("Bit beyond count masked", msg.isBitEnabled(70), is(equalTo(false)));
+		assertThat("BigInteger view", msg.getBits(),
+				is(equalTo(BigInteger.ONE.shiftLeft(70).subtract(BigInteger.ONE))));
+	}
+
+	@Test
+	public void readBitsResponse() {
+		// GIVEN
+		BitSet bits = new BitSet();
+		bits.set(1);
+
+		// WHEN
+		BitsModbusMessage coils = BitsModbusMessage.readBitsResponse(ModbusBlockType.Coil, 1, 2, 3,
+				bits, 0);
+		BitsModbusMessage discretes = BitsModbusMessage.readBitsResponse(ModbusBlockType.Discrete,
+				1, 2, 3, bits, 0);
+
+		// THEN
+		assertThat("Coils function", coils.getFunction(),
+				is(equalTo(ModbusFunctionCode.ReadCoils)));
+		assertThat("Discretes function", discretes.getFunction(),
+				is(equalTo(ModbusFunctionCode.ReadDiscreteInputs)));
+		assertThat("Bits", coils.getBits(), is(equalTo(BigInteger.valueOf(2))));
+		assertThrows(IllegalArgumentException.class, () -> {
+			BitsModbusMessage.readBitsResponse(ModbusBlockType.Holding, 1, 2, 3, bits, 0);
+		}, "Register type not allowed");
+	}
+
 }
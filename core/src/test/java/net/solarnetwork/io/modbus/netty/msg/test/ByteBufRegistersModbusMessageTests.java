@@ -0,0 +1,234 @@
+/* ==================================================================
+ * ByteBufRegistersModbusMessageTests.java - 18/10/2026 1:52:19 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.msg.test;
+
+import static net.solarnetwork.io.modbus.test.support.ModbusTestUtils.byteObjectArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import net.solarnetwork.io.modbus.ModbusErrorCode;
+import net.solarnetwork.io.modbus.ModbusErrorCodes;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusFunctionCodes;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.ReadWriteRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ModbusMessageUtils;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * Test cases for the {@link ByteBufRegistersModbusMessage} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ByteBufRegistersModbusMessageTests {
+
+	private static ByteBuf responseBuf(byte fn, int... values) {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(fn);
+		buf.writeByte(values.length * 2);
+		for ( int v : values ) {
+			buf.writeShort(v);
+		}
+		return buf;
+	}
+
+	@Test
+	public void construct_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ByteBufRegistersModbusMessage(1, ModbusFunctionCode.ReadHoldingRegisters, 0, null);
+		}, "Null data not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ByteBufRegistersModbusMessage(1, ModbusFunctionCode.ReadHoldingRegisters, 0,
+					Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }));
+		}, "Odd data length not allowed");
+	}
+
+	@Test
+	public void decode_retained() {
+		// GIVEN
+		ByteBuf in = responseBuf(ModbusFunctionCodes.READ_HOLDING_REGISTERS, 1, 0xFFFE, 3);
+
+		// WHEN
+		ModbusMessage msg = ModbusMessageUtils.decodeResponsePayload(1, 2, 3, in, true);
+
+		// THEN
+		assertThat("Buffer message decoded", msg,
+				is(instanceOf(ByteBufRegistersModbusMessage.class)));
+		ByteBufRegistersModbusMessage reg = (ByteBufRegistersModbusMessage) msg;
+		assertThat("Input fully read", in.isReadable(), is(equalTo(false)));
+		assertThat("Input retained by message", in.refCnt(), is(equalTo(2)));
+		assertThat("Address from request", reg.getAddress(), is(equalTo(2)));
+		assertThat("Count from data", reg.getCount(), is(equalTo(3)));
+		assertThat("Data decoded from buffer",
+				Arrays.equals(reg.dataDecode(), new short[] { 1, (short) 0xFFFE, 3 }),
+				is(equalTo(true)));
+		assertThat("Unsigned data decoded from buffer",
+				Arrays.equals(reg.dataDecodeUnsigned(), new int[] { 1, 0xFFFE, 3 }),
+				is(equalTo(true)));
+		assertThat("Raw data copied from buffer", byteObjectArray(reg.dataCopy()), arrayContaining(
+				byteObjectArray(new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE, 0, 3 })));
+
+		// WHEN
+		in.release();
+		boolean released = reg.release();
+
+		// THEN
+		assertThat("Message released buffer", released, is(equalTo(true)));
+		assertThat("Message reference count follows buffer", reg.refCnt(), is(equalTo(0)));
+		assertThrows(IllegalReferenceCountException.class, () -> {
+			reg.dataDecode();
+		}, "Data not available after release");
+	}
+
+	@Test
+	public void decode_notRetained() {
+		// GIVEN
+		ByteBuf in = responseBuf(ModbusFunctionCodes.READ_INPUT_REGISTERS, 1, 2);
+
+		// WHEN
+		ModbusMessage msg = ModbusMessageUtils.decodeResponsePayload(1, 2, 2, in, false);
+
+		// THEN
+		assertThat("Copied message decoded", msg,
+				is(instanceOf(RegistersModbusMessage.class)));
+		assertThat("Not buffer message", msg.unwrap(ByteBufRegistersModbusMessage.class),
+				is(nullValue()));
+		assertThat("Input not retained", in.refCnt(), is(equalTo(1)));
+	}
+
+	@Test
+	public void decode_error() {
+		// GIVEN
+		ByteBuf in = Unpooled.wrappedBuffer(new byte[] {
+				ModbusFunctionCodes.READ_HOLDING_REGISTERS + ModbusFunctionCodes.ERROR_OFFSET,
+				ModbusErrorCodes.ILLEGAL_DATA_ADDRESS });
+
+		// WHEN
+		ModbusMessage msg = ModbusMessageUtils.decodeResponsePayload(1, 2, 3, in, true);
+
+		// THEN
+		assertThat("Error decoded", msg.getError(),
+				is(equalTo(ModbusErrorCode.IllegalDataAddress)));
+		assertThat("Input not retained", in.refCnt(), is(equalTo(1)));
+	}
+
+	@Test
+	public void decode_readWrite() {
+		// GIVEN
+		ByteBuf in = responseBuf(ModbusFunctionCodes.READ_WRITE_HOLDING_REGISTERS, 1, 2);
+
+		// WHEN
+		ModbusMessage msg = ModbusMessageUtils.decodeResponsePayload(1, 2, 2, in, true);
+
+		// THEN
+		ReadWriteRegistersModbusMessage rw = msg.unwrap(ReadWriteRegistersModbusMessage.class);
+		assertThat("Read/write message decoded", rw,
+				is(instanceOf(ByteBufRegistersModbusMessage.class)));
+		assertThat("Read data decoded from buffer",
+				Arrays.equals(rw.dataDecode(), new short[] { 1, 2 }), is(equalTo(true)));
+		assertThat("No write data in response", rw.writeDataDecode(), is(nullValue()));
+		((ByteBufRegistersModbusMessage) rw).release();
+	}
+
+	@Test
+	public void decodeInto() {
+		// GIVEN
+		ByteBufRegistersModbusMessage msg = new ByteBufRegistersModbusMessage(1,
+				ModbusFunctionCode.ReadHoldingRegisters, 2,
+				Unpooled.wrappedBuffer(new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE }));
+		short[] dest = new short[3];
+		int[] udest = new int[3];
+		ByteBuffer bdest = ByteBuffer.allocate(4);
+
+		// WHEN
+		int result = msg.dataDecode(dest, 1);
+		int uresult = msg.dataDecodeUnsigned(udest, 0);
+		int bresult = msg.dataCopy(bdest);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Registers decoded at offset",
+				Arrays.equals(dest, new short[] { 0, 1, (short) 0xFFFE }), is(equalTo(true)));
+		assertThat("Unsigned register count returned", uresult, is(equalTo(2)));
+		assertThat("Unsigned registers decoded",
+				Arrays.equals(udest, new int[] { 1, 0xFFFE, 0 }), is(equalTo(true)));
+		assertThat("Buffer register count returned", bresult, is(equalTo(2)));
+		assertThat("Raw data copied", Arrays.equals(bdest.array(),
+				new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE }), is(equalTo(true)));
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			msg.dataDecode(new short[2], 1);
+		}, "Destination without enough space not allowed");
+	}
+
+	@Test
+	public void dataDecodeString() {
+		// GIVEN
+		ByteBufRegistersModbusMessage msg = new ByteBufRegistersModbusMessage(1,
+				ModbusFunctionCode.ReadHoldingRegisters, 2,
+				Unpooled.copiedBuffer("Hi", StandardCharsets.US_ASCII));
+
+		// THEN
+		assertThat("String decoded from buffer", msg.dataDecodeAsciiString(), is(equalTo("Hi")));
+	}
+
+	@Test
+	public void encode() {
+		// GIVEN
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 1, 2, 3 });
+		ByteBuf expected = Unpooled.buffer();
+		res.encodeModbusPayload(expected);
+
+		ByteBufRegistersModbusMessage msg = new ByteBufRegistersModbusMessage(1,
+				ModbusFunctionCode.ReadHoldingRegisters, 2,
+				Unpooled.wrappedBuffer(new byte[] { 0, 1, 0, 2, 0, 3 }));
+
+		// WHEN
+		ByteBuf out = Unpooled.buffer();
+		msg.encodeModbusPayload(out);
+
+		// THEN
+		assertThat("Payload length same as copied message", msg.payloadLength(),
+				is(equalTo(res.payloadLength())));
+		assertThat("Encoded same as copied message", byteObjectArray(ByteBufUtil.getBytes(out)),
+				arrayContaining(byteObjectArray(ByteBufUtil.getBytes(expected))));
+		assertThat("Same as copied message", msg.isSameAs(res), is(equalTo(true)));
+		assertThat("Copied message same as buffer message", res.isSameAs(msg), is(equalTo(true)));
+	}
+
+}
@@ -0,0 +1,129 @@
+/* ==================================================================
+ * PayloadEncodingAllocationTests.java - 18/10/2026 9:12:40 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.msg.test;
+
+import static net.solarnetwork.io.modbus.test.support.ModbusTestUtils.threadAllocatedBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.solarnetwork.io.modbus.ModbusErrorCode;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.netty.msg.BaseModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.MaskWriteRegisterModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ReadWriteRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * Test that encoding message payloads does not allocate.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class PayloadEncodingAllocationTests {
+
+	private static final int COUNT = 10_000;
+
+	/**
+	 * The allowed number of bytes allocated over {@link #COUNT} encodings,
+	 * which leaves room for incidental allocation by the JVM but not for even
+	 * one small object per encoding.
+	 */
+	private static final long MAX_ALLOCATED_BYTES = 4096;
+
+	private static void assertEncodeDoesNotAllocate(String desc, BaseModbusMessage msg) {
+		// GIVEN
+		final ByteBuf buf = Unpooled.buffer(256);
+
+		// WHEN
+		long bytes = threadAllocatedBytes(() -> {
+			buf.clear();
+			msg.encodeModbusPayload(buf);
+		}, COUNT);
+
+		// THEN
+		assumeTrue(bytes >= 0, "Thread allocation measurement supported");
+		assertThat(desc + " encoding does not allocate", bytes, is(lessThan(MAX_ALLOCATED_BYTES)));
+	}
+
+	@Test
+	public void registers_request() {
+		assertEncodeDoesNotAllocate("Read holdings request",
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+	}
+
+	@Test
+	public void registers_response() {
+		assertEncodeDoesNotAllocate("Read holdings response", RegistersModbusMessage
+				.readHoldingsResponse(1, 2, new short[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
+	@Test
+	public void registers_writeRequest() {
+		assertEncodeDoesNotAllocate("Write holdings request", RegistersModbusMessage
+				.writeHoldingsRequest(1, 2, new short[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
+	@Test
+	public void bits_response() {
+		assertEncodeDoesNotAllocate("Read coils response", BitsModbusMessage.readCoilsResponse(1, 2,
+				77, new BigInteger("1234567890abcdef1234567890", 16)));
+	}
+
+	@Test
+	public void bits_writeCoil() {
+		assertEncodeDoesNotAllocate("Write coil request",
+				BitsModbusMessage.writeCoilRequest(1, 2, true));
+	}
+
+	@Test
+	public void maskWrite_request() {
+		assertEncodeDoesNotAllocate("Mask write request",
+				MaskWriteRegisterModbusMessage.maskWriteHoldingRequest(1, 4, 0x00F2, 0x0025));
+	}
+
+	@Test
+	public void readWrite_request() {
+		assertEncodeDoesNotAllocate("Read write request", ReadWriteRegistersModbusMessage
+				.readWriteHoldingsRequest(1, 2, 3, 4, new short[] { 1, 2, 3 }));
+	}
+
+	@Test
+	public void readWrite_response() {
+		assertEncodeDoesNotAllocate("Read write response", ReadWriteRegistersModbusMessage
+				.readWriteHoldingsResponse(1, 2, new short[] { 1, 2, 3 }));
+	}
+
+	@Test
+	public void error() {
+		assertEncodeDoesNotAllocate("Error", new BaseModbusMessage(1,
+				ModbusFunctionCode.ReadHoldingRegisters, ModbusErrorCode.IllegalDataAddress));
+	}
+
+}
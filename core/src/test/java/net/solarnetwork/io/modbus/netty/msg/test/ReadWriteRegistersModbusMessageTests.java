@@ -28,6 +28,7 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import java.util.Arrays;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import io.netty.buffer.ByteBuf;
@@ -44,7 +45,7 @@ import net.solarnetwork.io.modbus.netty.msg.ReadWriteRegistersModbusMessage;
  * Test cases for the {@link ReadWriteRegistersModbusMessage} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class ReadWriteRegistersModbusMessageTests {
 
@@ -377,4 +378,41 @@ public class ReadWriteRegistersModbusMessageTests {
 		assertThat("Payload length is 8 + data", msg.payloadLength(), is(equalTo(10)));
 	}
 
+	@Test
+	public void dataDecode_dest() {
+		// GIVEN
+		ReadWriteRegistersModbusMessage msg = ReadWriteRegistersModbusMessage
+				.readWriteHoldingsResponse(1, 2, new short[] { 1, (short) 0xFFFE });
+		short[] dest = new short[3];
+		int[] udest = new int[2];
+
+		// WHEN
+		int result = msg.dataDecode(dest, 1);
+		int uresult = msg.dataDecodeUnsigned(udest, 0);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Read registers decoded at offset",
+				Arrays.equals(dest, new short[] { 0, 1, (short) 0xFFFE }), is(equalTo(true)));
+		assertThat("Unsigned register count returned", uresult, is(equalTo(2)));
+		assertThat("Read registers decoded unsigned", Arrays.equals(udest, new int[] { 1, 0xFFFE }),
+				is(equalTo(true)));
+	}
+
+	@Test
+	public void dataDecode_dest_request() {
+		// GIVEN
+		ReadWriteRegistersModbusMessage msg = ReadWriteRegistersModbusMessage
+				.readWriteHoldingsRequest(1, 2, 3, 4, new short[] { 1, 2 });
+		short[] dest = new short[2];
+
+		// WHEN
+		int result = msg.dataDecode(dest, 0);
+
+		// THEN
+		assertThat("No read registers in request", result, is(equalTo(0)));
+		assertThat("Destination not modified", Arrays.equals(dest, new short[2]),
+				is(equalTo(true)));
+	}
+
 }
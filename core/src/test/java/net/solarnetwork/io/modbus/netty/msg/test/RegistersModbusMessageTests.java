@@ -35,6 +35,7 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import org.junit.jupiter.api.Test;
@@ -56,7 +57,7 @@ import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
  * Test cases for the {@link RegistersModbusMessage}.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class RegistersModbusMessageTests {
 
@@ -932,4 +933,79 @@ public class RegistersModbusMessageTests {
 		assertThat("Payload length is fn + data", msg.payloadLength(), is(equalTo(3)));
 	}
 
+	@Test
+	public void dataDecode_dest() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 1, (short) 0xFFFE, 3 });
+		short[] dest = new short[5];
+
+		// WHEN
+		int result = msg.dataDecode(dest, 2);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(3)));
+		assertThat("Registers decoded at offset",
+				Arrays.equals(dest, new short[] { 0, 0, 1, (short) 0xFFFE, 3 }), is(equalTo(true)));
+	}
+
+	@Test
+	public void dataDecode_dest_tooSmall() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 1, 2, 3 });
+		short[] dest = new short[3];
+
+		// THEN
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			msg.dataDecode(dest, 1);
+		}, "Destination without enough space not allowed");
+		assertThat("Destination not modified", Arrays.equals(dest, new short[3]),
+				is(equalTo(true)));
+	}
+
+	@Test
+	public void dataDecode_dest_noData() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		int result = msg.dataDecode(new short[0], 0);
+
+		// THEN
+		assertThat("No registers decoded", result, is(equalTo(0)));
+	}
+
+	@Test
+	public void dataDecodeUnsigned_dest() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readInputsResponse(1, 2,
+				new short[] { 1, (short) 0xFFFE });
+		int[] dest = new int[3];
+
+		// WHEN
+		int result = msg.dataDecodeUnsigned(dest, 1);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Registers decoded at offset",
+				Arrays.equals(dest, new int[] { 0, 1, 0xFFFE }), is(equalTo(true)));
+	}
+
+	@Test
+	public void dataCopy_buffer() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 0x0102, 0x0304 });
+		ByteBuffer dest = ByteBuffer.allocate(4);
+
+		// WHEN
+		int result = msg.dataCopy(dest);
+
+		// THEN
+		assertThat("Register count returned", result, is(equalTo(2)));
+		assertThat("Raw data copied", Arrays.equals(dest.array(), new byte[] { 1, 2, 3, 4 }),
+				is(equalTo(true)));
+	}
+
 }
@@ -51,7 +51,7 @@ import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
  * Test cases for the {@link SimpleModbusMessageReply} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class SimpleModbusMessageReplyTests {
 
@@ -260,4 +260,61 @@ public class SimpleModbusMessageReplyTests {
 		assertThat("Delegated exception is returned", mve, is(sameInstance(ex)));
 	}
 
+	@Test
+	public void newInstance() {
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(4, 5,
+				new short[] { 1, 2, 3 });
+
+		// WHEN
+		SimpleModbusMessageReply r = SimpleModbusMessageReply.newInstance(req, res);
+
+		// THEN
+		assertThat("Request saved", r.getRequest(), is(sameInstance(req)));
+		assertThat("Reply saved", r.getReply(), is(sameInstance(res)));
+	}
+
+	@Test
+	public void newInstance_invalid() {
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		assertThrows(IllegalArgumentException.class, () -> {
+			SimpleModbusMessageReply.newInstance(null, req);
+		}, "Null request not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			SimpleModbusMessageReply.newInstance(req, null);
+		}, "Null reply not allowed");
+	}
+
+	@Test
+	public void recycle() {
+		// GIVEN
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(4, 5,
+				new short[] { 1, 2, 3 });
+		SimpleModbusMessageReply r = SimpleModbusMessageReply.newInstance(req, res);
+
+		// WHEN
+		r.recycle();
+
+		// THEN
+		assertThat("Request released", r.getRequest(), is(nullValue()));
+		assertThat("Reply released", r.getReply(), is(nullValue()));
+	}
+
+	@Test
+	public void recycle_notPooled() {
+		// GIVEN
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(4, 5,
+				new short[] { 1, 2, 3 });
+		SimpleModbusMessageReply r = new SimpleModbusMessageReply(req, res);
+
+		// WHEN
+		r.recycle();
+
+		// THEN
+		assertThat("Request unchanged", r.getRequest(), is(sameInstance(req)));
+		assertThat("Reply unchanged", r.getReply(), is(sameInstance(res)));
+	}
+
 }
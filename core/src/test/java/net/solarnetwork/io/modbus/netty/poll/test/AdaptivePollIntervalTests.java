@@ -0,0 +1,124 @@
+/* ==================================================================
+ * AdaptivePollIntervalTests.java - 18/10/2026 12:06:51 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.netty.poll.AdaptivePollInterval;
+
+/**
+ * Test cases for the {@link AdaptivePollInterval} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class AdaptivePollIntervalTests {
+
+	@Test
+	public void construct_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new AdaptivePollInterval(1, 2, null);
+		}, "Null unit not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new AdaptivePollInterval(0, 2, TimeUnit.SECONDS);
+		}, "Min interval must be positive");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new AdaptivePollInterval(2, 1, TimeUnit.SECONDS);
+		}, "Max interval must not be less than min");
+	}
+
+	@Test
+	public void startsAtMin() {
+		// WHEN
+		AdaptivePollInterval i = new AdaptivePollInterval(1, 10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Starts at min interval", i.getInterval(TimeUnit.SECONDS), is(equalTo(1L)));
+	}
+
+	@Test
+	public void volatileStaysAtMin() {
+		// GIVEN
+		AdaptivePollInterval i = new AdaptivePollInterval(1, 10, TimeUnit.SECONDS);
+
+		// WHEN
+		for ( int n = 0; n < 100; n++ ) {
+			i.update(true);
+		}
+
+		// THEN
+		assertThat("Volatile data polled at min interval", i.getInterval(TimeUnit.SECONDS),
+				is(equalTo(1L)));
+		assertThat("Change ratio high", i.getChangeRatio(), is(equalTo(1.0)));
+	}
+
+	@Test
+	public void staticBacksOffToMax() {
+		// GIVEN
+		AdaptivePollInterval i = new AdaptivePollInterval(1, 10, TimeUnit.SECONDS);
+
+		// WHEN
+		long prev = i.getIntervalNanos();
+		boolean decreased = false;
+		for ( int n = 0; n < 100; n++ ) {
+			long next = i.update(false);
+			decreased |= (next < prev);
+			prev = next;
+		}
+
+		// THEN
+		assertThat("Interval never decreases without changes", decreased, is(equalTo(false)));
+		assertThat("Static data polled at max interval", i.getInterval(TimeUnit.SECONDS),
+				is(equalTo(10L)));
+		assertThat("Change ratio low", i.getChangeRatio(), is(lessThan(0.01)));
+	}
+
+	@Test
+	public void changeTightens() {
+		// GIVEN
+		AdaptivePollInterval i = new AdaptivePollInterval(1, 16, TimeUnit.SECONDS);
+		for ( int n = 0; n < 100; n++ ) {
+			i.update(false);
+		}
+
+		// WHEN
+		long result = i.update(true);
+
+		// THEN
+		assertThat("Change halves interval", result, is(equalTo(TimeUnit.SECONDS.toNanos(8))));
+
+		// WHEN
+		result = i.update(false);
+
+		// THEN
+		assertThat("Interval held while change ratio above threshold", result,
+				is(equalTo(TimeUnit.SECONDS.toNanos(8))));
+	}
+
+}
@@ -0,0 +1,240 @@
+/* ==================================================================
+ * ModbusChangeDetectorTests.java - 17/10/2026 11:41:26 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll.test;
+
+import static net.solarnetwork.io.modbus.netty.block.ModbusBlockRange.range;
+import static net.solarnetwork.io.modbus.test.support.ModbusTestUtils.threadAllocatedBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.poll.ModbusChangeDetector;
+import net.solarnetwork.io.modbus.netty.poll.ModbusDeadbandPoint;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPointType;
+
+/**
+ * Test cases for the {@link ModbusChangeDetector} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusChangeDetectorTests {
+
+	private static RegistersModbusMessage holdings(int address, short... data) {
+		return RegistersModbusMessage.readHoldingsResponse(1, address, data);
+	}
+
+	@Test
+	public void construct_null() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusChangeDetector(null);
+		}, "Null range not allowed");
+	}
+
+	@Test
+	public void update_registers() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 10, 4));
+
+		// WHEN
+		int[] first = detector.update(holdings(10, (short) 1, (short) 2, (short) 3, (short) 4));
+		int[] same = detector.update(holdings(10, (short) 1, (short) 2, (short) 3, (short) 4));
+		int[] changed = detector.update(holdings(10, (short) 1, (short) 5, (short) 3, (short) 6));
+
+		// THEN
+		assertThat("All addresses changed on first read", first,
+				is(equalTo(new int[] { 10, 11, 12, 13 })));
+		assertThat("No addresses changed when data same", same, is(equalTo(new int[0])));
+		assertThat("Changed addresses returned", changed, is(equalTo(new int[] { 11, 13 })));
+	}
+
+	@Test
+	public void update_registers_reset() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 0, 2));
+		detector.update(holdings(0, (short) 1, (short) 2));
+
+		// WHEN
+		detector.reset();
+		int[] result = detector.update(holdings(0, (short) 1, (short) 2));
+
+		// THEN
+		assertThat("All addresses changed after reset", result, is(equalTo(new int[] { 0, 1 })));
+	}
+
+	@Test
+	public void update_bits() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Coil, 100, 8));
+
+		// WHEN
+		int[] first = detector.update(BitsModbusMessage.readCoilsResponse(1, 100, 8,
+				new BigInteger("00000101", 2)));
+		int[] changed = detector.update(BitsModbusMessage.readCoilsResponse(1, 100, 8,
+				new BigInteger("10000100", 2)));
+
+		// THEN
+		assertThat("All addresses changed on first read", first.length, is(equalTo(8)));
+		assertThat("Changed bit addresses returned", changed, is(equalTo(new int[] { 100, 107 })));
+	}
+
+	@Test
+	public void update_bits_same() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Coil, 100, 70));
+		final BigInteger bits = BigInteger.ONE.shiftLeft(69).or(BigInteger.valueOf(5));
+		detector.update(BitsModbusMessage.readCoilsResponse(1, 100, 70, bits));
+
+		// WHEN
+		int[] same = detector.update(BitsModbusMessage.readCoilsResponse(1, 100, 70, bits));
+		int[] changed = detector.update(
+				BitsModbusMessage.readCoilsResponse(1, 100, 70, BigInteger.valueOf(5)));
+
+		// THEN
+		assertThat("No addresses changed when bits same", same, is(equalTo(new int[0])));
+		assertThat("Changed bit in second word returned", changed, is(equalTo(new int[] { 169 })));
+	}
+
+	@Test
+	public void update_bits_short() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Coil, 0, 16));
+
+		// THEN
+		assertThrows(IllegalArgumentException.class, () -> {
+			detector.update(BitsModbusMessage.readCoilsResponse(1, 0, 8, BigInteger.ONE));
+		}, "Fewer bits than the range not accepted");
+	}
+
+	@Test
+	public void update_unchanged_doesNotAllocate() {
+		// GIVEN
+		ModbusChangeDetector registers = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 0, 8));
+		registers.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0,
+				ModbusPointType.Int32, 1));
+		RegistersModbusMessage regs = holdings(0, (short) 1, (short) 2, (short) 3, (short) 4,
+				(short) 5, (short) 6, (short) 7, (short) 8);
+		registers.update(regs);
+		ModbusChangeDetector coils = new ModbusChangeDetector(range(ModbusBlockType.Coil, 0, 100));
+		BitsModbusMessage bits = BitsModbusMessage.readCoilsResponse(1, 0, 100,
+				new BigInteger("1234567890abcdef1234567890", 16));
+		coils.update(bits);
+
+		// WHEN
+		long bytes = threadAllocatedBytes(() -> {
+			registers.update(regs);
+			coils.update(bits);
+		}, 10_000);
+
+		// THEN
+		assumeTrue(bytes >= 0, "Thread allocation measurement supported");
+		assertThat("Unchanged reads do not allocate", bytes, is(lessThan(4096L)));
+	}
+
+	@Test
+	public void update_wrongType() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(range(ModbusBlockType.Coil, 0, 8));
+
+		// THEN
+		assertThrows(IllegalArgumentException.class, () -> {
+			detector.update(holdings(0, (short) 1));
+		}, "Register data not accepted for bit range");
+	}
+
+	@Test
+	public void update_absoluteDeadband() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 0, 3));
+		detector.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0,
+				ModbusPointType.UInt16, 5));
+		detector.update(holdings(0, (short) 100, (short) 0, (short) 0));
+
+		// WHEN
+		int[] within = detector.update(holdings(0, (short) 104, (short) 0, (short) 0));
+		int[] drift = detector.update(holdings(0, (short) 106, (short) 0, (short) 1));
+
+		// THEN
+		assertThat("Change within deadband suppressed", within, is(equalTo(new int[0])));
+		assertThat("Drift past deadband from reported value reported", drift,
+				is(equalTo(new int[] { 0, 2 })));
+	}
+
+	@Test
+	public void update_percentDeadband() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 0, 2));
+		detector.addPoint(ModbusDeadbandPoint.percent(ModbusBlockType.Holding, 0,
+				ModbusPointType.UInt32, 10));
+		detector.update(holdings(0, (short) 0, (short) 1000));
+
+		// WHEN
+		int[] within = detector.update(holdings(0, (short) 0, (short) 1099));
+		int[] beyond = detector.update(holdings(0, (short) 0, (short) 1101));
+
+		// THEN
+		assertThat("Change within percent deadband suppressed", within, is(equalTo(new int[0])));
+		assertThat("Change past percent deadband reports changed register", beyond,
+				is(equalTo(new int[] { 1 })));
+	}
+
+	@Test
+	public void addPoint_invalid() {
+		// GIVEN
+		ModbusChangeDetector detector = new ModbusChangeDetector(
+				range(ModbusBlockType.Holding, 0, 4));
+		detector.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0,
+				ModbusPointType.Int32, 1));
+
+		// THEN
+		assertThrows(IllegalArgumentException.class, () -> {
+			detector.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 3,
+					ModbusPointType.Int32, 1));
+		}, "Point extending past range not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			detector.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Input, 2,
+					ModbusPointType.Int16, 1));
+		}, "Point of different block type not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			detector.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 1,
+					ModbusPointType.Int16, 1));
+		}, "Overlapping point not allowed");
+	}
+
+}
@@ -0,0 +1,100 @@
+/* ==================================================================
+ * ModbusDeadbandPointTests.java - 17/10/2026 11:47:03 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.netty.poll.ModbusDeadbandPoint;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPointType;
+
+/**
+ * Test cases for the {@link ModbusDeadbandPoint} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusDeadbandPointTests {
+
+	@Test
+	public void construct_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			ModbusDeadbandPoint.absolute(ModbusBlockType.Coil, 0, ModbusPointType.Int16, 1);
+		}, "Bit block type not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0, null, 1);
+		}, "Null type not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0, ModbusPointType.Int16, -1);
+		}, "Negative deadband not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 65535, ModbusPointType.Int32,
+					1);
+		}, "Point past end of address space not allowed");
+	}
+
+	@Test
+	public void exceeds_absolute() {
+		// GIVEN
+		ModbusDeadbandPoint p = ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 0,
+				ModbusPointType.Float32, 0.5);
+
+		// THEN
+		assertThat("Within deadband", p.exceeds(10.0, 10.5), is(equalTo(false)));
+		assertThat("Beyond deadband", p.exceeds(10.0, 9.4), is(equalTo(true)));
+		assertThat("NaN change always exceeds", p.exceeds(10.0, Double.NaN), is(equalTo(true)));
+	}
+
+	@Test
+	public void exceeds_percent() {
+		// GIVEN
+		ModbusDeadbandPoint p = ModbusDeadbandPoint.percent(ModbusBlockType.Input, 0,
+				ModbusPointType.Int16, 5);
+
+		// THEN
+		assertThat("Within deadband", p.exceeds(-200, -210), is(equalTo(false)));
+		assertThat("Beyond deadband", p.exceeds(-200, -211), is(equalTo(true)));
+		assertThat("Any change from zero exceeds", p.exceeds(0, 0.001), is(equalTo(true)));
+	}
+
+	@Test
+	public void decode() {
+		// GIVEN
+		short[] data = new short[] { (short) 0xFFFF, (short) 0xFFFE, 0x3F80, 0x0000 };
+
+		// THEN
+		assertThat("Int16", ModbusPointType.Int16.decode(data, 0), is(equalTo(-1.0)));
+		assertThat("UInt16", ModbusPointType.UInt16.decode(data, 0), is(equalTo(65535.0)));
+		assertThat("Int32", ModbusPointType.Int32.decode(data, 0), is(equalTo(-2.0)));
+		assertThat("UInt32", ModbusPointType.UInt32.decode(data, 0),
+				is(equalTo((double) 0xFFFFFFFEL)));
+		assertThat("Float32", ModbusPointType.Float32.decode(data, 2), is(equalTo(1.0)));
+		assertThat("Int64", ModbusPointType.Int64.decode(new short[] { 0, 0, 1, 0 }, 0),
+				is(equalTo(65536.0)));
+	}
+
+}
@@ -0,0 +1,399 @@
+/* ==================================================================
+ * ModbusPollSchedulerTests.java - 17/10/2026 10:47:05 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPoll;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPollListener;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPollScheduler;
+import net.solarnetwork.io.modbus.netty.poll.OverrunPolicy;
+import net.solarnetwork.io.modbus.netty.test.support.ManualTimer;
+import net.solarnetwork.io.modbus.netty.test.support.ManualTimer.ManualTimeout;
+
+/**
+ * Test cases for the {@link ModbusPollScheduler} class.
+ *
+ * @author matt
+ * @version 1.1
+ */
+public class ModbusPollSchedulerTests {
+
+	private ManualTimer timer;
+	private ModbusPollScheduler scheduler;
+	private List<CompletableFuture<Void>> iterations;
+
+	@BeforeEach
+	public void setup() {
+		timer = new ManualTimer();
+		scheduler = new ModbusPollScheduler(timer);
+		iterations = new ArrayList<>();
+	}
+
+	private CompletableFuture<?> pendingIteration() {
+		CompletableFuture<Void> f = new CompletableFuture<>();
+		iterations.add(f);
+		return f;
+	}
+
+	@Test
+	public void construct_nullTimer() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusPollScheduler(null);
+		}, "Null timer not allowed");
+	}
+
+	@Test
+	public void lateThreshold() {
+		// THEN
+		assertThat("Default late threshold", scheduler.getLateThresholdMs(),
+				is(equalTo(ModbusPollScheduler.DEFAULT_LATE_THRESHOLD_MS)));
+
+		// WHEN
+		scheduler.setLateThresholdMs(250);
+
+		// THEN
+		assertThat("Late threshold set", scheduler.getLateThresholdMs(), is(equalTo(250L)));
+	}
+
+	@Test
+	public void schedule_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.schedule(null, 1, TimeUnit.SECONDS);
+		}, "Null task not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.schedule(() -> null, 0, TimeUnit.SECONDS);
+		}, "Interval must be positive");
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.schedule(() -> null, 1, null);
+		}, "Null unit not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.schedule(() -> null, 1, TimeUnit.SECONDS, null);
+		}, "Null overrun policy not allowed");
+	}
+
+	@Test
+	public void schedule_phaseSpreading() {
+		// GIVEN
+		final int count = 20;
+		final long interval = TimeUnit.SECONDS.toNanos(1);
+
+		// WHEN
+		for ( int i = 0; i < count; i++ ) {
+			scheduler.schedule(() -> null, 1, TimeUnit.SECONDS);
+		}
+
+		// THEN
+		List<Long> delays = new ArrayList<>();
+		for ( ManualTimeout t : timer.getTimeouts() ) {
+			assertThat("Start delay within interval", t.getDelayNanos(), is(lessThan(interval)));
+			delays.add(t.getDelayNanos());
+		}
+		assertThat("One timeout per poll", delays, hasSize(count));
+		Collections.sort(delays);
+		for ( int i = 1; i < count; i++ ) {
+			assertThat("Start phases evenly spread", delays.get(i) - delays.get(i - 1),
+					is(lessThan(interval / (count / 2))));
+		}
+		assertThat("Poll count", scheduler.getPollCount(), is(equalTo(count)));
+	}
+
+	@Test
+	public void schedule_noPhaseSpreading() {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+
+		// WHEN
+		scheduler.schedule(() -> null, 1, TimeUnit.SECONDS);
+		scheduler.schedule(() -> null, 1, TimeUnit.SECONDS);
+
+		// THEN
+		for ( ManualTimeout t : timer.getTimeouts() ) {
+			assertThat("Poll starts immediately", t.getDelayNanos(), is(equalTo(0L)));
+		}
+	}
+
+	@Test
+	public void run_fixedRate() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.schedule(() -> null, 1, TimeUnit.HOURS);
+
+		// WHEN
+		timer.fire(poll);
+
+		// THEN
+		assertThat("Iteration run", poll.getRunCount(), is(equalTo(1L)));
+		List<ManualTimeout> timeouts = timer.getTimeouts();
+		assertThat("Next iteration scheduled", timeouts, hasSize(2));
+		assertThat("Next iteration one interval after scheduled start",
+				timeouts.get(1).getDelayNanos(), is(greaterThan(TimeUnit.MINUTES.toNanos(59))));
+	}
+
+	@Test
+	public void run_overrun_skip() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.schedule(this::pendingIteration, 1, TimeUnit.SECONDS);
+
+		// WHEN
+		timer.fire(poll);
+		timer.fire(poll);
+		timer.fire(poll);
+
+		// THEN
+		assertThat("First iteration in flight", poll.isInFlight(), is(equalTo(true)));
+		assertThat("One iteration run", poll.getRunCount(), is(equalTo(1L)));
+		assertThat("Overrunning iterations skipped", poll.getSkipCount(), is(equalTo(2L)));
+
+		// WHEN
+		iterations.get(0).complete(null);
+
+		// THEN
+		assertThat("Nothing in flight", poll.isInFlight(), is(equalTo(false)));
+		assertThat("Skipped iterations not run", poll.getRunCount(), is(equalTo(1L)));
+
+		// WHEN
+		timer.fire(poll);
+
+		// THEN
+		assertThat("Next iteration run", poll.getRunCount(), is(equalTo(2L)));
+	}
+
+	@Test
+	public void run_overrun_coalesce() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.schedule(this::pendingIteration, 1, TimeUnit.SECONDS,
+				OverrunPolicy.Coalesce);
+
+		// WHEN
+		timer.fire(poll);
+		timer.fire(poll);
+		timer.fire(poll);
+
+		// THEN
+		assertThat("One iteration run", poll.getRunCount(), is(equalTo(1L)));
+		assertThat("Overrunning iterations after the first coalesced skipped",
+				poll.getSkipCount(), is(equalTo(1L)));
+
+		// WHEN
+		iterations.get(0).complete(null);
+
+		// THEN
+		assertThat("Coalesced iteration run on completion", poll.getRunCount(), is(equalTo(2L)));
+		assertThat("Coalesced iteration in flight", poll.isInFlight(), is(equalTo(true)));
+
+		// WHEN
+		iterations.get(1).complete(null);
+
+		// THEN
+		assertThat("Nothing more to run", poll.getRunCount(), is(equalTo(2L)));
+		assertThat("Nothing in flight", poll.isInFlight(), is(equalTo(false)));
+	}
+
+	@Test
+	public void run_late() throws Exception {
+		// GIVEN
+		final List<Long> late = new ArrayList<>();
+		final List<Throwable> failed = new ArrayList<>();
+		scheduler.setPhaseSpreading(false);
+		scheduler.setLateThresholdMs(1);
+		scheduler.setListener(new ModbusPollListener() {
+
+			@Override
+			public void pollLate(ModbusPoll poll, long latenessNanos) {
+				late.add(latenessNanos);
+			}
+
+			@Override
+			public void pollFailed(ModbusPoll poll, Throwable cause) {
+				failed.add(cause);
+			}
+
+		});
+		ModbusPoll poll = scheduler.schedule(() -> {
+			throw new RuntimeException("Test");
+		}, 1, TimeUnit.SECONDS);
+
+		// WHEN
+		Thread.sleep(20);
+		timer.fire(poll);
+
+		// THEN
+		assertThat("Late iteration reported", late, hasSize(1));
+		assertThat("Lateness reported", late.get(0),
+				is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20))));
+		assertThat("Late count", poll.getLateCount(), is(equalTo(1L)));
+		assertThat("Max lateness", poll.getMaxLatenessNanos(), is(equalTo(late.get(0))));
+		assertThat("Task exception reported as failure", failed, hasSize(1));
+		assertThat("Failed iteration not in flight", poll.isInFlight(), is(equalTo(false)));
+	}
+
+	@Test
+	public void cancel() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.schedule(() -> null, 1, TimeUnit.SECONDS);
+
+		// WHEN
+		poll.cancel();
+
+		// THEN
+		assertThat("Cancelled", poll.isCancelled(), is(equalTo(true)));
+		assertThat("Poll removed", scheduler.getPollCount(), is(equalTo(0)));
+		assertThat("Timeout cancelled", timer.fire(poll), is(equalTo(0)));
+		assertThat("Not run", poll.getRunCount(), is(equalTo(0L)));
+	}
+
+	@Test
+	public void scheduleAdaptive_invalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.scheduleAdaptive(null, 1, 2, TimeUnit.SECONDS);
+		}, "Null task not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			scheduler.scheduleAdaptive(() -> null, 2, 1, TimeUnit.SECONDS);
+		}, "Max interval less than min not allowed");
+	}
+
+	@Test
+	public void scheduleAdaptive_backOffAndTighten() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		final AtomicBoolean changed = new AtomicBoolean();
+		ModbusPoll poll = scheduler.scheduleAdaptive(
+				() -> CompletableFuture.completedFuture(changed.get()), 1, 60, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Poll starts at min interval", poll.getInterval(TimeUnit.SECONDS),
+				is(equalTo(1L)));
+		assertThat("Poll available to report interval", scheduler.getPolls(), contains(poll));
+
+		// WHEN
+		for ( int i = 0; i < 30; i++ ) {
+			timer.fire(poll);
+		}
+
+		// THEN
+		assertThat("Static data backs off to max interval", poll.getInterval(TimeUnit.SECONDS),
+				is(equalTo(60L)));
+
+		// WHEN
+		changed.set(true);
+		timer.fire(poll);
+
+		// THEN
+		assertThat("Changed data tightens interval", poll.getInterval(TimeUnit.SECONDS),
+				is(equalTo(30L)));
+		List<ManualTimeout> timeouts = timer.getTimeouts();
+		assertThat("Iteration scheduled at old interval cancelled",
+				timeouts.get(timeouts.size() - 2).isCancelled(), is(equalTo(true)));
+		// the manual timer does not advance the clock, so compare to the cancelled iteration
+		assertThat("Next iteration brought forward by the interval change",
+				timeouts.get(timeouts.size() - 1).getDelayNanos(),
+				is(lessThanOrEqualTo(timeouts.get(timeouts.size() - 2).getDelayNanos()
+						- TimeUnit.SECONDS.toNanos(30))));
+	}
+
+	@Test
+	public void scheduleAdaptive_failureNotCounted() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.scheduleAdaptive(() -> {
+			throw new RuntimeException("Test");
+		}, 1, 60, TimeUnit.SECONDS);
+
+		// WHEN
+		for ( int i = 0; i < 30; i++ ) {
+			timer.fire(poll);
+		}
+
+		// THEN
+		assertThat("Failed iterations do not back off", poll.getInterval(TimeUnit.SECONDS),
+				is(equalTo(1L)));
+	}
+
+	@Test
+	public void setInterval() throws Exception {
+		// GIVEN
+		scheduler.setPhaseSpreading(false);
+		ModbusPoll poll = scheduler.schedule(() -> null, 1, TimeUnit.HOURS);
+		timer.fire(poll);
+
+		// WHEN
+		poll.setInterval(1, TimeUnit.MINUTES);
+
+		// THEN
+		List<ManualTimeout> timeouts = timer.getTimeouts();
+		assertThat("Iteration rescheduled", timeouts, hasSize(3));
+		assertThat("Next iteration brought forward to new interval",
+				timeouts.get(2).getDelayNanos(), is(lessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1))));
+
+		// WHEN
+		poll.setInterval(2, TimeUnit.MINUTES);
+
+		// THEN
+		assertThat("Longer interval does not reschedule", timer.getTimeouts(), hasSize(3));
+		assertThat("Interval changed", poll.getInterval(TimeUnit.MINUTES), is(equalTo(2L)));
+	}
+
+	@Test
+	public void realTimer() throws Exception {
+		// GIVEN
+		ModbusPollScheduler s = new ModbusPollScheduler();
+		final CountDownLatch latch = new CountDownLatch(3);
+		try {
+			// WHEN
+			ModbusPoll poll = s.schedule(() -> {
+				latch.countDown();
+				return null;
+			}, 20, TimeUnit.MILLISECONDS);
+
+			// THEN
+			assertThat("Poll iterations run", latch.await(5, TimeUnit.SECONDS), is(equalTo(true)));
+			assertThat("Run count", poll.getRunCount(), is(greaterThanOrEqualTo(3L)));
+		} finally {
+			s.shutdown();
+		}
+		assertThat("Polls cancelled on shutdown", s.getPollCount(), is(equalTo(0)));
+	}
+
+}
@@ -0,0 +1,176 @@
+/* ==================================================================
+ * ModbusSubscriptionTests.java - 17/10/2026 11:52:38 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.poll.test;
+
+import static java.util.Arrays.asList;
+import static net.solarnetwork.io.modbus.netty.block.ModbusBlockRange.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusBlockType;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.netty.block.ModbusBlockRange;
+import net.solarnetwork.io.modbus.netty.block.ModbusReadPlanner;
+import net.solarnetwork.io.modbus.netty.poll.ModbusDeadbandPoint;
+import net.solarnetwork.io.modbus.netty.poll.ModbusPointType;
+import net.solarnetwork.io.modbus.netty.poll.ModbusSubscription;
+import net.solarnetwork.io.modbus.netty.test.support.SimulatedModbusClient;
+
+/**
+ * Test cases for the {@link ModbusSubscription} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ModbusSubscriptionTests {
+
+	private static final ModbusBlockRange HOLDINGS = range(ModbusBlockType.Holding, 0, 10);
+	private static final ModbusBlockRange COILS = range(ModbusBlockType.Coil, 0, 16);
+
+	private SimulatedModbusClient client;
+	private ModbusSubscription sub;
+	private List<Object[]> changes;
+
+	@BeforeEach
+	public void setup() {
+		client = new SimulatedModbusClient();
+		sub = new ModbusSubscription(client,
+				new ModbusReadPlanner().plan(1, asList(HOLDINGS, COILS)));
+		changes = new ArrayList<>();
+		sub.addListener((range, msg, addresses) -> {
+			changes.add(new Object[] { range, addresses });
+		});
+	}
+
+	private void poll() throws Exception {
+		sub.poll().get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void construct_null() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusSubscription(null, new ModbusReadPlanner().plan(1, asList(HOLDINGS)));
+		}, "Null client not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ModbusSubscription(client, null);
+		}, "Null plan not allowed");
+	}
+
+	@Test
+	public void poll_firstReportsAll() throws Exception {
+		// WHEN
+		poll();
+
+		// THEN
+		assertThat("Listener called for each range", changes, hasSize(2));
+		assertThat("Holding range", changes.get(0)[0], is(equalTo(HOLDINGS)));
+		assertThat("All holding addresses", ((int[]) changes.get(0)[1]).length, is(equalTo(10)));
+		assertThat("Coil range", changes.get(1)[0], is(equalTo(COILS)));
+		assertThat("All coil addresses", ((int[]) changes.get(1)[1]).length, is(equalTo(16)));
+	}
+
+	@Test
+	public void poll_onlyChanges() throws Exception {
+		// GIVEN
+		poll();
+		changes.clear();
+
+		// WHEN
+		poll();
+
+		// THEN
+		assertThat("No listener calls without changes", changes, hasSize(0));
+
+		// WHEN
+		client.getHoldings()[3] = (short) 333;
+		client.getCoils()[15] = false;
+		poll();
+
+		// THEN
+		assertThat("Listener called for changed ranges", changes, hasSize(2));
+		assertThat("Changed holding address", (int[]) changes.get(0)[1],
+				is(equalTo(new int[] { 3 })));
+		assertThat("Changed coil address", (int[]) changes.get(1)[1],
+				is(equalTo(new int[] { 15 })));
+	}
+
+	@Test
+	public void poll_deadband() throws Exception {
+		// GIVEN
+		sub.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 4,
+				ModbusPointType.UInt16, 10));
+		poll();
+		changes.clear();
+
+		// WHEN
+		client.getHoldings()[4] += 10;
+		poll();
+
+		// THEN
+		assertThat("Change within deadband not reported", changes, hasSize(0));
+
+		// WHEN
+		client.getHoldings()[4] += 1;
+		poll();
+
+		// THEN
+		assertThat("Change past deadband reported", changes, hasSize(1));
+		assertThat("Changed point address", (int[]) changes.get(0)[1],
+				is(equalTo(new int[] { 4 })));
+	}
+
+	@Test
+	public void addPoint_outsideRanges() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			sub.addPoint(ModbusDeadbandPoint.absolute(ModbusBlockType.Holding, 9,
+					ModbusPointType.Int32, 1));
+		}, "Point not within subscribed range not allowed");
+	}
+
+	@Test
+	public void poll_partialFailure() throws Exception {
+		// GIVEN
+		client.setFailPredicate(msg -> msg.getFunction().blockType() == ModbusBlockType.Coil);
+
+		// WHEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			poll();
+		}, "Iteration fails when a range fails");
+
+		// THEN
+		assertThat("Failure provided", e.getCause(), is(instanceOf(ModbusException.class)));
+		assertThat("Successful range still reported", changes, hasSize(1));
+		assertThat("Holding range reported", changes.get(0)[0], is(equalTo(HOLDINGS)));
+	}
+
+}
@@ -0,0 +1,164 @@
+/* ==================================================================
+ * ManualTimer.java - 17/10/2026 10:38:16 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.test.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+
+/**
+ * A {@link Timer} whose timeouts only run when a test fires them.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ManualTimer implements Timer {
+
+	private final List<ManualTimeout> timeouts = new ArrayList<>();
+
+	/**
+	 * A timeout created by a {@link ManualTimer}.
+	 */
+	public final class ManualTimeout implements Timeout {
+
+		private final TimerTask task;
+		private final long delayNanos;
+		private boolean expired;
+		private boolean cancelled;
+
+		private ManualTimeout(TimerTask task, long delayNanos) {
+			super();
+			this.task = task;
+			this.delayNanos = delayNanos;
+		}
+
+		@Override
+		public Timer timer() {
+			return ManualTimer.this;
+		}
+
+		@Override
+		public TimerTask task() {
+			return task;
+		}
+
+		@Override
+		public boolean isExpired() {
+			return expired;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean cancel() {
+			if ( expired || cancelled ) {
+				return false;
+			}
+			cancelled = true;
+			return true;
+		}
+
+		/**
+		 * Get the delay the timeout was scheduled with.
+		 *
+		 * @return the delay, in nanoseconds
+		 */
+		public long getDelayNanos() {
+			return delayNanos;
+		}
+
+		/**
+		 * Run the task, if not cancelled.
+		 *
+		 * @throws Exception
+		 *         if the task throws an exception
+		 */
+		public void fire() throws Exception {
+			if ( expired || cancelled ) {
+				return;
+			}
+			expired = true;
+			task.run(this);
+		}
+
+	}
+
+	@Override
+	public synchronized Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+		ManualTimeout t = new ManualTimeout(task, unit.toNanos(delay));
+		timeouts.add(t);
+		return t;
+	}
+
+	@Override
+	public synchronized Set<Timeout> stop() {
+		Set<Timeout> result = new HashSet<>();
+		for ( ManualTimeout t : timeouts ) {
+			if ( !t.isExpired() && !t.isCancelled() ) {
+				result.add(t);
+			}
+		}
+		timeouts.clear();
+		return result;
+	}
+
+	/**
+	 * Get all timeouts created so far.
+	 *
+	 * @return the timeouts, in creation order
+	 */
+	public synchronized List<ManualTimeout> getTimeouts() {
+		return Collections.unmodifiableList(new ArrayList<>(timeouts));
+	}
+
+	/**
+	 * Fire all pending timeouts created for a task.
+	 *
+	 * @param task
+	 *        the task
+	 * @return the number of timeouts fired
+	 * @throws Exception
+	 *         if the task throws an exception
+	 */
+	public int fire(TimerTask task) throws Exception {
+		int count = 0;
+		for ( ManualTimeout t : getTimeouts() ) {
+			if ( t.task() == task && !t.isExpired() && !t.isCancelled() ) {
+				t.fire();
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
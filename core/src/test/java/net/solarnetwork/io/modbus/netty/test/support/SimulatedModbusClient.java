@@ -0,0 +1,323 @@
+/* ==================================================================
+ * SimulatedModbusClient.java - 17/10/2026 9:18:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.netty.test.support;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import net.solarnetwork.io.modbus.AddressedModbusMessage;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusErrorCode;
+import net.solarnetwork.io.modbus.ModbusFunctionCode;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BaseModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.BitsModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ModbusMessageUtils;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+
+/**
+ * A {@link ModbusClient} that responds to requests from an in-memory device.
+ *
+ * <p>
+ * Each register is initialised to its own address, and each coil and discrete
+ * input is set when its address is odd. All requests are recorded.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SimulatedModbusClient implements ModbusClient {
+
+	private final short[] holdings = new short[0x10000];
+	private final short[] inputs = new short[0x10000];
+	private final boolean[] coils = new boolean[0x10000];
+	private final List<ModbusMessage> requests = new ArrayList<>();
+	private final List<ByteBuf> responseBuffers = new ArrayList<>();
+	private Predicate<ModbusMessage> failPredicate;
+	private boolean retainResponseBuffers;
+
+	/**
+	 * Constructor.
+	 */
+	public SimulatedModbusClient() {
+		super();
+		for ( int i = 0; i < holdings.length; i++ ) {
+			holdings[i] = (short) i;
+			inputs[i] = (short) i;
+			coils[i] = ((i & 1) == 1);
+		}
+	}
+
+	@Override
+	public ModbusClientConfig getClientConfig() {
+		return null;
+	}
+
+	@Override
+	public CompletableFuture<?> start() {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	@Override
+	public boolean isStarted() {
+		return true;
+	}
+
+	@Override
+	public CompletableFuture<?> stop() {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	@Override
+	public boolean isConnected() {
+		return true;
+	}
+
+	@Override
+	public ModbusMessage send(ModbusMessage request) {
+		return sendAsync(request).join();
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+		synchronized ( requests ) {
+			requests.add(request);
+		}
+		final Predicate<ModbusMessage> fail = this.failPredicate;
+		if ( fail != null && fail.test(request) ) {
+			return CompletableFuture.completedFuture(new BaseModbusMessage(request.getUnitId(),
+					request.getFunction(), ModbusErrorCode.IllegalDataAddress));
+		}
+		return CompletableFuture.completedFuture(retainData(respond(request)));
+	}
+
+	@Override
+	public void releaseResponse(ModbusMessage response) {
+		ModbusMessageUtils.release(response);
+	}
+
+	private ModbusMessage retainData(ModbusMessage res) {
+		if ( !retainResponseBuffers || res.isException() ) {
+			return res;
+		}
+		final ModbusFunctionCode fn = res.getFunction().functionCode();
+		if ( fn != ModbusFunctionCode.ReadHoldingRegisters
+				&& fn != ModbusFunctionCode.ReadInputRegisters ) {
+			return res;
+		}
+		final byte[] data = res.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class)
+				.dataCopy();
+		final ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(data.length).writeBytes(data);
+		synchronized ( responseBuffers ) {
+			responseBuffers.add(buf);
+		}
+		return new ByteBufRegistersModbusMessage(res.getUnitId(), fn,
+				res.unwrap(AddressedModbusMessage.class).getAddress(), buf);
+	}
+
+	/**
+	 * Generate the response to a request.
+	 *
+	 * @param request
+	 *        the request
+	 * @return the response
+	 */
+	protected ModbusMessage respond(ModbusMessage request) {
+		final AddressedModbusMessage a = request.unwrap(AddressedModbusMessage.class);
+		final int unitId = request.getUnitId();
+		final ModbusFunctionCode fn = request.getFunction().functionCode();
+		if ( fn == null ) {
+			return new BaseModbusMessage(unitId, request.getFunction(),
+					ModbusErrorCode.IllegalFunction);
+		}
+		switch (fn) {
+			case ReadCoils:
+				return BitsModbusMessage.readCoilsResponse(unitId, a.getAddress(), a.getCount(),
+						bits(coils, a.getAddress(), a.getCount()));
+
+			case ReadDiscreteInputs:
+				return BitsModbusMessage.readDiscretesResponse(unitId, a.getAddress(),
+						a.getCount(), oddBits(a.getAddress(), a.getCount()));
+
+			case ReadHoldingRegisters:
+				return RegistersModbusMessage.readHoldingsResponse(unitId, a.getAddress(),
+						copy(holdings, a.getAddress(), a.getCount()));
+
+			case ReadInputRegisters:
+				return RegistersModbusMessage.readInputsResponse(unitId, a.getAddress(),
+						copy(inputs, a.getAddress(), a.getCount()));
+
+			case WriteHoldingRegisters: {
+				short[] values = request.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class)
+						.dataDecode();
+				synchronized ( holdings ) {
+					System.arraycopy(values, 0, holdings, a.getAddress(), a.getCount());
+				}
+				return RegistersModbusMessage.writeHoldingsResponse(unitId, a.getAddress(),
+						a.getCount());
+			}
+
+			case WriteCoils: {
+				BigInteger bits = request.unwrap(net.solarnetwork.io.modbus.BitsModbusMessage.class)
+						.getBits();
+				synchronized ( coils ) {
+					for ( int i = 0; i < a.getCount(); i++ ) {
+						coils[a.getAddress() + i] = bits.testBit(i);
+					}
+				}
+				return BitsModbusMessage.writeCoilsResponse(unitId, a.getAddress(), a.getCount());
+			}
+
+			default:
+				return new BaseModbusMessage(unitId, request.getFunction(),
+						ModbusErrorCode.IllegalFunction);
+		}
+	}
+
+	private static BigInteger bits(boolean[] src, int address, int count) {
+		BigInteger result = BigInteger.ZERO;
+		for ( int i = 0; i < count; i++ ) {
+			if ( src[address + i] ) {
+				result = result.setBit(i);
+			}
+		}
+		return result;
+	}
+
+	private static short[] copy(short[] src, int address, int count) {
+		short[] result = new short[count];
+		System.arraycopy(src, address, result, 0, count);
+		return result;
+	}
+
+	/**
+	 * Get the bits of a range where every odd address is set.
+	 *
+	 * @param address
+	 *        the starting address
+	 * @param count
+	 *        the number of bits
+	 * @return the bits
+	 */
+	public static BigInteger oddBits(int address, int count) {
+		BigInteger result = BigInteger.ZERO;
+		for ( int i = 0; i < count; i++ ) {
+			if ( ((address + i) & 1) == 1 ) {
+				result = result.setBit(i);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void setConnectionObserver(ModbusClientConnectionObserver connectionObserver) {
+		// not used
+	}
+
+	/**
+	 * Get the holding registers.
+	 *
+	 * @return the registers, which can be modified
+	 */
+	public short[] getHoldings() {
+		return holdings;
+	}
+
+	/**
+	 * Get the coils.
+	 *
+	 * @return the coils, which can be modified
+	 */
+	public boolean[] getCoils() {
+		return coils;
+	}
+
+	/**
+	 * Get the input registers.
+	 *
+	 * @return the registers, which can be modified
+	 */
+	public short[] getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * Get a copy of the recorded requests.
+	 *
+	 * @return the requests
+	 */
+	public List<ModbusMessage> getRequests() {
+		synchronized ( requests ) {
+			return new ArrayList<>(requests);
+		}
+	}
+
+	/**
+	 * Set a predicate for requests that should receive an error response.
+	 *
+	 * @param failPredicate
+	 *        the predicate, or {@literal null}
+	 */
+	public void setFailPredicate(Predicate<ModbusMessage> failPredicate) {
+		this.failPredicate = failPredicate;
+	}
+
+	/**
+	 * Set the retain response buffers mode.
+	 *
+	 * <p>
+	 * When enabled, register read responses are
+	 * {@link ByteBufRegistersModbusMessage} instances that must be released,
+	 * like those of a client with
+	 * {@link ModbusClientConfig#isRetainResponseBuffers()} enabled.
+	 * </p>
+	 *
+	 * @param retainResponseBuffers
+	 *        {@literal true} to return register data in reference-counted
+	 *        buffers
+	 */
+	public void setRetainResponseBuffers(boolean retainResponseBuffers) {
+		this.retainResponseBuffers = retainResponseBuffers;
+	}
+
+	/**
+	 * Get a copy of the buffers of all responses returned in retain response
+	 * buffers mode.
+	 *
+	 * @return the buffers
+	 */
+	public List<ByteBuf> getResponseBuffers() {
+		synchronized ( responseBuffers ) {
+			return new ArrayList<>(responseBuffers);
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/* ==================================================================
+ * RtuCrcBenchmark.java - 18/10/2026 3:26:40 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.rtu.netty.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.solarnetwork.io.modbus.ModbusByteUtils;
+import net.solarnetwork.io.modbus.rtu.netty.RtuCrc;
+
+/**
+ * Compare the cost of computing a Modbus RTU CRC with
+ * {@link ModbusByteUtils#computeCrc(byte[], int, int)} versus {@link RtuCrc}.
+ *
+ * <p>
+ * The {@code copyAndTable} benchmark reproduces how a frame held in a direct
+ * {@link ByteBuf} used to be checked: copied into a new array and then run
+ * through the byte-at-a-time table method. The frame lengths cover a short
+ * request, a typical register read response, and the maximum RTU frame.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RtuCrcBenchmark {
+
+	/** The frame length. */
+	@Param({ "6", "37", "254" })
+	public int length;
+
+	private byte[] data;
+	private ByteBuf direct;
+
+	/**
+	 * Set up the benchmark state.
+	 */
+	@Setup
+	public void setup() {
+		data = new byte[length];
+		new Random(length).nextBytes(data);
+		direct = Unpooled.directBuffer(length).writeBytes(data);
+	}
+
+	/**
+	 * Tear down the benchmark state.
+	 */
+	@TearDown
+	public void teardown() {
+		direct.release();
+	}
+
+	/**
+	 * Compute over an array, with the byte-at-a-time table method.
+	 *
+	 * @return the CRC
+	 */
+	@Benchmark
+	public short tableArray() {
+		return ModbusByteUtils.computeCrc(data, 0, length);
+	}
+
+	/**
+	 * Compute over an array, with the slice-by-8 method.
+	 *
+	 * @return the CRC
+	 */
+	@Benchmark
+	public short sliceBy8Array() {
+		return RtuCrc.compute(data, 0, length);
+	}
+
+	/**
+	 * Copy a direct buffer into an array, then compute with the
+	 * byte-at-a-time table method.
+	 *
+	 * @return the CRC
+	 */
+	@Benchmark
+	public short copyAndTable() {
+		byte[] copy = new byte[length];
+		direct.getBytes(0, copy);
+		return ModbusByteUtils.computeCrc(copy, 0, length);
+	}
+
+	/**
+	 * Compute directly over a direct buffer, with the slice-by-8 method.
+	 *
+	 * @return the CRC
+	 */
+	@Benchmark
+	public short sliceBy8DirectBuffer() {
+		return RtuCrc.compute(direct, 0, length);
+	}
+
+}
@@ -36,10 +36,12 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.logging.LoggingHandler;
 import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
 import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
 import net.solarnetwork.io.modbus.netty.serial.SerialAddress;
 import net.solarnetwork.io.modbus.netty.serial.SerialPortChannel;
@@ -56,9 +58,16 @@ import net.solarnetwork.io.modbus.serial.SerialPortProvider;
  * provide a response {@link ModbusMessage}, which this server will then encode
  * and send back to the connected client.
  * </p>
+ * 
+ * <p>
+ * When {@link #setPooledMessages(boolean)} is enabled, the reply wrappers this
+ * server creates are obtained from a pool, and recycled once the reply has
+ * been encoded. Request messages are not pooled, as a serial line carries too
+ * few messages for their allocation to matter.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 
@@ -72,9 +81,12 @@ public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 	private BiConsumer<ModbusMessage, Consumer<ModbusMessage>> messageHandler;
 	private BiFunction<String, Boolean, Boolean> clientConnectionListener;
 	private boolean wireLogging;
+	private boolean pooledMessages;
 
 	private EventLoopGroup eventLoopGroup;
 	private Channel channel;
+	private ModbusRuntime runtime;
+	private ModbusRuntime retainedRuntime;
 
 	/**
 	 * Constructor.
@@ -157,34 +169,45 @@ public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 			return;
 		}
 		try {
-			if ( eventLoopGroup != null && eventLoopGroup.isShuttingDown() ) {
-				if ( privateEventLoopGroup ) {
-					eventLoopGroup = defaultEventLoopGroup();
-				} else {
-					throw new IOException("External EventLoopGroup is stopped.");
+			final ModbusRuntime runtime = this.runtime;
+			final EventLoopGroup group;
+			if ( runtime != null ) {
+				retainedRuntime = runtime.retain();
+				group = runtime.blockingEventLoopGroup();
+			} else {
+				if ( eventLoopGroup != null && eventLoopGroup.isShuttingDown() ) {
+					if ( privateEventLoopGroup ) {
+						eventLoopGroup = defaultEventLoopGroup();
+					} else {
+						throw new IOException("External EventLoopGroup is stopped.");
+					}
 				}
+				group = eventLoopGroup;
 			}
 			// @formatter:off
 			Bootstrap bootstrap = new Bootstrap()
-					.group(eventLoopGroup)
+					.group(group)
 					.channelFactory(this)
 					.remoteAddress(new SerialAddress(device))
 					.handler(new HandlerInitializer());
 			// @formatter:on
+			if ( runtime != null ) {
+				bootstrap.option(ChannelOption.ALLOCATOR, runtime.allocator());
+			}
 
 			Channel channel = bootstrap.connect().sync().channel();
 			channel.closeFuture().addListener(new ChannelFutureListener() {
 
 				@Override
 				public void operationComplete(ChannelFuture future) throws Exception {
-					final EventLoopGroup group = eventLoopGroup;
-					if ( group != null && privateEventLoopGroup ) {
+					if ( group != null && privateEventLoopGroup && runtime == null ) {
 						group.shutdownGracefully();
 					}
 				}
 			});
 			this.channel = channel;
 		} catch ( Exception e ) {
+			releaseRuntime();
 			String msg = String.format("Error starting Modbus server on port %s", device);
 			if ( e instanceof IOException ) {
 				log.warn("{}: {}", msg, e.getMessage());
@@ -229,6 +252,14 @@ public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 			channel.close().awaitUninterruptibly();
 			channel = null;
 		}
+		releaseRuntime();
+	}
+
+	private void releaseRuntime() {
+		if ( retainedRuntime != null ) {
+			retainedRuntime.release();
+			retainedRuntime = null;
+		}
 	}
 
 	/**
@@ -279,8 +310,11 @@ public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 			if ( h == null ) {
 				return;
 			}
+			final boolean pooled = pooledMessages;
 			h.accept(msg, (r) -> {
-				ctx.channel().writeAndFlush(new SimpleModbusMessageReply(msg, r));
+				// the encoder takes ownership of the reply
+				ctx.channel().writeAndFlush(pooled ? SimpleModbusMessageReply.newInstance(msg, r)
+						: new SimpleModbusMessageReply(msg, r));
 			});
 		}
 
@@ -389,4 +423,54 @@ public class NettyRtuModbusServer implements ChannelFactory<SerialPortChannel> {
 		this.wireLogging = wireLogging;
 	}
 
+	/**
+	 * Get the pooled messages mode.
+	 * 
+	 * @return {@literal true} to recycle reply wrappers through an object pool
+	 * @since 1.1
+	 */
+	public boolean isPooledMessages() {
+		return pooledMessages;
+	}
+
+	/**
+	 * Set the pooled messages mode.
+	 * 
+	 * @param pooledMessages
+	 *        {@literal true} to recycle reply wrappers through an object pool
+	 * @since 1.1
+	 */
+	public void setPooledMessages(boolean pooledMessages) {
+		this.pooledMessages = pooledMessages;
+	}
+
+	/**
+	 * Get the shared runtime.
+	 * 
+	 * @return the runtime, or {@literal null} if not using a shared runtime
+	 * @since 1.1
+	 */
+	public ModbusRuntime getRuntime() {
+		return runtime;
+	}
+
+	/**
+	 * Set a shared runtime to use.
+	 * 
+	 * <p>
+	 * If configured, the server will use the runtime's blocking event loop
+	 * group rather than the group provided to the constructor. The runtime is
+	 * retained when the server starts and released when the server stops.
+	 * Changing this value only takes effect the next time the server is
+	 * started.
+	 * </p>
+	 * 
+	 * @param runtime
+	 *        the runtime to use, or {@literal null} to not use a shared runtime
+	 * @since 1.1
+	 */
+	public synchronized void setRuntime(ModbusRuntime runtime) {
+		this.runtime = runtime;
+	}
+
 }
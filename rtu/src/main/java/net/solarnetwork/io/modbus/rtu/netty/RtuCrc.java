@@ -0,0 +1,285 @@
+/* ==================================================================
+ * RtuCrc.java - 18/10/2026 2:41:07 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.rtu.netty;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import io.netty.buffer.ByteBuf;
+import net.solarnetwork.io.modbus.ModbusByteUtils;
+
+/**
+ * Modbus RTU 16-bit cyclic redundancy check (CRC) computation.
+ *
+ * <p>
+ * This computes the same values as
+ * {@link ModbusByteUtils#computeCrc(byte[], int, int)}, but processes eight
+ * bytes per step using a "slice-by-8" table method, and works directly over
+ * {@link ByteBuf} and {@link ByteBuffer} ranges without copying them. The
+ * {@code update()} methods can be called incrementally, starting from
+ * {@link #INITIAL_VALUE}, to compute a CRC over discontiguous data:
+ * </p>
+ *
+ * <pre>{@code
+ * int crc = RtuCrc.update(RtuCrc.INITIAL_VALUE, unitId);
+ * crc = RtuCrc.update(crc, buf, start, len);
+ * short result = (short) crc;
+ * }</pre>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class RtuCrc {
+
+	/** The initial CRC value, to start an incremental computation with. */
+	public static final int INITIAL_VALUE = 0xFFFF;
+
+	/** The reflected Modbus CRC polynomial. */
+	private static final int POLYNOMIAL = 0xA001;
+
+	/** Eight 256-entry lookup tables, in one array. */
+	private static final int[] TABLE = new int[8 * 256];
+	static {
+		for ( int n = 0; n < 256; n++ ) {
+			int crc = n;
+			for ( int k = 0; k < 8; k++ ) {
+				crc = ((crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1);
+			}
+			TABLE[n] = crc;
+		}
+		for ( int n = 0; n < 256; n++ ) {
+			int crc = TABLE[n];
+			for ( int t = 1; t < 8; t++ ) {
+				crc = (crc >>> 8) ^ TABLE[crc & 0xFF];
+				TABLE[(t << 8) + n] = crc;
+			}
+		}
+	}
+
+	private RtuCrc() {
+		// not available
+	}
+
+	/**
+	 * Update a CRC value with eight bytes of data.
+	 *
+	 * @param crc
+	 *        the CRC value to update
+	 * @param v
+	 *        the data, in little-endian order (the first byte of data in the
+	 *        least significant bits)
+	 * @return the updated CRC value
+	 */
+	private static int update8(int crc, long v) {
+		final long x = v ^ crc;
+		// @formatter:off
+		return TABLE[0x700 + (int) (x & 0xFF)]
+				^ TABLE[0x600 + (int) ((x >>> 8) & 0xFF)]
+				^ TABLE[0x500 + (int) ((x >>> 16) & 0xFF)]
+				^ TABLE[0x400 + (int) ((x >>> 24) & 0xFF)]
+				^ TABLE[0x300 + (int) ((x >>> 32) & 0xFF)]
+				^ TABLE[0x200 + (int) ((x >>> 40) & 0xFF)]
+				^ TABLE[0x100 + (int) ((x >>> 48) & 0xFF)]
+				^ TABLE[(int) (x >>> 56)];
+		// @formatter:on
+	}
+
+	/**
+	 * Update a CRC value with one byte of data.
+	 *
+	 * @param crc
+	 *        the CRC value to update, or {@link #INITIAL_VALUE} to start a new
+	 *        computation
+	 * @param b
+	 *        the data to add; only the least significant 8 bits are used
+	 * @return the updated CRC value
+	 */
+	public static int update(int crc, int b) {
+		return (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+	}
+
+	/**
+	 * Update a CRC value with a range of bytes.
+	 *
+	 * @param crc
+	 *        the CRC value to update, or {@link #INITIAL_VALUE} to start a new
+	 *        computation
+	 * @param data
+	 *        the data to add
+	 * @param offset
+	 *        the index of the first byte to add
+	 * @param length
+	 *        the number of bytes to add
+	 * @return the updated CRC value
+	 * @throws IndexOutOfBoundsException
+	 *         if the range is not within {@code data}
+	 */
+	public static int update(int crc, byte[] data, int offset, int length) {
+		if ( offset < 0 || length < 0 || offset + length > data.length ) {
+			throw new IndexOutOfBoundsException(
+					String.format("Range %d-%d not within array of length %d.", offset,
+							offset + length, data.length));
+		}
+		int i = offset;
+		for ( final int end8 = offset + (length & ~7); i < end8; i += 8 ) {
+			// @formatter:off
+			final long v = (data[i] & 0xFFL)
+					| (data[i + 1] & 0xFFL) << 8
+					| (data[i + 2] & 0xFFL) << 16
+					| (data[i + 3] & 0xFFL) << 24
+					| (data[i + 4] & 0xFFL) << 32
+					| (data[i + 5] & 0xFFL) << 40
+					| (data[i + 6] & 0xFFL) << 48
+					| (data[i + 7] & 0xFFL) << 56;
+			// @formatter:on
+			crc = update8(crc, v);
+		}
+		for ( final int end = offset + length; i < end; i++ ) {
+			crc = update(crc, data[i]);
+		}
+		return crc;
+	}
+
+	/**
+	 * Update a CRC value with a range of bytes in a buffer.
+	 *
+	 * <p>
+	 * The reader and writer indexes of {@code buf} are not changed.
+	 * </p>
+	 *
+	 * @param crc
+	 *        the CRC value to update, or {@link #INITIAL_VALUE} to start a new
+	 *        computation
+	 * @param buf
+	 *        the data to add
+	 * @param index
+	 *        the index of the first byte to add
+	 * @param length
+	 *        the number of bytes to add
+	 * @return the updated CRC value
+	 * @throws IndexOutOfBoundsException
+	 *         if the range is not within the capacity of {@code buf}
+	 */
+	public static int update(int crc, ByteBuf buf, int index, int length) {
+		if ( index < 0 || length < 0 || index + length > buf.capacity() ) {
+			throw new IndexOutOfBoundsException(
+					String.format("Range %d-%d not within buffer of capacity %d.", index,
+							index + length, buf.capacity()));
+		}
+		if ( buf.hasArray() ) {
+			return update(crc, buf.array(), buf.arrayOffset() + index, length);
+		}
+		int i = index;
+		for ( final int end8 = index + (length & ~7); i < end8; i += 8 ) {
+			crc = update8(crc, buf.getLongLE(i));
+		}
+		for ( final int end = index + length; i < end; i++ ) {
+			crc = update(crc, buf.getByte(i));
+		}
+		return crc;
+	}
+
+	/**
+	 * Update a CRC value with the remaining bytes in a buffer.
+	 *
+	 * <p>
+	 * The position and limit of {@code buf} are not changed.
+	 * </p>
+	 *
+	 * @param crc
+	 *        the CRC value to update, or {@link #INITIAL_VALUE} to start a new
+	 *        computation
+	 * @param buf
+	 *        the data to add
+	 * @return the updated CRC value
+	 */
+	public static int update(int crc, ByteBuffer buf) {
+		if ( buf.hasArray() ) {
+			return update(crc, buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+		}
+		final boolean le = (buf.order() == ByteOrder.LITTLE_ENDIAN);
+		int i = buf.position();
+		for ( final int end8 = i + (buf.remaining() & ~7); i < end8; i += 8 ) {
+			final long v = buf.getLong(i);
+			crc = update8(crc, le ? v : Long.reverseBytes(v));
+		}
+		for ( final int end = buf.limit(); i < end; i++ ) {
+			crc = update(crc, buf.get(i));
+		}
+		return crc;
+	}
+
+	/**
+	 * Compute the CRC of a range of bytes in a buffer.
+	 *
+	 * <p>
+	 * The reader and writer indexes of {@code buf} are not changed.
+	 * </p>
+	 *
+	 * @param buf
+	 *        the data
+	 * @param index
+	 *        the index of the first byte
+	 * @param length
+	 *        the number of bytes
+	 * @return the CRC value
+	 * @throws IndexOutOfBoundsException
+	 *         if the range is not within the capacity of {@code buf}
+	 */
+	public static short compute(ByteBuf buf, int index, int length) {
+		return (short) update(INITIAL_VALUE, buf, index, length);
+	}
+
+	/**
+	 * Compute the CRC of the remaining bytes in a buffer.
+	 *
+	 * <p>
+	 * The position and limit of {@code buf} are not changed.
+	 * </p>
+	 *
+	 * @param buf
+	 *        the data
+	 * @return the CRC value
+	 */
+	public static short compute(ByteBuffer buf) {
+		return (short) update(INITIAL_VALUE, buf);
+	}
+
+	/**
+	 * Compute the CRC of a range of bytes.
+	 *
+	 * @param data
+	 *        the data
+	 * @param offset
+	 *        the index of the first byte
+	 * @param length
+	 *        the number of bytes
+	 * @return the CRC value
+	 * @throws IndexOutOfBoundsException
+	 *         if the range is not within {@code data}
+	 */
+	public static short compute(byte[] data, int offset, int length) {
+		return (short) update(INITIAL_VALUE, data, offset, length);
+	}
+
+}
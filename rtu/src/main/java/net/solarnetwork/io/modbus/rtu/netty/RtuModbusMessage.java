@@ -24,7 +24,6 @@ package net.solarnetwork.io.modbus.rtu.netty;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import net.solarnetwork.io.modbus.ModbusByteUtils;
 import net.solarnetwork.io.modbus.ModbusError;
 import net.solarnetwork.io.modbus.ModbusFunction;
 import net.solarnetwork.io.modbus.ModbusMessage;
@@ -35,13 +34,14 @@ import net.solarnetwork.io.modbus.netty.msg.ModbusPayloadEncoder;
  * A RTU-encapsulated Modbus message.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuModbusMessage
 		implements net.solarnetwork.io.modbus.rtu.RtuModbusMessage, ModbusPayloadEncoder {
 
 	private final long timestamp;
 	private final short crc;
+	private final int computedCrc;
 	private final ModbusMessage body;
 
 	/**
@@ -118,9 +118,39 @@ public class RtuModbusMessage
 	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
 	 */
 	public RtuModbusMessage(long timestamp, ModbusMessage body, short crc) {
+		this(timestamp, body, crc, -1);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * This constructor is for messages decoded from a frame, where the CRC of
+	 * the received frame data has already been computed, so that
+	 * {@link #computeCrc()} does not have to re-encode the message.
+	 * </p>
+	 *
+	 * @param timestamp
+	 *        the timestamp
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}.
+	 * @param crc
+	 *        the provided cyclic redundancy check value
+	 * @param computedCrc
+	 *        the cyclic redundancy check value computed from the frame data
+	 * @throws IllegalArgumentException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public RtuModbusMessage(long timestamp, ModbusMessage body, short crc, short computedCrc) {
+		this(timestamp, body, crc, Short.toUnsignedInt(computedCrc));
+	}
+
+	private RtuModbusMessage(long timestamp, ModbusMessage body, short crc, int computedCrc) {
 		super();
 		this.timestamp = timestamp;
 		this.crc = crc;
+		this.computedCrc = computedCrc;
 		if ( body == null ) {
 			throw new IllegalArgumentException("The body argument must not be null.");
 		} else if ( !(body instanceof ModbusPayloadEncoder) ) {
@@ -194,6 +224,9 @@ public class RtuModbusMessage
 
 	@Override
 	public short computeCrc() {
+		if ( computedCrc >= 0 ) {
+			return (short) computedCrc;
+		}
 		return computeCrc(getUnitId(), body);
 	}
 
@@ -215,7 +248,7 @@ public class RtuModbusMessage
 		ByteBuf buf = Unpooled.buffer(len);
 		buf.writeByte(unitId);
 		enc.encodeModbusPayload(buf);
-		return ModbusByteUtils.computeCrc(buf.array(), 0, len);
+		return RtuCrc.compute(buf, 0, buf.writerIndex());
 	}
 
 	@Override
@@ -247,19 +280,50 @@ public class RtuModbusMessage
 
 	@Override
 	public void encodeModbusPayload(ByteBuf out) {
-		int s = out.writerIndex();
-		out.writeByte(getUnitId());
-		((ModbusPayloadEncoder) body).encodeModbusPayload(out);
-
-		int len = out.writerIndex() - s;
-		byte[] payload = new byte[len];
-		out.slice(s, payload.length).readBytes(payload);
-		short crc = ModbusByteUtils.computeCrc(payload, 0, len);
-		out.writeShortLE(crc);
+		encodeModbusPayload(getUnitId(), body, out);
 	}
 
 	@Override
 	public int payloadLength() {
+		return payloadLength(body);
+	}
+
+	/**
+	 * Encode a RTU frame for a message, without creating a
+	 * {@code RtuModbusMessage} for it.
+	 *
+	 * <p>
+	 * The CRC is computed from the encoded frame data in {@code out}.
+	 * </p>
+	 *
+	 * @param unitId
+	 *        the unit ID
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}
+	 * @param out
+	 *        the buffer to encode the frame to
+	 * @throws ClassCastException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public static void encodeModbusPayload(int unitId, ModbusMessage body, ByteBuf out) {
+		final int s = out.writerIndex();
+		out.writeByte(unitId);
+		((ModbusPayloadEncoder) body).encodeModbusPayload(out);
+		out.writeShortLE(RtuCrc.compute(out, s, out.writerIndex() - s));
+	}
+
+	/**
+	 * Get the length of a RTU frame for a message.
+	 *
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}
+	 * @return the frame length
+	 * @throws ClassCastException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public static int payloadLength(ModbusMessage body) {
 		return 3 + ((ModbusPayloadEncoder) body).payloadLength();
 	}
 
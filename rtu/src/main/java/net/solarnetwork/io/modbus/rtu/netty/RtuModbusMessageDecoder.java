@@ -39,7 +39,7 @@ import net.solarnetwork.io.modbus.rtu.netty.RtuModbusMessageDecoder.DecoderState
  * Decoder for RTU Modbus messages.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 
@@ -112,6 +112,7 @@ public class RtuModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 	}
 
 	private void readPayload(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+		final int payloadStart = in.readerIndex();
 		ModbusMessage msg = null;
 		ModbusMessage req = null;
 		AddressedModbusMessage reqAddr = null;
@@ -132,17 +133,22 @@ public class RtuModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 			msg = ModbusMessageUtils.decodeRequestPayload(unitId, 0, 0, in);
 		}
 		if ( msg != null ) {
-			short crc = in.readShortLE();
-			short computedCrc = RtuModbusMessage.computeCrc(unitId, msg);
+			// compute the CRC from the received frame bytes, rather than re-encoding the message
+			final int headerCrc = RtuCrc.update(RtuCrc.INITIAL_VALUE, unitId);
+			final short computedCrc = (short) RtuCrc.update(headerCrc, in, payloadStart,
+					in.readerIndex() - payloadStart);
+			final short crc = in.readShortLE();
 			if ( crc != computedCrc ) {
 				log.warn("CRC mismatch: frame value {} but computed value {} from {}",
 						Short.toUnsignedInt(crc), Short.toUnsignedInt(computedCrc), msg);
 			}
+			final RtuModbusMessage rtu = new RtuModbusMessage(System.currentTimeMillis(), msg, crc,
+					computedCrc);
 			if ( req != null ) {
-				msg = new SimpleModbusMessageReply(req, new RtuModbusMessage(msg, crc));
+				msg = new SimpleModbusMessageReply(req, rtu);
 				ctx.channel().attr(NettyModbusClient.LAST_ENCODED_MESSAGE).compareAndSet(req, null);
 			} else {
-				msg = new RtuModbusMessage(msg, crc);
+				msg = rtu;
 			}
 			out.add(msg);
 		}
@@ -28,29 +28,42 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import net.solarnetwork.io.modbus.ModbusMessage;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient;
+import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
 
 /**
  * Encoder of {@link ModbusMessage} to RTU encapsulated {@link ByteBuf} Modbus
  * frame.
+ * 
+ * <p>
+ * Outbound {@link SimpleModbusMessageReply} instances are owned by this
+ * encoder, and recycled via {@link SimpleModbusMessageReply#recycle()} once
+ * encoded, which has no effect on replies not obtained from a pool.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessage> {
 
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ModbusMessage msg, List<Object> out)
 			throws Exception {
-		RtuModbusMessage rtu = null;
+		ByteBuf buf;
 		if ( msg instanceof RtuModbusMessage ) {
-			rtu = (RtuModbusMessage) msg;
+			RtuModbusMessage rtu = (RtuModbusMessage) msg;
+			buf = ctx.alloc().buffer(rtu.payloadLength());
+			rtu.encodeModbusPayload(buf);
 		} else {
-			// outbound response
-			rtu = new RtuModbusMessage(msg.getUnitId(), msg);
+			// outbound response; encode directly, as the CRC is computed from the encoded frame
+			buf = ctx.alloc().buffer(RtuModbusMessage.payloadLength(msg));
+			RtuModbusMessage.encodeModbusPayload(msg.getUnitId(), msg, buf);
+			if ( msg instanceof SimpleModbusMessageReply ) {
+				// replies are never paired with a response, so no need to remember them
+				out.add(buf);
+				((SimpleModbusMessageReply) msg).recycle();
+				return;
+			}
 		}
-		int len = rtu.payloadLength();
-		ByteBuf buf = ctx.alloc().buffer(len);
-		rtu.encodeModbusPayload(buf);
 		out.add(buf);
 		ctx.channel().attr(NettyModbusClient.LAST_ENCODED_MESSAGE).set(msg);
 	}
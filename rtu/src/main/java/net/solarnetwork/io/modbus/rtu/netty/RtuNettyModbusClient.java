@@ -34,10 +34,12 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFactory;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import net.solarnetwork.io.modbus.ModbusClient;
 import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient;
 import net.solarnetwork.io.modbus.netty.serial.SerialAddress;
 import net.solarnetwork.io.modbus.netty.serial.SerialPortChannel;
@@ -48,7 +50,7 @@ import net.solarnetwork.io.modbus.serial.SerialPortProvider;
  * RTU implementation of {@link ModbusClient}.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfig>
 		implements ChannelFactory<SerialPortChannel> {
@@ -73,6 +75,30 @@ public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfi
 		this(clientConfig, null, new ConcurrentHashMap<>(8, 0.9f, 2), null, serialPortProvider);
 	}
 
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * The blocking event loop group, scheduler, timer, and buffer allocator
+	 * will be obtained from the given runtime, which will be retained when the
+	 * client starts and released when the client stops.
+	 * </p>
+	 * 
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param serialPortProvider
+	 *        the serial port provider
+	 * @param runtime
+	 *        the shared runtime
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public RtuNettyModbusClient(RtuModbusClientConfig clientConfig,
+			SerialPortProvider serialPortProvider, ModbusRuntime runtime) {
+		this(clientConfig, requireRuntime(runtime), null, new ConcurrentHashMap<>(8, 0.9f, 2), null,
+				serialPortProvider);
+	}
+
 	/**
 	 * Constructor.
 	 * 
@@ -128,8 +154,17 @@ public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfi
 	public RtuNettyModbusClient(RtuModbusClientConfig clientConfig, ScheduledExecutorService scheduler,
 			ConcurrentMap<ModbusMessage, PendingMessage> pending, EventLoopGroup eventLoopGroup,
 			SerialPortProvider serialPortProvider) {
-		super(clientConfig, scheduler, pending);
-		if ( eventLoopGroup == null ) {
+		this(clientConfig, null, scheduler, pending, eventLoopGroup, serialPortProvider);
+	}
+
+	private RtuNettyModbusClient(RtuModbusClientConfig clientConfig, ModbusRuntime runtime,
+			ScheduledExecutorService scheduler, ConcurrentMap<ModbusMessage, PendingMessage> pending,
+			EventLoopGroup eventLoopGroup, SerialPortProvider serialPortProvider) {
+		super(clientConfig, runtime, scheduler, pending);
+		if ( runtime != null ) {
+			// group obtained from runtime on connect
+			this.privateEventLoopGroup = false;
+		} else if ( eventLoopGroup == null ) {
 			eventLoopGroup = defaultEventLoopGroup();
 			this.privateEventLoopGroup = true;
 		} else {
@@ -142,6 +177,13 @@ public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfi
 		this.serialPortProvider = serialPortProvider;
 	}
 
+	private static ModbusRuntime requireRuntime(ModbusRuntime runtime) {
+		if ( runtime == null ) {
+			throw new IllegalArgumentException("The runtime argument must not be null.");
+		}
+		return runtime;
+	}
+
 	@SuppressWarnings("deprecation")
 	private static EventLoopGroup defaultEventLoopGroup() {
 		// TODO: need a non-deprecated replacement
@@ -162,7 +204,10 @@ public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfi
 		if ( name == null || name.isEmpty() ) {
 			throw new IllegalArgumentException("No serial device name configured, cannot connect.");
 		}
-		if ( eventLoopGroup.isShuttingDown() ) {
+		final ModbusRuntime runtime = getRuntime();
+		if ( runtime != null ) {
+			eventLoopGroup = runtime.blockingEventLoopGroup();
+		} else if ( eventLoopGroup.isShuttingDown() ) {
 			if ( privateEventLoopGroup ) {
 				eventLoopGroup = defaultEventLoopGroup();
 			} else {
@@ -176,6 +221,9 @@ public class RtuNettyModbusClient extends NettyModbusClient<RtuModbusClientConfi
 				.remoteAddress(new SerialAddress(clientConfig.getName()))
 				.handler(new HandlerInitializer());
 		// @formatter:on
+		if ( runtime != null ) {
+			bootstrap.option(ChannelOption.ALLOCATOR, runtime.allocator());
+		}
 		return bootstrap.connect();
 	}
 
@@ -0,0 +1,187 @@
+/* ==================================================================
+ * RtuCrcTests.java - 18/10/2026 3:08:52 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.rtu.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import net.solarnetwork.io.modbus.ModbusByteUtils;
+import net.solarnetwork.io.modbus.rtu.netty.RtuCrc;
+
+/**
+ * Test cases for the {@link RtuCrc} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class RtuCrcTests {
+
+	private static final int MAX_LENGTH = 300;
+
+	private static byte[] randomData(Random rng, int len) {
+		byte[] data = new byte[len];
+		rng.nextBytes(data);
+		return data;
+	}
+
+	@Test
+	public void compute_checkValue() {
+		// GIVEN
+		final byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+		// THEN
+		assertThat("Standard CRC-16/MODBUS check value", RtuCrc.compute(data, 0, data.length),
+				is(equalTo((short) 0x4B37)));
+	}
+
+	@Test
+	public void compute_array() {
+		// GIVEN
+		final byte[] data = new byte[] { 0x01, 0x04, 0x02, (byte) 0xFF, (byte) 0xFF };
+
+		// THEN
+		assertThat("CRC computed", RtuCrc.compute(data, 0, data.length),
+				is(equalTo((short) 0x80B8)));
+	}
+
+	@Test
+	public void compute_array_sameAsModbusByteUtils() {
+		// GIVEN
+		final Random rng = new Random(0);
+
+		for ( int len = 0; len < MAX_LENGTH; len++ ) {
+			// GIVEN
+			final byte[] data = randomData(rng, len + 3);
+
+			// WHEN
+			short result = RtuCrc.compute(data, 3, len);
+
+			// THEN
+			assertThat("CRC of length " + len, result,
+					is(equalTo(ModbusByteUtils.computeCrc(data, 3, len + 3))));
+		}
+	}
+
+	@Test
+	public void compute_array_outOfRange() {
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			RtuCrc.compute(new byte[4], 2, 3);
+		}, "Range beyond array not allowed");
+	}
+
+	@Test
+	public void compute_byteBuf() {
+		// GIVEN
+		final Random rng = new Random(1);
+
+		for ( int len = 0; len < MAX_LENGTH; len++ ) {
+			// GIVEN
+			final byte[] data = randomData(rng, len);
+			final short expected = ModbusByteUtils.computeCrc(data, 0, len);
+			final ByteBuf heap = Unpooled.buffer(len + 2).writeZero(2).writeBytes(data);
+			final ByteBuf direct = Unpooled.directBuffer(len + 2).writeZero(2).writeBytes(data);
+			final int half = len / 2;
+			final CompositeByteBuf composite = Unpooled.compositeBuffer();
+			composite.addComponents(true, Unpooled.wrappedBuffer(data, 0, half),
+					Unpooled.wrappedBuffer(data, half, len - half));
+
+			try {
+				// THEN
+				assertThat("Heap CRC of length " + len, RtuCrc.compute(heap, 2, len),
+						is(equalTo(expected)));
+				assertThat("Direct CRC of length " + len, RtuCrc.compute(direct, 2, len),
+						is(equalTo(expected)));
+				assertThat("Composite CRC of length " + len, RtuCrc.compute(composite, 0, len),
+						is(equalTo(expected)));
+				assertThat("Reader index unchanged", direct.readerIndex(), is(equalTo(0)));
+			} finally {
+				direct.release();
+				composite.release();
+			}
+		}
+	}
+
+	@Test
+	public void compute_byteBuf_outOfRange() {
+		final ByteBuf buf = Unpooled.buffer(4, 4);
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			RtuCrc.compute(buf, 2, 3);
+		}, "Range beyond buffer not allowed");
+	}
+
+	@Test
+	public void compute_byteBuffer() {
+		// GIVEN
+		final Random rng = new Random(2);
+
+		for ( int len = 0; len < MAX_LENGTH; len++ ) {
+			// GIVEN
+			final byte[] data = randomData(rng, len);
+			final short expected = ModbusByteUtils.computeCrc(data, 0, len);
+			final ByteBuffer heap = ByteBuffer.allocate(len + 2);
+			heap.position(2);
+			heap.put(data).flip().position(2);
+			final ByteBuffer direct = ByteBuffer.allocateDirect(len);
+			direct.put(data).flip();
+
+			// THEN
+			assertThat("Heap CRC of length " + len, RtuCrc.compute(heap), is(equalTo(expected)));
+			assertThat("Direct big-endian CRC of length " + len, RtuCrc.compute(direct),
+					is(equalTo(expected)));
+			assertThat("Direct little-endian CRC of length " + len,
+					RtuCrc.compute(direct.order(ByteOrder.LITTLE_ENDIAN)), is(equalTo(expected)));
+			assertThat("Position unchanged", direct.position(), is(equalTo(0)));
+		}
+	}
+
+	@Test
+	public void update_incremental() {
+		// GIVEN
+		final Random rng = new Random(3);
+		final byte[] data = randomData(rng, MAX_LENGTH);
+		final ByteBuf buf = Unpooled.wrappedBuffer(data);
+
+		// WHEN
+		int crc = RtuCrc.update(RtuCrc.INITIAL_VALUE, data[0]);
+		for ( int i = 1, chunk = 1; i < data.length; i += chunk, chunk++ ) {
+			int len = Math.min(chunk, data.length - i);
+			crc = ((chunk & 1) == 0 ? RtuCrc.update(crc, data, i, len)
+					: RtuCrc.update(crc, buf, i, len));
+		}
+
+		// THEN
+		assertThat("Incremental CRC same as complete CRC", (short) crc,
+				is(equalTo(ModbusByteUtils.computeCrc(data, 0, data.length))));
+	}
+
+}
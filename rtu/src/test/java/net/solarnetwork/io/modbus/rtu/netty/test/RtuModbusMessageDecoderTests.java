@@ -26,6 +26,7 @@ import static java.util.stream.Collectors.joining;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import java.io.BufferedReader;
@@ -53,7 +54,7 @@ import net.solarnetwork.io.modbus.test.support.ModbusTestUtils;
  * Test cases for the {@link RtuModbusMessageDecoder} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuModbusMessageDecoderTests {
 
@@ -68,6 +69,38 @@ public class RtuModbusMessageDecoderTests {
 		controllerChannel = new EmbeddedChannel(new RtuModbusMessageDecoder(true));
 	}
 
+	@Test
+	public void responder_request_crcFromFrameData() {
+		// GIVEN
+		// @formatter:off
+		final byte[] frame = new byte[] {
+				(byte)0x01,
+				ModbusFunctionCodes.WRITE_COIL,
+				(byte)0x00,
+				(byte)0x01,
+				(byte)0x00, // non-standard "off" coil value, re-encoded as 0x0000
+				(byte)0xFF,
+		};
+		// @formatter:on
+		final short frameCrc = ModbusByteUtils.computeCrc(frame, 0, frame.length);
+		ByteBuf buf = Unpooled.buffer().writeBytes(frame).writeShortLE(frameCrc);
+
+		// WHEN
+		boolean result = responderChannel.writeInbound(buf);
+
+		// THEN
+		assertThat("Decoder produced", result, is(equalTo(true)));
+		RtuModbusMessage msg = responderChannel.readInbound();
+		assertThat("Message decoded", msg, is(notNullValue()));
+		assertThat("Function is decoded", msg.getFunction(),
+				is(equalTo(ModbusFunctionCode.WriteCoil)));
+		assertThat("Provided CRC preserved", msg.getCrc(), is(equalTo(frameCrc)));
+		assertThat("Calculated CRC from frame data", msg.computeCrc(), is(equalTo(frameCrc)));
+		assertThat("CRC valid", msg.isCrcValid(), is(equalTo(true)));
+		assertThat("Re-encoded message CRC differs", RtuModbusMessage.computeCrc(1, msg.getBody()),
+				is(not(equalTo(frameCrc))));
+	}
+
 	@Test
 	public void responder_request_readInputs() {
 		// GIVEN
@@ -28,13 +28,16 @@ import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.embedded.EmbeddedChannel;
 import net.solarnetwork.io.modbus.ModbusFunctionCodes;
+import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient;
 import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
 import net.solarnetwork.io.modbus.rtu.netty.RtuModbusMessage;
 import net.solarnetwork.io.modbus.rtu.netty.RtuModbusMessageEncoder;
 
@@ -42,7 +45,7 @@ import net.solarnetwork.io.modbus.rtu.netty.RtuModbusMessageEncoder;
  * Test cases for the {@link RtuModbusMessageEncoder} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class RtuModbusMessageEncoderTests {
 
@@ -120,6 +123,40 @@ public class RtuModbusMessageEncoderTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void responder_reply_pooled() {
+		// GIVEN
+		final int unitId = 1;
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(unitId, 2, 1);
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(unitId, 2,
+				new short[] { 0x1234 });
+		final short expectedCrc = RtuModbusMessage.computeCrc(unitId, res);
+		SimpleModbusMessageReply reply = SimpleModbusMessageReply.newInstance(req, res);
+
+		// WHEN
+		channel.writeOutbound(reply);
+
+		// THEN
+		ByteBuf buf = channel.readOutbound();
+		assertThat("Bytes produced", buf, is(notNullValue()));
+
+		// @formatter:off
+		assertThat("Message encoded", byteObjectArray(ByteBufUtil.getBytes(buf)), arrayContaining(
+				byteObjectArray(new byte[] {
+						(byte)unitId,
+						ModbusFunctionCodes.READ_HOLDING_REGISTERS,
+						(byte)0x02,
+						(byte)0x12,
+						(byte)0x34,
+						(byte)(expectedCrc & 0xFF),
+						(byte)((expectedCrc >>> 8) & 0xFF),
+				})));
+		// @formatter:on
+		assertThat("Reply recycled by encoder", reply.getReply(), is(nullValue()));
+		assertThat("Recycled reply not remembered as last encoded message",
+				channel.attr(NettyModbusClient.LAST_ENCODED_MESSAGE).get(), is(nullValue()));
+	}
+
 	@Test
 	public void rtu_passedThrough() {
 		// GIVEN
@@ -0,0 +1,110 @@
+/* ==================================================================
+ * TcpEncodeBenchmark.java - 18/10/2026 9:41:07 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+
+package net.solarnetwork.io.modbus.tcp.netty.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
+
+/**
+ * Compare the cost of encoding a TCP response frame by way of a
+ * {@link TcpModbusMessage} wrapper versus directly into the outbound buffer.
+ *
+ * <p>
+ * Run with the JMH {@code gc} profiler enabled, for example by adding
+ * {@code profilers = ['gc']} to the {@code jmh} block of the build, to see the
+ * allocation rate. The direct encoding should report a normalized allocation
+ * rate of zero, as the outbound buffer is reused here.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcpEncodeBenchmark {
+
+	/** The number of registers in the response. */
+	@Param({ "1", "16", "125" })
+	public int count;
+
+	private RegistersModbusMessage msg;
+	private ByteBuf buf;
+	private int nextId;
+
+	/**
+	 * Set up the benchmark state.
+	 */
+	@Setup
+	public void setup() {
+		short[] values = new short[count];
+		for ( int i = 0; i < count; i++ ) {
+			values[i] = (short) i;
+		}
+		msg = RegistersModbusMessage.readHoldingsResponse(1, 0, values);
+		buf = Unpooled.directBuffer(TcpModbusMessage.payloadLength(msg));
+	}
+
+	/**
+	 * Encode via a new wrapper message.
+	 *
+	 * @return the buffer
+	 */
+	@Benchmark
+	public ByteBuf wrapper() {
+		buf.clear();
+		new TcpModbusMessage(nextId++ & 0xFFFF, msg).encodeModbusPayload(buf);
+		return buf;
+	}
+
+	/**
+	 * Encode directly.
+	 *
+	 * @return the buffer
+	 */
+	@Benchmark
+	public ByteBuf direct() {
+		buf.clear();
+		TcpModbusMessage.encodeModbusPayload(nextId++ & 0xFFFF, msg, buf);
+		return buf;
+	}
+
+}
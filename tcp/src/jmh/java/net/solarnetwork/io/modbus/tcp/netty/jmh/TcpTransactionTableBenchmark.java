@@ -0,0 +1,128 @@
+/* ==================================================================
+ * TcpTransactionTableBenchmark.java - 17/10/2026 10:31:52 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.jmh;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.ArrayTcpTransactionTable;
+import net.solarnetwork.io.modbus.tcp.netty.MapTcpTransactionTable;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.TcpTransactionTable;
+
+/**
+ * Compare the cost of tracking in-flight transactions in a
+ * {@link ConcurrentMap} versus an {@link ArrayTcpTransactionTable}.
+ * 
+ * <p>
+ * Each operation simulates one request/response round trip with a fixed
+ * number of other requests in flight: the request is added to the table by
+ * transaction ID, then looked up and removed as its response is decoded.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcpTransactionTableBenchmark {
+
+	/** The number of requests kept in flight. */
+	@Param({ "1", "16", "256" })
+	public int inFlight;
+
+	private TcpModbusMessage[] messages;
+	private TcpTransactionTable mapTable;
+	private TcpTransactionTable arrayTable;
+	private int nextId;
+
+	/**
+	 * Set up the benchmark state.
+	 */
+	@Setup
+	public void setup() {
+		messages = new TcpModbusMessage[ArrayTcpTransactionTable.SLOT_COUNT];
+		for ( int i = 0; i < messages.length; i++ ) {
+			messages[i] = new TcpModbusMessage(i,
+					RegistersModbusMessage.readHoldingsRequest(1, i, 1));
+		}
+		ConcurrentMap<Integer, TcpModbusMessage> map = new ConcurrentHashMap<>(8, 0.9f, 2);
+		mapTable = new MapTcpTransactionTable(map);
+		arrayTable = new ArrayTcpTransactionTable();
+		for ( int i = 1; i <= inFlight; i++ ) {
+			mapTable.put(i, messages[i]);
+			arrayTable.put(i, messages[i]);
+		}
+		nextId = inFlight + 1;
+	}
+
+	private void roundTrip(TcpTransactionTable table, Blackhole bh) {
+		final int id = nextId;
+		final int oldest = (id - inFlight) & 0xFFFF;
+		nextId = (id + 1) & 0xFFFF;
+		table.put(id, messages[id]);
+		TcpModbusMessage req = table.get(oldest);
+		bh.consume(table.remove(oldest, req));
+	}
+
+	/**
+	 * Round trip through a map-backed table, as used by default before the
+	 * array table was introduced.
+	 * 
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void concurrentMap(Blackhole bh) {
+		roundTrip(mapTable, bh);
+	}
+
+	/**
+	 * Round trip through an array-backed table.
+	 * 
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void arrayTable(Blackhole bh) {
+		roundTrip(arrayTable, bh);
+	}
+
+}
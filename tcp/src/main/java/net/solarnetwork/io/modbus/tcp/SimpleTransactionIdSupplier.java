@@ -30,7 +30,9 @@ import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
  * Simple in-memory supplier for Modbus TCP transaction IDs.
  * 
  * <p>
- * Note the IDs supplied by this class are global across all instances.
+ * Note the IDs supplied by this class are global across all instances. See
+ * {@link net.solarnetwork.io.modbus.tcp.netty.TcpTransactionIdAllocator} for a
+ * per-connection alternative.
  * </p>
  *
  * @author matt
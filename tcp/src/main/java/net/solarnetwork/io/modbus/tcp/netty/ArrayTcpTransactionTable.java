@@ -0,0 +1,89 @@
+/* ==================================================================
+ * ArrayTcpTransactionTable.java - 17/10/2026 9:12:41 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+/**
+ * Array-backed {@link TcpTransactionTable} with one slot per possible 16-bit
+ * transaction ID.
+ * 
+ * <p>
+ * This implementation is <b>not</b> thread safe. It is designed to be owned by
+ * a single channel, and only accessed from that channel's event loop, so no
+ * locking, hashing, or boxing of transaction IDs is required.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ArrayTcpTransactionTable implements TcpTransactionTable {
+
+	/** The number of slots in the table. */
+	public static final int SLOT_COUNT = 0x10000;
+
+	private final TcpModbusMessage[] slots;
+	private int size;
+
+	/**
+	 * Constructor.
+	 */
+	public ArrayTcpTransactionTable() {
+		super();
+		this.slots = new TcpModbusMessage[SLOT_COUNT];
+	}
+
+	@Override
+	public TcpModbusMessage get(int transactionId) {
+		return slots[transactionId & 0xFFFF];
+	}
+
+	@Override
+	public TcpModbusMessage put(int transactionId, TcpModbusMessage message) {
+		final int idx = transactionId & 0xFFFF;
+		final TcpModbusMessage prev = slots[idx];
+		slots[idx] = message;
+		if ( prev == null && message != null ) {
+			size++;
+		} else if ( prev != null && message == null ) {
+			size--;
+		}
+		return prev;
+	}
+
+	@Override
+	public boolean remove(int transactionId, Object message) {
+		final int idx = transactionId & 0xFFFF;
+		final TcpModbusMessage curr = slots[idx];
+		if ( curr == null || !(curr == message || curr.equals(message)) ) {
+			return false;
+		}
+		slots[idx] = null;
+		size--;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
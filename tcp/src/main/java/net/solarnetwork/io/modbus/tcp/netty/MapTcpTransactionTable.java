@@ -0,0 +1,77 @@
+/* ==================================================================
+ * MapTcpTransactionTable.java - 17/10/2026 9:12:41 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link TcpTransactionTable} backed by a {@link ConcurrentMap}.
+ * 
+ * <p>
+ * This implementation is thread safe, and can be shared by many channels.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MapTcpTransactionTable implements TcpTransactionTable {
+
+	private final ConcurrentMap<Integer, TcpModbusMessage> messages;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param messages
+	 *        the map to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public MapTcpTransactionTable(ConcurrentMap<Integer, TcpModbusMessage> messages) {
+		super();
+		if ( messages == null ) {
+			throw new IllegalArgumentException("The pendingMessages argument must not be null.");
+		}
+		this.messages = messages;
+	}
+
+	@Override
+	public TcpModbusMessage get(int transactionId) {
+		return messages.get(transactionId);
+	}
+
+	@Override
+	public TcpModbusMessage put(int transactionId, TcpModbusMessage message) {
+		return messages.put(transactionId, message);
+	}
+
+	@Override
+	public boolean remove(int transactionId, Object message) {
+		return messages.remove(transactionId, message);
+	}
+
+	@Override
+	public int size() {
+		return messages.size();
+	}
+
+}
@@ -44,13 +44,13 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.MultiThreadIoEventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LoggingHandler;
 import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
 import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
 import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
 
@@ -64,9 +64,17 @@ import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
  * provide a response {@link ModbusMessage}, which this server will then encode
  * and send back to the connected client.
  * </p>
+ * 
+ * <p>
+ * When {@link #setPooledMessages(boolean)} is enabled, the request messages
+ * passed to the handler and the reply wrappers this server creates are
+ * obtained from a pool, and recycled once the reply has been encoded. The
+ * handler must then provide at most one reply per request, and must not use
+ * the request message after providing the reply.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class NettyTcpModbusServer {
 
@@ -86,16 +94,20 @@ public class NettyTcpModbusServer {
 
 	private final String bindAddress;
 	private final int port;
+	private final TcpTransport transport;
 	private ScheduledFuture<?> cleanupTask;
 
 	private BiConsumer<ModbusMessage, Consumer<ModbusMessage>> messageHandler;
 	private BiFunction<InetSocketAddress, Boolean, Boolean> clientConnectionListener;
 	private long pendingMessageTtl = DEFAULT_PENDING_MESSAGE_TTL;
 	private boolean wireLogging;
+	private boolean pooledMessages;
 
 	private EventLoopGroup bossGroup;
 	private EventLoopGroup workerGroup;
 	private Channel channel;
+	private ModbusRuntime runtime;
+	private ModbusRuntime retainedRuntime;
 
 	/**
 	 * Constructor.
@@ -113,6 +125,26 @@ public class NettyTcpModbusServer {
 		this(port, new ConcurrentHashMap<>(8, 0.9f, 2), SimpleTransactionIdSupplier.INSTANCE);
 	}
 
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * Defaults to {@link #DEFAULT_BIND_ADDRESS}.
+	 * </p>
+	 * 
+	 * @param port
+	 *        the port to listen on
+	 * @param transport
+	 *        the transport to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.1
+	 */
+	public NettyTcpModbusServer(int port, TcpTransport transport) {
+		this(DEFAULT_BIND_ADDRESS, port, new ConcurrentHashMap<>(8, 0.9f, 2),
+				SimpleTransactionIdSupplier.INSTANCE, transport);
+	}
+
 	/**
 	 * Constructor.
 	 * 
@@ -168,6 +200,30 @@ public class NettyTcpModbusServer {
 	public NettyTcpModbusServer(String bindAddress, int port,
 			ConcurrentMap<Integer, TcpModbusMessage> pendingMessages,
 			IntSupplier transactionIdSupplier) {
+		this(bindAddress, port, pendingMessages, transactionIdSupplier, TcpTransport.auto());
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param bindAddress
+	 *        the address to listen on
+	 * @param port
+	 *        the port to listen on
+	 * @param pendingMessages
+	 *        a map to use for saving request messages, using transaction IDs
+	 *        for keys
+	 * @param transactionIdSupplier
+	 *        the transaction ID supplier
+	 * @param transport
+	 *        the transport to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.1
+	 */
+	public NettyTcpModbusServer(String bindAddress, int port,
+			ConcurrentMap<Integer, TcpModbusMessage> pendingMessages,
+			IntSupplier transactionIdSupplier, TcpTransport transport) {
 		super();
 		if ( bindAddress == null ) {
 			throw new IllegalArgumentException("The bindAddress argument must not be null.");
@@ -182,6 +238,10 @@ public class NettyTcpModbusServer {
 			throw new IllegalArgumentException("The transactionIdSupplier argument must not be null.");
 		}
 		this.transactionIdSupplier = transactionIdSupplier;
+		if ( transport == null ) {
+			throw new IllegalArgumentException("The transport argument must not be null.");
+		}
+		this.transport = transport;
 	}
 
 	/**
@@ -197,29 +257,46 @@ public class NettyTcpModbusServer {
 			return;
 		}
 		try {
-			EventLoopGroup bGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
-			this.bossGroup = bGroup;
-			EventLoopGroup wGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
-			this.workerGroup = wGroup;
+			final ModbusRuntime runtime = this.runtime;
+			final EventLoopGroup bGroup;
+			final EventLoopGroup wGroup;
+			final Class<? extends ServerSocketChannel> channelClass;
+			if ( runtime != null ) {
+				retainedRuntime = runtime.retain();
+				bGroup = runtime.eventLoopGroup();
+				wGroup = bGroup;
+				channelClass = NioServerSocketChannel.class;
+			} else {
+				bGroup = transport.newEventLoopGroup(0);
+				this.bossGroup = bGroup;
+				wGroup = transport.newEventLoopGroup(0);
+				this.workerGroup = wGroup;
+				channelClass = transport.serverSocketChannelClass();
+			}
 
 			// @formatter:off
 			ServerBootstrap bootstrap = new ServerBootstrap();
 			bootstrap.group(bGroup, wGroup)
-					.channel(NioServerSocketChannel.class)
+					.channel(channelClass)
 					.childHandler(new ChildHandlerInitializer())
 					.option(ChannelOption.SO_REUSEADDR, true)
 					.childOption(ChannelOption.SO_KEEPALIVE, true);
 			// @formatter:on
+			if ( runtime != null ) {
+				bootstrap.childOption(ChannelOption.ALLOCATOR, runtime.allocator());
+			}
 
 			Channel channel = bootstrap.bind(bindAddress, port).sync().channel();
-			channel.closeFuture().addListener(new ChannelFutureListener() {
+			if ( runtime == null ) {
+				channel.closeFuture().addListener(new ChannelFutureListener() {
 
-				@Override
-				public void operationComplete(ChannelFuture future) throws Exception {
-					wGroup.shutdownGracefully();
-					bGroup.shutdownGracefully();
-				}
-			});
+					@Override
+					public void operationComplete(ChannelFuture future) throws Exception {
+						wGroup.shutdownGracefully();
+						bGroup.shutdownGracefully();
+					}
+				});
+			}
 			this.channel = channel;
 			if ( cleanupTask == null ) {
 				long period = getPendingMessageTtl() * 2;
@@ -229,6 +306,7 @@ public class NettyTcpModbusServer {
 				}
 			}
 		} catch ( Exception e ) {
+			releaseRuntime();
 			String msg = String.format("Error starting Modbus server on port %d", port);
 			if ( e instanceof IOException ) {
 				log.warn("{}: {}", msg, e.getMessage());
@@ -260,6 +338,24 @@ public class NettyTcpModbusServer {
 			channel.close().awaitUninterruptibly();
 			channel = null;
 		}
+		releaseRuntime();
+	}
+
+	private void releaseRuntime() {
+		if ( retainedRuntime != null ) {
+			retainedRuntime.release();
+			retainedRuntime = null;
+		}
+	}
+
+	/**
+	 * Get the transport used when this server is not using a shared runtime.
+	 * 
+	 * @return the transport, never {@literal null}
+	 * @since 1.1
+	 */
+	public TcpTransport getTransport() {
+		return transport;
 	}
 
 	/**
@@ -273,8 +369,10 @@ public class NettyTcpModbusServer {
 			if ( wireLogging ) {
 				pipeline.addLast(new LoggingHandler("net.solarnetwork.io.modbus.server." + port));
 			}
+			TcpModbusMessageDecoder decoder = new TcpModbusMessageDecoder(false, pendingMessages);
+			decoder.setPooledMessages(pooledMessages);
 			pipeline.addLast(new TcpModbusMessageEncoder(pendingMessages, transactionIdSupplier),
-					new TcpModbusMessageDecoder(false, pendingMessages), new ChildHandler());
+					decoder, new ChildHandler());
 		}
 
 	}
@@ -314,8 +412,11 @@ public class NettyTcpModbusServer {
 			if ( h == null ) {
 				return;
 			}
+			final boolean pooled = pooledMessages;
 			h.accept(msg, (r) -> {
-				ctx.channel().writeAndFlush(new SimpleModbusMessageReply(msg, r));
+				// the encoder takes ownership of the reply, and of the request if pooled
+				ctx.channel().writeAndFlush(pooled ? SimpleModbusMessageReply.newInstance(msg, r)
+						: new SimpleModbusMessageReply(msg, r));
 			});
 		}
 
@@ -449,6 +550,36 @@ public class NettyTcpModbusServer {
 		this.wireLogging = wireLogging;
 	}
 
+	/**
+	 * Get the pooled messages mode.
+	 * 
+	 * @return {@literal true} to recycle request messages and reply wrappers
+	 *         through an object pool
+	 * @since 1.1
+	 */
+	public boolean isPooledMessages() {
+		return pooledMessages;
+	}
+
+	/**
+	 * Set the pooled messages mode.
+	 * 
+	 * <p>
+	 * When enabled, the message handler must provide at most one reply per
+	 * request, and must not use the request message after providing the
+	 * reply, as it will be recycled once the reply has been encoded. Changing
+	 * this value only affects client connections accepted afterwards.
+	 * </p>
+	 * 
+	 * @param pooledMessages
+	 *        {@literal true} to recycle request messages and reply wrappers
+	 *        through an object pool
+	 * @since 1.1
+	 */
+	public void setPooledMessages(boolean pooledMessages) {
+		this.pooledMessages = pooledMessages;
+	}
+
 	/**
 	 * Get the pending Modbus message time-to-live expiration time.
 	 * 
@@ -475,4 +606,34 @@ public class NettyTcpModbusServer {
 		this.pendingMessageTtl = pendingMessageTtl;
 	}
 
+	/**
+	 * Get the shared runtime.
+	 * 
+	 * @return the runtime, or {@literal null} if not using a shared runtime
+	 * @since 1.1
+	 */
+	public ModbusRuntime getRuntime() {
+		return runtime;
+	}
+
+	/**
+	 * Set a shared runtime to use.
+	 * 
+	 * <p>
+	 * If configured, the server will use the runtime's event loop group for
+	 * both accepting connections and handling them, rather than creating
+	 * internal groups. The runtime is retained when the server starts and
+	 * released when the server stops. Changing this value only takes effect
+	 * the next time the server is started.
+	 * </p>
+	 * 
+	 * @param runtime
+	 *        the runtime to use, or {@literal null} to create internal event
+	 *        loop groups
+	 * @since 1.1
+	 */
+	public synchronized void setRuntime(ModbusRuntime runtime) {
+		this.runtime = runtime;
+	}
+
 }
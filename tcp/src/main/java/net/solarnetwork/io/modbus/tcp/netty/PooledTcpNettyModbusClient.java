@@ -0,0 +1,341 @@
+/* ==================================================================
+ * PooledTcpNettyModbusClient.java - 17/10/2026 5:31:08 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
+import net.solarnetwork.io.modbus.netty.msg.ModbusMessageUtils;
+import net.solarnetwork.io.modbus.tcp.TcpModbusClientConfig;
+
+/**
+ * TCP {@link ModbusClient} that maintains a pool of connections to the same
+ * host.
+ *
+ * <p>
+ * Each pooled connection is managed by its own {@link TcpNettyModbusClient},
+ * all sharing one {@link ModbusRuntime}. Every request is routed to the
+ * connected client with the fewest outstanding (in-flight plus queued)
+ * requests, with ties broken in round-robin order. This can increase throughput
+ * to Modbus gateways that service each connection independently.
+ * </p>
+ *
+ * <p>
+ * Pooled connections are managed independently: if auto-reconnect is enabled
+ * in the client configuration, each closed connection is re-established on its
+ * own while requests continue to be routed to the remaining connections.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class PooledTcpNettyModbusClient implements ModbusClient {
+
+	private final TcpModbusClientConfig clientConfig;
+	private final List<TcpNettyModbusClient> clients;
+	private final AtomicInteger nextIndex = new AtomicInteger();
+
+	private volatile boolean started;
+	private ModbusClientConnectionObserver connectionObserver;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * A private {@link ModbusRuntime} will be shared by all pooled connections.
+	 * </p>
+	 *
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param poolSize
+	 *        the number of connections to maintain
+	 * @throws IllegalArgumentException
+	 *         if {@code clientConfig} is {@literal null} or {@code poolSize}
+	 *         is less than {@literal 1}
+	 */
+	public PooledTcpNettyModbusClient(TcpModbusClientConfig clientConfig, int poolSize) {
+		this(clientConfig, poolSize, new ModbusRuntime());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param poolSize
+	 *        the number of connections to maintain
+	 * @param runtime
+	 *        the runtime to share between the pooled connections
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null} or {@code poolSize} is less
+	 *         than {@literal 1}
+	 */
+	public PooledTcpNettyModbusClient(TcpModbusClientConfig clientConfig, int poolSize,
+			ModbusRuntime runtime) {
+		super();
+		if ( clientConfig == null ) {
+			throw new IllegalArgumentException("The clientConfig argument must not be null.");
+		}
+		this.clientConfig = clientConfig;
+		if ( poolSize < 1 ) {
+			throw new IllegalArgumentException("The poolSize argument must be at least 1.");
+		}
+		if ( runtime == null ) {
+			throw new IllegalArgumentException("The runtime argument must not be null.");
+		}
+		List<TcpNettyModbusClient> list = new ArrayList<>(poolSize);
+		for ( int i = 0; i < poolSize; i++ ) {
+			list.add(new TcpNettyModbusClient(clientConfig, runtime));
+		}
+		this.clients = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Start all pooled connections.
+	 *
+	 * <p>
+	 * The returned future completes as soon as any one connection is
+	 * established, or exceptionally if all connections fail.
+	 * </p>
+	 *
+	 * @return a future that completes when the client is ready to be used
+	 */
+	@Override
+	public synchronized CompletableFuture<?> start() {
+		started = true;
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+		final AtomicInteger remaining = new AtomicInteger(clients.size());
+		for ( TcpNettyModbusClient client : clients ) {
+			client.start().whenComplete((r, t) -> {
+				if ( t == null ) {
+					result.complete(null);
+				} else if ( remaining.decrementAndGet() == 0 ) {
+					result.completeExceptionally(t);
+				}
+			});
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isStarted() {
+		return started;
+	}
+
+	@Override
+	public synchronized CompletableFuture<?> stop() {
+		started = false;
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[clients.size()];
+		for ( int i = 0, len = clients.size(); i < len; i++ ) {
+			futures[i] = clients.get(i).stop();
+		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	@Override
+	public boolean isConnected() {
+		if ( !started ) {
+			return false;
+		}
+		for ( TcpNettyModbusClient client : clients ) {
+			if ( client.isConnected() ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Select the connected client with the fewest outstanding requests.
+	 *
+	 * @return the client, or {@literal null} if no client is connected
+	 */
+	private TcpNettyModbusClient selectClient() {
+		final int size = clients.size();
+		final int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+		TcpNettyModbusClient best = null;
+		int bestCount = Integer.MAX_VALUE;
+		for ( int i = 0; i < size; i++ ) {
+			TcpNettyModbusClient client = clients.get((start + i) % size);
+			if ( !client.isConnected() ) {
+				continue;
+			}
+			int count = client.getInFlightCount() + client.getQueuedCount();
+			if ( count < bestCount ) {
+				best = client;
+				bestCount = count;
+				if ( count == 0 ) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	private IOException notConnectedException() {
+		return new IOException(
+				String.format("No connection to %s is available.", clientConfig.getDescription()));
+	}
+
+	@Override
+	public ModbusMessage send(ModbusMessage request) {
+		final TcpNettyModbusClient client = selectClient();
+		if ( client == null ) {
+			IOException e = notConnectedException();
+			throw new ModbusException(e.getMessage(), e);
+		}
+		return client.send(request);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+		final TcpNettyModbusClient client = selectClient();
+		if ( client == null ) {
+			CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
+			fail.completeExceptionally(notConnectedException());
+			return fail;
+		}
+		return client.sendAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request, long timeout,
+			TimeUnit unit) {
+		final TcpNettyModbusClient client = selectClient();
+		if ( client == null ) {
+			CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
+			fail.completeExceptionally(notConnectedException());
+			return fail;
+		}
+		return client.sendAsync(request, timeout, unit);
+	}
+
+	@Override
+	public void releaseResponse(ModbusMessage response) {
+		ModbusMessageUtils.release(response);
+	}
+
+	@Override
+	public TcpModbusClientConfig getClientConfig() {
+		return clientConfig;
+	}
+
+	/**
+	 * Get the pooled clients.
+	 *
+	 * @return the clients, never {@literal null}
+	 */
+	public List<TcpNettyModbusClient> getClients() {
+		return clients;
+	}
+
+	/**
+	 * Get the number of pooled connections that are currently connected.
+	 *
+	 * @return the connected count
+	 */
+	public int getConnectedCount() {
+		int count = 0;
+		for ( TcpNettyModbusClient client : clients ) {
+			if ( client.isConnected() ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the connection observer.
+	 *
+	 * @return the observer, or {@literal null}
+	 */
+	public synchronized ModbusClientConnectionObserver getConnectionObserver() {
+		return connectionObserver;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The observer is notified of each pooled connection opening and closing,
+	 * with this pooled client passed as the {@code client} argument.
+	 * </p>
+	 */
+	@Override
+	public synchronized void setConnectionObserver(
+			ModbusClientConnectionObserver connectionObserver) {
+		this.connectionObserver = connectionObserver;
+		final ModbusClientConnectionObserver delegate = (connectionObserver != null
+				? new PooledConnectionObserver(connectionObserver)
+				: null);
+		for ( TcpNettyModbusClient client : clients ) {
+			client.setConnectionObserver(delegate);
+		}
+	}
+
+	/**
+	 * Set the wire logging mode on all pooled clients.
+	 *
+	 * @param wireLogging
+	 *        {@literal true} to enable wire-level logging of all messages
+	 */
+	public void setWireLogging(boolean wireLogging) {
+		for ( TcpNettyModbusClient client : clients ) {
+			client.setWireLogging(wireLogging);
+		}
+	}
+
+	private final class PooledConnectionObserver implements ModbusClientConnectionObserver {
+
+		private final ModbusClientConnectionObserver delegate;
+
+		private PooledConnectionObserver(ModbusClientConnectionObserver delegate) {
+			super();
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void connectionOpened(ModbusClient client, ModbusClientConfig config) {
+			delegate.connectionOpened(PooledTcpNettyModbusClient.this, config);
+		}
+
+		@Override
+		public void connectionClosed(ModbusClient client, ModbusClientConfig config,
+				Throwable exception, boolean willReconnect) {
+			delegate.connectionClosed(PooledTcpNettyModbusClient.this, config, exception,
+					willReconnect);
+		}
+
+	}
+
+}
@@ -0,0 +1,188 @@
+/* ==================================================================
+ * SharedTcpNettyModbusClient.java - 17/10/2026 6:31:50 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusException;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.ModbusMessageUtils;
+import net.solarnetwork.io.modbus.tcp.TcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.TcpConnectionRegistry.SharedConnection;
+
+/**
+ * TCP {@link ModbusClient} that shares its connection with other clients of
+ * the same host and port.
+ *
+ * <p>
+ * Instances are created via
+ * {@link TcpConnectionRegistry#createClient(TcpModbusClientConfig)}.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SharedTcpNettyModbusClient implements ModbusClient {
+
+	private final TcpConnectionRegistry registry;
+	private final TcpModbusClientConfig clientConfig;
+
+	private volatile SharedConnection connection;
+	private volatile ModbusClientConnectionObserver connectionObserver;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *        the registry
+	 * @param clientConfig
+	 *        the client configuration
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	SharedTcpNettyModbusClient(TcpConnectionRegistry registry, TcpModbusClientConfig clientConfig) {
+		super();
+		if ( registry == null ) {
+			throw new IllegalArgumentException("The registry argument must not be null.");
+		}
+		this.registry = registry;
+		if ( clientConfig == null ) {
+			throw new IllegalArgumentException("The clientConfig argument must not be null.");
+		}
+		this.clientConfig = clientConfig;
+	}
+
+	@Override
+	public synchronized CompletableFuture<?> start() {
+		// acquire again even when already started, so a failed start is retried
+		final SharedConnection conn = registry.acquire(this);
+		this.connection = conn;
+		return conn.startFuture();
+	}
+
+	@Override
+	public boolean isStarted() {
+		return connection != null;
+	}
+
+	@Override
+	public synchronized CompletableFuture<?> stop() {
+		final SharedConnection conn = this.connection;
+		if ( conn == null ) {
+			return CompletableFuture.completedFuture(null);
+		}
+		this.connection = null;
+		return registry.release(this, conn);
+	}
+
+	@Override
+	public boolean isConnected() {
+		final SharedConnection conn = this.connection;
+		return (conn != null && conn.client().isConnected());
+	}
+
+	private IOException notConnectedException() {
+		return new IOException("Client not connected.");
+	}
+
+	@Override
+	public ModbusMessage send(ModbusMessage request) {
+		final SharedConnection conn = this.connection;
+		if ( conn == null ) {
+			IOException e = notConnectedException();
+			throw new ModbusException(e.getMessage(), e);
+		}
+		return conn.client().send(request);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request) {
+		final SharedConnection conn = this.connection;
+		if ( conn == null ) {
+			CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
+			fail.completeExceptionally(notConnectedException());
+			return fail;
+		}
+		return conn.client().sendAsync(request);
+	}
+
+	@Override
+	public CompletableFuture<ModbusMessage> sendAsync(ModbusMessage request, long timeout,
+			TimeUnit unit) {
+		final SharedConnection conn = this.connection;
+		if ( conn == null ) {
+			CompletableFuture<ModbusMessage> fail = new CompletableFuture<>();
+			fail.completeExceptionally(notConnectedException());
+			return fail;
+		}
+		return conn.client().sendAsync(request, timeout, unit);
+	}
+
+	@Override
+	public List<CompletableFuture<ModbusMessage>> sendAllAsync(Collection<ModbusMessage> requests) {
+		final SharedConnection conn = this.connection;
+		if ( conn == null ) {
+			return ModbusClient.super.sendAllAsync(requests);
+		}
+		return conn.client().sendAllAsync(requests);
+	}
+
+	@Override
+	public void releaseResponse(ModbusMessage response) {
+		ModbusMessageUtils.release(response);
+	}
+
+	@Override
+	public TcpModbusClientConfig getClientConfig() {
+		return clientConfig;
+	}
+
+	/**
+	 * Get the connection observer.
+	 *
+	 * @return the observer, or {@literal null}
+	 */
+	public ModbusClientConnectionObserver getConnectionObserver() {
+		return connectionObserver;
+	}
+
+	@Override
+	public void setConnectionObserver(ModbusClientConnectionObserver connectionObserver) {
+		this.connectionObserver = connectionObserver;
+	}
+
+	/**
+	 * Get the registry.
+	 *
+	 * @return the registry
+	 */
+	public TcpConnectionRegistry getRegistry() {
+		return registry;
+	}
+
+}
@@ -0,0 +1,247 @@
+/* ==================================================================
+ * TcpConnectionRegistry.java - 17/10/2026 6:24:13 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
+import net.solarnetwork.io.modbus.tcp.TcpModbusClientConfig;
+
+/**
+ * Registry of TCP connections shared by many logical {@link ModbusClient}
+ * instances.
+ *
+ * <p>
+ * Clients created via {@link #createClient(TcpModbusClientConfig)} that have
+ * the same host and port share a single {@link TcpNettyModbusClient}, and thus
+ * a single socket and transaction table. The shared connection is started when
+ * the first sharing client starts, and stopped when the last sharing client
+ * stops. The shared connection is configured from the configuration of the
+ * client that caused it to start. If the shared connection failed to start,
+ * the next client to start retries it. A client that joins an already open
+ * connection is told so through its connection observer straight away.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpConnectionRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(TcpConnectionRegistry.class);
+
+	private final ModbusRuntime runtime;
+	private final Map<String, SharedConnection> connections = new HashMap<>(8);
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * A private {@link ModbusRuntime} will be shared by all connections.
+	 * </p>
+	 */
+	public TcpConnectionRegistry() {
+		this(new ModbusRuntime());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param runtime
+	 *        the runtime to share between all connections
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public TcpConnectionRegistry(ModbusRuntime runtime) {
+		super();
+		if ( runtime == null ) {
+			throw new IllegalArgumentException("The runtime argument must not be null.");
+		}
+		this.runtime = runtime;
+	}
+
+	/**
+	 * Create a new client that shares connections via this registry.
+	 *
+	 * @param clientConfig
+	 *        the client configuration
+	 * @return the new client
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public SharedTcpNettyModbusClient createClient(TcpModbusClientConfig clientConfig) {
+		return new SharedTcpNettyModbusClient(this, clientConfig);
+	}
+
+	/**
+	 * Get the number of active shared connections.
+	 *
+	 * @return the connection count
+	 */
+	public synchronized int getConnectionCount() {
+		return connections.size();
+	}
+
+	/**
+	 * Get the runtime.
+	 *
+	 * @return the runtime, never {@literal null}
+	 */
+	public ModbusRuntime getRuntime() {
+		return runtime;
+	}
+
+	private static String connectionKey(TcpModbusClientConfig config) {
+		return String.valueOf(config.getHost()) + ':' + config.getPort();
+	}
+
+	/**
+	 * Acquire a shared connection for a client.
+	 *
+	 * @param client
+	 *        the client to acquire the connection for
+	 * @return the shared connection
+	 */
+	synchronized SharedConnection acquire(SharedTcpNettyModbusClient client) {
+		final String key = connectionKey(client.getClientConfig());
+		SharedConnection conn = connections.get(key);
+		if ( conn == null ) {
+			conn = new SharedConnection(key,
+					new TcpNettyModbusClient(client.getClientConfig(), runtime));
+			connections.put(key, conn);
+		}
+		final boolean joined = conn.users.add(client);
+		if ( conn.startFuture == null ) {
+			log.debug("Starting shared connection to {}", key);
+			conn.startFuture = conn.client.start();
+		} else if ( conn.startFuture.isCompletedExceptionally() && !conn.client.isConnected() ) {
+			// the client keeps returning its failed start future until stopped
+			log.debug("Restarting shared connection to {} after failed start", key);
+			conn.client.stop();
+			conn.startFuture = conn.client.start();
+		} else if ( joined && conn.client.isConnected() ) {
+			// the connection opened before this client joined, so it missed the event
+			conn.connectionOpened(client);
+		}
+		return conn;
+	}
+
+	/**
+	 * Release a shared connection for a client.
+	 *
+	 * @param client
+	 *        the client to release the connection for
+	 * @param conn
+	 *        the connection to release
+	 * @return a future that completes when the connection is released, which
+	 *         includes stopping the connection if this was the last client
+	 *         sharing it
+	 */
+	synchronized CompletableFuture<?> release(SharedTcpNettyModbusClient client,
+			SharedConnection conn) {
+		if ( !conn.users.remove(client) || !conn.users.isEmpty() ) {
+			return CompletableFuture.completedFuture(null);
+		}
+		connections.remove(conn.key, conn);
+		log.debug("Stopping shared connection to {}", conn.key);
+		return conn.client.stop();
+	}
+
+	/**
+	 * A connection shared between clients.
+	 */
+	static final class SharedConnection implements ModbusClientConnectionObserver {
+
+		private final String key;
+		private final TcpNettyModbusClient client;
+		private final Set<SharedTcpNettyModbusClient> users = new CopyOnWriteArraySet<>();
+		private CompletableFuture<?> startFuture;
+
+		private SharedConnection(String key, TcpNettyModbusClient client) {
+			super();
+			this.key = key;
+			this.client = client;
+			client.setConnectionObserver(this);
+		}
+
+		/**
+		 * Get the client that owns the connection.
+		 *
+		 * @return the client
+		 */
+		TcpNettyModbusClient client() {
+			return client;
+		}
+
+		/**
+		 * Get the connection start future.
+		 *
+		 * @return the future
+		 */
+		CompletableFuture<?> startFuture() {
+			return startFuture;
+		}
+
+		@Override
+		public void connectionOpened(ModbusClient c, ModbusClientConfig config) {
+			for ( SharedTcpNettyModbusClient user : users ) {
+				connectionOpened(user);
+			}
+		}
+
+		private void connectionOpened(SharedTcpNettyModbusClient user) {
+			final ModbusClientConnectionObserver obs = user.getConnectionObserver();
+			if ( obs != null ) {
+				try {
+					obs.connectionOpened(user, user.getClientConfig());
+				} catch ( Exception t ) {
+					log.warn("Connection observer [{}] threw exception: ", obs, t);
+				}
+			}
+		}
+
+		@Override
+		public void connectionClosed(ModbusClient c, ModbusClientConfig config, Throwable exception,
+				boolean willReconnect) {
+			for ( SharedTcpNettyModbusClient user : users ) {
+				final ModbusClientConnectionObserver obs = user.getConnectionObserver();
+				if ( obs != null ) {
+					try {
+						obs.connectionClosed(user, user.getClientConfig(), exception, willReconnect);
+					} catch ( Exception t ) {
+						log.warn("Connection observer [{}] threw exception: ", obs, t);
+					}
+				}
+			}
+		}
+
+	}
+
+}
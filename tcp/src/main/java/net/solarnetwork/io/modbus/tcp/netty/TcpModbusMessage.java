@@ -22,8 +22,9 @@
 
 package net.solarnetwork.io.modbus.tcp.netty;
 
-import static net.solarnetwork.io.modbus.ModbusByteUtils.encode16;
 import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
 import net.solarnetwork.io.modbus.ModbusError;
 import net.solarnetwork.io.modbus.ModbusFunction;
 import net.solarnetwork.io.modbus.ModbusMessage;
@@ -32,9 +33,17 @@ import net.solarnetwork.io.modbus.netty.msg.ModbusPayloadEncoder;
 
 /**
  * A TCP-encapsulated Modbus message.
+ * 
+ * <p>
+ * Instances can be obtained from a pool via
+ * {@link #newInstance(long, int, ModbusMessage)}, and returned to the pool via
+ * {@link #recycle()} by whoever takes ownership of them. The TCP codec only
+ * does this for the messages it tracks in its transaction table, recycling
+ * each once it has been removed from the table.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpModbusMessage
 		implements net.solarnetwork.io.modbus.tcp.TcpModbusMessage, ModbusPayloadEncoder {
@@ -42,9 +51,18 @@ public class TcpModbusMessage
 	/** The TCP protocol ID. */
 	public static final int TCP_PROTOCOL_ID = 0;
 
-	private final long timestamp;
-	private final int transactionId;
-	private final ModbusMessage body;
+	private static final Recycler<TcpModbusMessage> RECYCLER = new Recycler<TcpModbusMessage>() {
+
+		@Override
+		protected TcpModbusMessage newObject(Handle<TcpModbusMessage> handle) {
+			return new TcpModbusMessage(handle);
+		}
+	};
+
+	private final Handle<TcpModbusMessage> handle;
+	private long timestamp;
+	private int transactionId;
+	private ModbusMessage body;
 
 	/**
 	 * Constructor.
@@ -78,14 +96,72 @@ public class TcpModbusMessage
 	 */
 	public TcpModbusMessage(long timestamp, int transactionId, ModbusMessage body) {
 		super();
+		validateBody(body);
+		this.handle = null;
 		this.timestamp = timestamp;
 		this.transactionId = transactionId;
+		this.body = body;
+	}
+
+	private TcpModbusMessage(Handle<TcpModbusMessage> handle) {
+		super();
+		this.handle = handle;
+	}
+
+	private static void validateBody(ModbusMessage body) {
 		if ( body == null ) {
 			throw new IllegalArgumentException("The body argument must not be null.");
 		} else if ( !(body instanceof ModbusPayloadEncoder) ) {
 			throw new IllegalArgumentException("The body argument must implement ModbusPayloadEncoder.");
 		}
-		this.body = body;
+	}
+
+	/**
+	 * Get a pooled instance.
+	 * 
+	 * <p>
+	 * The returned instance should be passed to {@link #recycle()} once no
+	 * longer needed, after which it must not be used.
+	 * </p>
+	 * 
+	 * @param timestamp
+	 *        the timestamp
+	 * @param transactionId
+	 *        the transaction ID
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}.
+	 * @return the instance
+	 * @throws IllegalArgumentException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public static TcpModbusMessage newInstance(long timestamp, int transactionId,
+			ModbusMessage body) {
+		validateBody(body);
+		TcpModbusMessage result = RECYCLER.get();
+		result.timestamp = timestamp;
+		result.transactionId = transactionId;
+		result.body = body;
+		return result;
+	}
+
+	/**
+	 * Return this instance to the pool it was obtained from.
+	 * 
+	 * <p>
+	 * This method does nothing if this instance was not obtained via
+	 * {@link #newInstance(long, int, ModbusMessage)}. The message body is not
+	 * recycled.
+	 * </p>
+	 * 
+	 * @since 1.1
+	 */
+	public void recycle() {
+		if ( handle == null ) {
+			return;
+		}
+		body = null;
+		handle.recycle(this);
 	}
 
 	@Override
@@ -181,16 +257,48 @@ public class TcpModbusMessage
 
 	@Override
 	public void encodeModbusPayload(ByteBuf out) {
-		byte[] header = new byte[7];
-		encode16(header, 0, transactionId);
-		encode16(header, 4, 1 + ((ModbusPayloadEncoder) body).payloadLength());
-		header[6] = (byte) body.getUnitId();
-		out.writeBytes(header);
-		((ModbusPayloadEncoder) body).encodeModbusPayload(out);
+		encodeModbusPayload(transactionId, body, out);
 	}
 
 	@Override
 	public int payloadLength() {
+		return payloadLength(body);
+	}
+
+	/**
+	 * Encode a TCP frame for a message, without creating a
+	 * {@code TcpModbusMessage} for it.
+	 *
+	 * @param transactionId
+	 *        the transaction ID
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}
+	 * @param out
+	 *        the buffer to encode the frame to
+	 * @throws ClassCastException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public static void encodeModbusPayload(int transactionId, ModbusMessage body, ByteBuf out) {
+		final ModbusPayloadEncoder enc = (ModbusPayloadEncoder) body;
+		out.writeShort(transactionId);
+		out.writeShort(TCP_PROTOCOL_ID);
+		out.writeShort(1 + enc.payloadLength());
+		out.writeByte(body.getUnitId());
+		enc.encodeModbusPayload(out);
+	}
+
+	/**
+	 * Get the length of a TCP frame for a message.
+	 *
+	 * @param body
+	 *        the message body, must implement {@link ModbusPayloadEncoder}
+	 * @return the frame length
+	 * @throws ClassCastException
+	 *         if {@code body} does not implement {@link ModbusPayloadEncoder}
+	 * @since 1.1
+	 */
+	public static int payloadLength(ModbusMessage body) {
 		return 7 + ((ModbusPayloadEncoder) body).payloadLength();
 	}
 
@@ -35,9 +35,19 @@ import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageDecoder.DecoderState
 
 /**
  * Decoder for TCP Modbus messages.
+ * 
+ * <p>
+ * When operating as a controller, the decoder takes ownership of each request
+ * message it removes from the transaction table, and recycles it via
+ * {@link TcpModbusMessage#recycle()}, which has no effect on messages not
+ * obtained from a pool. When operating as a responder and
+ * {@link #setPooledMessages(boolean)} is enabled, decoded request messages are
+ * obtained from a pool, to be recycled by the encoder when the response is
+ * written.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 
@@ -70,8 +80,10 @@ public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 	private final boolean controller;
 
 	/** A mapping of transaction messages to pair requests/responses. */
-	private final ConcurrentMap<Integer, TcpModbusMessage> pendingMessages;
+	private final TcpTransactionTable pendingMessages;
 
+	private boolean retainResponseBuffers;
+	private boolean pooledMessages;
 	private int transactionId;
 	private short unitId;
 
@@ -90,6 +102,24 @@ public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 	 */
 	public TcpModbusMessageDecoder(boolean controller,
 			ConcurrentMap<Integer, TcpModbusMessage> pendingMessages) {
+		this(controller, new MapTcpTransactionTable(pendingMessages));
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param controller
+	 *        {@literal true} if operating as a controller where decoding is for
+	 *        Modbus response message, or {@literal false} if operating as a
+	 *        responder where decoding is for Modbus request messages
+	 * @param pendingMessages
+	 *        a table of transaction IDs to associated messages, to handle
+	 *        request and response pairing
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.1
+	 */
+	public TcpModbusMessageDecoder(boolean controller, TcpTransactionTable pendingMessages) {
 		super(DecoderState.READ_FIXED_HEADER);
 		this.controller = controller;
 		if ( pendingMessages == null ) {
@@ -126,12 +156,16 @@ public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 			AddressedModbusMessage addr = (req != null ? req.unwrap(AddressedModbusMessage.class)
 					: null);
 			ModbusMessage payload = ModbusMessageUtils.decodeResponsePayload(unitId,
-					(addr != null ? addr.getAddress() : 0), (addr != null ? addr.getCount() : 0), in);
+					(addr != null ? addr.getAddress() : 0), (addr != null ? addr.getCount() : 0), in,
+					retainResponseBuffers);
 			if ( payload != null ) {
 				if ( req != null ) {
-					pendingMessages.remove(transactionId, req);
+					final boolean removed = pendingMessages.remove(transactionId, req);
 					msg = new SimpleModbusMessageReply(req.unwrap(ModbusMessage.class),
 							new TcpModbusMessage(transactionId, payload));
+					if ( removed ) {
+						req.recycle();
+					}
 				} else {
 					msg = new TcpModbusMessage(transactionId, payload);
 				}
@@ -140,8 +174,10 @@ public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 			// inbound request
 			ModbusMessage payload = ModbusMessageUtils.decodeRequestPayload(unitId, 0, 0, in);
 			if ( payload != null ) {
-				TcpModbusMessage req = new TcpModbusMessage(System.currentTimeMillis(), transactionId,
-						payload);
+				final long now = System.currentTimeMillis();
+				TcpModbusMessage req = (pooledMessages
+						? TcpModbusMessage.newInstance(now, transactionId, payload)
+						: new TcpModbusMessage(now, transactionId, payload));
 				pendingMessages.put(transactionId, req);
 				msg = req;
 			}
@@ -151,4 +187,65 @@ public class TcpModbusMessageDecoder extends ReplayingDecoder<DecoderState> {
 		}
 		checkpoint(DecoderState.READ_FIXED_HEADER);
 	}
+
+	/**
+	 * Get the retain response buffers mode.
+	 *
+	 * @return {@literal true} if register read responses retain their data in
+	 *         the inbound buffer
+	 * @since 1.1
+	 */
+	public boolean isRetainResponseBuffers() {
+		return retainResponseBuffers;
+	}
+
+	/**
+	 * Set the retain response buffers mode.
+	 *
+	 * <p>
+	 * When enabled and operating as a controller, read holding registers, read
+	 * input registers, and read/write holding registers responses are decoded
+	 * as
+	 * {@link net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage}
+	 * instances holding a retained slice of the inbound buffer, which must be
+	 * released once no longer needed.
+	 * </p>
+	 *
+	 * @param retainResponseBuffers
+	 *        {@literal true} to retain register read response data in the
+	 *        inbound buffer, rather than copy it
+	 * @since 1.1
+	 */
+	public void setRetainResponseBuffers(boolean retainResponseBuffers) {
+		this.retainResponseBuffers = retainResponseBuffers;
+	}
+
+	/**
+	 * Get the pooled messages mode.
+	 *
+	 * @return {@literal true} if decoded request messages are obtained from a
+	 *         pool
+	 * @since 1.1
+	 */
+	public boolean isPooledMessages() {
+		return pooledMessages;
+	}
+
+	/**
+	 * Set the pooled messages mode.
+	 *
+	 * <p>
+	 * This only applies when operating as a responder. Decoded request
+	 * messages are then obtained from a pool, and must not be used after the
+	 * response to them has been written.
+	 * </p>
+	 *
+	 * @param pooledMessages
+	 *        {@literal true} to obtain decoded request messages from a pool
+	 * @since 1.1
+	 */
+	public void setPooledMessages(boolean pooledMessages) {
+		this.pooledMessages = pooledMessages;
+	}
+
 }
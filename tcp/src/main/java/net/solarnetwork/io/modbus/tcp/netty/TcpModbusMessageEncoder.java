@@ -25,31 +25,57 @@ package net.solarnetwork.io.modbus.tcp.netty;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.IntSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import net.solarnetwork.io.modbus.ModbusMessage;
 import net.solarnetwork.io.modbus.ModbusMessageReply;
-import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
+import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
 
 /**
  * Encoder of {@link ModbusMessage} to TCP encapsulated {@link ByteBuf} Modbus
  * frame.
  *
+ * <p>
+ * Each frame is encoded into a single buffer, sized from the message payload
+ * length.
+ * </p>
+ * 
+ * <p>
+ * When {@link #setPooledMessages(boolean)} is enabled, the request messages
+ * added to the transaction table are obtained from a pool. Each outbound
+ * response takes ownership of its reply wrapper and, if it removes the request
+ * from the transaction table, of the request: both are recycled via
+ * {@link SimpleModbusMessageReply#recycle()} and
+ * {@link TcpModbusMessage#recycle()} once the response has been encoded, which
+ * has no effect on messages not obtained from a pool.
+ * </p>
+ *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class TcpModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessage> {
 
+	private static final Logger log = LoggerFactory.getLogger(TcpModbusMessageEncoder.class);
+
 	/** A mapping of transaction pendingMessages to pair requests/responses. */
-	private final ConcurrentMap<Integer, TcpModbusMessage> pendingMessages;
+	private final TcpTransactionTable pendingMessages;
 
 	/** A provider of transaction IDs. */
 	private final IntSupplier transactionIdSupplier;
 
+	private boolean pooledMessages;
+
 	/**
 	 * Constructor.
 	 * 
+	 * <p>
+	 * A {@link TcpTransactionIdAllocator} will be used to generate transaction
+	 * IDs that are not already in {@code pendingMessages}.
+	 * </p>
+	 * 
 	 * @param pendingMessages
 	 *        a mapping of transaction IDs to associated pendingMessages, to
 	 *        handle request and response pairing
@@ -57,7 +83,11 @@ public class TcpModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessa
 	 *         if any argument is {@literal null}
 	 */
 	public TcpModbusMessageEncoder(ConcurrentMap<Integer, TcpModbusMessage> pendingMessages) {
-		this(pendingMessages, SimpleTransactionIdSupplier.INSTANCE);
+		this(new MapTcpTransactionTable(pendingMessages));
+	}
+
+	private TcpModbusMessageEncoder(TcpTransactionTable pendingMessages) {
+		this(pendingMessages, new TcpTransactionIdAllocator(pendingMessages));
 	}
 
 	/**
@@ -74,6 +104,24 @@ public class TcpModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessa
 	 */
 	public TcpModbusMessageEncoder(ConcurrentMap<Integer, TcpModbusMessage> pendingMessages,
 			IntSupplier transactionIdSupplier) {
+		this(new MapTcpTransactionTable(pendingMessages), transactionIdSupplier);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param pendingMessages
+	 *        a table of transaction IDs to associated pendingMessages, to
+	 *        handle request and response pairing
+	 * @param transactionIdSupplier
+	 *        a TCP Modbus transaction ID supplier; only values from 1-65535
+	 *        should be supplied
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.2
+	 */
+	public TcpModbusMessageEncoder(TcpTransactionTable pendingMessages,
+			IntSupplier transactionIdSupplier) {
 		super();
 		if ( pendingMessages == null ) {
 			throw new IllegalArgumentException("The pendingMessages argument must not be null.");
@@ -92,18 +140,36 @@ public class TcpModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessa
 		if ( msg instanceof TcpModbusMessage ) {
 			tcp = (TcpModbusMessage) msg;
 		} else if ( msg instanceof ModbusMessageReply ) {
-			// outbound response
+			// outbound response; encode directly as nothing needs to hold a TcpModbusMessage
 			ModbusMessageReply reply = (ModbusMessageReply) msg;
 			ModbusMessage req = reply.getRequest();
 			net.solarnetwork.io.modbus.tcp.TcpModbusMessage tcpReq = req
 					.unwrap(net.solarnetwork.io.modbus.tcp.TcpModbusMessage.class);
-			tcp = new TcpModbusMessage(tcpReq.getTransactionId(), reply);
-			pendingMessages.remove(tcp.getTransactionId(), req);
+			final int transactionId = tcpReq.getTransactionId();
+			final boolean removed = pendingMessages.remove(transactionId, req);
+			ByteBuf buf = ctx.alloc().buffer(TcpModbusMessage.payloadLength(reply));
+			TcpModbusMessage.encodeModbusPayload(transactionId, reply, buf);
+			out.add(buf);
+			if ( reply instanceof SimpleModbusMessageReply ) {
+				((SimpleModbusMessageReply) reply).recycle();
+			}
+			if ( removed && req instanceof TcpModbusMessage ) {
+				((TcpModbusMessage) req).recycle();
+			}
+			return;
 		} else {
 			// outbound request
 			int transactionId = transactionIdSupplier.getAsInt();
-			tcp = new TcpModbusMessage(transactionId, msg);
-			pendingMessages.put(transactionId, tcp);
+			tcp = (pooledMessages
+					? TcpModbusMessage.newInstance(System.currentTimeMillis(), transactionId, msg)
+					: new TcpModbusMessage(transactionId, msg));
+			TcpModbusMessage prev = pendingMessages.put(transactionId, tcp);
+			if ( prev != null ) {
+				// the allocator removes stale entries, so only a genuine collision gets here
+				log.warn("Transaction ID {} collision: replacing pending request {} with {}",
+						transactionId, prev, tcp);
+				prev.recycle();
+			}
 		}
 		int len = tcp.payloadLength();
 		ByteBuf buf = ctx.alloc().buffer(len);
@@ -111,4 +177,27 @@ public class TcpModbusMessageEncoder extends MessageToMessageEncoder<ModbusMessa
 		out.add(buf);
 	}
 
+	/**
+	 * Get the pooled messages mode.
+	 *
+	 * @return {@literal true} if request messages added to the transaction
+	 *         table are obtained from a pool
+	 * @since 1.2
+	 */
+	public boolean isPooledMessages() {
+		return pooledMessages;
+	}
+
+	/**
+	 * Set the pooled messages mode.
+	 *
+	 * @param pooledMessages
+	 *        {@literal true} to obtain request messages added to the
+	 *        transaction table from a pool
+	 * @since 1.2
+	 */
+	public void setPooledMessages(boolean pooledMessages) {
+		this.pooledMessages = pooledMessages;
+	}
+
 }
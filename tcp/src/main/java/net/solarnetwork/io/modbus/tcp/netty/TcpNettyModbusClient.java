@@ -34,23 +34,32 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.MultiThreadIoEventLoopGroup;
-import io.netty.channel.nio.NioIoHandler;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import net.solarnetwork.io.modbus.ModbusClient;
 import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
 import net.solarnetwork.io.modbus.netty.handler.NettyModbusClient;
-import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
 import net.solarnetwork.io.modbus.tcp.TcpModbusClientConfig;
 
 /**
  * TCP implementation of {@link ModbusClient}.
+ * 
+ * <p>
+ * Unless a shared transaction map is provided to the constructor, each
+ * connection is given its own {@link ArrayTcpTransactionTable} to pair
+ * requests with responses, and its own {@link TcpTransactionIdAllocator} to
+ * generate transaction IDs that are not already in flight. The ID of a request
+ * that timed out is reused once the ID comes around again, so a request with
+ * a longer per-request timeout keeps its ID until it completes. Both are only
+ * accessed from the connection's event loop.
+ * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfig> {
 
@@ -60,10 +69,19 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 	/** The channel class to use. */
 	private final Class<? extends Channel> channelClass;
 
-	/** A mapping of transaction pendingMessages to pair requests/responses. */
-	private final ConcurrentMap<Integer, TcpModbusMessage> pendingMessages;
+	/** The transport to use for a private event loop group. */
+	private final TcpTransport transport;
 
-	/** A provider of transaction IDs. */
+	/**
+	 * A shared table of transaction pendingMessages to pair requests/responses,
+	 * or {@literal null} to use a table per channel.
+	 */
+	private final TcpTransactionTable pendingMessages;
+
+	/**
+	 * A provider of transaction IDs, or {@literal null} to use an allocator
+	 * per channel.
+	 */
 	private final IntSupplier transactionIdSupplier;
 
 	/** The event loop group. */
@@ -76,15 +94,35 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 	 * Constructor.
 	 * 
 	 * <p>
-	 * A default {@link EventLoopGroup} will be used.
+	 * A default {@link EventLoopGroup} will be used, with the best available
+	 * {@link TcpTransport}.
 	 * </p>
 	 * 
 	 * @param clientConfig
 	 *        the client configuration
 	 */
 	public TcpNettyModbusClient(TcpModbusClientConfig clientConfig) {
-		this(clientConfig, null, new ConcurrentHashMap<>(8, 0.9f, 2), null, NioSocketChannel.class,
-				new ConcurrentHashMap<>(8, 0.9f, 2), SimpleTransactionIdSupplier.INSTANCE);
+		this(clientConfig, TcpTransport.auto());
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * A default {@link EventLoopGroup} will be created for the given transport.
+	 * </p>
+	 * 
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param transport
+	 *        the transport to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 * @since 1.1
+	 */
+	public TcpNettyModbusClient(TcpModbusClientConfig clientConfig, TcpTransport transport) {
+		this(clientConfig, null, null, new ConcurrentHashMap<>(8, 0.9f, 2), null, null,
+				requireTransport(transport), (TcpTransactionTable) null, null);
 	}
 
 	/**
@@ -100,8 +138,30 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 	 */
 	public TcpNettyModbusClient(TcpModbusClientConfig clientConfig, EventLoopGroup eventLoopGroup,
 			Class<? extends Channel> channelClass) {
-		this(clientConfig, null, new ConcurrentHashMap<>(8, 0.9f, 2), eventLoopGroup, channelClass,
-				new ConcurrentHashMap<>(8, 0.9f, 2), SimpleTransactionIdSupplier.INSTANCE);
+		this(clientConfig, null, null, new ConcurrentHashMap<>(8, 0.9f, 2), eventLoopGroup,
+				channelClass, defaultTransport(eventLoopGroup, channelClass),
+				(TcpTransactionTable) null, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * The event loop group, scheduler, timer, and buffer allocator will be
+	 * obtained from the given runtime, which will be retained when the client
+	 * starts and released when the client stops.
+	 * </p>
+	 * 
+	 * @param clientConfig
+	 *        the client configuration
+	 * @param runtime
+	 *        the shared runtime
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public TcpNettyModbusClient(TcpModbusClientConfig clientConfig, ModbusRuntime runtime) {
+		this(clientConfig, requireRuntime(runtime), null, new ConcurrentHashMap<>(8, 0.9f, 2), null,
+				NioSocketChannel.class, TcpTransport.NIO, (TcpTransactionTable) null, null);
 	}
 
 	/**
@@ -159,25 +219,57 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 			Class<? extends Channel> channelClass,
 			ConcurrentMap<Integer, TcpModbusMessage> pendingMessages,
 			IntSupplier transactionIdSupplier) {
-		super(clientConfig, scheduler, pending);
-		if ( eventLoopGroup == null ) {
-			eventLoopGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
+		this(clientConfig, null, scheduler, pending, eventLoopGroup, channelClass,
+				defaultTransport(eventLoopGroup, channelClass),
+				new MapTcpTransactionTable(pendingMessages), transactionIdSupplier);
+	}
+
+	private TcpNettyModbusClient(TcpModbusClientConfig clientConfig, ModbusRuntime runtime,
+			ScheduledExecutorService scheduler, ConcurrentMap<ModbusMessage, PendingMessage> pending,
+			EventLoopGroup eventLoopGroup, Class<? extends Channel> channelClass,
+			TcpTransport transport, TcpTransactionTable pendingMessages,
+			IntSupplier transactionIdSupplier) {
+		super(clientConfig, runtime, scheduler, pending);
+		this.transport = transport;
+		if ( runtime != null ) {
+			// group obtained from runtime on connect
+			this.privateEventLoopGroup = false;
+		} else if ( eventLoopGroup == null ) {
+			eventLoopGroup = transport.newEventLoopGroup(0);
 			this.privateEventLoopGroup = true;
 		} else {
 			this.privateEventLoopGroup = false;
 		}
 		this.eventLoopGroup = eventLoopGroup;
-		this.channelClass = (channelClass != null ? channelClass : NioSocketChannel.class);
-		if ( pendingMessages == null ) {
-			throw new IllegalArgumentException("The pendingMessages argument must not be null.");
-		}
+		this.channelClass = (channelClass != null ? channelClass : transport.socketChannelClass());
 		this.pendingMessages = pendingMessages;
-		if ( transactionIdSupplier == null ) {
+		if ( transactionIdSupplier == null && pendingMessages != null ) {
 			throw new IllegalArgumentException("The transactionIdSupplier argument must not be null.");
 		}
 		this.transactionIdSupplier = transactionIdSupplier;
 	}
 
+	private static ModbusRuntime requireRuntime(ModbusRuntime runtime) {
+		if ( runtime == null ) {
+			throw new IllegalArgumentException("The runtime argument must not be null.");
+		}
+		return runtime;
+	}
+
+	private static TcpTransport requireTransport(TcpTransport transport) {
+		if ( transport == null ) {
+			throw new IllegalArgumentException("The transport argument must not be null.");
+		}
+		return transport;
+	}
+
+	private static TcpTransport defaultTransport(EventLoopGroup eventLoopGroup,
+			Class<? extends Channel> channelClass) {
+		// an external group or channel class has historically implied NIO
+		return (eventLoopGroup == null && channelClass == null ? TcpTransport.auto()
+				: TcpTransport.NIO);
+	}
+
 	@Override
 	protected synchronized ChannelFuture connect() throws IOException {
 		eventLoopGroupStopFuture = null;
@@ -185,9 +277,12 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 		if ( host == null || host.isEmpty() ) {
 			throw new IllegalArgumentException("No host configured, cannot connect.");
 		}
-		if ( eventLoopGroup.isShuttingDown() ) {
+		final ModbusRuntime runtime = getRuntime();
+		if ( runtime != null ) {
+			eventLoopGroup = runtime.eventLoopGroup();
+		} else if ( eventLoopGroup.isShuttingDown() ) {
 			if ( privateEventLoopGroup ) {
-				eventLoopGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
+				eventLoopGroup = transport.newEventLoopGroup(0);
 			} else {
 				throw new IOException("External EventLoopGroup is stopped.");
 			}
@@ -199,6 +294,9 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 				.remoteAddress(host, clientConfig.getPort())
 				.handler(new HandlerInitializer());
 		// @formatter:on
+		if ( runtime != null ) {
+			bootstrap.option(ChannelOption.ALLOCATOR, runtime.allocator());
+		}
 		return bootstrap.connect();
 	}
 
@@ -228,14 +326,30 @@ public class TcpNettyModbusClient extends NettyModbusClient<TcpModbusClientConfi
 
 	@Override
 	protected void initChannel(Channel channel) {
+		final TcpTransactionTable table = (pendingMessages != null ? pendingMessages
+				: new ArrayTcpTransactionTable());
+		final IntSupplier txIdSupplier = (transactionIdSupplier != null ? transactionIdSupplier
+				: new TcpTransactionIdAllocator(table, this::isPending));
 		ChannelPipeline pipeline = channel.pipeline();
-		pipeline.addLast(MESSAGE_ENCODER_HANDLER_NAME,
-				new TcpModbusMessageEncoder(pendingMessages, transactionIdSupplier));
-		pipeline.addLast(MESSAGE_DECODER_HANDLER_NAME,
-				new TcpModbusMessageDecoder(true, pendingMessages));
+		final TcpModbusMessageEncoder encoder = new TcpModbusMessageEncoder(table, txIdSupplier);
+		encoder.setPooledMessages(clientConfig.isPooledMessages());
+		pipeline.addLast(MESSAGE_ENCODER_HANDLER_NAME, encoder);
+		final TcpModbusMessageDecoder decoder = new TcpModbusMessageDecoder(true, table);
+		decoder.setRetainResponseBuffers(clientConfig.isRetainResponseBuffers());
+		pipeline.addLast(MESSAGE_DECODER_HANDLER_NAME, decoder);
 		super.initChannel(channel);
 	}
 
+	/**
+	 * Get the transport used when this client creates its own event loop group.
+	 * 
+	 * @return the transport, never {@literal null}
+	 * @since 1.1
+	 */
+	public TcpTransport getTransport() {
+		return transport;
+	}
+
 	private final class HandlerInitializer extends ChannelInitializer<SocketChannel> {
 
 		@Override
@@ -0,0 +1,174 @@
+/* ==================================================================
+ * TcpTransactionIdAllocator.java - 17/10/2026 11:20:05 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import net.solarnetwork.io.modbus.ModbusMessage;
+
+/**
+ * Per-connection supplier of Modbus TCP transaction IDs that skips IDs still
+ * in flight.
+ * 
+ * <p>
+ * IDs are allocated sequentially from 1 to
+ * {@link net.solarnetwork.io.modbus.tcp.TcpModbusMessage#MAX_TRANSACTION_ID},
+ * skipping any ID that has a message in the associated
+ * {@link TcpTransactionTable}. A message is stale, and its ID can be reused,
+ * once it can no longer receive a response: either the configured pending test
+ * reports its request is no longer waiting for one, because it timed out or
+ * otherwise failed, or it is older than the configured stale time. A stale
+ * message is removed from the table when its ID is reused, and recycled as its
+ * new owner, so the encoder never sees it as a collision. If every ID is in
+ * flight the next sequential ID is returned regardless.
+ * </p>
+ * 
+ * <p>
+ * This class is <b>not</b> thread safe. It is designed to be used by a single
+ * channel, from that channel's event loop, so the counter is a plain
+ * {@code int} rather than a shared atomic value.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpTransactionIdAllocator implements IntSupplier {
+
+	private final TcpTransactionTable table;
+	private final long staleMs;
+	private final Predicate<? super ModbusMessage> pending;
+	private int next = 1;
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * In-flight messages will never be considered stale.
+	 * </p>
+	 * 
+	 * @param table
+	 *        the table of in-flight messages
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public TcpTransactionIdAllocator(TcpTransactionTable table) {
+		this(table, 0);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param table
+	 *        the table of in-flight messages
+	 * @param staleMs
+	 *        the age in milliseconds after which an in-flight message is
+	 *        considered stale and its ID can be reused, or {@literal 0} to
+	 *        never reuse in-flight IDs
+	 * @throws IllegalArgumentException
+	 *         if {@code table} is {@literal null}
+	 */
+	public TcpTransactionIdAllocator(TcpTransactionTable table, long staleMs) {
+		this(table, staleMs, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * <p>
+	 * An in-flight message is considered stale as soon as {@code pending}
+	 * reports its request body is no longer waiting for a response, so each
+	 * request's own timeout determines when its ID can be reused.
+	 * </p>
+	 * 
+	 * @param table
+	 *        the table of in-flight messages
+	 * @param pending
+	 *        a test for request bodies still waiting for a response
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@literal null}
+	 */
+	public TcpTransactionIdAllocator(TcpTransactionTable table,
+			Predicate<? super ModbusMessage> pending) {
+		this(table, 0, pending);
+		if ( pending == null ) {
+			throw new IllegalArgumentException("The pending argument must not be null.");
+		}
+	}
+
+	private TcpTransactionIdAllocator(TcpTransactionTable table, long staleMs,
+			Predicate<? super ModbusMessage> pending) {
+		super();
+		if ( table == null ) {
+			throw new IllegalArgumentException("The table argument must not be null.");
+		}
+		this.table = table;
+		this.staleMs = staleMs;
+		this.pending = pending;
+	}
+
+	@Override
+	public int getAsInt() {
+		long staleBefore = -1;
+		int id = next;
+		for ( int i = 0; i < TcpModbusMessage.MAX_TRANSACTION_ID; i++ ) {
+			final int candidate = id;
+			id = nextId(id);
+			final TcpModbusMessage inFlight = table.get(candidate);
+			if ( inFlight == null ) {
+				next = id;
+				return candidate;
+			}
+			boolean stale = (pending != null && !pending.test(inFlight.getBody()));
+			if ( !stale && staleMs > 0 ) {
+				if ( staleBefore < 0 ) {
+					staleBefore = System.currentTimeMillis() - staleMs;
+				}
+				stale = inFlight.getTimestamp() < staleBefore;
+			}
+			if ( stale && table.remove(candidate, inFlight) ) {
+				inFlight.recycle();
+				next = id;
+				return candidate;
+			}
+		}
+		// every ID is in flight
+		final int result = next;
+		next = nextId(result);
+		return result;
+	}
+
+	private static int nextId(int id) {
+		return (id < TcpModbusMessage.MAX_TRANSACTION_ID ? id + 1 : 1);
+	}
+
+	/**
+	 * Get the transaction ID that will be considered next by
+	 * {@link #getAsInt()}.
+	 * 
+	 * @return the next ID
+	 */
+	public int nextId() {
+		return next;
+	}
+
+}
@@ -0,0 +1,74 @@
+/* ==================================================================
+ * TcpTransactionTable.java - 17/10/2026 9:12:41 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+/**
+ * API for tracking in-flight Modbus TCP messages by transaction ID, to pair
+ * requests with responses.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public interface TcpTransactionTable {
+
+	/**
+	 * Get the message associated with a transaction ID.
+	 * 
+	 * @param transactionId
+	 *        the transaction ID
+	 * @return the message, or {@literal null} if none available
+	 */
+	TcpModbusMessage get(int transactionId);
+
+	/**
+	 * Associate a message with a transaction ID.
+	 * 
+	 * @param transactionId
+	 *        the transaction ID
+	 * @param message
+	 *        the message
+	 * @return the message previously associated with the transaction ID, or
+	 *         {@literal null} if there was none
+	 */
+	TcpModbusMessage put(int transactionId, TcpModbusMessage message);
+
+	/**
+	 * Remove the association of a transaction ID to a given message.
+	 * 
+	 * @param transactionId
+	 *        the transaction ID
+	 * @param message
+	 *        the message expected to be associated with the transaction ID
+	 * @return {@literal true} if the message was associated with the
+	 *         transaction ID and has been removed
+	 */
+	boolean remove(int transactionId, Object message);
+
+	/**
+	 * Get the count of messages in the table.
+	 * 
+	 * @return the count
+	 */
+	int size();
+
+}
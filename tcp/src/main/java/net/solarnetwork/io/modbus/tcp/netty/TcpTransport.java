@@ -0,0 +1,238 @@
+/* ==================================================================
+ * TcpTransport.java - 17/10/2026 4:38:15 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+
+/**
+ * Netty TCP socket transports.
+ *
+ * <p>
+ * The native transports require the optional Netty native transport artifacts
+ * ({@code netty-transport-native-io_uring} and/or
+ * {@code netty-transport-native-epoll}) to be available at runtime, along with
+ * a supporting operating system. The {@link #auto()} method will pick the best
+ * available transport, falling back to {@link #NIO}.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public enum TcpTransport {
+
+	/** The Linux io_uring native transport. */
+	IO_URING("io.netty.channel.uring.IoUring") {
+
+		@Override
+		protected boolean nativeAvailable() {
+			return IoUring.isAvailable();
+		}
+
+		@Override
+		public IoHandlerFactory ioHandlerFactory() {
+			return IoUringIoHandler.newFactory();
+		}
+
+		@Override
+		public Class<? extends SocketChannel> socketChannelClass() {
+			return IoUringSocketChannel.class;
+		}
+
+		@Override
+		public Class<? extends ServerSocketChannel> serverSocketChannelClass() {
+			return IoUringServerSocketChannel.class;
+		}
+
+	},
+
+	/** The Linux epoll native transport. */
+	EPOLL("io.netty.channel.epoll.Epoll") {
+
+		@Override
+		protected boolean nativeAvailable() {
+			return Epoll.isAvailable();
+		}
+
+		@Override
+		public IoHandlerFactory ioHandlerFactory() {
+			return EpollIoHandler.newFactory();
+		}
+
+		@Override
+		public Class<? extends SocketChannel> socketChannelClass() {
+			return EpollSocketChannel.class;
+		}
+
+		@Override
+		public Class<? extends ServerSocketChannel> serverSocketChannelClass() {
+			return EpollServerSocketChannel.class;
+		}
+
+	},
+
+	/** The Java NIO transport, available on all platforms. */
+	NIO(null) {
+
+		@Override
+		protected boolean nativeAvailable() {
+			return true;
+		}
+
+		@Override
+		public IoHandlerFactory ioHandlerFactory() {
+			return NioIoHandler.newFactory();
+		}
+
+		@Override
+		public Class<? extends SocketChannel> socketChannelClass() {
+			return NioSocketChannel.class;
+		}
+
+		@Override
+		public Class<? extends ServerSocketChannel> serverSocketChannelClass() {
+			return NioServerSocketChannel.class;
+		}
+
+	},
+
+	;
+
+	private static final Logger log = LoggerFactory.getLogger(TcpTransport.class);
+
+	private final String markerClassName;
+	private volatile Boolean available;
+
+	private TcpTransport(String markerClassName) {
+		this.markerClassName = markerClassName;
+	}
+
+	/**
+	 * Test if the transport's native support is available.
+	 *
+	 * <p>
+	 * Only called after the transport's classes are known to be present.
+	 * </p>
+	 *
+	 * @return {@literal true} if the transport can be used
+	 */
+	protected abstract boolean nativeAvailable();
+
+	/**
+	 * Get an I/O handler factory for this transport.
+	 *
+	 * @return the factory
+	 */
+	public abstract IoHandlerFactory ioHandlerFactory();
+
+	/**
+	 * Get the client socket channel class for this transport.
+	 *
+	 * @return the channel class
+	 */
+	public abstract Class<? extends SocketChannel> socketChannelClass();
+
+	/**
+	 * Get the server socket channel class for this transport.
+	 *
+	 * @return the channel class
+	 */
+	public abstract Class<? extends ServerSocketChannel> serverSocketChannelClass();
+
+	/**
+	 * Create a new event loop group for this transport.
+	 *
+	 * @param threads
+	 *        the number of threads, or {@literal 0} for the Netty default
+	 * @return the new group
+	 */
+	public EventLoopGroup newEventLoopGroup(int threads) {
+		return new MultiThreadIoEventLoopGroup(threads, ioHandlerFactory());
+	}
+
+	/**
+	 * Test if this transport is available for use.
+	 *
+	 * @return {@literal true} if this transport can be used
+	 */
+	public boolean isAvailable() {
+		Boolean result = available;
+		if ( result == null ) {
+			result = checkAvailable();
+			available = result;
+		}
+		return result;
+	}
+
+	private boolean checkAvailable() {
+		if ( markerClassName != null ) {
+			try {
+				Class.forName(markerClassName, false, TcpTransport.class.getClassLoader());
+			} catch ( ClassNotFoundException e ) {
+				return false;
+			}
+		}
+		try {
+			return nativeAvailable();
+		} catch ( LinkageError e ) {
+			log.debug("Native transport {} not available: {}", this, e.toString());
+			return false;
+		}
+	}
+
+	/**
+	 * Get the best available transport.
+	 *
+	 * <p>
+	 * The transports are tested in declaration order, so io_uring is
+	 * preferred over epoll, which is preferred over NIO.
+	 * </p>
+	 *
+	 * @return the transport, never {@literal null}
+	 */
+	public static TcpTransport auto() {
+		for ( TcpTransport t : values() ) {
+			if ( t.isAvailable() ) {
+				return t;
+			}
+		}
+		return NIO;
+	}
+
+}
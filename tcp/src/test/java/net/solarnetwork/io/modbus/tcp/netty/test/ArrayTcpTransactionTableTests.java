@@ -0,0 +1,154 @@
+/* ==================================================================
+ * ArrayTcpTransactionTableTests.java - 17/10/2026 10:04:18 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.ArrayTcpTransactionTable;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
+
+/**
+ * Test cases for the {@link ArrayTcpTransactionTable} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class ArrayTcpTransactionTableTests {
+
+	private ArrayTcpTransactionTable table;
+
+	@BeforeEach
+	public void setup() {
+		table = new ArrayTcpTransactionTable();
+	}
+
+	private static TcpModbusMessage msg(int transactionId) {
+		return new TcpModbusMessage(transactionId,
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+	}
+
+	@Test
+	public void empty() {
+		// THEN
+		assertThat("Empty table size", table.size(), is(equalTo(0)));
+		assertThat("Empty slot", table.get(1), is(nullValue()));
+		assertThat("Empty slot max", table.get(0xFFFF), is(nullValue()));
+	}
+
+	@Test
+	public void putGetRemove() {
+		// GIVEN
+		TcpModbusMessage m = msg(1);
+
+		// WHEN
+		TcpModbusMessage prev = table.put(1, m);
+
+		// THEN
+		assertThat("No previous message", prev, is(nullValue()));
+		assertThat("Message in slot", table.get(1), is(sameInstance(m)));
+		assertThat("Size incremented", table.size(), is(equalTo(1)));
+
+		// WHEN
+		boolean removed = table.remove(1, m);
+
+		// THEN
+		assertThat("Message removed", removed, is(equalTo(true)));
+		assertThat("Slot cleared", table.get(1), is(nullValue()));
+		assertThat("Size decremented", table.size(), is(equalTo(0)));
+	}
+
+	@Test
+	public void remove_notMatching() {
+		// GIVEN
+		TcpModbusMessage m = msg(1);
+		table.put(1, m);
+
+		// WHEN
+		boolean removed = table.remove(1, msg(2));
+
+		// THEN
+		assertThat("Different message not removed", removed, is(equalTo(false)));
+		assertThat("Message still in slot", table.get(1), is(sameInstance(m)));
+		assertThat("Size unchanged", table.size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void remove_empty() {
+		// WHEN
+		boolean removed = table.remove(1, msg(1));
+
+		// THEN
+		assertThat("Nothing removed", removed, is(equalTo(false)));
+		assertThat("Size unchanged", table.size(), is(equalTo(0)));
+	}
+
+	@Test
+	public void put_collision() {
+		// GIVEN
+		TcpModbusMessage m1 = msg(1);
+		TcpModbusMessage m2 = msg(1);
+		table.put(1, m1);
+
+		// WHEN
+		TcpModbusMessage prev = table.put(1, m2);
+
+		// THEN
+		assertThat("Collision returns previous message", prev, is(sameInstance(m1)));
+		assertThat("New message in slot", table.get(1), is(sameInstance(m2)));
+		assertThat("Size unchanged", table.size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void put_null() {
+		// GIVEN
+		TcpModbusMessage m = msg(1);
+		table.put(1, m);
+
+		// WHEN
+		TcpModbusMessage prev = table.put(1, null);
+
+		// THEN
+		assertThat("Previous message returned", prev, is(sameInstance(m)));
+		assertThat("Slot cleared", table.get(1), is(nullValue()));
+		assertThat("Size decremented", table.size(), is(equalTo(0)));
+	}
+
+	@Test
+	public void slotsMasked() {
+		// GIVEN
+		TcpModbusMessage m = msg(0xFFFF);
+
+		// WHEN
+		table.put(0xFFFF, m);
+
+		// THEN
+		assertThat("Transaction ID masked to 16 bits", table.get(0x1FFFF), is(sameInstance(m)));
+	}
+
+}
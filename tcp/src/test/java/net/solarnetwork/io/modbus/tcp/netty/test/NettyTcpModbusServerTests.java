@@ -37,13 +37,14 @@ import org.junit.jupiter.api.Test;
 import net.solarnetwork.io.modbus.ModbusMessage;
 import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
 import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusServer;
+import net.solarnetwork.io.modbus.tcp.netty.TcpTransport;
 import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
 
 /**
  * Test cases for the {@link NettyTcpModbusServer} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class NettyTcpModbusServerTests {
 
@@ -58,6 +59,28 @@ public class NettyTcpModbusServerTests {
 		assertThrows(IllegalArgumentException.class, () -> {
 			new NettyTcpModbusServer(502, new ConcurrentHashMap<>(), null);
 		}, "Null transactionIdSupplier not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new NettyTcpModbusServer(502, (TcpTransport) null);
+		}, "Null transport not allowed");
+	}
+
+	@Test
+	public void construct_transport() {
+		// WHEN
+		NettyTcpModbusServer s = new NettyTcpModbusServer(502, TcpTransport.NIO);
+
+		// THEN
+		assertThat("Transport getter returns set value", s.getTransport(), is(TcpTransport.NIO));
+	}
+
+	@Test
+	public void construct_defaultTransport() {
+		// WHEN
+		NettyTcpModbusServer s = new NettyTcpModbusServer(502);
+
+		// THEN
+		assertThat("Default transport is best available", s.getTransport(),
+				is(TcpTransport.auto()));
 	}
 
 	@Test
@@ -0,0 +1,254 @@
+/* ==================================================================
+ * PooledTcpNettyModbusClientTests.java - 17/10/2026 5:58:44 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusServer;
+import net.solarnetwork.io.modbus.tcp.netty.PooledTcpNettyModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.TcpNettyModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
+
+/**
+ * Test cases for the {@link PooledTcpNettyModbusClient} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class PooledTcpNettyModbusClientTests {
+
+	private static final int POOL_SIZE = 3;
+
+	private NettyTcpModbusServer server;
+	private List<Runnable> heldResponses;
+	private PooledTcpNettyModbusClient client;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		heldResponses = new ArrayList<>();
+		server = new NettyTcpModbusServer(TcpTestUtils.freePort());
+		server.setMessageHandler(this::holdResponse);
+		server.start();
+		NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig("127.0.0.1",
+				server.getPort());
+		config.setAutoReconnect(false);
+		client = new PooledTcpNettyModbusClient(config, POOL_SIZE);
+	}
+
+	@AfterEach
+	public void teardown() {
+		if ( client != null ) {
+			client.stop();
+		}
+		if ( server != null ) {
+			server.stop();
+		}
+	}
+
+	private void holdResponse(ModbusMessage msg, Consumer<ModbusMessage> sender) {
+		net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+				.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+		synchronized ( heldResponses ) {
+			heldResponses.add(() -> sender.accept(RegistersModbusMessage
+					.readHoldingsResponse(msg.getUnitId(), reg.getAddress(), new short[] { 1 })));
+			heldResponses.notifyAll();
+		}
+	}
+
+	private void releaseResponses(int count) throws InterruptedException {
+		List<Runnable> toRun;
+		synchronized ( heldResponses ) {
+			long end = System.currentTimeMillis() + 10_000L;
+			while ( heldResponses.size() < count && System.currentTimeMillis() < end ) {
+				heldResponses.wait(100);
+			}
+			toRun = new ArrayList<>(heldResponses);
+			heldResponses.clear();
+		}
+		assertThat("Server received requests", toRun.size(), is(equalTo(count)));
+		for ( Runnable r : toRun ) {
+			r.run();
+		}
+	}
+
+	private void startAll() throws Exception {
+		client.start().get(10, TimeUnit.SECONDS);
+		for ( int i = 0; i < 100 && client.getConnectedCount() < POOL_SIZE; i++ ) {
+			Thread.sleep(50);
+		}
+		assertThat("All pooled connections established", client.getConnectedCount(),
+				is(equalTo(POOL_SIZE)));
+	}
+
+	private void awaitInFlight(int count) throws InterruptedException {
+		// requests are written from each connection's event loop, so wait for them to drain
+		for ( int i = 0; i < 100; i++ ) {
+			int inFlight = 0;
+			for ( TcpNettyModbusClient c : client.getClients() ) {
+				inFlight += c.getInFlightCount();
+			}
+			if ( inFlight >= count ) {
+				break;
+			}
+			Thread.sleep(50);
+		}
+	}
+
+	@Test
+	public void construct_invalid() {
+		NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig("localhost", 502);
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PooledTcpNettyModbusClient(null, 1);
+		}, "Null config not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PooledTcpNettyModbusClient(config, 0);
+		}, "Empty pool not allowed");
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PooledTcpNettyModbusClient(config, 1, null);
+		}, "Null runtime not allowed");
+	}
+
+	@Test
+	public void sendAsync_notStarted() {
+		// WHEN
+		CompletableFuture<ModbusMessage> f = client
+				.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 0, 1));
+
+		// THEN
+		ExecutionException e = assertThrows(ExecutionException.class, () -> {
+			f.get(1, TimeUnit.SECONDS);
+		}, "Send without connection fails");
+		assertThat("Cause is IOException", e.getCause(), is(instanceOf(IOException.class)));
+	}
+
+	@Test
+	public void sendAsync_leastOutstanding() throws Exception {
+		// GIVEN
+		startAll();
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> futures = new ArrayList<>();
+		for ( int i = 0; i < POOL_SIZE * 2; i++ ) {
+			futures.add(client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, i, 1)));
+		}
+
+		// THEN
+		awaitInFlight(POOL_SIZE * 2);
+		for ( TcpNettyModbusClient c : client.getClients() ) {
+			assertThat("Requests balanced across pooled connections", c.getInFlightCount(),
+					is(equalTo(2)));
+		}
+
+		// WHEN
+		releaseResponses(POOL_SIZE * 2);
+
+		// THEN
+		for ( CompletableFuture<ModbusMessage> f : futures ) {
+			assertThat("Response received", f.get(10, TimeUnit.SECONDS), is(notNullValue()));
+		}
+	}
+
+	@Test
+	public void sendAsync_routeAroundClosedConnection() throws Exception {
+		// GIVEN
+		startAll();
+		TcpNettyModbusClient closed = client.getClients().get(0);
+		closed.stop().get(10, TimeUnit.SECONDS);
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> futures = new ArrayList<>();
+		for ( int i = 0; i < POOL_SIZE; i++ ) {
+			futures.add(client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, i, 1)));
+		}
+		releaseResponses(POOL_SIZE);
+
+		// THEN
+		assertThat("Pool still connected", client.isConnected(), is(equalTo(true)));
+		assertThat("Closed connection not used", closed.getInFlightCount(), is(equalTo(0)));
+		for ( CompletableFuture<ModbusMessage> f : futures ) {
+			assertThat("Response received", f.get(10, TimeUnit.SECONDS), is(notNullValue()));
+		}
+	}
+
+	@Test
+	public void connectionObserver_pooledClient() throws Exception {
+		// GIVEN
+		final List<ModbusClient> opened = new ArrayList<>();
+		client.setConnectionObserver(new ModbusClientConnectionObserver() {
+
+			@Override
+			public void connectionOpened(ModbusClient c, ModbusClientConfig config) {
+				synchronized ( opened ) {
+					opened.add(c);
+				}
+			}
+
+			@Override
+			public void connectionClosed(ModbusClient c, ModbusClientConfig config,
+					Throwable exception, boolean willReconnect) {
+				// ignore
+			}
+		});
+
+		// WHEN
+		startAll();
+		for ( int i = 0; i < 100; i++ ) {
+			synchronized ( opened ) {
+				if ( opened.size() >= POOL_SIZE ) {
+					break;
+				}
+			}
+			Thread.sleep(50);
+		}
+
+		// THEN
+		synchronized ( opened ) {
+			assertThat("Opened for each pooled connection", opened.size(), is(equalTo(POOL_SIZE)));
+			for ( ModbusClient c : opened ) {
+				assertThat("Pooled client provided to observer", c, is(sameInstance(client)));
+			}
+		}
+	}
+
+}
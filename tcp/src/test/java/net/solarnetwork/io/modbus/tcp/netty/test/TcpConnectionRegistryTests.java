@@ -0,0 +1,308 @@
+/* ==================================================================
+ * TcpConnectionRegistryTests.java - 17/10/2026 6:52:19 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusClient;
+import net.solarnetwork.io.modbus.ModbusClientConfig;
+import net.solarnetwork.io.modbus.ModbusClientConnectionObserver;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusServer;
+import net.solarnetwork.io.modbus.tcp.netty.SharedTcpNettyModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.TcpConnectionRegistry;
+import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
+
+/**
+ * Test cases for the {@link TcpConnectionRegistry} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpConnectionRegistryTests {
+
+	private NettyTcpModbusServer server;
+	private AtomicInteger serverConnections;
+	private TcpConnectionRegistry registry;
+	private List<SharedTcpNettyModbusClient> clients;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		serverConnections = new AtomicInteger();
+		server = new NettyTcpModbusServer(TcpTestUtils.freePort());
+		server.setClientConnectionListener((addr, connected) -> {
+			if ( connected ) {
+				serverConnections.incrementAndGet();
+			} else {
+				serverConnections.decrementAndGet();
+			}
+			return true;
+		});
+		server.setMessageHandler((msg, sender) -> {
+			net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+					.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+			sender.accept(RegistersModbusMessage.readHoldingsResponse(msg.getUnitId(),
+					reg.getAddress(), new short[] { (short) msg.getUnitId() }));
+		});
+		server.start();
+		registry = new TcpConnectionRegistry();
+		clients = new ArrayList<>();
+	}
+
+	@AfterEach
+	public void teardown() {
+		for ( SharedTcpNettyModbusClient c : clients ) {
+			c.stop();
+		}
+		if ( server != null ) {
+			server.stop();
+		}
+	}
+
+	private SharedTcpNettyModbusClient createClient() {
+		return createClient(server.getPort());
+	}
+
+	private SharedTcpNettyModbusClient createClient(int port) {
+		NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig("127.0.0.1", port);
+		config.setAutoReconnect(false);
+		SharedTcpNettyModbusClient c = registry.createClient(config);
+		clients.add(c);
+		return c;
+	}
+
+	private void awaitServerConnections(int count) throws InterruptedException {
+		for ( int i = 0; i < 100 && serverConnections.get() != count; i++ ) {
+			Thread.sleep(50);
+		}
+	}
+
+	@Test
+	public void construct_nullRuntime() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TcpConnectionRegistry(null);
+		}, "Null runtime not allowed");
+	}
+
+	@Test
+	public void createClient_nullConfig() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			registry.createClient(null);
+		}, "Null config not allowed");
+	}
+
+	@Test
+	public void sharedConnection() throws Exception {
+		// GIVEN
+		SharedTcpNettyModbusClient c1 = createClient();
+		SharedTcpNettyModbusClient c2 = createClient();
+		SharedTcpNettyModbusClient c3 = createClient();
+
+		// WHEN
+		c1.start().get(10, TimeUnit.SECONDS);
+		c2.start().get(10, TimeUnit.SECONDS);
+		c3.start().get(10, TimeUnit.SECONDS);
+		awaitServerConnections(1);
+
+		// THEN
+		assertThat("One shared connection", registry.getConnectionCount(), is(equalTo(1)));
+		assertThat("Server sees one socket", serverConnections.get(), is(equalTo(1)));
+
+		int unitId = 1;
+		for ( SharedTcpNettyModbusClient c : clients ) {
+			ModbusMessage res = c.sendAsync(RegistersModbusMessage.readHoldingsRequest(unitId, 0, 1))
+					.get(10, TimeUnit.SECONDS);
+			assertThat("Response received", res, is(notNullValue()));
+			assertThat("Response for unit", res.getUnitId(), is(equalTo(unitId)));
+			unitId++;
+		}
+	}
+
+	@Test
+	public void stop_refCounted() throws Exception {
+		// GIVEN
+		SharedTcpNettyModbusClient c1 = createClient();
+		SharedTcpNettyModbusClient c2 = createClient();
+		c1.start().get(10, TimeUnit.SECONDS);
+		c2.start().get(10, TimeUnit.SECONDS);
+
+		// WHEN
+		c1.stop().get(10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Stopped client not connected", c1.isConnected(), is(equalTo(false)));
+		assertThat("Sharing client still connected", c2.isConnected(), is(equalTo(true)));
+		assertThat("Connection still shared", registry.getConnectionCount(), is(equalTo(1)));
+
+		// WHEN
+		c2.stop().get(10, TimeUnit.SECONDS);
+		awaitServerConnections(0);
+
+		// THEN
+		assertThat("Connection closed after last client stops", registry.getConnectionCount(),
+				is(equalTo(0)));
+		assertThat("Server socket closed", serverConnections.get(), is(equalTo(0)));
+
+		// WHEN
+		c1.start().get(10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Client restarted", c1.isConnected(), is(equalTo(true)));
+		assertThat("New shared connection", registry.getConnectionCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void start_retryAfterFailure() throws Exception {
+		// GIVEN
+		final int port = TcpTestUtils.freePort();
+		SharedTcpNettyModbusClient c1 = createClient(port);
+		SharedTcpNettyModbusClient c2 = createClient(port);
+		assertThrows(ExecutionException.class, () -> {
+			c1.start().get(10, TimeUnit.SECONDS);
+		}, "Start fails without a server");
+
+		// WHEN
+		server.stop();
+		server = new NettyTcpModbusServer(port);
+		server.start();
+		c2.start().get(10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Failed shared connection restarted by next client", c2.isConnected(),
+				is(equalTo(true)));
+		assertThat("Earlier client shares restarted connection", c1.isConnected(),
+				is(equalTo(true)));
+		assertThat("One shared connection", registry.getConnectionCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void start_retryAfterFailure_sameClient() throws Exception {
+		// GIVEN
+		final int port = TcpTestUtils.freePort();
+		SharedTcpNettyModbusClient c1 = createClient(port);
+		assertThrows(ExecutionException.class, () -> {
+			c1.start().get(10, TimeUnit.SECONDS);
+		}, "Start fails without a server");
+
+		// WHEN
+		server.stop();
+		server = new NettyTcpModbusServer(port);
+		server.start();
+		c1.start().get(10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Failed start retried", c1.isConnected(), is(equalTo(true)));
+	}
+
+	@Test
+	public void connectionObserver_lateJoiner() throws Exception {
+		// GIVEN
+		SharedTcpNettyModbusClient c1 = createClient();
+		SharedTcpNettyModbusClient c2 = createClient();
+		ClosedObserver o1 = new ClosedObserver();
+		ClosedObserver o2 = new ClosedObserver();
+		c1.setConnectionObserver(o1);
+		c2.setConnectionObserver(o2);
+		c1.start().get(10, TimeUnit.SECONDS);
+		for ( int i = 0; i < 100 && o1.opened().isEmpty(); i++ ) {
+			Thread.sleep(50);
+		}
+
+		// WHEN
+		c2.start().get(10, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("First observer notified when connection opened", o1.opened(),
+				contains((ModbusClient) c1));
+		assertThat("Late joiner notified of already open connection", o2.opened(),
+				contains((ModbusClient) c2));
+	}
+
+	private static final class ClosedObserver implements ModbusClientConnectionObserver {
+
+		private final List<ModbusClient> opened = new ArrayList<>();
+		private final List<ModbusClient> closed = new ArrayList<>();
+
+		@Override
+		public synchronized void connectionOpened(ModbusClient client, ModbusClientConfig config) {
+			opened.add(client);
+		}
+
+		private synchronized List<ModbusClient> opened() {
+			return new ArrayList<>(opened);
+		}
+
+		@Override
+		public synchronized void connectionClosed(ModbusClient client, ModbusClientConfig config,
+				Throwable exception, boolean willReconnect) {
+			closed.add(client);
+		}
+
+		private synchronized List<ModbusClient> closed() {
+			return new ArrayList<>(closed);
+		}
+
+	}
+
+	@Test
+	public void connectionObserver_fanOut() throws Exception {
+		// GIVEN
+		SharedTcpNettyModbusClient c1 = createClient();
+		SharedTcpNettyModbusClient c2 = createClient();
+		ClosedObserver o1 = new ClosedObserver();
+		ClosedObserver o2 = new ClosedObserver();
+		c1.setConnectionObserver(o1);
+		c2.setConnectionObserver(o2);
+		c1.start().get(10, TimeUnit.SECONDS);
+		c2.start().get(10, TimeUnit.SECONDS);
+
+		// WHEN
+		server.stop();
+		server = null;
+		for ( int i = 0; i < 100 && (o1.closed().isEmpty() || o2.closed().isEmpty()); i++ ) {
+			Thread.sleep(50);
+		}
+
+		// THEN
+		assertThat("First observer notified with its client", o1.closed(),
+				contains((ModbusClient) c1));
+		assertThat("Second observer notified with its client", o2.closed(),
+				contains((ModbusClient) c2));
+	}
+
+}
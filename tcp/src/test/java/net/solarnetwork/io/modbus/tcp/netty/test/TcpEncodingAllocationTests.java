@@ -0,0 +1,155 @@
+/* ==================================================================
+ * TcpEncodingAllocationTests.java - 18/10/2026 4:41:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static net.solarnetwork.io.modbus.test.support.ModbusTestUtils.threadAllocatedBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalIoHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ResourceLeakDetector;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
+import net.solarnetwork.io.modbus.tcp.netty.ArrayTcpTransactionTable;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageEncoder;
+
+/**
+ * Test that encoding TCP frames does not allocate.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpEncodingAllocationTests {
+
+	private static final int COUNT = 10_000;
+
+	/**
+	 * The allowed number of bytes allocated over {@link #COUNT} encodings,
+	 * which leaves room for incidental allocation by the JVM but not for even
+	 * one small object per encoding.
+	 */
+	private static final long MAX_ALLOCATED_BYTES = 4096;
+
+	/**
+	 * Encoder that exposes {@code encode()} so it can be measured without the
+	 * channel pipeline.
+	 */
+	private static final class TestEncoder extends TcpModbusMessageEncoder {
+
+		private TestEncoder() {
+			super(new ArrayTcpTransactionTable(), () -> 1);
+		}
+
+		private void encodeMessage(ChannelHandlerContext ctx, ModbusMessage msg, List<Object> out) {
+			try {
+				encode(ctx, msg, out);
+			} catch ( Exception e ) {
+				throw new RuntimeException(e);
+			}
+		}
+
+	}
+
+	@Test
+	public void encodeModbusPayload() {
+		// GIVEN
+		final RegistersModbusMessage body = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		final ByteBuf buf = Unpooled.buffer(256);
+
+		// WHEN
+		long bytes = threadAllocatedBytes(() -> {
+			buf.clear();
+			TcpModbusMessage.encodeModbusPayload(0x1234, body, buf);
+		}, COUNT);
+
+		// THEN
+		assumeTrue(bytes >= 0, "Thread allocation measurement supported");
+		assertThat("TCP frame encoding does not allocate", bytes,
+				is(lessThan(MAX_ALLOCATED_BYTES)));
+	}
+
+	@Test
+	public void encoder_response() throws Exception {
+		// GIVEN
+		final TestEncoder encoder = new TestEncoder();
+		final EmbeddedChannel channel = new EmbeddedChannel(encoder);
+		// the adaptive allocator allocates per write of a byte array, so use the pooled one to
+		// measure only the encoder
+		channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+		final ChannelHandlerContext ctx = channel.pipeline().context(encoder);
+		final TcpModbusMessage req = new TcpModbusMessage(0x1234,
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 8));
+		final SimpleModbusMessageReply reply = new SimpleModbusMessageReply(req,
+				RegistersModbusMessage.readHoldingsResponse(1, 2,
+						new short[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+		final List<Object> out = new ArrayList<>(1);
+
+		// WHEN
+		// encode on an event loop thread, where buffers come from the allocator's thread cache,
+		// and without leak detection, which samples buffers by allocating
+		final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+		final EventLoopGroup group = new MultiThreadIoEventLoopGroup(1, LocalIoHandler.newFactory());
+		final long bytes;
+		try {
+			ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.DISABLED);
+			bytes = group.submit(() -> threadAllocatedBytes(() -> {
+				encoder.encodeMessage(ctx, reply, out);
+				ReferenceCountUtil.release(out.get(0));
+				out.clear();
+			}, COUNT)).get(1, TimeUnit.MINUTES);
+		} finally {
+			ResourceLeakDetector.setLevel(level);
+			group.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+		}
+
+		// THEN
+		encoder.encodeMessage(ctx, reply, out);
+		assertThat("Response encoded into one buffer", out, hasSize(1));
+		assertThat("Frame length", ((ByteBuf) out.get(0)).readableBytes(),
+				is(equalTo(7 + 2 + 16)));
+		ReferenceCountUtil.release(out.get(0));
+		channel.finishAndReleaseAll();
+		assumeTrue(bytes >= 0, "Thread allocation measurement supported");
+		assertThat("Response encoding does not allocate", bytes,
+				is(lessThan(MAX_ALLOCATED_BYTES)));
+	}
+
+}
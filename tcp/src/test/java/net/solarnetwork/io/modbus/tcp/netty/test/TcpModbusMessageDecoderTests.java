@@ -28,6 +28,7 @@ import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +40,7 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import net.solarnetwork.io.modbus.ModbusFunctionCodes;
 import net.solarnetwork.io.modbus.ModbusMessageReply;
+import net.solarnetwork.io.modbus.netty.msg.ByteBufRegistersModbusMessage;
 import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
 import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
 import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageDecoder;
@@ -47,7 +49,7 @@ import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageDecoder;
  * Test cases for the {@link TcpModbusMessageDecoder} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpModbusMessageDecoderTests {
 
@@ -61,7 +63,7 @@ public class TcpModbusMessageDecoderTests {
 	@Test
 	public void construct_nullValue() {
 		assertThrows(IllegalArgumentException.class, () -> {
-			new TcpModbusMessageDecoder(false, null);
+			new TcpModbusMessageDecoder(false, (ConcurrentMap<Integer, TcpModbusMessage>) null);
 		}, "Pending messages map is required");
 	}
 
@@ -115,6 +117,89 @@ public class TcpModbusMessageDecoderTests {
 		assertThat("Decoded message is same as input", msg.isSameAs(res), is(equalTo(true)));
 	}
 
+	@Test
+	public void response_in_retainResponseBuffers() {
+		// GIVEN
+		TcpModbusMessageDecoder decoder = new TcpModbusMessageDecoder(true, messages);
+		decoder.setRetainResponseBuffers(true);
+		EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+		// make request available
+		TcpModbusMessage req = new TcpModbusMessage(1,
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		messages.put(req.getTransactionId(), req);
+
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(req.getUnitId(), 2,
+				new short[] { 1, 2, 3 });
+		TcpModbusMessage tcp = new TcpModbusMessage(1, res);
+		ByteBuf buf = Unpooled.buffer(tcp.payloadLength());
+		tcp.encodeModbusPayload(buf);
+
+		// WHEN
+		boolean decoded = channel.writeInbound(buf);
+
+		// THEN
+		assertThat("Message handled", decoded, is(equalTo(true)));
+		ModbusMessageReply reply = channel.readInbound();
+		assertThat("Message decoded", reply, is(notNullValue()));
+
+		ByteBufRegistersModbusMessage msg = reply.unwrap(ByteBufRegistersModbusMessage.class);
+		assertThat("ByteBufRegistersModbusMessage available", msg, is(notNullValue()));
+		assertThat("Decoded message is same as input", msg.isSameAs(res), is(equalTo(true)));
+		assertThat("Message holds buffer reference", msg.refCnt(), is(equalTo(1)));
+		assertThat("Message released", msg.release(), is(equalTo(true)));
+	}
+
+	@Test
+	public void request_in_pooled() {
+		// GIVEN
+		TcpModbusMessageDecoder decoder = new TcpModbusMessageDecoder(false, messages);
+		decoder.setPooledMessages(true);
+		EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		TcpModbusMessage tcp = new TcpModbusMessage(1, req);
+		ByteBuf buf = Unpooled.buffer(tcp.payloadLength());
+		tcp.encodeModbusPayload(buf);
+
+		// WHEN
+		channel.writeInbound(buf);
+
+		// THEN
+		TcpModbusMessage msg = channel.readInbound();
+		assertThat("Message decoded", msg, is(notNullValue()));
+		assertThat("Decoded message is same as input", msg.isSameAs(tcp), is(equalTo(true)));
+		assertThat("Decoded message tracked for response", messages.get(1), is(sameInstance(msg)));
+	}
+
+	@Test
+	public void response_in_recyclesPooledRequest() {
+		// GIVEN
+		EmbeddedChannel channel = new EmbeddedChannel(new TcpModbusMessageDecoder(true, messages));
+
+		// make pooled request available
+		RegistersModbusMessage reqBody = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		TcpModbusMessage req = TcpModbusMessage.newInstance(System.currentTimeMillis(), 1, reqBody);
+		messages.put(req.getTransactionId(), req);
+
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 1, 2, 3 });
+		TcpModbusMessage tcp = new TcpModbusMessage(1, res);
+		ByteBuf buf = Unpooled.buffer(tcp.payloadLength());
+		tcp.encodeModbusPayload(buf);
+
+		// WHEN
+		channel.writeInbound(buf);
+
+		// THEN
+		ModbusMessageReply reply = channel.readInbound();
+		assertThat("Message decoded", reply, is(notNullValue()));
+		assertThat("Reply paired with request body", reply.getRequest(),
+				is(sameInstance(reqBody)));
+		assertThat("Request removed from table", messages.isEmpty(), is(equalTo(true)));
+		assertThat("Pooled request recycled by decoder", req.getBody(), is(nullValue()));
+	}
+
 	@Test
 	public void response_in_parts() {
 		// GIVEN
@@ -26,9 +26,12 @@ import static net.solarnetwork.io.modbus.test.support.ModbusTestUtils.byteObject
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -41,7 +44,6 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import net.solarnetwork.io.modbus.ModbusFunctionCodes;
 import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
 import net.solarnetwork.io.modbus.netty.msg.SimpleModbusMessageReply;
-import net.solarnetwork.io.modbus.tcp.SimpleTransactionIdSupplier;
 import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
 import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageEncoder;
 
@@ -49,7 +51,7 @@ import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessageEncoder;
  * Test cases for the {@link TcpModbusMessageEncoder} class.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class TcpModbusMessageEncoderTests {
 
@@ -94,8 +96,8 @@ public class TcpModbusMessageEncoderTests {
 		assertThat("Bytes produced", buf, is(notNullValue()));
 
 		// @formatter:off
-		int txId = SimpleTransactionIdSupplier.INSTANCE.nextId() - 1;
-		assertThat("Message encoded using default ID supplier", byteObjectArray(ByteBufUtil.getBytes(buf)), arrayContaining(
+		int txId = 1;
+		assertThat("Message encoded using default per-channel ID allocator", byteObjectArray(ByteBufUtil.getBytes(buf)), arrayContaining(
 				byteObjectArray(new byte[] {
 						(byte)(txId >>> 8 & 0xFF),
 						(byte)(txId & 0xFF),
@@ -113,6 +115,24 @@ public class TcpModbusMessageEncoderTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void construct_defaultIdSupplier_skipInFlight() {
+		// GIVEN
+		messages.put(1, new TcpModbusMessage(1, RegistersModbusMessage.readHoldingsRequest(1, 2, 3)));
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		EmbeddedChannel ch = new EmbeddedChannel(new TcpModbusMessageEncoder(messages));
+
+		// WHEN
+		ch.writeOutbound(msg);
+
+		// THEN
+		ByteBuf buf = ch.readOutbound();
+		assertThat("Bytes produced", buf, is(notNullValue()));
+		assertThat("In-flight transaction ID 1 skipped", buf.getUnsignedShort(0), is(equalTo(2)));
+		assertThat("Request added to pending messages", messages.keySet(),
+				containsInAnyOrder(1, 2));
+	}
+
 	@Test
 	public void request_out() {
 		// GIVEN
@@ -196,7 +216,55 @@ public class TcpModbusMessageEncoderTests {
 				})));
 		// @formatter:on
 
+		assertThat("Frame encoded into single buffer", channel.outboundMessages().isEmpty(),
+				is(equalTo(true)));
+		assertThat("Pending request message has been removed from buffer", messages, is(anEmptyMap()));
+	}
+
+	@Test
+	public void request_out_pooled() {
+		// GIVEN
+		TcpModbusMessageEncoder encoder = new TcpModbusMessageEncoder(messages,
+				ID_SUPPLIER::incrementAndGet);
+		encoder.setPooledMessages(true);
+		EmbeddedChannel ch = new EmbeddedChannel(encoder);
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		ch.writeOutbound(msg);
+
+		// THEN
+		ByteBuf buf = ch.readOutbound();
+		assertThat("Bytes produced", buf, is(notNullValue()));
+		TcpModbusMessage tcp = messages.get(ID_SUPPLIER.get());
+		assertThat("Request added to pending messages", tcp, is(notNullValue()));
+		assertThat("Request wraps message", tcp.getBody(), is(sameInstance(msg)));
+	}
+
+	@Test
+	public void response_out_pooled() {
+		// GIVEN
+		RegistersModbusMessage req = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		final int txId = ID_SUPPLIER.incrementAndGet();
+		final TcpModbusMessage tcpReq = TcpModbusMessage.newInstance(System.currentTimeMillis(),
+				txId, req);
+		messages.put(txId, tcpReq);
+
+		RegistersModbusMessage res = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 0x1234 });
+		SimpleModbusMessageReply reply = SimpleModbusMessageReply.newInstance(tcpReq, res);
+
+		// WHEN
+		channel.writeOutbound(reply);
+
+		// THEN
+		ByteBuf buf = channel.readOutbound();
+		assertThat("Bytes produced", buf, is(notNullValue()));
+		assertThat("Frame encoded for request transaction", buf.getUnsignedShort(0),
+				is(equalTo(txId)));
 		assertThat("Pending request message has been removed from buffer", messages, is(anEmptyMap()));
+		assertThat("Reply recycled by encoder", reply.getReply(), is(nullValue()));
+		assertThat("Request recycled by encoder", tcpReq.getBody(), is(nullValue()));
 	}
 
 	@Test
@@ -54,7 +54,7 @@ import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
  * Test cases for the {@link TcpModbusMessage} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpModbusMessageTests {
 
@@ -191,6 +191,84 @@ public class TcpModbusMessageTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void encode_static() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsResponse(1, 2,
+				new short[] { 0x1234 });
+
+		// WHEN
+		ByteBuf buf = Unpooled.buffer();
+		TcpModbusMessage.encodeModbusPayload(5, msg, buf);
+
+		// THEN
+		assertThat("Frame length", TcpModbusMessage.payloadLength(msg),
+				is(equalTo(buf.readableBytes())));
+		// @formatter:off
+		assertThat("Frame encoded in one pass", byteObjectArray(ByteBufUtil.getBytes(buf)), arrayContaining(
+				byteObjectArray(new byte[] {
+						(byte)0x00,
+						(byte)0x05,
+						(byte)0x00,
+						(byte)0x00,
+						(byte)0x00,
+						(byte)0x05,
+						(byte)0x01,
+						ModbusFunctionCodes.READ_HOLDING_REGISTERS,
+						(byte)0x02,
+						(byte)0x12,
+						(byte)0x34,
+				})));
+		// @formatter:on
+	}
+
+	@Test
+	public void newInstance() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+
+		// WHEN
+		TcpModbusMessage tcp = TcpModbusMessage.newInstance(123L, 4, msg);
+
+		// THEN
+		assertThat("Timestamp saved", tcp.getTimestamp(), is(equalTo(123L)));
+		assertThat("Transaction ID saved", tcp.getTransactionId(), is(equalTo(4)));
+		assertThat("Body saved", tcp.getBody(), is(sameInstance(msg)));
+	}
+
+	@Test
+	public void newInstance_nullBody() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			TcpModbusMessage.newInstance(123L, 4, null);
+		}, "Null body not allowed");
+	}
+
+	@Test
+	public void recycle() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		TcpModbusMessage tcp = TcpModbusMessage.newInstance(123L, 4, msg);
+
+		// WHEN
+		tcp.recycle();
+
+		// THEN
+		assertThat("Body released", tcp.getBody(), is(nullValue()));
+	}
+
+	@Test
+	public void recycle_notPooled() {
+		// GIVEN
+		RegistersModbusMessage msg = RegistersModbusMessage.readHoldingsRequest(1, 2, 3);
+		TcpModbusMessage tcp = new TcpModbusMessage(4, msg);
+
+		// WHEN
+		tcp.recycle();
+
+		// THEN
+		assertThat("Body unchanged", tcp.getBody(), is(sameInstance(msg)));
+	}
+
 	@Test
 	public void unwrap() {
 		// GIVEN
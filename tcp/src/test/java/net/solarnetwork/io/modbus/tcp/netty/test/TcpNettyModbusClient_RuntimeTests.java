@@ -0,0 +1,152 @@
+/* ==================================================================
+ * TcpNettyModbusClient_RuntimeTests.java - 17/10/2026 4:02:51 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.netty.buffer.ByteBufAllocator;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.handler.ModbusRuntime;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusServer;
+import net.solarnetwork.io.modbus.tcp.netty.TcpNettyModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
+
+/**
+ * Test cases for {@link TcpNettyModbusClient} instances sharing a
+ * {@link ModbusRuntime}.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpNettyModbusClient_RuntimeTests {
+
+	private static final Logger log = LoggerFactory.getLogger(TcpNettyModbusClient_RuntimeTests.class);
+
+	private static final int IO_THREADS = 2;
+	private static final int CLIENT_COUNT = 200;
+
+	private ModbusRuntime runtime;
+	private NettyTcpModbusServer server;
+	private List<TcpNettyModbusClient> clients;
+
+	@BeforeEach
+	public void setup() {
+		runtime = new ModbusRuntime(IO_THREADS, ByteBufAllocator.DEFAULT);
+		server = new NettyTcpModbusServer(TcpTestUtils.freePort());
+		server.setRuntime(runtime);
+		server.setMessageHandler((msg, sender) -> {
+			net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+					.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+			sender.accept(RegistersModbusMessage.readHoldingsResponse(msg.getUnitId(),
+					reg.getAddress(), new short[] { 1 }));
+		});
+		clients = new ArrayList<>(CLIENT_COUNT);
+	}
+
+	@AfterEach
+	public void teardown() {
+		for ( TcpNettyModbusClient client : clients ) {
+			client.stop();
+		}
+		if ( server != null ) {
+			server.stop();
+		}
+	}
+
+	private static long usedHeap(MemoryMXBean mem) {
+		for ( int i = 0; i < 3; i++ ) {
+			System.gc();
+		}
+		return mem.getHeapMemoryUsage().getUsed();
+	}
+
+	@Test
+	public void manyClients_sharedRuntime() throws Exception {
+		// GIVEN
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+		final int threadsBefore = threads.getThreadCount();
+		server.start();
+
+		final long heapBefore = usedHeap(mem);
+
+		// WHEN
+		for ( int i = 0; i < CLIENT_COUNT; i++ ) {
+			TcpNettyModbusClient client = new TcpNettyModbusClient(
+					new NettyTcpModbusClientConfig("127.0.0.1", server.getPort()), runtime);
+			clients.add(client);
+			client.start().get(10, TimeUnit.SECONDS);
+		}
+		for ( TcpNettyModbusClient client : clients ) {
+			ModbusMessage res = client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 0, 1))
+					.get(10, TimeUnit.SECONDS);
+			assertThat("Response received", res, is(notNullValue()));
+		}
+
+		final long heapAfter = usedHeap(mem);
+		final int threadsDuring = threads.getThreadCount();
+		log.info("{} idle clients on shared runtime: thread delta {}, heap per client ~{} bytes",
+				CLIENT_COUNT, threadsDuring - threadsBefore,
+				Math.max(0, heapAfter - heapBefore) / CLIENT_COUNT);
+
+		// THEN
+		// I/O threads, plus the shared timer and scheduler, independent of client count
+		assertThat("Thread count bounded by runtime, not client count",
+				threadsDuring - threadsBefore, is(lessThanOrEqualTo(IO_THREADS + 2)));
+		assertThat("Runtime retained by server and all clients", runtime.refCnt(),
+				is(equalTo(CLIENT_COUNT + 1)));
+
+		// WHEN
+		for ( TcpNettyModbusClient client : clients ) {
+			client.stop().get(10, TimeUnit.SECONDS);
+		}
+		clients.clear();
+		server.stop();
+		server = null;
+
+		// THEN
+		assertThat("Runtime released by all users", runtime.refCnt(), is(equalTo(0)));
+		for ( int i = 0; i < 50 && threads.getThreadCount() > threadsBefore; i++ ) {
+			Thread.sleep(100);
+		}
+		assertThat("Runtime threads stopped", threads.getThreadCount(),
+				is(lessThanOrEqualTo(threadsBefore)));
+	}
+
+}
@@ -38,9 +38,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -68,7 +72,7 @@ import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
  * Test cases for the {@link TcpNettyModbusClient} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class TcpNettyModbusClient_ServerTests {
 
@@ -459,4 +463,120 @@ public class TcpNettyModbusClient_ServerTests {
 		assertThat("Second event is 'disconnected'", connectionEvents.get(1).connected, is(false));
 	}
 
+	private void echoAddressHandler() {
+		server.setMessageHandler((msg, sender) -> {
+			net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+					.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+			sender.accept(RegistersModbusMessage.readHoldingsResponse(msg.getUnitId(),
+					reg.getAddress(), new short[] { (short) reg.getAddress() }));
+		});
+	}
+
+	@Test
+	public void send_manyThreads() throws Exception {
+		// GIVEN
+		echoAddressHandler();
+		server.start();
+		client.start().get(10, TimeUnit.SECONDS);
+
+		final int threadCount = 16;
+		final int requestCount = 50;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final CountDownLatch go = new CountDownLatch(1);
+		final List<Future<List<CompletableFuture<ModbusMessage>>>> results = new ArrayList<>();
+
+		// WHEN
+		try {
+			for ( int t = 0; t < threadCount; t++ ) {
+				final int base = t * requestCount;
+				results.add(executor.submit(() -> {
+					go.await();
+					List<CompletableFuture<ModbusMessage>> futures = new ArrayList<>(requestCount);
+					for ( int i = 0; i < requestCount; i++ ) {
+						futures.add(client
+								.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, base + i, 1)));
+					}
+					return futures;
+				}));
+			}
+			go.countDown();
+
+			// THEN
+			for ( int t = 0; t < threadCount; t++ ) {
+				List<CompletableFuture<ModbusMessage>> futures = results.get(t).get(10,
+						TimeUnit.SECONDS);
+				for ( int i = 0; i < requestCount; i++ ) {
+					ModbusMessage res = futures.get(i).get(10, TimeUnit.SECONDS);
+					int addr = t * requestCount + i;
+					assertThat("Response matches request", res
+							.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class)
+							.getAddress(), is(equalTo(addr)));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat("Nothing pending", pending.keySet(), hasSize(0));
+		assertThat("Nothing queued", client.getQueuedCount(), is(equalTo(0)));
+	}
+
+	@Test
+	public void sendAllAsync() throws Exception {
+		// GIVEN
+		echoAddressHandler();
+		server.start();
+		client.start().get(10, TimeUnit.SECONDS);
+
+		List<ModbusMessage> reqs = new ArrayList<>();
+		for ( int i = 0; i < 10; i++ ) {
+			reqs.add(RegistersModbusMessage.readHoldingsRequest(1, i, 1));
+		}
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> futures = client.sendAllAsync(reqs);
+
+		// THEN
+		assertThat("Future returned for each request", futures, hasSize(reqs.size()));
+		for ( int i = 0; i < reqs.size(); i++ ) {
+			ModbusMessage res = futures.get(i).get(10, TimeUnit.SECONDS);
+			assertThat("Response in request order",
+					res.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class).getAddress(),
+					is(equalTo(i)));
+		}
+	}
+
+	@Test
+	public void send_pooled() throws Exception {
+		// GIVEN
+		echoAddressHandler();
+		server.setPooledMessages(true);
+		server.start();
+		NettyTcpModbusClientConfig config = new NettyTcpModbusClientConfig("127.0.0.1",
+				server.getPort());
+		config.setPooledMessages(true);
+		client = new TcpNettyModbusClient(config, pending, pendingMessages,
+				idSupplier::incrementAndGet);
+		client.start().get(10, TimeUnit.SECONDS);
+
+		final int requestCount = 500;
+		List<ModbusMessage> reqs = new ArrayList<>(requestCount);
+		for ( int i = 0; i < requestCount; i++ ) {
+			reqs.add(RegistersModbusMessage.readHoldingsRequest(1, i, 1));
+		}
+
+		// WHEN
+		List<CompletableFuture<ModbusMessage>> futures = client.sendAllAsync(reqs);
+
+		// THEN
+		for ( int i = 0; i < requestCount; i++ ) {
+			ModbusMessage res = futures.get(i).get(10, TimeUnit.SECONDS);
+			assertThat("Response matches request",
+					res.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class).getAddress(),
+					is(equalTo(i)));
+		}
+		assertThat("Nothing pending", pending.keySet(), hasSize(0));
+		assertThat("No client transactions pending", pendingMessages.keySet(), hasSize(0));
+		assertThat("No server transactions pending", serverPendingMessages.keySet(), hasSize(0));
+	}
+
 }
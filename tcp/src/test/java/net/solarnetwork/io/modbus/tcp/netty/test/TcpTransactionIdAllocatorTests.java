@@ -0,0 +1,200 @@
+/* ==================================================================
+ * TcpTransactionIdAllocatorTests.java - 17/10/2026 11:48:37 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.ArrayTcpTransactionTable;
+import net.solarnetwork.io.modbus.tcp.netty.TcpModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.TcpTransactionIdAllocator;
+
+/**
+ * Test cases for the {@link TcpTransactionIdAllocator} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpTransactionIdAllocatorTests {
+
+	private ArrayTcpTransactionTable table;
+
+	@BeforeEach
+	public void setup() {
+		table = new ArrayTcpTransactionTable();
+	}
+
+	private static TcpModbusMessage msg(long timestamp, int transactionId) {
+		return new TcpModbusMessage(timestamp, transactionId,
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+	}
+
+	@Test
+	public void construct_nullTable() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TcpTransactionIdAllocator(null);
+		}, "Table is required");
+	}
+
+	@Test
+	public void sequential() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table);
+
+		// THEN
+		for ( int i = 1; i <= 10; i++ ) {
+			assertThat("Sequential ID allocated", alloc.getAsInt(), is(equalTo(i)));
+		}
+		assertThat("Next ID", alloc.nextId(), is(equalTo(11)));
+	}
+
+	@Test
+	public void skipInFlight() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table);
+		final long now = System.currentTimeMillis();
+		table.put(2, msg(now, 2));
+		table.put(3, msg(now, 3));
+
+		// THEN
+		assertThat("First ID available", alloc.getAsInt(), is(equalTo(1)));
+		assertThat("In-flight IDs skipped", alloc.getAsInt(), is(equalTo(4)));
+		assertThat("Sequence continues", alloc.getAsInt(), is(equalTo(5)));
+	}
+
+	@Test
+	public void wrap() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table);
+		for ( int i = 1; i < TcpModbusMessage.MAX_TRANSACTION_ID; i++ ) {
+			alloc.getAsInt();
+		}
+		table.put(1, msg(System.currentTimeMillis(), 1));
+
+		// THEN
+		assertThat("Max ID allocated", alloc.getAsInt(),
+				is(equalTo(TcpModbusMessage.MAX_TRANSACTION_ID)));
+		assertThat("Wrapped to first free ID, skipping 0 and in-flight 1", alloc.getAsInt(),
+				is(equalTo(2)));
+	}
+
+	@Test
+	public void staleReused() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table, 1000L);
+		final long now = System.currentTimeMillis();
+		table.put(1, msg(now - 2000L, 1));
+		table.put(2, msg(now, 2));
+
+		// THEN
+		assertThat("Stale in-flight ID reused", alloc.getAsInt(), is(equalTo(1)));
+		assertThat("Fresh in-flight ID skipped", alloc.getAsInt(), is(equalTo(3)));
+	}
+
+	@Test
+	public void allInFlight() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table);
+		final long now = System.currentTimeMillis();
+		for ( int i = 1; i <= TcpModbusMessage.MAX_TRANSACTION_ID; i++ ) {
+			table.put(i, msg(now, i));
+		}
+
+		// THEN
+		assertThat("Sequential ID returned when all in flight", alloc.getAsInt(), is(equalTo(1)));
+		assertThat("Sequence continues when all in flight", alloc.getAsInt(), is(equalTo(2)));
+	}
+
+	@Test
+	public void construct_nullPending() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TcpTransactionIdAllocator(table, (java.util.function.Predicate<ModbusMessage>) null);
+		}, "Pending test is required");
+	}
+
+	@Test
+	public void completedReused() {
+		// GIVEN
+		final Set<ModbusMessage> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table, pending::contains);
+		final long now = System.currentTimeMillis();
+		final TcpModbusMessage timedOut = TcpModbusMessage.newInstance(now, 1,
+				RegistersModbusMessage.readHoldingsRequest(1, 2, 3));
+		final TcpModbusMessage waiting = msg(now, 2);
+		table.put(1, timedOut);
+		table.put(2, waiting);
+		pending.add(waiting.getBody());
+
+		// WHEN
+		final int id1 = alloc.getAsInt();
+		final int id2 = alloc.getAsInt();
+
+		// THEN
+		assertThat("ID of request no longer pending reused", id1, is(equalTo(1)));
+		assertThat("Stale entry removed from table", table.get(1), is(nullValue()));
+		assertThat("Stale entry recycled by allocator", timedOut.getBody(), is(nullValue()));
+		assertThat("ID of pending request skipped", id2, is(equalTo(3)));
+		assertThat("Pending entry kept", table.get(2), is(sameInstance(waiting)));
+	}
+
+	@Test
+	public void pendingNeverStaleByAge() {
+		// GIVEN
+		final Set<ModbusMessage> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table, pending::contains);
+		final TcpModbusMessage old = msg(System.currentTimeMillis() - 3_600_000L, 1);
+		table.put(1, old);
+		pending.add(old.getBody());
+
+		// THEN
+		assertThat("Old request with a long timeout keeps its ID", alloc.getAsInt(),
+				is(equalTo(2)));
+		assertThat("Pending entry kept", table.get(1), is(sameInstance(old)));
+	}
+
+	@Test
+	public void staleRemoved() {
+		// GIVEN
+		TcpTransactionIdAllocator alloc = new TcpTransactionIdAllocator(table, 1000L);
+		table.put(1, msg(System.currentTimeMillis() - 2000L, 1));
+
+		// WHEN
+		int id = alloc.getAsInt();
+
+		// THEN
+		assertThat("Stale ID reused", id, is(equalTo(1)));
+		assertThat("Stale entry removed so the encoder does not see a collision", table.get(1),
+				is(nullValue()));
+	}
+
+}
@@ -0,0 +1,125 @@
+/* ==================================================================
+ * TcpTransportTests.java - 17/10/2026 5:04:37 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.io.modbus.tcp.netty.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import net.solarnetwork.io.modbus.ModbusMessage;
+import net.solarnetwork.io.modbus.netty.msg.RegistersModbusMessage;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusClientConfig;
+import net.solarnetwork.io.modbus.tcp.netty.NettyTcpModbusServer;
+import net.solarnetwork.io.modbus.tcp.netty.TcpNettyModbusClient;
+import net.solarnetwork.io.modbus.tcp.netty.TcpTransport;
+import net.solarnetwork.io.modbus.tcp.netty.test.support.TcpTestUtils;
+
+/**
+ * Test cases for the {@link TcpTransport} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class TcpTransportTests {
+
+	@Test
+	public void nio() {
+		assertThat("NIO always available", TcpTransport.NIO.isAvailable(), is(equalTo(true)));
+		assertThat("NIO client channel", TcpTransport.NIO.socketChannelClass(),
+				is(equalTo(NioSocketChannel.class)));
+		assertThat("NIO server channel", TcpTransport.NIO.serverSocketChannelClass(),
+				is(equalTo(NioServerSocketChannel.class)));
+	}
+
+	@Test
+	public void auto() {
+		// WHEN
+		TcpTransport t = TcpTransport.auto();
+
+		// THEN
+		assertThat("Transport provided", t, is(notNullValue()));
+		assertThat("Transport available", t.isAvailable(), is(equalTo(true)));
+		for ( TcpTransport other : TcpTransport.values() ) {
+			if ( other == t ) {
+				break;
+			}
+			assertThat("Preferred transport " + other + " not available", other.isAvailable(),
+					is(equalTo(false)));
+		}
+	}
+
+	@Test
+	public void client_nullTransport() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new TcpNettyModbusClient(new NettyTcpModbusClientConfig("localhost", 502),
+					(TcpTransport) null);
+		}, "Null transport not allowed");
+	}
+
+	@Test
+	public void client_defaultTransport() {
+		// WHEN
+		TcpNettyModbusClient c = new TcpNettyModbusClient(
+				new NettyTcpModbusClientConfig("localhost", 502));
+
+		// THEN
+		assertThat("Default transport is best available", c.getTransport(),
+				is(equalTo(TcpTransport.auto())));
+		c.stop();
+	}
+
+	@Test
+	public void send_recv_auto() throws Exception {
+		// GIVEN
+		final TcpTransport transport = TcpTransport.auto();
+		NettyTcpModbusServer server = new NettyTcpModbusServer(TcpTestUtils.freePort(), transport);
+		server.setMessageHandler((msg, sender) -> {
+			net.solarnetwork.io.modbus.RegistersModbusMessage reg = msg
+					.unwrap(net.solarnetwork.io.modbus.RegistersModbusMessage.class);
+			sender.accept(RegistersModbusMessage.readHoldingsResponse(msg.getUnitId(),
+					reg.getAddress(), new short[] { 1 }));
+		});
+		TcpNettyModbusClient client = new TcpNettyModbusClient(
+				new NettyTcpModbusClientConfig("127.0.0.1", server.getPort()), transport);
+		try {
+			server.start();
+			client.start().get(10, TimeUnit.SECONDS);
+
+			// WHEN
+			ModbusMessage res = client.sendAsync(RegistersModbusMessage.readHoldingsRequest(1, 0, 1))
+					.get(10, TimeUnit.SECONDS);
+
+			// THEN
+			assertThat("Response received over " + transport, res, is(notNullValue()));
+		} finally {
+			client.stop();
+			server.stop();
+		}
+	}
+
+}
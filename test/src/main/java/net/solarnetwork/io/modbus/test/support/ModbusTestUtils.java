@@ -24,6 +24,8 @@ package net.solarnetwork.io.modbus.test.support;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -34,7 +36,7 @@ import java.util.regex.Pattern;
  * Utilities to aid with testing.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public final class ModbusTestUtils {
 
@@ -98,4 +100,41 @@ public final class ModbusTestUtils {
 		return result;
 	}
 
+	/**
+	 * Get the number of heap bytes allocated by the current thread while
+	 * running a task a number of times.
+	 *
+	 * <p>
+	 * The task is first run {@code count} times without measuring, to give the
+	 * JVM a chance to compile it.
+	 * </p>
+	 *
+	 * @param task
+	 *        the task to run
+	 * @param count
+	 *        the number of times to run the task
+	 * @return the number of bytes allocated, or {@literal -1} if the JVM does
+	 *         not support measuring thread allocation
+	 * @since 1.1
+	 */
+	public static long threadAllocatedBytes(Runnable task, int count) {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( !(bean instanceof com.sun.management.ThreadMXBean) ) {
+			return -1;
+		}
+		final com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+		if ( !mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled() ) {
+			return -1;
+		}
+		final long threadId = Thread.currentThread().getId();
+		for ( int i = 0; i < count; i++ ) {
+			task.run();
+		}
+		final long start = mx.getThreadAllocatedBytes(threadId);
+		for ( int i = 0; i < count; i++ ) {
+			task.run();
+		}
+		return mx.getThreadAllocatedBytes(threadId) - start;
+	}
+
 }